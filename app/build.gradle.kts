@@ -27,10 +27,24 @@ android {
             )
         }
     }
+    buildFeatures {
+        // BuildConfig.DEBUG gates per-item debug logging
+        buildConfig = true
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // android.util.Log etc. are no-ops in local JVM tests
+        unitTests.isReturnDefaultValues = true
+        // Benchmarks are skipped unless asked for, e.g. ./gradlew test -Dbenchmarks=true
+        unitTests.all {
+            listOf("benchmarks", "feedStress.large", "basketBenchmark.large").forEach { name ->
+                System.getProperty(name)?.let { value -> it.systemProperty(name, value) }
+            }
+        }
+    }
 }
 
 dependencies {
@@ -38,7 +52,10 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
     testImplementation(libs.junit)
+    // Real XmlPullParser implementation for local JVM tests
+    testImplementation(libs.kxml2)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
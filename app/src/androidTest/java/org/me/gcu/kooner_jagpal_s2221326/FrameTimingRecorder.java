@@ -0,0 +1,86 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects per-frame UI-thread time from FrameMetrics for the benchmarks.
+ * UI-thread time is input + animation + layout/measure + draw.
+ */
+class FrameTimingRecorder implements Window.OnFrameMetricsAvailableListener {
+
+    // A frame slower than this misses a 60 Hz vsync
+    static final long JANK_NANOS = 16_666_667L;
+
+    private final HandlerThread thread = new HandlerThread("frame-metrics");
+    private long[] uiNanos = new long[256];
+    private long[] totalNanos = new long[256];
+    private int frames;
+
+    /**
+     * Starts listening on the window. Call on the main thread.
+     */
+    void start(Window window) {
+        thread.start();
+        window.addOnFrameMetricsAvailableListener(this, new Handler(thread.getLooper()));
+    }
+
+    /**
+     * Stops listening. Call on the main thread, a little after the last
+     * frame of interest, since metrics arrive asynchronously.
+     */
+    void stop(Window window) {
+        window.removeOnFrameMetricsAvailableListener(this);
+        thread.quitSafely();
+    }
+
+    @Override
+    public synchronized void onFrameMetricsAvailable(Window window, FrameMetrics metrics, int dropCount) {
+        if (frames == uiNanos.length) {
+            uiNanos = Arrays.copyOf(uiNanos, frames * 2);
+            totalNanos = Arrays.copyOf(totalNanos, frames * 2);
+        }
+        uiNanos[frames] = metrics.getMetric(FrameMetrics.INPUT_HANDLING_DURATION)
+                + metrics.getMetric(FrameMetrics.ANIMATION_DURATION)
+                + metrics.getMetric(FrameMetrics.LAYOUT_MEASURE_DURATION)
+                + metrics.getMetric(FrameMetrics.DRAW_DURATION);
+        totalNanos[frames] = metrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        frames++;
+    }
+
+    synchronized int frameCount() {
+        return frames;
+    }
+
+    synchronized int jankyFrames() {
+        int janky = 0;
+        for (int i = 0; i < frames; i++) {
+            if (totalNanos[i] > JANK_NANOS) {
+                janky++;
+            }
+        }
+        return janky;
+    }
+
+    /**
+     * One-line summary: frame count, UI-thread median/p90/total, janky frames.
+     */
+    synchronized String summary() {
+        long[] sorted = Arrays.copyOf(uiNanos, frames);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long f : sorted) {
+            total += f;
+        }
+        double medianMs = frames == 0 ? 0 : sorted[frames / 2] / 1e6;
+        double p90Ms = frames == 0 ? 0 : sorted[(int) (frames * 0.9)] / 1e6;
+        return String.format(Locale.ROOT,
+                "%d frames, UI thread median %.2f ms, p90 %.2f ms, total %.1f ms, %d janky",
+                frames, medianMs, p90Ms, total / 1e6, jankyFrames());
+    }
+}
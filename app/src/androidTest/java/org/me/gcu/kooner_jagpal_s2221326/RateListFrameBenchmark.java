@@ -0,0 +1,167 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.app.Activity;
+import android.util.Log;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Frame-timing benchmark for refreshing a 170-row rate list, with the
+ * background diff against a full notifyDataSetChanged() rebind.
+ *
+ * Each refresh changes 10 rates. UI-thread time per frame comes from
+ * FrameMetrics; results are logged with the "[bench]" prefix.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RateListFrameBenchmark {
+
+    private static final String TAG = "RateListFrameBenchmark";
+    private static final int ROWS = 170;
+    private static final int REFRESHES = 30;
+    private static final int CHANGED_PER_REFRESH = 10;
+
+    @Test
+    public void diffedRefresh_rebindsFewerRowsThanFullRebind() throws Exception {
+        Result full = run(false);
+        Result diffed = run(true);
+
+        report("full rebind", full);
+        report("background diff", diffed);
+
+        assertEquals(REFRESHES * ROWS, full.rowsInvalidated);
+        assertEquals(REFRESHES * CHANGED_PER_REFRESH, diffed.rowsInvalidated);
+    }
+
+    // -------- benchmark run --------
+
+    private static final class Result {
+        final FrameTimingRecorder frames = new FrameTimingRecorder();
+        int rowsInvalidated;
+    }
+
+    private Result run(final boolean diffing) throws Exception {
+        final Result result = new Result();
+        final Random random = new Random(42);
+        final RateTable[] tables = new RateTable[REFRESHES + 1];
+        ArrayList<CurrencyRate> rates = SampleRates.rates(ROWS, random);
+        tables[0] = RateTable.fromRates(rates);
+        for (int i = 1; i <= REFRESHES; i++) {
+            rates = withChangedRates(rates, random);
+            tables[i] = RateTable.fromRates(rates);
+        }
+
+        final CurrencyRateAdapter[] adapter = new CurrencyRateAdapter[1];
+        final CountDownLatch[] applied = new CountDownLatch[1];
+
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    // A bare list, so the activity's own refreshes cannot interfere
+                    RecyclerView recycler = new RecyclerView(activity);
+                    recycler.setLayoutManager(new LinearLayoutManager(activity));
+                    adapter[0] = new CurrencyRateAdapter(activity);
+                    adapter[0].setDiffingEnabled(diffing);
+                    recycler.setAdapter(adapter[0]);
+                    activity.setContentView(recycler);
+                    adapter[0].setRows(tables[0], tables[0].allRows());
+
+                    adapter[0].registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                        @Override
+                        public void onChanged() {
+                            result.rowsInvalidated += adapter[0].getItemCount();
+                            applied[0].countDown();
+                        }
+
+                        @Override
+                        public void onItemRangeChanged(int positionStart, int itemCount) {
+                            result.rowsInvalidated += itemCount;
+                            applied[0].countDown();
+                        }
+
+                        @Override
+                        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                            onItemRangeChanged(positionStart, itemCount);
+                        }
+                    });
+                }
+            });
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+            final Activity[] activity = new Activity[1];
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity a) {
+                    activity[0] = a;
+                    result.frames.start(a.getWindow());
+                }
+            });
+
+            for (int i = 1; i <= REFRESHES; i++) {
+                final RateTable table = tables[i];
+                applied[0] = new CountDownLatch(1);
+                InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                    @Override
+                    public void run() {
+                        adapter[0].setRows(table, table.allRows());
+                    }
+                });
+                assertTrue("refresh " + i + " never applied", applied[0].await(2, TimeUnit.SECONDS));
+                InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+                Thread.sleep(50); // let the frame for this refresh be drawn
+            }
+
+            Thread.sleep(500); // frame metrics arrive asynchronously
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    result.frames.stop(activity[0].getWindow());
+                }
+            });
+        }
+        return result;
+    }
+
+    // -------- data --------
+
+    private static ArrayList<CurrencyRate> withChangedRates(ArrayList<CurrencyRate> previous, Random random) {
+        ArrayList<CurrencyRate> next = new ArrayList<>();
+        for (CurrencyRate old : previous) {
+            CurrencyRate rate = new CurrencyRate();
+            rate.setTargetCode(old.getTargetCode());
+            rate.setCurrencyName(old.getCurrencyName());
+            rate.setRate(old.getRate());
+            next.add(rate);
+        }
+        int changed = 0;
+        boolean[] picked = new boolean[next.size()];
+        while (changed < CHANGED_PER_REFRESH) {
+            int row = random.nextInt(next.size());
+            if (!picked[row]) {
+                picked[row] = true;
+                next.get(row).setRate(next.get(row).getRate() * (1 + (random.nextDouble() - 0.5) / 100));
+                changed++;
+            }
+        }
+        return next;
+    }
+
+    private static void report(String name, Result result) {
+        Log.i(TAG, "[bench] " + name + ": " + result.frames.summary()
+                + ", " + result.rowsInvalidated + " rows rebound");
+    }
+}
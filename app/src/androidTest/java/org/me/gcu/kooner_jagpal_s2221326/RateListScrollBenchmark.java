@@ -0,0 +1,200 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bind cost and scroll jank for a 170-row rate list.
+ *
+ * The bind test times the adapter's cached bind path against the old
+ * getView() body (findViewById, getIdentifier, String.format and
+ * Color.parseColor on every bind), kept here as LegacyBind. The scroll
+ * test flings through the list and logs FrameMetrics, with the main-thread
+ * time spent binding flags and the flag decodes that ran meanwhile.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RateListScrollBenchmark {
+
+    private static final String TAG = "RateListScrollBenchmark";
+    private static final int ROWS = 170;
+    private static final int BIND_ROUNDS = 20;
+    private static final int SCROLL_PASSES = 3;
+    private static final int SCROLL_STEP_PX = 60;
+
+    @Test
+    public void bind_cachedPathIsFasterThanLegacyBind() {
+        final RateTable table = RateTable.fromRates(SampleRates.rates(ROWS, new Random(7)));
+        final long[] nanos = new long[2];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+                FrameLayout parent = new FrameLayout(context);
+                CurrencyRateAdapter adapter = new CurrencyRateAdapter(context);
+                adapter.setRows(table, table.allRows());
+                CurrencyRateAdapter.RateViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+
+                // Warm up both paths (class loading, first drawable loads)
+                for (int row = 0; row < ROWS; row++) {
+                    adapter.onBindViewHolder(holder, row);
+                    LegacyBind.bind(context, holder.itemView, table, row);
+                }
+
+                long start = SystemClock.elapsedRealtimeNanos();
+                for (int r = 0; r < BIND_ROUNDS; r++) {
+                    for (int row = 0; row < ROWS; row++) {
+                        LegacyBind.bind(context, holder.itemView, table, row);
+                    }
+                }
+                nanos[0] = SystemClock.elapsedRealtimeNanos() - start;
+
+                start = SystemClock.elapsedRealtimeNanos();
+                for (int r = 0; r < BIND_ROUNDS; r++) {
+                    for (int row = 0; row < ROWS; row++) {
+                        adapter.onBindViewHolder(holder, row);
+                    }
+                }
+                nanos[1] = SystemClock.elapsedRealtimeNanos() - start;
+            }
+        });
+
+        int binds = BIND_ROUNDS * ROWS;
+        Log.i(TAG, String.format(Locale.ROOT, "[bench] legacy bind: %.1f us/bind", nanos[0] / 1e3 / binds));
+        Log.i(TAG, String.format(Locale.ROOT, "[bench] cached bind: %.1f us/bind", nanos[1] / 1e3 / binds));
+        assertTrue(nanos[1] < nanos[0]);
+    }
+
+    @Test
+    public void scroll_170Rows_frameTiming() throws Exception {
+        final RateTable table = RateTable.fromRates(SampleRates.rates(ROWS, new Random(7)));
+        final FrameTimingRecorder frames = new FrameTimingRecorder();
+        final RecyclerView[] recycler = new RecyclerView[1];
+
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    // A bare list, so the activity's own refreshes cannot interfere
+                    recycler[0] = new RecyclerView(activity);
+                    recycler[0].setLayoutManager(new LinearLayoutManager(activity));
+                    CurrencyRateAdapter adapter = new CurrencyRateAdapter(activity);
+                    recycler[0].setAdapter(adapter);
+                    activity.setContentView(recycler[0]);
+                    adapter.setRows(table, table.allRows());
+                }
+            });
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+            final CountDownLatch done = new CountDownLatch(1);
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    Metrics.reset();
+                    frames.start(activity.getWindow());
+                    // One scroll step per frame, down to the end and back, a few times
+                    Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                        private int pass;
+                        private int direction = 1;
+
+                        @Override
+                        public void doFrame(long frameTimeNanos) {
+                            RecyclerView list = recycler[0];
+                            if (!list.canScrollVertically(direction)) {
+                                direction = -direction;
+                                if (direction == 1 && ++pass == SCROLL_PASSES) {
+                                    done.countDown();
+                                    return;
+                                }
+                            }
+                            list.scrollBy(0, direction * SCROLL_STEP_PX);
+                            Choreographer.getInstance().postFrameCallback(this);
+                        }
+                    });
+                }
+            });
+
+            assertTrue("scrolling did not finish", done.await(60, TimeUnit.SECONDS));
+            Thread.sleep(500); // frame metrics arrive asynchronously
+            scenario.onActivity(new ActivityScenario.ActivityAction<MainActivity>() {
+                @Override
+                public void perform(MainActivity activity) {
+                    frames.stop(activity.getWindow());
+                }
+            });
+        }
+
+        Log.i(TAG, "[bench] scroll " + ROWS + " rows x" + SCROLL_PASSES + ": " + frames.summary());
+        Log.i(TAG, String.format(Locale.ROOT,
+                "[bench] flags: %.2f ms main thread over %d binds (p99 %.1f us), %d decodes in %.2f ms off it",
+                Metrics.FLAG_BIND_TIME.getSum() / 1e6, Metrics.FLAG_BIND_TIME.getCount(),
+                Metrics.FLAG_BIND_TIME.getPercentile(99) / 1e3, Metrics.FLAG_DECODES.get(),
+                Metrics.FLAG_DECODE_TIME.getSum() / 1e6));
+        assertTrue(frames.frameCount() > 0);
+        // Each flag is decoded at most once however often its row scrolls past
+        assertTrue(Metrics.FLAG_DECODES.get() <= ROWS);
+    }
+
+    /**
+     * The bind body CurrencyRateAdapter.getView() used to run on every row.
+     */
+    static final class LegacyBind {
+        static void bind(Context context, View rowView, RateTable table, int row) {
+            TextView txtCode = rowView.findViewById(R.id.txtCode);
+            TextView txtName = rowView.findViewById(R.id.txtName);
+            TextView txtValue = rowView.findViewById(R.id.txtValue);
+            ImageView imgFlag = rowView.findViewById(R.id.imgFlag);
+
+            String code = table.code(row);
+            txtCode.setText(code);
+            txtName.setText(table.name(row));
+            txtValue.setText(String.format(Locale.UK, "Rate: %.4f per 1 GBP", table.rate(row)));
+
+            int resId = context.getResources().getIdentifier(
+                    "flag_" + code.toLowerCase(Locale.ROOT), "drawable", context.getPackageName());
+            if (resId != 0) {
+                imgFlag.setImageResource(resId);
+                imgFlag.setVisibility(View.VISIBLE);
+            } else {
+                imgFlag.setImageDrawable(null);
+                imgFlag.setVisibility(View.INVISIBLE);
+            }
+
+            double value = table.rate(row);
+            int bgColor;
+            if (value < 1.0) {
+                bgColor = Color.parseColor("#C8E6C9");
+            } else if (value < 5.0) {
+                bgColor = Color.parseColor("#FFF9C4");
+            } else if (value < 10.0) {
+                bgColor = Color.parseColor("#FFE0B2");
+            } else {
+                bgColor = Color.parseColor("#FFCDD2");
+            }
+            rowView.setBackgroundColor(bgColor);
+        }
+    }
+}
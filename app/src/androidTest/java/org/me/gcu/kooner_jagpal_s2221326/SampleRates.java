@@ -0,0 +1,30 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Synthetic feed data for the list benchmarks: real currency codes (so
+ * flags resolve) with random rates, padded with made-up codes if the
+ * code table is shorter than the list.
+ */
+final class SampleRates {
+
+    private SampleRates() {
+    }
+
+    static ArrayList<CurrencyRate> rates(int count, Random random) {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        for (int id = 0; rates.size() < count; id++) {
+            String code = id < CurrencyCodes.size()
+                    ? CurrencyCodes.code(id)
+                    : "Z" + (char) ('A' + (id / 26) % 26) + (char) ('A' + id % 26);
+            CurrencyRate rate = new CurrencyRate();
+            rate.setTargetCode(code);
+            rate.setCurrencyName(code + " currency");
+            rate.setRate(0.1 + random.nextDouble() * 200);
+            rates.add(rate);
+        }
+        return rates;
+    }
+}
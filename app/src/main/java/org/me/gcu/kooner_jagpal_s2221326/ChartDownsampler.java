@@ -0,0 +1,193 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+/**
+ * Reduces a time series to about one point per pixel for drawing.
+ *
+ * Two methods:
+ * <ul>
+ *   <li>{@link #lttb} (Largest-Triangle-Three-Buckets) keeps actual samples,
+ *       choosing in each bucket the one that makes the largest triangle with
+ *       its neighbours, so the line keeps its visual shape.</li>
+ *   <li>{@link #minMax} keeps the lowest and highest value per pixel column,
+ *       so no spike is lost however many samples share a column.</li>
+ * </ul>
+ * Both are single passes over the input and do not touch the UI.
+ */
+public final class ChartDownsampler {
+
+    private ChartDownsampler() {
+    }
+
+    /**
+     * Points to draw, oldest first. Each point has a low and a high value:
+     * equal for a plain sample, the range of a column for min/max.
+     */
+    public static final class Frame {
+        public static final Frame EMPTY = new Frame(new long[0], new float[0], new float[0], 0);
+
+        private final long[] times;
+        private final float[] lows;
+        private final float[] highs;
+        private final int size;
+
+        Frame(long[] times, float[] lows, float[] highs, int size) {
+            this.times = times;
+            this.lows = lows;
+            this.highs = highs;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Epoch milliseconds.
+         */
+        public long time(int i) {
+            return times[i];
+        }
+
+        public float low(int i) {
+            return lows[i];
+        }
+
+        public float high(int i) {
+            return highs[i];
+        }
+
+        /**
+         * Lowest value in the frame, or NaN if it is empty.
+         */
+        public float min() {
+            float min = Float.NaN;
+            for (int i = 0; i < size; i++) {
+                if (!(lows[i] >= min)) {
+                    min = lows[i];
+                }
+            }
+            return min;
+        }
+
+        /**
+         * Highest value in the frame, or NaN if it is empty.
+         */
+        public float max() {
+            float max = Float.NaN;
+            for (int i = 0; i < size; i++) {
+                if (!(highs[i] <= max)) {
+                    max = highs[i];
+                }
+            }
+            return max;
+        }
+    }
+
+    /**
+     * The samples in [from, to) as they are.
+     */
+    public static Frame raw(long[] times, float[] values, int from, int to) {
+        int n = Math.max(0, to - from);
+        long[] outTimes = new long[n];
+        float[] outValues = new float[n];
+        System.arraycopy(times, from, outTimes, 0, n);
+        System.arraycopy(values, from, outValues, 0, n);
+        return new Frame(outTimes, outValues, outValues, n);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets over the samples in [from, to),
+     * keeping {@code threshold} of them (at least 3), always including the
+     * first and last. Returns the samples as they are if there are no more
+     * than that.
+     */
+    public static Frame lttb(long[] times, float[] values, int from, int to, int threshold) {
+        int n = to - from;
+        if (threshold < 3 || n <= threshold) {
+            return raw(times, values, from, to);
+        }
+
+        long[] outTimes = new long[threshold];
+        float[] outValues = new float[threshold];
+        outTimes[0] = times[from];
+        outValues[0] = values[from];
+        int out = 1;
+
+        // The first and last sample are fixed; the rest split into threshold - 2 buckets
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = from;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = from + 1 + (int) (bucket * every);
+            int end = from + 1 + (int) ((bucket + 1) * every);
+
+            // Average of the next bucket (just the last sample for the final bucket)
+            int nextStart = end;
+            int nextEnd = Math.min(from + 1 + (int) ((bucket + 2) * every), to - 1);
+            if (nextStart >= nextEnd) {
+                nextStart = to - 1;
+                nextEnd = to;
+            }
+            double avgTime = 0;
+            double avgValue = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgTime += times[i] - times[from];
+                avgValue += values[i];
+            }
+            avgTime /= nextEnd - nextStart;
+            avgValue /= nextEnd - nextStart;
+
+            // Times relative to the first sample keep the products small
+            double aTime = times[a] - times[from];
+            double aValue = values[a];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((aTime - avgTime) * (values[i] - aValue)
+                        - (aTime - (times[i] - times[from])) * (avgValue - aValue));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            outTimes[out] = times[chosen];
+            outValues[out] = values[chosen];
+            out++;
+            a = chosen;
+        }
+
+        outTimes[out] = times[to - 1];
+        outValues[out] = values[to - 1];
+        return new Frame(outTimes, outValues, outValues, threshold);
+    }
+
+    /**
+     * Lowest and highest value per column, with {@code columns} columns of
+     * equal time spread over [startMillis, endMillis]. Each input entry is a
+     * range [lows[i], highs[i]] at times[i]; raw samples pass the same array
+     * twice. Empty columns are left out.
+     */
+    public static Frame minMax(long[] times, float[] lows, float[] highs, int from, int to,
+                               long startMillis, long endMillis, int columns) {
+        long[] outTimes = new long[columns];
+        float[] outLows = new float[columns];
+        float[] outHighs = new float[columns];
+        double span = Math.max(1, endMillis - startMillis);
+        int out = -1;
+        int column = -1;
+        for (int i = from; i < to; i++) {
+            int c = (int) ((times[i] - startMillis) * columns / span);
+            c = Math.max(0, Math.min(columns - 1, c));
+            if (c != column) {
+                column = c;
+                out++;
+                outTimes[out] = startMillis + (long) (c * span / columns);
+                outLows[out] = lows[i];
+                outHighs[out] = highs[i];
+            } else {
+                outLows[out] = Math.min(outLows[out], lows[i]);
+                outHighs[out] = Math.max(outHighs[out], highs[i]);
+            }
+        }
+        return new Frame(outTimes, outLows, outHighs, out + 1);
+    }
+}
@@ -2,34 +2,76 @@ package org.me.gcu.kooner_jagpal_s2221326;
 
 import android.os.Bundle;
 import android.text.TextUtils;
+import android.util.Log;
 import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
 import android.widget.EditText;
 import android.widget.RadioButton;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
- * Activity to convert between GBP and a selected currency.
+ * Activity to convert between a selected currency and any other currency
+ * in the feed (GBP by default), using cross rates from CrossRateEngine.
+ * Rates come from RateRepository, the same snapshot MainActivity shows,
+ * and are swapped in when a refresh lands while the converter is open.
+ * Basket mode converts a list such as "100 GBP, 2,000 JPY, 50 EUR" into
+ * the selected currency in one pass, off the UI thread. A chart shows
+ * the target's rate history from RateHistoryStore.
  */
 public class ConverterActivity extends AppCompatActivity {
 
+    private static final String TAG = "ConverterActivity";
+
     private TextView txtHeader;
     private TextView txtRateInfo;
+    private Spinner spinnerFrom;
     private EditText editAmount;
-    private RadioButton rbGbpToForeign;
-    private RadioButton rbForeignToGbp;
+    private RadioButton rbFromToTarget;
+    private RadioButton rbTargetToFrom;
     private Button btnConvert;
     private TextView txtResult;
     private Button btnBack;
+    private CheckBox chkBasketMode;
+    private TextView txtFromLabel;
+    private EditText editBasket;
+    private EditText editAlert;
+    private Button btnAddAlert;
+    private TextView txtChartLabel;
+    private RateChartView chartHistory;
 
     private String targetCode;
     private String currencyName;
-    private double rate; // how many target units for 1 GBP
+
+    private RateRepository repository;
+    private RateRepository.Observer repositoryObserver;
+    private RateTable rateTable = RateTable.EMPTY;
+    private CrossRateEngine engine;
+    private int targetId;
+    private int fromId;
+    private int[] fromIds;
+
+    // Basket mode: parsed and converted on a background thread
+    private static final int MAX_BASKET_LINES_SHOWN = 100;
+    private final ExecutorService basketExecutor = Executors.newSingleThreadExecutor();
+    private int basketGeneration; // only touched on the UI thread
+
+    // History chart: read and pre-aggregated off the UI thread, as are its frames
+    private final ExecutorService chartExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,40 +80,101 @@ public class ConverterActivity extends AppCompatActivity {
 
         txtHeader = (TextView) findViewById(R.id.txtHeader);
         txtRateInfo = (TextView) findViewById(R.id.txtRateInfo);
+        spinnerFrom = (Spinner) findViewById(R.id.spinnerFrom);
         editAmount = (EditText) findViewById(R.id.editAmount);
-        rbGbpToForeign = (RadioButton) findViewById(R.id.rbGbpToForeign);
-        rbForeignToGbp = (RadioButton) findViewById(R.id.rbForeignToGbp);
+        rbFromToTarget = (RadioButton) findViewById(R.id.rbFromToTarget);
+        rbTargetToFrom = (RadioButton) findViewById(R.id.rbTargetToFrom);
         btnConvert = (Button) findViewById(R.id.btnConvert);
         txtResult = (TextView) findViewById(R.id.txtResult);
         btnBack = (Button) findViewById(R.id.btnBack);
+        chkBasketMode = (CheckBox) findViewById(R.id.chkBasketMode);
+        txtFromLabel = (TextView) findViewById(R.id.txtFromLabel);
+        editBasket = (EditText) findViewById(R.id.editBasket);
+        editAlert = (EditText) findViewById(R.id.editAlert);
+        btnAddAlert = (Button) findViewById(R.id.btnAddAlert);
+        txtChartLabel = (TextView) findViewById(R.id.txtChartLabel);
+        chartHistory = (RateChartView) findViewById(R.id.chartHistory);
 
-        // Get data from Intent
+        // The Intent only says which currency; the rates come from the repository
         targetCode = getIntent().getStringExtra("targetCode");
-        currencyName = getIntent().getStringExtra("currencyName");
-        rate = getIntent().getDoubleExtra("rate", 0.0);
-
         if (targetCode == null) {
             targetCode = "";
         }
-        if (currencyName == null) {
-            currencyName = "";
-        }
+        targetId = CurrencyCodes.intern(targetCode);
 
-        // Header text
-        String header = "GBP ⇄ " + targetCode + " (" + currencyName + ")";
-        txtHeader.setText(header);
+        spinnerFrom.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                if (fromIds[position] != fromId) {
+                    fromId = fromIds[position];
+                    showPair();
+                    txtResult.setText("");
+                }
+            }
 
-        String rateInfo = String.format(Locale.UK,
-                "1 GBP = %.4f %s", rate, targetCode);
-        txtRateInfo.setText(rateInfo);
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
 
-        // Default to GBP → foreign
-        rbGbpToForeign.setChecked(true);
+        // Usually already in memory; after the process was killed it arrives
+        // from the disk snapshot through the observer
+        repository = RateRepository.get(this);
+        repositoryObserver = new RateRepository.Observer() {
+            @Override
+            public void onSnapshot(final RateRepository.Snapshot snapshot) {
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!isDestroyed()) {
+                            boolean changed = snapshot.getTable() != rateTable;
+                            applySnapshot(snapshot);
+                            if (changed && snapshot.isFromNetwork()) {
+                                loadHistory();  // the download added a sample
+                            }
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onRefreshFailed(String message) {
+                // MainActivity reports refresh errors
+            }
+        };
+        repository.addObserver(repositoryObserver);
+        fromId = CurrencyCodes.find(CrossRateEngine.DEFAULT_BASE);
+        applySnapshot(repository.getSnapshot());
+
+        txtChartLabel.setText(CrossRateEngine.DEFAULT_BASE + " → " + targetCode + " history");
+        chartHistory.setExecutor(chartExecutor);
+        loadHistory();
+
+        // Default to from → target
+        rbFromToTarget.setChecked(true);
 
         btnConvert.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                doConversion();
+                if (chkBasketMode.isChecked()) {
+                    doBasketConversion();
+                } else {
+                    doConversion();
+                }
+            }
+        });
+
+        btnAddAlert.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                addAlert();
+            }
+        });
+
+        chkBasketMode.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                setBasketMode(isChecked);
             }
         });
 
@@ -84,6 +187,70 @@ public class ConverterActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        basketExecutor.shutdownNow();
+        chartExecutor.shutdownNow();
+        repository.removeObserver(repositoryObserver);
+    }
+
+    // New rates: take the snapshot's engine, keeping the selected currency if it is still quoted
+    private void applySnapshot(RateRepository.Snapshot snapshot) {
+        RateTable table = snapshot.getTable();
+        if (table == rateTable && engine != null) {
+            return;
+        }
+        rateTable = table;
+        engine = snapshot.getEngine();
+
+        int row = table.rowOfCodeId(targetId);
+        currencyName = (row != -1 && table.name(row) != null) ? table.name(row) : "";
+        if (!engine.supports(fromId)) {
+            fromId = engine.getBaseId();
+        }
+        setUpFromSpinner();
+    }
+
+    // Spinner listing every currency we can convert from, base currency first
+    private void setUpFromSpinner() {
+        fromIds = engine.supportedIds();
+        ArrayList<String> labels = new ArrayList<>(fromIds.length);
+        int selected = 0;
+        for (int i = 0; i < fromIds.length; i++) {
+            labels.add(CurrencyCodes.code(fromIds[i]));
+            if (fromIds[i] == fromId) {
+                selected = i;
+            }
+        }
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, labels);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerFrom.setAdapter(adapter);
+        spinnerFrom.setSelection(selected);
+        showPair();
+    }
+
+    // Header, rate line and direction labels for the selected pair
+    private void showPair() {
+        String fromCode = CurrencyCodes.code(fromId);
+
+        String header = fromCode + " ⇄ " + targetCode + " (" + currencyName + ")";
+        txtHeader.setText(header);
+
+        if (engine.supports(targetId)) {
+            String rateInfo = String.format(Locale.UK,
+                    "1 %s = %.4f %s", fromCode, engine.rate(fromId, targetId), targetCode);
+            txtRateInfo.setText(rateInfo);
+        } else {
+            txtRateInfo.setText(rateTable.isEmpty() ? "Loading rates..." : "Rate not available.");
+        }
+
+        rbFromToTarget.setText(fromCode + " → " + targetCode);
+        rbTargetToFrom.setText(targetCode + " → " + fromCode);
+    }
+
     private void doConversion() {
         String amtStr = editAmount.getText().toString().trim();
 
@@ -92,36 +259,209 @@ public class ConverterActivity extends AppCompatActivity {
             return;
         }
 
-        double amount;
+        if (!engine.supports(fromId) || !engine.supports(targetId)) {
+            Toast.makeText(this, "Rate not available.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // Selected currency -> target, or the reverse
+        boolean forward = rbFromToTarget.isChecked();
+        int sourceId = forward ? fromId : targetId;
+        int resultId = forward ? targetId : fromId;
+
+        // Exact fixed-point amounts in each currency's minor units (JPY 0, GBP 2, KWD 3)
+        long amount;
+        long resultValue;
         try {
-            amount = Double.parseDouble(amtStr);
+            amount = Money.parseMinor(amtStr, Money.minorUnits(sourceId), Money.DEFAULT_ROUNDING);
+            resultValue = engine.convertMinor(amount, sourceId, resultId, Money.DEFAULT_ROUNDING);
         } catch (NumberFormatException e) {
             editAmount.setError("Enter a valid number");
             return;
+        } catch (ArithmeticException e) {
+            editAmount.setError("Amount too large");
+            return;
         }
 
-        if (rate <= 0.0) {
+        String directionText = CurrencyCodes.code(sourceId) + " "
+                + Money.format(amount, Money.minorUnits(sourceId)) + " = "
+                + CurrencyCodes.code(resultId) + " "
+                + Money.format(resultValue, Money.minorUnits(resultId));
+
+        txtResult.setText(directionText);
+    }
+
+    // -------- History chart --------
+
+    // Reads the whole history of the target and builds its level-of-detail pyramid
+    private void loadHistory() {
+        final RateHistoryStore history = repository.getHistory();
+        if (history == null || chartExecutor.isShutdown()) {
+            return;
+        }
+        final String code = targetCode;
+        try {
+            chartExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    RateChartPyramid pyramid;
+                    try {
+                        pyramid = RateChartPyramid.build(history.query(code, 0, Long.MAX_VALUE));
+                    } catch (IOException | IllegalArgumentException e) {
+                        Log.w(TAG, "Could not read history for " + code, e);
+                        return;
+                    }
+                    final RateChartPyramid loaded = pyramid;
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (!isDestroyed()) {
+                                chartHistory.setPyramid(loaded);
+                            }
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // activity is being destroyed
+        }
+    }
+
+    // -------- Alerts --------
+
+    // "1.30" alerts when the pair crosses that rate, in whichever direction
+    // it lies from today's; "0.5%" when it moves that much in one refresh
+    private void addAlert() {
+        String text = editAlert.getText().toString().trim();
+        boolean percent = text.endsWith("%");
+        if (percent) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        double value;
+        try {
+            value = Double.parseDouble(text.replace(",", ""));
+        } catch (NumberFormatException e) {
+            editAlert.setError("Enter a rate, or a percentage such as 0.5%");
+            return;
+        }
+
+        double rate = engine.rate(fromId, targetId);
+        if (!percent && Double.isNaN(rate)) {
             Toast.makeText(this, "Rate not available.", Toast.LENGTH_SHORT).show();
             return;
         }
+        RateAlerts.Kind kind = percent ? RateAlerts.Kind.MOVE_PERCENT
+                : value > rate ? RateAlerts.Kind.ABOVE : RateAlerts.Kind.BELOW;
+
+        RateAlerts.Alert alert;
+        try {
+            alert = repository.addAlert(CurrencyCodes.code(fromId), targetCode, kind, value);
+        } catch (IllegalArgumentException e) {
+            editAlert.setError("Enter a number above zero");
+            return;
+        }
+        editAlert.setText("");
+        Toast.makeText(this, "Alert set: " + alert, Toast.LENGTH_SHORT).show();
+    }
 
-        double resultValue;
-        String directionText;
+    // -------- Basket mode --------
 
-        if (rbGbpToForeign.isChecked()) {
-            // GBP -> foreign
-            resultValue = amount * rate;
-            directionText = String.format(Locale.UK,
-                    "GBP %.2f = %s %.2f",
-                    amount, targetCode, resultValue);
-        } else {
-            // foreign -> GBP
-            resultValue = amount / rate;
-            directionText = String.format(Locale.UK,
-                    "%s %.2f = GBP %.2f",
-                    targetCode, amount, resultValue);
+    // Basket mode swaps the single amount for a list; the spinner picks the target
+    private void setBasketMode(boolean basket) {
+        editAmount.setVisibility(basket ? View.GONE : View.VISIBLE);
+        rbFromToTarget.setVisibility(basket ? View.GONE : View.VISIBLE);
+        rbTargetToFrom.setVisibility(basket ? View.GONE : View.VISIBLE);
+        editBasket.setVisibility(basket ? View.VISIBLE : View.GONE);
+        txtFromLabel.setText(basket ? "Convert basket into:" : "Convert from:");
+        txtResult.setText("");
+    }
+
+    private void doBasketConversion() {
+        final String basketText = editBasket.getText().toString();
+        if (basketText.trim().isEmpty()) {
+            editBasket.setError("Enter amounts, e.g. 100 GBP, 50 EUR");
+            return;
+        }
+        if (basketExecutor.isShutdown()) {
+            return; // activity is being destroyed
         }
 
-        txtResult.setText(directionText);
+        final CrossRateEngine snapshot = engine;
+        final int toId = fromId;
+        final int generation = ++basketGeneration;
+        txtResult.setText("Converting...");
+
+        basketExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                CurrencyBasket basket = CurrencyBasket.parse(basketText);
+                final String summary = formatBasket(basket, snapshot, toId);
+
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Drop results overtaken by a newer press
+                        if (isDestroyed() || generation != basketGeneration) {
+                            return;
+                        }
+                        txtResult.setText(summary);
+                    }
+                });
+            }
+        });
+    }
+
+    // One line per amount (up to a limit), then the total and any problems. Amounts are
+    // converted in minor units, like a single conversion, so each currency keeps its decimals
+    private static String formatBasket(CurrencyBasket basket, CrossRateEngine engine, int toId) {
+        StringBuilder out = new StringBuilder();
+        String toCode = CurrencyCodes.code(toId);
+        int toScale = Money.minorUnits(toId);
+        int shown = Math.min(basket.size(), MAX_BASKET_LINES_SHOWN);
+        int missing = 0;
+        long total = 0;
+        for (int i = 0; i < basket.size(); i++) {
+            int fromId = basket.codeId(i);
+            int fromScale = Money.minorUnits(fromId);
+            // The basket holds doubles; amounts with more decimals than the currency are rounded here
+            long amount = Math.round(basket.amount(i) * Math.pow(10, fromScale));
+            long converted = 0;
+            boolean known = engine.supports(fromId) && engine.supports(toId);
+            if (known) {
+                try {
+                    converted = engine.convertMinor(amount, fromId, toId, Money.DEFAULT_ROUNDING);
+                    total = Math.addExact(total, converted);
+                } catch (ArithmeticException e) {
+                    known = false;  // out of range for a long
+                }
+            }
+            if (!known) {
+                missing++;
+            }
+            if (i < shown) {
+                out.append(Money.format(amount, fromScale)).append(' ').append(basket.code(i));
+                if (known) {
+                    out.append(" = ").append(Money.format(converted, toScale)).append(' ').append(toCode);
+                } else {
+                    out.append(": no rate");
+                }
+                out.append('\n');
+            }
+        }
+        if (basket.size() > shown) {
+            out.append(String.format(Locale.UK, "... and %,d more\n", basket.size() - shown));
+        }
+
+        out.append("Total: ").append(Money.format(total, toScale)).append(' ').append(toCode)
+                .append(String.format(Locale.UK, " (%,d amounts)", basket.size() - missing));
+        if (missing > 0) {
+            out.append(String.format(Locale.UK, "\nNo rate for %,d amounts", missing));
+        }
+        if (basket.getInvalidCount() > 0) {
+            out.append(String.format(Locale.UK, "\nSkipped %,d unreadable entries: ",
+                    basket.getInvalidCount()));
+            out.append(String.join(", ", basket.getInvalidEntries()));
+        }
+        return out.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Any-to-any currency conversion built from one single-base feed.
+ *
+ * The feed quotes every currency against one base (GBP): "1 GBP = r units".
+ * The engine keeps those quotes in a double[] indexed by CurrencyCodes id,
+ * so the cross rate for any pair is triangulated through the base in
+ * constant time:
+ * <pre>
+ *   rate(from, to) = perBase[to] / perBase[from]
+ * </pre>
+ * That single division gives the correctly rounded quotient of the two
+ * stored quotes, exactly what a precomputed n x n matrix would hold, so
+ * there is no matrix to build or keep in memory.
+ *
+ * The same quotes are also kept as scaled longs (the feed's decimal text,
+ * exactly) for {@link #convertMinor}, which converts {@link Money} minor
+ * units with no floating-point rounding.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CrossRateEngine {
+
+    public static final String DEFAULT_BASE = "GBP";
+
+    private final int baseId;
+    private final double[] perBase; // units per 1 base currency, NaN if unknown
+
+    // perBase as exact decimals: unscaled value and scale, 0 if unknown
+    private final long[] quoteUnscaled;
+    private final int[] quoteScales;
+
+    private CrossRateEngine(int baseId, double[] perBase, long[] quoteUnscaled, int[] quoteScales) {
+        this.baseId = baseId;
+        this.perBase = perBase;
+        this.quoteUnscaled = quoteUnscaled;
+        this.quoteScales = quoteScales;
+    }
+
+    /**
+     * Builds an engine from a table whose rates are quoted against {@code baseCode}.
+     * Rows with a missing code or a non-positive rate are left out.
+     */
+    public static CrossRateEngine fromTable(RateTable table, String baseCode) {
+        int baseId = CurrencyCodes.intern(baseCode);
+        double[] perBase = new double[CurrencyCodes.size()];
+        Arrays.fill(perBase, Double.NaN);
+
+        for (int row = 0; row < table.size(); row++) {
+            int id = table.codeId(row);
+            double rate = table.rate(row);
+            if (id >= 0 && id < perBase.length && rate > 0 && Double.isNaN(perBase[id])) {
+                perBase[id] = rate;
+            }
+        }
+        perBase[baseId] = 1.0;
+
+        // Shortest decimal for each double is the number as written in the feed
+        long[] quoteUnscaled = new long[perBase.length];
+        int[] quoteScales = new int[perBase.length];
+        for (int id = 0; id < perBase.length; id++) {
+            if (Double.isNaN(perBase[id])) {
+                continue;
+            }
+            BigDecimal quote = BigDecimal.valueOf(perBase[id]).stripTrailingZeros();
+            if (quote.scale() < 0) {
+                quote = quote.setScale(0);
+            }
+            try {
+                quoteUnscaled[id] = quote.unscaledValue().longValueExact();
+                quoteScales[id] = quote.scale();
+            } catch (ArithmeticException e) {
+                perBase[id] = Double.NaN;   // too many digits to convert exactly
+            }
+        }
+        return new CrossRateEngine(baseId, perBase, quoteUnscaled, quoteScales);
+    }
+
+    public int getBaseId() {
+        return baseId;
+    }
+
+    /**
+     * True if amounts in this currency can be converted.
+     */
+    public boolean supports(int codeId) {
+        return codeId >= 0 && codeId < perBase.length && !Double.isNaN(perBase[codeId]);
+    }
+
+    /**
+     * Ids of every supported currency, base first, then in id order.
+     */
+    public int[] supportedIds() {
+        int[] ids = new int[perBase.length];
+        int count = 0;
+        ids[count++] = baseId;
+        for (int id = 0; id < perBase.length; id++) {
+            if (id != baseId && !Double.isNaN(perBase[id])) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Units of {@code toId} for one unit of {@code fromId}, or NaN if either is unknown.
+     */
+    public double rate(int fromId, int toId) {
+        return quote(toId) / quote(fromId);
+    }
+
+    public double rate(String fromCode, String toCode) {
+        return rate(CurrencyCodes.find(fromCode), CurrencyCodes.find(toCode));
+    }
+
+    /**
+     * Converts one amount; gives exactly the same result as the batch version.
+     */
+    public double convert(double amount, int fromId, int toId) {
+        return amount * rate(fromId, toId);
+    }
+
+    /**
+     * Converts {@code count} amounts starting at {@code offset} in one pass;
+     * {@code out} may be the same array as {@code amounts}.
+     */
+    public void convert(double[] amounts, int offset, int count, int fromId, int toId, double[] out) {
+        double factor = rate(fromId, toId);
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            out[i] = amounts[i] * factor;
+        }
+    }
+
+    /**
+     * Converts amounts that are each in their own currency into {@code toId}
+     * in one pass: {@code out[i] = amounts[i] * rate(fromIds[i], toId)}, NaN
+     * where the currency is unknown. The factor for each currency is worked
+     * out once, so the loop is one lookup and one multiply per amount, and
+     * every result is identical to {@link #convert(double, int, int)}.
+     */
+    public void convert(double[] amounts, int[] fromIds, int offset, int count, int toId, double[] out) {
+        double[] factors = factorsTo(toId);
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            int id = fromIds[i];
+            out[i] = amounts[i] * ((id >= 0 && id < factors.length) ? factors[id] : Double.NaN);
+        }
+    }
+
+    /**
+     * Converts minor units of {@code fromId} (see {@link Money#minorUnits(int)})
+     * into minor units of {@code toId}, exactly, rounded once with {@code mode}.
+     * For example 100.00 GBP at a quote of 12760.90 is exactly 12,760.90 AED.
+     * Allocation-free for any result that fits in a long.
+     *
+     * @throws IllegalArgumentException if either currency is not supported
+     */
+    public long convertMinor(long minor, int fromId, int toId, RoundingMode mode) {
+        if (!supports(fromId) || !supports(toId)) {
+            throw new IllegalArgumentException("No rate for " + CurrencyCodes.code(fromId)
+                    + " -> " + CurrencyCodes.code(toId));
+        }
+        return Money.convert(minor, Money.minorUnits(fromId),
+                quoteUnscaled[fromId], quoteScales[fromId],
+                quoteUnscaled[toId], quoteScales[toId],
+                Money.minorUnits(toId), mode);
+    }
+
+    /**
+     * {@code rate(id, toId)} for every id, indexed by id.
+     */
+    public double[] factorsTo(int toId) {
+        double[] factors = new double[perBase.length];
+        for (int id = 0; id < factors.length; id++) {
+            factors[id] = rate(id, toId);
+        }
+        return factors;
+    }
+
+    private double quote(int id) {
+        return (id >= 0 && id < perBase.length) ? perBase[id] : Double.NaN;
+    }
+}
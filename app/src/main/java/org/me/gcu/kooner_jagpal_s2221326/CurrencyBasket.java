@@ -0,0 +1,285 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A list of amounts, each in its own currency, such as
+ * "100 GBP, 2,000 JPY, 50 EUR", held as two parallel primitive columns
+ * (amount and {@link CurrencyCodes} id) so a whole basket can be converted
+ * in one pass by {@link CrossRateEngine}.
+ *
+ * Entries are separated by commas, semicolons or new lines. A comma with a
+ * digit on both sides is a thousands separator ("2,000"), not a separator.
+ * The code may come before or after the amount ("GBP 100", "100gbp").
+ * Entries that cannot be read are counted and skipped.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CurrencyBasket {
+
+    /** How many unreadable entries keep their text for display. */
+    public static final int MAX_REPORTED_INVALID = 20;
+
+    private static final int CODE_LETTERS = 3;
+    private static final int CODE_KEYS = 26 * 26 * 26;
+    private static final int UNRESOLVED = -2;
+
+    private final double[] amounts;
+    private final int[] codeIds;
+    private final int size;
+    private final int invalidCount;
+    private final List<String> invalidEntries;
+
+    private CurrencyBasket(double[] amounts, int[] codeIds, int size,
+                           int invalidCount, List<String> invalidEntries) {
+        this.amounts = amounts;
+        this.codeIds = codeIds;
+        this.size = size;
+        this.invalidCount = invalidCount;
+        this.invalidEntries = invalidEntries;
+    }
+
+    /**
+     * Basket of amounts that are all in one currency.
+     */
+    public static CurrencyBasket of(double[] amounts, int codeId) {
+        int[] ids = new int[amounts.length];
+        Arrays.fill(ids, codeId);
+        return new CurrencyBasket(amounts.clone(), ids, amounts.length, 0,
+                Collections.<String>emptyList());
+    }
+
+    /**
+     * Reads a basket in one pass over the text, without a String per entry.
+     */
+    public static CurrencyBasket parse(CharSequence text) {
+        return new Parser(text).run();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double amount(int i) {
+        return amounts[i];
+    }
+
+    public int codeId(int i) {
+        return codeIds[i];
+    }
+
+    public String code(int i) {
+        return CurrencyCodes.code(codeIds[i]);
+    }
+
+    /**
+     * Entries that could not be read; only the first
+     * {@link #MAX_REPORTED_INVALID} are kept in {@link #getInvalidEntries()}.
+     */
+    public int getInvalidCount() {
+        return invalidCount;
+    }
+
+    public List<String> getInvalidEntries() {
+        return invalidEntries;
+    }
+
+    /**
+     * Every amount converted into {@code toId}, in basket order; NaN where
+     * the engine has no rate for the entry's currency.
+     */
+    public double[] convert(CrossRateEngine engine, int toId) {
+        double[] out = new double[size];
+        engine.convert(amounts, codeIds, 0, size, toId, out);
+        return out;
+    }
+
+    /**
+     * Sum of the converted amounts, leaving out the NaN ones.
+     */
+    public static double total(double[] converted) {
+        double sum = 0;
+        for (double value : converted) {
+            if (!Double.isNaN(value)) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    // -------- Parsing --------
+
+    private static final class Parser {
+
+        private final CharSequence text;
+        private final int length;
+
+        private double[] amounts = new double[16];
+        private int[] codeIds = new int[16];
+        private int size;
+        private int invalidCount;
+        private final ArrayList<String> invalidEntries = new ArrayList<>();
+
+        // Digits of the current amount without its group separators
+        private final StringBuilder digits = new StringBuilder();
+
+        // Three-letter code -> CurrencyCodes id, resolved once per distinct code
+        private int[] idByLetters;
+
+        Parser(CharSequence text) {
+            this.text = text;
+            this.length = text.length();
+        }
+
+        CurrencyBasket run() {
+            int start = 0;
+            while (start < length) {
+                int end = entryEnd(start);
+                int first = skipSpaces(start, end);
+                if (first < end && !parseEntry(first, end)) {
+                    invalidCount++;
+                    if (invalidEntries.size() < MAX_REPORTED_INVALID) {
+                        invalidEntries.add(text.subSequence(first, trimEnd(first, end)).toString());
+                    }
+                }
+                start = end + 1;
+            }
+            return new CurrencyBasket(amounts, codeIds, size, invalidCount,
+                    Collections.unmodifiableList(invalidEntries));
+        }
+
+        // End of the entry starting at start: the next separator, or the end of the text
+        private int entryEnd(int start) {
+            for (int i = start; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '\n' || c == '\r' || c == ';') {
+                    return i;
+                }
+                if (c == ',' && !(i > start && isDigit(text.charAt(i - 1))
+                        && i + 1 < length && isDigit(text.charAt(i + 1)))) {
+                    return i;
+                }
+            }
+            return length;
+        }
+
+        // "[CODE] amount [CODE]" with exactly one code
+        private boolean parseEntry(int start, int end) {
+            int i = start;
+            int codeId = UNRESOLVED;
+
+            if (isLetter(text.charAt(i))) {
+                int codeEnd = letterRunEnd(i, end);
+                codeId = resolve(i, codeEnd);
+                i = skipSpaces(codeEnd, end);
+            }
+
+            // --- Amount ---
+            digits.setLength(0);
+            int amountStart = i;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                digits.append(text.charAt(i));
+                i++;
+            }
+            while (i < end) {
+                char c = text.charAt(i);
+                if (isDigit(c) || c == '.') {
+                    digits.append(c);
+                } else if (c != ',') {   // commas left in an entry sit between digits
+                    break;
+                }
+                i++;
+            }
+            if (i == amountStart) {
+                return false;
+            }
+            double amount;
+            try {
+                amount = RateTextParser.parseDecimal(digits, 0, digits.length());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+
+            i = skipSpaces(i, end);
+            if (codeId == UNRESOLVED && i < end && isLetter(text.charAt(i))) {
+                int codeEnd = letterRunEnd(i, end);
+                codeId = resolve(i, codeEnd);
+                i = skipSpaces(codeEnd, end);
+            }
+            if (codeId < 0 || i != end) {
+                return false;
+            }
+
+            add(amount, codeId);
+            return true;
+        }
+
+        // Id of the code in [start, end), or -1 if it is not a known three-letter code
+        private int resolve(int start, int end) {
+            if (end - start != CODE_LETTERS) {
+                return -1;
+            }
+            int key = 0;
+            for (int i = start; i < end; i++) {
+                key = key * 26 + (Character.toUpperCase(text.charAt(i)) - 'A');
+            }
+            if (idByLetters == null) {
+                idByLetters = new int[CODE_KEYS];
+                Arrays.fill(idByLetters, UNRESOLVED);
+            }
+            int id = idByLetters[key];
+            if (id == UNRESOLVED) {
+                id = CurrencyCodes.find(text.subSequence(start, end).toString());
+                idByLetters[key] = id;
+            }
+            return id;
+        }
+
+        private void add(double amount, int codeId) {
+            if (size == amounts.length) {
+                amounts = Arrays.copyOf(amounts, size * 2);
+                codeIds = Arrays.copyOf(codeIds, size * 2);
+            }
+            amounts[size] = amount;
+            codeIds[size] = codeId;
+            size++;
+        }
+
+        // -------- Helpers --------
+
+        private int letterRunEnd(int start, int end) {
+            int i = start;
+            while (i < end && isLetter(text.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        private int skipSpaces(int start, int end) {
+            int i = start;
+            while (i < end && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            return i;
+        }
+
+        private int trimEnd(int start, int end) {
+            int i = end;
+            while (i > start && Character.isWhitespace(text.charAt(i - 1))) {
+                i--;
+            }
+            return i;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isLetter(char c) {
+            return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Process-wide table of currency codes. Each code gets a small stable int
+ * id, so rate data can refer to currencies by index instead of holding a
+ * String per row.
+ *
+ * The table starts with the ISO 4217 codes (plus the withdrawn ones the
+ * feed still publishes). Any other code seen in a feed is appended the
+ * first time it is interned. Looking a code up by id is lock-free.
+ */
+public final class CurrencyCodes {
+
+    private static final String[] ISO_4217 = {
+            "AED", "AFN", "ALL", "AMD", "ANG", "AOA", "ARS", "AUD", "AWG", "AZN",
+            "BAM", "BBD", "BDT", "BGN", "BHD", "BIF", "BMD", "BND", "BOB", "BRL",
+            "BSD", "BTN", "BWP", "BYN", "BZD", "CAD", "CDF", "CHF", "CLP", "CNY",
+            "COP", "CRC", "CUC", "CUP", "CVE", "CZK", "DJF", "DKK", "DOP", "DZD",
+            "EGP", "ERN", "ETB", "EUR", "FJD", "FKP", "GBP", "GEL", "GHS", "GIP",
+            "GMD", "GNF", "GTQ", "GYD", "HKD", "HNL", "HTG", "HUF", "IDR", "ILS",
+            "INR", "IQD", "IRR", "ISK", "JMD", "JOD", "JPY", "KES", "KGS", "KHR",
+            "KMF", "KPW", "KRW", "KWD", "KYD", "KZT", "LAK", "LBP", "LKR", "LRD",
+            "LSL", "LYD", "MAD", "MDL", "MGA", "MKD", "MMK", "MNT", "MOP", "MRU",
+            "MUR", "MVR", "MWK", "MXN", "MYR", "MZN", "NAD", "NGN", "NIO", "NOK",
+            "NPR", "NZD", "OMR", "PAB", "PEN", "PGK", "PHP", "PKR", "PLN", "PYG",
+            "QAR", "RON", "RSD", "RUB", "RWF", "SAR", "SBD", "SCR", "SDG", "SEK",
+            "SGD", "SHP", "SLE", "SLL", "SOS", "SRD", "SSP", "STN", "SVC", "SYP",
+            "SZL", "THB", "TJS", "TMT", "TND", "TOP", "TRY", "TTD", "TWD", "TZS",
+            "UAH", "UGX", "USD", "UYU", "UZS", "VES", "VND", "VUV", "WST", "XAF",
+            "XCD", "XOF", "XPF", "YER", "ZAR", "ZMW", "ZWL",
+            // Withdrawn codes that still appear in the feed
+            "BYR", "EEK", "HRK", "LTL", "LVL", "MRO", "SKK", "STD", "VEF", "ZMK",
+            "ZWD"
+    };
+
+    private static final HashMap<String, Integer> ids = new HashMap<>();
+    private static volatile String[] codes;
+
+    static {
+        for (int i = 0; i < ISO_4217.length; i++) {
+            ids.put(ISO_4217[i], i);
+        }
+        codes = ISO_4217.clone();
+    }
+
+    private CurrencyCodes() {
+    }
+
+    /**
+     * Returns the id for a code, adding it to the table if it is new.
+     *
+     * @return the id, or -1 for a null or empty code
+     */
+    public static int intern(String code) {
+        int id = find(code);
+        if (id != -1 || code == null || code.isEmpty()) {
+            return id;
+        }
+
+        String normalised = code.toUpperCase(Locale.ROOT);
+        synchronized (ids) {
+            Integer existing = ids.get(normalised);
+            if (existing != null) {
+                return existing;
+            }
+            String[] current = codes;
+            String[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = normalised;
+            ids.put(normalised, current.length);
+            codes = grown;
+            return current.length;
+        }
+    }
+
+    /**
+     * Looks a code up without adding it. Matching ignores case.
+     *
+     * @return the id, or -1 if the code is not in the table
+     */
+    public static int find(String code) {
+        if (code == null || code.isEmpty()) {
+            return -1;
+        }
+        synchronized (ids) {
+            Integer id = ids.get(code);
+            if (id == null) {
+                id = ids.get(code.toUpperCase(Locale.ROOT));
+            }
+            return id == null ? -1 : id;
+        }
+    }
+
+    /**
+     * Returns the code for an id, or null for -1.
+     */
+    public static String code(int id) {
+        return id < 0 ? null : codes[id];
+    }
+
+    /**
+     * Number of ids handed out so far; every valid id is below this.
+     */
+    public static int size() {
+        return codes.length;
+    }
+}
@@ -1,13 +1,14 @@
 package org.me.gcu.kooner_jagpal_s2221326;
 
 /**
- * Simple model class representing one currency rate from the GBP RSS feed.
+ * Simple model class representing one currency rate from an fx-exchange RSS feed.
  */
 public class CurrencyRate {
 
-    // Base currency is always GBP in this feed
-    private static final String BASE_CODE = "GBP";
+    // Base currency of the feed the rate came from; GBP unless the title says otherwise
+    private static final String DEFAULT_BASE_CODE = "GBP";
 
+    private String baseCode = DEFAULT_BASE_CODE;  // e.g. "GBP"
     private String targetCode;       // e.g. "AED"
     private String currencyName;     // e.g. "United Arab Emirates Dirham"
     private double rate;             // e.g. 4.8074
@@ -19,7 +20,11 @@ public class CurrencyRate {
     }
 
     public String getBaseCode() {
-        return BASE_CODE;
+        return baseCode;
+    }
+
+    public void setBaseCode(String baseCode) {
+        this.baseCode = baseCode;
     }
 
     public String getTargetCode() {
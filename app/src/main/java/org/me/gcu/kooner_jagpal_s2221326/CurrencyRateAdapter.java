@@ -1,94 +1,270 @@
 package org.me.gcu.kooner_jagpal_s2221326;
 
 import android.content.Context;
-import android.graphics.Color;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Custom adapter to display CurrencyRate objects with colour coding and flags.
+ * RecyclerView adapter that displays rows of a RateTable with flags and an
+ * arrow showing how each rate moved since the previous refresh. It shows
+ * an int[] slice of row numbers, so several lists can share one table.
+ *
+ * A new slice is compared with the current one on a background thread
+ * (rows keyed by target code), and only the rows that were added, removed
+ * or changed are rebound.
+ *
+ * Flags come from the shared {@link FlagBitmaps} cache. A row whose flag
+ * is not decoded yet is bound blank and filled in when the decode lands,
+ * unless the row has been recycled for another flag meanwhile.
  */
-public class CurrencyRateAdapter extends ArrayAdapter<CurrencyRate> {
+public class CurrencyRateAdapter extends RecyclerView.Adapter<CurrencyRateAdapter.RateViewHolder> {
 
-    public CurrencyRateAdapter(@NonNull Context context, @NonNull List<CurrencyRate> objects) {
-        super(context, 0, objects);
+    public interface OnRateClickListener {
+        void onRateClick(RateTable table, int row);
+    }
+
+    // One shared thread for all adapters' diffs; they are short and rare
+    private static final ExecutorService DIFF_EXECUTOR =
+            Executors.newSingleThreadExecutor(new FetchExecutors.NamedThreadFactory("rate-diff"));
+
+    // --- Movement since the previous refresh ---
+    static final int MOVEMENT_UNKNOWN = 0;
+    static final int MOVEMENT_UP = 1;
+    static final int MOVEMENT_DOWN = 2;
+    static final int MOVEMENT_FLAT = 3;
+
+    private static final String[] ARROWS = {"", "\u25B2", "\u25BC", "\u2013"}; // ▲ ▼ –
+    private static final int[] ARROW_COLORS = {
+            0xFF757575,     // unknown (no text)
+            0xFF2E7D32,     // up: dark green
+            0xFFC62828,     // down: dark red
+            0xFF757575      // flat: grey
+    };
+
+    private final Context context;
+    private final FlagCache<Bitmap> flags;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private RateTable table = RateTable.EMPTY;
+    private int[] rows = new int[0];
+    private int updateGeneration; // only touched on the UI thread
+    private boolean diffing = true;
+    private OnRateClickListener clickListener;
+
+    public CurrencyRateAdapter(@NonNull Context context) {
+        this.context = context;
+        this.flags = FlagBitmaps.shared(context);
+        setHasStableIds(true);
+    }
+
+    public void setOnRateClickListener(OnRateClickListener clickListener) {
+        this.clickListener = clickListener;
+    }
+
+    /**
+     * When false every update rebinds the whole list, as before. Used to
+     * compare the two paths.
+     */
+    public void setDiffingEnabled(boolean diffing) {
+        this.diffing = diffing;
+    }
+
+    /**
+     * Points the adapter at a new table and slice. Call on the UI thread.
+     * The displayed data changes once the diff has been computed; until
+     * then getTable() and getRow() still describe what is on screen.
+     */
+    public void setRows(@NonNull final RateTable newTable, @NonNull final int[] newRows) {
+        final int generation = ++updateGeneration;
+
+        // Nothing to compare against (or nothing left): a full rebind is as cheap
+        if (!diffing || rows.length == 0 || newRows.length == 0) {
+            table = newTable;
+            rows = newRows;
+            notifyDataSetChanged();
+            return;
+        }
+
+        final RateTable oldTable = table;
+        final int[] oldRows = rows;
+        DIFF_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
+                        new RateRowDiffCallback(oldTable, oldRows, newTable, newRows), false);
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // A newer setRows() has been diffed against the same data, drop this one
+                        if (generation != updateGeneration) {
+                            return;
+                        }
+                        table = newTable;
+                        rows = newRows;
+                        result.dispatchUpdatesTo(CurrencyRateAdapter.this);
+                    }
+                });
+            }
+        });
+    }
+
+    public RateTable getTable() {
+        return table;
+    }
+
+    /**
+     * Table row shown at a list position.
+     */
+    public int getRow(int position) {
+        return rows[position];
+    }
+
+    @Override
+    public int getItemCount() {
+        return rows.length;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return table.itemId(rows[position]);
     }
 
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        View rowView = convertView;
-        if (rowView == null) {
-            rowView = LayoutInflater.from(getContext())
-                    .inflate(R.layout.row_currency, parent, false);
-        }
+    public RateViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View rowView = LayoutInflater.from(context)
+                .inflate(R.layout.row_currency, parent, false);
+        return new RateViewHolder(rowView);
+    }
 
-        CurrencyRate rate = getItem(position);
-        if (rate == null) {
-            return rowView;
+    @Override
+    public void onBindViewHolder(@NonNull RateViewHolder holder, int position,
+            @NonNull List<Object> payloads) {
+        // RecyclerView always binds through here, so this times every bind
+        long start = System.nanoTime();
+        if (!payloads.isEmpty() && onlyRateChanged(payloads)) {
+            bindRate(holder, rows[position]);
+        } else {
+            onBindViewHolder(holder, position);
         }
+        Metrics.BIND_TIME.recordSince(start);
+    }
 
-        TextView txtCode = rowView.findViewById(R.id.txtCode);
-        TextView txtName = rowView.findViewById(R.id.txtName);
-        TextView txtValue = rowView.findViewById(R.id.txtValue);
-        ImageView imgFlag = rowView.findViewById(R.id.imgFlag);
+    @Override
+    public void onBindViewHolder(@NonNull RateViewHolder holder, int position) {
+        int row = rows[position];
 
         // --- Text values ---
-        txtCode.setText(rate.getTargetCode());
-        txtName.setText(rate.getCurrencyName());
-        txtValue.setText(String.format(Locale.UK,
-                "Rate: %.4f per 1 GBP", rate.getRate()));
-
-        // --- Flag loading based on currency code ---
-        String code = rate.getTargetCode();
-        if (code != null && !code.isEmpty()) {
-            // We expect drawables named like: flag_usd.png, flag_eur.png, flag_jpy.png, ...
-            String resName = "flag_" + code.toLowerCase(Locale.ROOT);
-            int resId = getContext().getResources().getIdentifier(
-                    resName,
-                    "drawable",
-                    getContext().getPackageName()
-            );
-
-            if (resId != 0) {
-                imgFlag.setImageResource(resId);
-                imgFlag.setVisibility(View.VISIBLE);
+        holder.txtCode.setText(table.code(row));
+        holder.txtName.setText(table.name(row));
+
+        // --- Flag, resolved once per code for the whole process ---
+        long flagStart = System.nanoTime();
+        int resId = FlagResources.drawableId(context, table.codeId(row));
+        if (resId != holder.flagResId) {
+            // Recycled rows often show the same flag again: skip reloading it
+            holder.flagResId = resId;
+            Bitmap flag = resId != 0 ? flags.load(resId, holder) : null;
+            if (flag != null) {
+                holder.imgFlag.setImageBitmap(flag);
+                holder.imgFlag.setVisibility(View.VISIBLE);
             } else {
-                // No flag found for this code: hide the ImageView
-                imgFlag.setImageDrawable(null);
-                imgFlag.setVisibility(View.INVISIBLE);
+                // No flag for this code, or it is still decoding: blank until onFlagLoaded()
+                holder.imgFlag.setImageDrawable(null);
+                holder.imgFlag.setVisibility(View.INVISIBLE);
             }
-        } else {
-            imgFlag.setImageDrawable(null);
-            imgFlag.setVisibility(View.INVISIBLE);
         }
+        Metrics.FLAG_BIND_TIME.recordSince(flagStart);
+
+        bindRate(holder, row);
+    }
 
-        // --- Colour coding based on strength vs GBP (4 ranges) ---
-        double value = rate.getRate();
-        int bgColor;
+    // Rate text and movement arrow, the only parts a rate-only change touches
+    private void bindRate(RateViewHolder holder, int row) {
+        // Formatted once per refresh when the table was built
+        holder.txtValue.setText(table.rateLabel(row));
 
-        if (value < 1.0) {
-            bgColor = Color.parseColor("#C8E6C9"); // light green
-        } else if (value < 5.0) {
-            bgColor = Color.parseColor("#FFF9C4"); // light yellow
-        } else if (value < 10.0) {
-            bgColor = Color.parseColor("#FFE0B2"); // light orange
-        } else {
-            bgColor = Color.parseColor("#FFCDD2"); // light red
+        int movement = movement(table.change(row));
+        holder.txtMove.setText(ARROWS[movement]);
+        holder.txtMove.setTextColor(ARROW_COLORS[movement]);
+    }
+
+    /**
+     * One of the MOVEMENT_ constants for a change since the previous refresh.
+     */
+    static int movement(double change) {
+        if (change > 0) {
+            return MOVEMENT_UP;
+        } else if (change < 0) {
+            return MOVEMENT_DOWN;
+        } else if (change == 0) {
+            return MOVEMENT_FLAT;
         }
+        return MOVEMENT_UNKNOWN; // NaN
+    }
 
-        rowView.setBackgroundColor(bgColor);
+    private static boolean onlyRateChanged(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != RateRowDiffCallback.PAYLOAD_RATE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Row views, looked up once per inflated row.
+     */
+    public class RateViewHolder extends RecyclerView.ViewHolder
+            implements View.OnClickListener, FlagCache.Callback<Bitmap> {
+        final TextView txtCode;
+        final TextView txtName;
+        final TextView txtValue;
+        final ImageView imgFlag;
+        final TextView txtMove;
+        int flagResId = -1; // drawable currently shown, 0 = none, -1 = not bound yet
 
-        return rowView;
+        RateViewHolder(@NonNull View rowView) {
+            super(rowView);
+            txtCode = rowView.findViewById(R.id.txtCode);
+            txtName = rowView.findViewById(R.id.txtName);
+            txtValue = rowView.findViewById(R.id.txtValue);
+            imgFlag = rowView.findViewById(R.id.imgFlag);
+            txtMove = rowView.findViewById(R.id.txtMove);
+            rowView.setOnClickListener(this);
+        }
+
+        @Override
+        public void onClick(View view) {
+            int position = getBindingAdapterPosition();
+            if (clickListener != null && position != RecyclerView.NO_POSITION) {
+                clickListener.onRateClick(table, rows[position]);
+            }
+        }
+
+        @Override
+        public void onFlagLoaded(int resId, Bitmap flag) {
+            // The row was rebound to another currency while this flag decoded
+            if (resId != flagResId || flag == null) {
+                return;
+            }
+            imgFlag.setImageBitmap(flag);
+            imgFlag.setVisibility(View.VISIBLE);
+        }
     }
-}
\ No newline at end of file
+}
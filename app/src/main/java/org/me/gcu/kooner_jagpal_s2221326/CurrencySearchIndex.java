@@ -0,0 +1,240 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Substring search index over the rows of one RateTable, built once per
+ * refresh so that each keystroke does not have to lowercase and scan every
+ * code and name again.
+ *
+ * Every row gets a lowercase search text made of its code, its name and
+ * any country aliases. The index maps every 1, 2 and 3 character
+ * substring of that text to the sorted rows containing it:
+ * <ul>
+ *   <li>queries of up to 3 characters are answered straight from one posting list;</li>
+ *   <li>longer queries only check the rows in the rarest trigram's posting list.</li>
+ * </ul>
+ * Lookup cost depends on the number of candidate rows, not the table size.
+ *
+ * Instances are immutable and safe to query from any thread.
+ */
+public final class CurrencySearchIndex {
+
+    // Fields in the search text are split by this so grams never span two fields
+    private static final char SEPARATOR = '\n';
+
+    // Country and common names that do not already appear in the currency name
+    private static final HashMap<String, String> ALIASES = new HashMap<>();
+
+    static {
+        ALIASES.put("USD", "united states america usa");
+        ALIASES.put("EUR", "eurozone europe germany france italy spain netherlands ireland "
+                + "portugal belgium austria finland greece");
+        ALIASES.put("GBP", "united kingdom britain uk england scotland wales");
+        ALIASES.put("JPY", "japan");
+        ALIASES.put("CHF", "switzerland liechtenstein");
+        ALIASES.put("CNY", "china renminbi rmb");
+        ALIASES.put("HKD", "hong kong");
+        ALIASES.put("KRW", "korea");
+        ALIASES.put("KPW", "korea");
+        ALIASES.put("AED", "uae dubai abu dhabi emirates");
+        ALIASES.put("SAR", "saudi arabia");
+        ALIASES.put("NZD", "kiwi");
+        ALIASES.put("ZAR", "south africa");
+        ALIASES.put("XAF", "cameroon chad gabon congo central african republic equatorial guinea");
+        ALIASES.put("XOF", "senegal ivory coast mali niger burkina faso benin togo guinea-bissau");
+        ALIASES.put("XCD", "antigua dominica grenada saint lucia st kitts st vincent anguilla montserrat");
+        ALIASES.put("XPF", "french polynesia new caledonia wallis futuna");
+        ALIASES.put("ANG", "curacao sint maarten");
+        ALIASES.put("BAM", "bosnia herzegovina");
+        ALIASES.put("CZK", "czechia");
+        ALIASES.put("DKK", "denmark greenland faroe");
+        ALIASES.put("SEK", "sweden");
+        ALIASES.put("NOK", "norway");
+        ALIASES.put("ISK", "iceland");
+        ALIASES.put("PLN", "poland");
+        ALIASES.put("HUF", "hungary");
+        ALIASES.put("RUB", "russia");
+        ALIASES.put("TRY", "turkey turkiye");
+        ALIASES.put("ILS", "israel shekel");
+        ALIASES.put("INR", "india");
+        ALIASES.put("PKR", "pakistan");
+        ALIASES.put("BDT", "bangladesh");
+        ALIASES.put("THB", "thailand");
+        ALIASES.put("VND", "vietnam");
+        ALIASES.put("IDR", "indonesia");
+        ALIASES.put("PHP", "philippines");
+        ALIASES.put("MYR", "malaysia");
+        ALIASES.put("SGD", "singapore");
+        ALIASES.put("TWD", "taiwan");
+        ALIASES.put("AUD", "australia");
+        ALIASES.put("CAD", "canada");
+        ALIASES.put("MXN", "mexico");
+        ALIASES.put("BRL", "brazil");
+        ALIASES.put("ARS", "argentina");
+        ALIASES.put("CLP", "chile");
+        ALIASES.put("COP", "colombia");
+        ALIASES.put("PEN", "peru");
+        ALIASES.put("EGP", "egypt");
+        ALIASES.put("NGN", "nigeria");
+        ALIASES.put("KES", "kenya");
+        ALIASES.put("MAD", "morocco");
+        ALIASES.put("SZL", "eswatini swaziland");
+        ALIASES.put("MMK", "myanmar burma");
+        ALIASES.put("CVE", "cape verde cabo verde");
+    }
+
+    public static final CurrencySearchIndex EMPTY = build(RateTable.EMPTY);
+
+    private final int rowCount;
+    private final String[] searchTexts;
+    private final HashMap<Long, int[]> postings;
+
+    private CurrencySearchIndex(int rowCount, String[] searchTexts, HashMap<Long, int[]> postings) {
+        this.rowCount = rowCount;
+        this.searchTexts = searchTexts;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the index for a table. Meant to run off the UI thread, once per refresh.
+     */
+    public static CurrencySearchIndex build(RateTable table) {
+        int rows = table.size();
+        String[] texts = new String[rows];
+        HashMap<Long, IntList> lists = new HashMap<>();
+
+        for (int row = 0; row < rows; row++) {
+            String text = searchText(table, row);
+            texts[row] = text;
+
+            for (int gramLength = 1; gramLength <= 3; gramLength++) {
+                for (int i = 0; i + gramLength <= text.length(); i++) {
+                    long key = gramKey(text, i, gramLength);
+                    if (key == -1) {
+                        continue;
+                    }
+                    IntList list = lists.get(key);
+                    if (list == null) {
+                        list = new IntList();
+                        lists.put(key, list);
+                    }
+                    list.addOnce(row);
+                }
+            }
+        }
+
+        HashMap<Long, int[]> postings = new HashMap<>(lists.size() * 2);
+        for (HashMap.Entry<Long, IntList> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return new CurrencySearchIndex(rows, texts, postings);
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Rows whose code, name or aliases contain the query, ignoring case,
+     * in table order. An empty query matches every row.
+     */
+    public int[] search(String query) {
+        String q = (query == null) ? "" : query.trim().toLowerCase(Locale.ROOT);
+
+        if (q.isEmpty()) {
+            int[] all = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        if (q.length() <= 3) {
+            long key = gramKey(q, 0, q.length());
+            int[] rows = (key == -1) ? null : postings.get(key);
+            return rows == null ? new int[0] : rows.clone();
+        }
+
+        // Check only the rows of the rarest trigram in the query
+        int[] candidates = null;
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            long key = gramKey(q, i, 3);
+            int[] rows = (key == -1) ? null : postings.get(key);
+            if (rows == null) {
+                return new int[0];
+            }
+            if (candidates == null || rows.length < candidates.length) {
+                candidates = rows;
+            }
+        }
+
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int row : candidates) {
+            if (searchTexts[row].contains(q)) {
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    // -------- Helpers --------
+
+    private static String searchText(RateTable table, int row) {
+        StringBuilder text = new StringBuilder();
+        String code = table.code(row);
+        if (code != null) {
+            text.append(code);
+        }
+        text.append(SEPARATOR);
+        if (table.name(row) != null) {
+            text.append(table.name(row));
+        }
+        String aliases = (code != null) ? ALIASES.get(code) : null;
+        if (aliases != null) {
+            text.append(SEPARATOR).append(aliases);
+        }
+        return text.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Packs up to three chars into one key, with the length in the top bits.
+     * Returns -1 for grams that cross a field separator.
+     */
+    private static long gramKey(CharSequence text, int start, int length) {
+        long key = length;
+        for (int i = start; i < start + length; i++) {
+            char c = text.charAt(i);
+            if (c == SEPARATOR) {
+                return -1;
+            }
+            key = (key << 16) | c;
+        }
+        return key;
+    }
+
+    /**
+     * Growable sorted int list; rows are added in increasing order.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addOnce(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.Locale;
+
+/**
+ * Short descriptions of how old the shown rates are, e.g.
+ * "Rates published 25 min ago, checked just now".
+ */
+public final class DataAge {
+
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private DataAge() {
+    }
+
+    /**
+     * @param pubDate   the feed's pubDate, or {@link PubDateParser#INVALID}
+     * @param fetchedAt when the rates were downloaded, 0 if never
+     * @param fromNetwork false for rates from disk not yet revalidated
+     */
+    public static String describe(long pubDate, long fetchedAt, boolean fromNetwork, long now) {
+        if (fetchedAt == 0) {
+            return "No rates yet";
+        }
+        StringBuilder text = new StringBuilder("Rates ");
+        if (pubDate != PubDateParser.INVALID) {
+            text.append("published ").append(ago(now - pubDate)).append(", ");
+        }
+        text.append(fromNetwork ? "checked " : "saved ").append(ago(now - fetchedAt));
+        return text.toString();
+    }
+
+    /**
+     * "just now", "12 min ago", "3 h ago", "2 days ago". Times in the
+     * future (a clock ahead of ours) read as just now.
+     */
+    public static String ago(long millis) {
+        if (millis < MINUTE) {
+            return "just now";
+        } else if (millis < HOUR) {
+            return String.format(Locale.UK, "%d min ago", millis / MINUTE);
+        } else if (millis < DAY) {
+            return String.format(Locale.UK, "%d h ago", millis / HOUR);
+        }
+        long days = millis / DAY;
+        return days == 1 ? "1 day ago" : String.format(Locale.UK, "%d days ago", days);
+    }
+}
@@ -0,0 +1,58 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+/**
+ * Shows the {@link Metrics} dump: network, parse and render timings since
+ * start-up or the last reset. Opened with a long press on the refresh button.
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private TextView txtMetrics;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+
+        txtMetrics = (TextView) findViewById(R.id.txtMetrics);
+        Button btnBack = (Button) findViewById(R.id.btnBack);
+        Button btnRefresh = (Button) findViewById(R.id.btnRefreshMetrics);
+        Button btnReset = (Button) findViewById(R.id.btnResetMetrics);
+
+        btnBack.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                finish();
+            }
+        });
+        btnRefresh.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showMetrics();
+            }
+        });
+        btnReset.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Metrics.reset();
+                showMetrics();
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showMetrics();
+    }
+
+    private void showMetrics() {
+        txtMetrics.setText(Metrics.dump());
+    }
+}
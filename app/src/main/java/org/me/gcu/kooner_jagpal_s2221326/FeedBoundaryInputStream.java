@@ -0,0 +1,188 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Byte stream filter that removes the garbage the feed server sometimes
+ * wraps around the document, without ever holding the whole feed in memory.
+ *
+ * Everything before the start of the XML (the "<?xml" prolog, or the
+ * "<rss" root tag if there is no prolog) is dropped, tags in the junk
+ * included, and the stream reports end of file straight after the
+ * closing "</rss>" tag.
+ */
+public class FeedBoundaryInputStream extends FilterInputStream {
+
+    private static final byte[] PROLOG = {'<', '?', 'x', 'm', 'l'};
+    private static final byte[] ROOT_TAG = {'<', 'r', 's', 's'};
+    private static final byte[] END_TAG = {'<', '/', 'r', 's', 's', '>'};
+
+    // Bytes needed to recognise either start: "<?xml", or "<rss" and the byte after it
+    private static final int START_LOOKAHEAD = 5;
+
+    private static final int STATE_SKIPPING = 0;
+    private static final int STATE_PASSING = 1;
+    private static final int STATE_DONE = 2;
+
+    private final byte[] buf = new byte[8192];
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    private int state = STATE_SKIPPING;
+    private int endMatched;   // how many bytes of END_TAG have been seen so far
+
+    public FeedBoundaryInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n == -1 ? -1 : (one[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (true) {
+            if (state == STATE_DONE) {
+                return -1;
+            }
+
+            if (state == STATE_SKIPPING) {
+                skipToDocumentStart();
+                continue;
+            }
+
+            if (pos == limit) {
+                if (!fill()) {
+                    state = STATE_DONE;
+                    return -1;
+                }
+            }
+
+            // --- Pass bytes through, watching for the closing </rss> ---
+            int count = 0;
+            while (count < len && pos < limit) {
+                byte c = buf[pos++];
+                b[off + count++] = c;
+
+                if (c == END_TAG[endMatched]) {
+                    endMatched++;
+                    if (endMatched == END_TAG.length) {
+                        state = STATE_DONE;
+                        return count;
+                    }
+                } else {
+                    endMatched = (c == '<') ? 1 : 0;
+                }
+            }
+            return count;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return state == STATE_PASSING ? limit - pos : 0;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Route skips through read() so the end tag is never stepped over
+        byte[] scratch = new byte[512];
+        long skipped = 0;
+        while (skipped < n) {
+            int r = read(scratch, 0, (int) Math.min(scratch.length, n - skipped));
+            if (r == -1) {
+                break;
+            }
+            skipped += r;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Drops bytes until the buffer starts at "<?xml" or at an "<rss" tag.
+     * Switches to passing mode when found, or to done at end of stream.
+     */
+    private void skipToDocumentStart() throws IOException {
+        while (true) {
+            while (pos < limit) {
+                if (buf[pos] == '<') {
+                    if (limit - pos < START_LOOKAHEAD && !eof) {
+                        // Need more bytes to decide; keep the '<' and refill
+                        break;
+                    }
+                    if (startsWith(PROLOG)
+                            || (startsWith(ROOT_TAG) && endsTagName(pos + ROOT_TAG.length))) {
+                        state = STATE_PASSING;
+                        return;
+                    }
+                }
+                pos++;
+            }
+
+            if (!fill()) {
+                state = STATE_DONE;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compacts any unread bytes to the front of the buffer and reads more.
+     * Returns false once the underlying stream is exhausted and nothing new was read.
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int remaining = limit - pos;
+        if (remaining > 0 && pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, remaining);
+        }
+        pos = 0;
+        limit = remaining;
+
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n == -1) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    private boolean startsWith(byte[] prefix) {
+        if (limit - pos < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf[pos + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether the byte at i ends a tag name, so "<rss" is not "<rssfeed"
+    private boolean endsTagName(int i) {
+        if (i >= limit) {
+            return false;
+        }
+        byte c = buf[i];
+        return c == '>' || c == '/' || c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+}
@@ -0,0 +1,69 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * In-memory HTTP cache for the RSS feed. For each feed URL it keeps the
+ * validators (ETag / Last-Modified) from the last full download together
+ * with the rates parsed from it, so a "304 Not Modified" response can be
+ * answered without downloading or parsing anything.
+ *
+ * One instance is meant to be shared by every RssFeedFetcher that loads
+ * the same feed. All methods are thread-safe.
+ */
+public class FeedHttpCache {
+
+    /**
+     * Immutable cache entry for one URL.
+     */
+    public static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final ArrayList<CurrencyRate> rates;
+
+        Entry(String etag, String lastModified, ArrayList<CurrencyRate> rates) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.rates = new ArrayList<>(rates);
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns a fresh copy so callers may modify the list freely.
+         */
+        public ArrayList<CurrencyRate> copyRates() {
+            return new ArrayList<>(rates);
+        }
+    }
+
+    private final HashMap<String, Entry> entries = new HashMap<>();
+
+    public synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * Stores the result of a full download. Responses without any validator
+     * cannot be revalidated, so they are not kept.
+     */
+    public synchronized void put(String url, String etag, String lastModified,
+                                 ArrayList<CurrencyRate> rates) {
+        if (etag == null && lastModified == null) {
+            entries.remove(url);
+            return;
+        }
+        entries.put(url, new Entry(etag, lastModified, rates));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,230 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Transport helpers for the feed download: streaming decompression of
+ * gzip / deflate bodies, charset detection, and a guard that stops a body
+ * once it is too big or has taken too long.
+ */
+public final class FeedStreams {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    // How much of the body is looked at for an XML prolog
+    private static final int PROLOG_PEEK = 256;
+
+    private FeedStreams() {
+    }
+
+    /**
+     * Thrown when a body is bigger than the configured maximum, either by
+     * its Content-Length or while it is read.
+     */
+    public static final class TooLargeException extends IOException {
+        public TooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    // -------- Content-Encoding --------
+
+    /**
+     * Wraps the raw body in a decompressing stream for the given
+     * Content-Encoding ("gzip", "x-gzip", "deflate"); anything else,
+     * including null and "identity", is returned as it is.
+     * Deflate bodies are accepted both zlib-wrapped, as the spec says,
+     * and raw, as some servers send them.
+     */
+    public static InputStream decode(String contentEncoding, InputStream in) throws IOException {
+        if (contentEncoding == null) {
+            return in;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.equals("gzip") || encoding.equals("x-gzip")) {
+            return new GZIPInputStream(in, 8192);
+        }
+        if (encoding.equals("deflate")) {
+            BufferedInputStream buffered = new BufferedInputStream(in, 8192);
+            buffered.mark(2);
+            int cmf = buffered.read();
+            int flg = buffered.read();
+            buffered.reset();
+            boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+            return new InflaterInputStream(buffered, new Inflater(!zlib), 8192);
+        }
+        return in;
+    }
+
+    // -------- Charset --------
+
+    /**
+     * Charset named by a Content-Type header ("text/xml; charset=ISO-8859-1"),
+     * or null if there is none or it is not supported.
+     */
+    public static Charset charsetFromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int at = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (at < 0) {
+            return null;
+        }
+        int start = at + "charset=".length();
+        int end = start;
+        while (end < contentType.length() && contentType.charAt(end) != ';'
+                && !Character.isWhitespace(contentType.charAt(end))) {
+            end++;
+        }
+        return forName(unquote(contentType.substring(start, end)));
+    }
+
+    /**
+     * Charset declared by an XML prolog ({@code <?xml ... encoding="..."?>})
+     * at the start of the bytes, after any leading garbage; null if none.
+     */
+    public static Charset charsetFromProlog(byte[] head, int length) {
+        // The prolog is ASCII in every encoding the feed could use
+        String text = new String(head, 0, length, StandardCharsets.ISO_8859_1);
+        int prolog = text.indexOf("<?xml");
+        if (prolog < 0) {
+            return null;
+        }
+        int close = text.indexOf("?>", prolog);
+        int at = text.indexOf("encoding", prolog);
+        if (at < 0 || (close >= 0 && at > close)) {
+            return null;
+        }
+        int quote = at + "encoding".length();
+        while (quote < text.length() && (text.charAt(quote) == ' ' || text.charAt(quote) == '=')) {
+            quote++;
+        }
+        if (quote >= text.length() || (text.charAt(quote) != '"' && text.charAt(quote) != '\'')) {
+            return null;
+        }
+        int end = text.indexOf(text.charAt(quote), quote + 1);
+        return end < 0 ? null : forName(text.substring(quote + 1, end));
+    }
+
+    /**
+     * Charset to decode the body with: the Content-Type header wins, then the
+     * XML prolog, then UTF-8 (the XML default). Peeks at the start of the
+     * stream, which must support mark/reset.
+     */
+    public static Charset detectCharset(String contentType, InputStream in) throws IOException {
+        Charset fromHeader = charsetFromContentType(contentType);
+        if (fromHeader != null) {
+            return fromHeader;
+        }
+        byte[] head = new byte[PROLOG_PEEK];
+        in.mark(PROLOG_PEEK);
+        int length = 0;
+        int n;
+        while (length < head.length && (n = in.read(head, length, head.length - length)) > 0) {
+            length += n;
+        }
+        in.reset();
+        Charset fromProlog = charsetFromProlog(head, length);
+        return fromProlog != null ? fromProlog : StandardCharsets.UTF_8;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static Charset forName(String name) {
+        try {
+            return Charset.forName(name.trim());
+        } catch (IllegalArgumentException e) {
+            return null;    // unknown or malformed name
+        }
+    }
+
+    // -------- Limits --------
+
+    /**
+     * Fails the read that takes the body past {@code maxBytes}, or that
+     * starts after the deadline. The socket read timeout only bounds one
+     * read, so a server dripping a byte at a time would never trip it; the
+     * deadline bounds the whole body (a read already blocked can still run
+     * for up to one read timeout past it).
+     */
+    public static final class BoundedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private final long deadlineNanos;
+        private long count;
+
+        /**
+         * @param maxBytes      0 for no limit
+         * @param deadlineNanos a {@link System#nanoTime()} value, or 0 for none
+         */
+        public BoundedInputStream(InputStream in, long maxBytes, long deadlineNanos) {
+            super(in);
+            this.maxBytes = maxBytes;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkDeadline();
+            long skipped = super.skip(n);
+            advance(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;   // a reset would count bytes twice
+        }
+
+        private void checkDeadline() throws SocketTimeoutException {
+            if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0) {
+                throw new SocketTimeoutException("Feed download passed its deadline");
+            }
+        }
+
+        private void advance(long n) throws TooLargeException {
+            count += n;
+            if (maxBytes > 0 && count > maxBytes) {
+                throw new TooLargeException("Feed is larger than " + maxBytes + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, bounded thread pool for feed downloads, so fetches never start
+ * an unbounded number of raw Threads. Idle threads exit after a while.
+ */
+public final class FetchExecutors {
+
+    private static final int MAX_THREADS = 4;
+    private static final long IDLE_SECONDS = 30;
+
+    private static ExecutorService network;
+
+    private FetchExecutors() {
+    }
+
+    public static synchronized ExecutorService network() {
+        if (network == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    MAX_THREADS, MAX_THREADS, IDLE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("feed-fetch"));
+            pool.allowCoreThreadTimeOut(true);
+            network = pool;
+        }
+        return network;
+    }
+
+    /**
+     * Daemon threads with a readable name, at background priority.
+     */
+    static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The process-wide {@link FlagCache} of flag bitmaps, decoded at most at
+ * the size of the row's flag view.
+ *
+ * setImageResource() decodes the drawable on the UI thread on every call,
+ * scaled up from mdpi to the screen density. Here each flag is decoded
+ * once, on a background thread, without density scaling and subsampled
+ * when the source is larger than the view; the ImageView scales the
+ * small bitmap as it draws.
+ */
+public final class FlagBitmaps {
+
+    // Every flag in the app fits in well under this (158 flags of 32x24 px are ~480 KB)
+    static final int MAX_BYTES = 1024 * 1024;
+
+    private static final ExecutorService DECODE_EXECUTOR =
+            Executors.newSingleThreadExecutor(new FetchExecutors.NamedThreadFactory("flag-decode"));
+
+    private static FlagCache<Bitmap> shared;
+
+    private FlagBitmaps() {
+    }
+
+    /**
+     * The shared cache. Call on the main thread.
+     */
+    public static synchronized FlagCache<Bitmap> shared(Context context) {
+        if (shared == null) {
+            Resources resources = context.getApplicationContext().getResources();
+            final Handler mainHandler = new Handler(Looper.getMainLooper());
+            shared = new FlagCache<>(
+                    new ResourceDecoder(resources,
+                            resources.getDimensionPixelSize(R.dimen.flag_width),
+                            resources.getDimensionPixelSize(R.dimen.flag_height)),
+                    DECODE_EXECUTOR,
+                    new Executor() {
+                        @Override
+                        public void execute(Runnable command) {
+                            mainHandler.post(command);
+                        }
+                    },
+                    MAX_BYTES);
+        }
+        return shared;
+    }
+
+    /**
+     * Largest power-of-two subsampling that keeps the decoded bitmap at
+     * least as large as the view in both directions (so centerCrop never
+     * has to scale it up).
+     */
+    static int sampleSize(int sourceWidth, int sourceHeight, int viewWidth, int viewHeight) {
+        int sample = 1;
+        if (viewWidth <= 0 || viewHeight <= 0) {
+            return sample;
+        }
+        while (sourceWidth / (sample * 2) >= viewWidth && sourceHeight / (sample * 2) >= viewHeight) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    // Decodes drawables from the app's resources, called on DECODE_EXECUTOR
+    private static final class ResourceDecoder implements FlagCache.Decoder<Bitmap> {
+        private final Resources resources;
+        private final int viewWidth;
+        private final int viewHeight;
+
+        ResourceDecoder(Resources resources, int viewWidth, int viewHeight) {
+            this.resources = resources;
+            this.viewWidth = viewWidth;
+            this.viewHeight = viewHeight;
+        }
+
+        @Override
+        public Bitmap decode(int resId) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            options.inScaled = false;
+            BitmapFactory.decodeResource(resources, resId, options);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return null;
+            }
+
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = sampleSize(options.outWidth, options.outHeight, viewWidth, viewHeight);
+            return BitmapFactory.decodeResource(resources, resId, options);
+        }
+
+        @Override
+        public int sizeOf(Bitmap image) {
+            return image.getAllocationByteCount();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Decoded flag images by drawable id, bounded by their size in bytes and
+ * evicted least recently used first.
+ *
+ * Images are decoded on a background executor, once per drawable however
+ * many rows ask for it meanwhile, and handed back on the main executor.
+ * Everything except the decode itself runs on the main thread, so there
+ * is no locking. Drawables that fail to decode are remembered and not
+ * tried again.
+ */
+public class FlagCache<T> {
+
+    public interface Decoder<T> {
+        /**
+         * Called off the main thread.
+         *
+         * @return the image, or null if the drawable cannot be decoded
+         */
+        T decode(int resId);
+
+        int sizeOf(T image);
+    }
+
+    public interface Callback<T> {
+        /**
+         * Called on the main thread; image is null if it could not be decoded.
+         */
+        void onFlagLoaded(int resId, T image);
+    }
+
+    private final Decoder<T> decoder;
+    private final Executor decodeExecutor;
+    private final Executor mainExecutor;
+    private final int maxBytes;
+
+    // Access-ordered, so iteration starts at the least recently used
+    private final LinkedHashMap<Integer, T> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final HashMap<Integer, ArrayList<Callback<? super T>>> pending = new HashMap<>();
+    private final HashSet<Integer> failed = new HashSet<>();
+    private int bytes;
+
+    public FlagCache(Decoder<T> decoder, Executor decodeExecutor, Executor mainExecutor, int maxBytes) {
+        this.decoder = decoder;
+        this.decodeExecutor = decodeExecutor;
+        this.mainExecutor = mainExecutor;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the image if it is cached. Otherwise returns null and calls
+     * back once it has been decoded (or has failed to).
+     */
+    public T load(final int resId, Callback<? super T> callback) {
+        T image = images.get(resId);
+        if (image != null) {
+            return image;
+        }
+
+        if (failed.contains(resId)) {
+            callback.onFlagLoaded(resId, null);
+            return null;
+        }
+        ArrayList<Callback<? super T>> waiting = pending.get(resId);
+        if (waiting != null) {
+            waiting.add(callback);
+            return null;
+        }
+        waiting = new ArrayList<>(2);
+        waiting.add(callback);
+        pending.put(resId, waiting);
+
+        decodeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                T decoded = null;
+                try {
+                    decoded = decoder.decode(resId);
+                } catch (RuntimeException e) {
+                    // Treated as undecodable below
+                } finally {
+                    Metrics.FLAG_DECODES.increment();
+                    Metrics.FLAG_DECODE_TIME.recordSince(start);
+                }
+
+                final T image = decoded;
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDecoded(resId, image);
+                    }
+                });
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Whether an image is cached, without touching its recency.
+     */
+    public boolean contains(int resId) {
+        return images.containsKey(resId);
+    }
+
+    public int size() {
+        return images.size();
+    }
+
+    /**
+     * Bytes held by the cached images.
+     */
+    public int getBytes() {
+        return bytes;
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    private void onDecoded(int resId, T image) {
+        if (image != null) {
+            put(resId, image);
+        } else {
+            failed.add(resId);
+        }
+        ArrayList<Callback<? super T>> waiting = pending.remove(resId);
+        if (waiting != null) {
+            for (int i = 0; i < waiting.size(); i++) {
+                waiting.get(i).onFlagLoaded(resId, image);
+            }
+        }
+    }
+
+    private void put(int resId, T image) {
+        T previous = images.put(resId, image);
+        if (previous != null) {
+            bytes -= decoder.sizeOf(previous);
+        }
+        bytes += decoder.sizeOf(image);
+
+        // Evicted images may still be on screen, so they are left to the GC rather than recycled
+        Iterator<Map.Entry<Integer, T>> eldest = images.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= decoder.sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+}
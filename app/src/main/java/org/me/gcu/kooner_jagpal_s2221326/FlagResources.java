@@ -0,0 +1,54 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.content.Context;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Process-wide cache of flag drawable ids by currency code id.
+ *
+ * Resources.getIdentifier() is a slow, reflective name lookup, so each
+ * code is resolved at most once per process. Codes without a flag are
+ * cached too, so they are not looked up again on every bind.
+ */
+public final class FlagResources {
+
+    private static final int UNRESOLVED = 0;
+    private static final int NO_FLAG = -1;
+
+    // Code id -> drawable id, UNRESOLVED or NO_FLAG
+    private static int[] idsByCode = new int[0];
+
+    private FlagResources() {
+    }
+
+    /**
+     * Drawable id of the flag for a code id (drawables are named like
+     * flag_usd, flag_eur, ...), or 0 if there is none.
+     */
+    public static synchronized int drawableId(Context context, int codeId) {
+        if (codeId < 0) {
+            return 0;
+        }
+        if (codeId >= idsByCode.length) {
+            idsByCode = Arrays.copyOf(idsByCode, Math.max(codeId + 1, CurrencyCodes.size()));
+        }
+
+        int cached = idsByCode[codeId];
+        if (cached == UNRESOLVED) {
+            String code = CurrencyCodes.code(codeId);
+            int resId = 0;
+            if (code != null && !code.isEmpty()) {
+                resId = context.getResources().getIdentifier(
+                        "flag_" + code.toLowerCase(Locale.ROOT),
+                        "drawable",
+                        context.getPackageName()
+                );
+            }
+            cached = (resId != 0) ? resId : NO_FLAG;
+            idsByCode[codeId] = cached;
+        }
+        return cached == NO_FLAG ? 0 : cached;
+    }
+}
@@ -1,12 +1,13 @@
 /*  Mobile Platform Development Coursework
     MainActivity:
-    - Uses RssFeedFetcher to download & parse RSS off the UI thread
+    - Gets rates from RateRepository: the last good rates straight away
+      (memory or disk), then revalidated from the RSS feed off the UI thread
     - Shows:
         * Main currencies (GBP -> USD, EUR, JPY)
-        * All currencies (colour coded)
+        * All currencies (with movement arrows)
     - Supports search (code / name / country text)
     - Clicking any item opens ConverterActivity
-    - Automatically refreshes rates every 5 minutes
+    - Refreshes automatically when the feed is due to update (RefreshScheduler)
 */
 
 package org.me.gcu.kooner_jagpal_s2221326;
@@ -15,49 +16,79 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
 import android.view.View.OnClickListener;
-import android.widget.AdapterView;
 import android.widget.Button;
 import android.widget.EditText;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity implements OnClickListener {
 
     private static final String TAG = "MPD";
-    private static final long AUTO_REFRESH_MS = 5 * 60 * 1000; // 5 minutes
 
     private TextView salutation;
     private TextView acknowledgement;
+    private TextView txtDataAge;
     private TextView mainCurrenciesLabel;
     private TextView allCurrenciesLabel;
     private Button startButton;
-    private ListView listMainCurrencies;
-    private ListView listAllCurrencies;
+    private RecyclerView listMainCurrencies;
+    private RecyclerView listAllCurrencies;
     private EditText editSearch;
     private Button btnSearch;
 
-    private String urlSource = "https://www.fx-exchange.com/gbp/rss.xml";
-
-    // Parsed currency data
-    private ArrayList<CurrencyRate> currencyRates = new ArrayList<>();
-    private ArrayList<CurrencyRate> mainCurrencies = new ArrayList<>();
-    private ArrayList<CurrencyRate> filteredCurrencies = new ArrayList<>();
+    // Process-wide rates; survives rotation, so a new activity shows them at once
+    private RateRepository repository;
+    private RateRepository.Observer repositoryObserver;
+
+    // Parsed currency data: one immutable table, lists show row slices of it
+    private static final String[] MAIN_CODES = {"USD", "EUR", "JPY"};
+    private RateTable rateTable = RateTable.EMPTY;
+    private CurrencySearchIndex searchIndex = CurrencySearchIndex.EMPTY;
+
+    // Search-as-you-type: debounced on the UI thread, run on a background thread
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
+    // Fired alerts listed in the refresh toast
+    private static final int MAX_ALERTS_SHOWN = 3;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private int searchGeneration; // only touched on the UI thread
+    private final Runnable debouncedSearch = new Runnable() {
+        @Override
+        public void run() {
+            runSearch(false);
+        }
+    };
 
     // Custom adapters
     private CurrencyRateAdapter mainAdapter;
     private CurrencyRateAdapter allAdapter;
 
-    // Auto-refresh handler
-    private Handler autoRefreshHandler = new Handler(Looper.getMainLooper());
-    private Runnable autoRefreshRunnable;
+    // Age of the shown rates, re-read every minute while started
+    private static final long AGE_TICK_MS = 60 * 1000;
+    private final Handler ageHandler = new Handler(Looper.getMainLooper());
+    private final Runnable ageTicker = new Runnable() {
+        @Override
+        public void run() {
+            showDataAge();
+        }
+    };
+
+    // Auto-refresh, timed from the feed's update cadence; paused while stopped
+    private RefreshScheduler refreshScheduler;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -67,6 +98,7 @@ public class MainActivity extends AppCompatActivity implements OnClickListener {
         // Link UI components
         salutation = findViewById(R.id.salutation);
         acknowledgement = findViewById(R.id.acknowledgement);
+        txtDataAge = findViewById(R.id.txtDataAge);
         mainCurrenciesLabel = findViewById(R.id.mainCurrenciesLabel);
         allCurrenciesLabel = findViewById(R.id.allCurrenciesLabel);
         startButton = findViewById(R.id.startButton);
@@ -76,48 +108,97 @@ public class MainActivity extends AppCompatActivity implements OnClickListener {
         btnSearch = findViewById(R.id.btnSearch);
 
         startButton.setOnClickListener(this);
+        startButton.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View view) {
+                // Hidden entry point for fetch / parse / render timings
+                startActivity(new Intent(MainActivity.this, DiagnosticsActivity.class));
+                return true;
+            }
+        });
         btnSearch.setOnClickListener(this);
 
-        // Adapters use the backing ArrayLists directly
-        mainAdapter = new CurrencyRateAdapter(this, mainCurrencies);
-        allAdapter = new CurrencyRateAdapter(this, filteredCurrencies);
+        // Update results on each keystroke, once typing pauses
+        editSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchHandler.removeCallbacks(debouncedSearch);
+                searchHandler.postDelayed(debouncedSearch, SEARCH_DEBOUNCE_MS);
+            }
+        });
+
+        // Adapters show row slices of the current RateTable
+        mainAdapter = new CurrencyRateAdapter(this);
+        allAdapter = new CurrencyRateAdapter(this);
 
+        listMainCurrencies.setLayoutManager(new LinearLayoutManager(this));
+        listAllCurrencies.setLayoutManager(new LinearLayoutManager(this));
         listMainCurrencies.setAdapter(mainAdapter);
         listAllCurrencies.setAdapter(allAdapter);
 
         // Click on any item -> open converter
-        listMainCurrencies.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+        CurrencyRateAdapter.OnRateClickListener openOnClick = new CurrencyRateAdapter.OnRateClickListener() {
             @Override
-            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                if (position >= 0 && position < mainCurrencies.size()) {
-                    CurrencyRate selected = mainCurrencies.get(position);
-                    openConverter(selected);
-                }
+            public void onRateClick(RateTable table, int row) {
+                openConverter(table, row);
             }
-        });
+        };
+        mainAdapter.setOnRateClickListener(openOnClick);
+        allAdapter.setOnRateClickListener(openOnClick);
+
+        // Whatever rates are already here show straight away (after rotation,
+        // from memory); a cold start gets the disk snapshot, then the network
+        repository = RateRepository.get(this);
+        repositoryObserver = newRepositoryObserver();
+        repository.addObserver(repositoryObserver);
+        RateRepository.Snapshot snapshot = repository.getSnapshot();
+        if (!snapshot.isEmpty()) {
+            showTable(snapshot.getTable(), snapshot.getSearchIndex());
+        }
 
-        listAllCurrencies.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+        // Auto-refresh; the first one runs as soon as the activity starts
+        refreshScheduler = RefreshScheduler.onMainThread(new RefreshScheduler.OnRefreshDueListener() {
             @Override
-            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                if (position >= 0 && position < filteredCurrencies.size()) {
-                    CurrencyRate selected = filteredCurrencies.get(position);
-                    openConverter(selected);
-                }
+            public void onRefreshDue() {
+                revalidate();
             }
         });
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        refreshScheduler.start();
+        showDataAge();
+    }
 
-        // Initial load + start auto-refresh
-        startProgress();
-        scheduleAutoRefresh();
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // No background polling while nothing is visible
+        refreshScheduler.stop();
+        ageHandler.removeCallbacks(ageTicker);
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
         // Stop auto-refresh when activity is destroyed
-        if (autoRefreshRunnable != null) {
-            autoRefreshHandler.removeCallbacks(autoRefreshRunnable);
-        }
+        refreshScheduler.stop();
+        searchHandler.removeCallbacks(debouncedSearch);
+        ageHandler.removeCallbacks(ageTicker);
+        searchExecutor.shutdownNow();
+        // A download still running carries on for the next activity, but
+        // can no longer touch this one
+        repository.removeObserver(repositoryObserver);
     }
 
     @Override
@@ -132,127 +213,161 @@ public class MainActivity extends AppCompatActivity implements OnClickListener {
     }
 
     private void performSearch() {
-        String query = editSearch.getText().toString().trim().toLowerCase();
-
-        if (currencyRates.isEmpty()) {
+        if (rateTable.isEmpty()) {
             Toast.makeText(this, "No data yet. Please wait for rates to download.", Toast.LENGTH_SHORT).show();
             return;
         }
+        runSearch(true);
+    }
 
-        filteredCurrencies.clear();
+    // Query the current index on the search thread and show the matching rows
+    private void runSearch(final boolean fromButton) {
+        searchHandler.removeCallbacks(debouncedSearch);
+        if (searchExecutor.isShutdown()) {
+            return; // activity is being destroyed
+        }
 
-        // If query empty -> show all
-        if (query.isEmpty()) {
-            filteredCurrencies.addAll(currencyRates);
-        } else {
-            for (CurrencyRate rate : currencyRates) {
-                String code = (rate.getTargetCode() != null) ? rate.getTargetCode().toLowerCase() : "";
-                String name = (rate.getCurrencyName() != null) ? rate.getCurrencyName().toLowerCase() : "";
+        final String query = editSearch.getText().toString();
+        final RateTable table = rateTable;
+        final CurrencySearchIndex index = searchIndex;
+        final int generation = ++searchGeneration;
 
-                if (code.contains(query) || name.contains(query)) {
-                    filteredCurrencies.add(rate);
-                }
-            }
+        searchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int[] rows = index.search(query);
 
-            if (filteredCurrencies.isEmpty()) {
-                Toast.makeText(this, "No currencies match that search.", Toast.LENGTH_SHORT).show();
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Drop results overtaken by a newer keystroke or refresh
+                        if (generation != searchGeneration || table != rateTable) {
+                            return;
+                        }
+                        allAdapter.setRows(table, rows);
+
+                        if (fromButton && rows.length == 0) {
+                            Toast.makeText(MainActivity.this, "No currencies match that search.", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
             }
-        }
-
-        allAdapter.notifyDataSetChanged();
+        });
     }
 
     public void startProgress() {
-        Toast.makeText(this, "Updating currency rates...", Toast.LENGTH_SHORT).show();
+        if (repository.refresh()) {
+            Toast.makeText(this, "Updating currency rates...", Toast.LENGTH_SHORT).show();
+        } else {
+            Log.d(TAG, "Refresh already in progress");
+        }
+    }
+
+    // Scheduled refresh: skipped if the rates were fetched moments ago,
+    // e.g. by the activity this one replaced on rotation
+    private void revalidate() {
+        if (repository.isFresh(RefreshScheduler.MIN_INTERVAL_MS) && !repository.isRefreshing()) {
+            refreshScheduler.onFetched(repository.getSnapshot().getPubDate());
+        } else {
+            startProgress();
+        }
+    }
 
-        RssFeedFetcher.OnRatesParsedListener listener = new RssFeedFetcher.OnRatesParsedListener() {
+    private RateRepository.Observer newRepositoryObserver() {
+        return new RateRepository.Observer() {
             @Override
-            public void onRatesParsed(final ArrayList<CurrencyRate> rates) {
+            public void onSnapshot(final RateRepository.Snapshot snapshot) {
+                // Table and index were built off the UI thread; the UI only swaps the reference
                 runOnUiThread(new Runnable() {
                     @Override
                     public void run() {
-                        currencyRates.clear();
-                        currencyRates.addAll(rates);
-
-                        mainCurrencies.clear();
-                        mainCurrencies.addAll(extractMainCurrencies(currencyRates));
-
-                        filteredCurrencies.clear();
-                        filteredCurrencies.addAll(currencyRates);
-
-                        mainAdapter.notifyDataSetChanged();
-                        allAdapter.notifyDataSetChanged();
-
-                        Toast.makeText(MainActivity.this,
-                                "Rates updated (" + currencyRates.size() + " currencies).",
-                                Toast.LENGTH_SHORT).show();
+                        if (isDestroyed()) {
+                            return;
+                        }
+                        // The same table again means the feed had not moved since
+                        boolean changed = snapshot.getTable() != rateTable;
+                        if (changed) {
+                            showTable(snapshot.getTable(), snapshot.getSearchIndex());
+                        }
+                        showDataAge();
+
+                        if (snapshot.isFromNetwork()) {
+                            refreshScheduler.onFetched(snapshot.getPubDate());
+                            List<RateAlerts.Trigger> fired = snapshot.getTriggeredAlerts();
+                            String message = !fired.isEmpty() ? describeAlerts(fired)
+                                    : changed ? "Rates updated (" + snapshot.getTable().size() + " currencies)."
+                                    : "Rates are up to date.";
+                            Toast.makeText(MainActivity.this, message,
+                                    fired.isEmpty() ? Toast.LENGTH_SHORT : Toast.LENGTH_LONG).show();
+                        }
                     }
                 });
             }
 
             @Override
-            public void onError(final String message) {
+            public void onRefreshFailed(final String message) {
                 runOnUiThread(new Runnable() {
                     @Override
                     public void run() {
-                        Log.e(TAG, "Error from RssFeedFetcher: " + message);
-                        Toast.makeText(MainActivity.this, message, Toast.LENGTH_LONG).show();
+                        Log.e(TAG, "Error refreshing rates: " + message);
+                        if (!isDestroyed()) {
+                            refreshScheduler.onError();
+                            Toast.makeText(MainActivity.this, message, Toast.LENGTH_LONG).show();
+                        }
                     }
                 });
             }
         };
+    }
+
+    // First few fired alerts, one per line
+    private static String describeAlerts(List<RateAlerts.Trigger> fired) {
+        StringBuilder text = new StringBuilder("Rate alert");
+        int shown = Math.min(fired.size(), MAX_ALERTS_SHOWN);
+        for (int i = 0; i < shown; i++) {
+            text.append('\n').append(fired.get(i));
+        }
+        if (fired.size() > shown) {
+            text.append("\n... and ").append(fired.size() - shown).append(" more");
+        }
+        return text.toString();
+    }
 
-        // Run fetcher on a background thread
-        new Thread(new RssFeedFetcher(urlSource, listener)).start();
+    // "Rates published 25 min ago, checked just now", kept current while visible
+    private void showDataAge() {
+        RateRepository.Snapshot snapshot = repository.getSnapshot();
+        txtDataAge.setText(DataAge.describe(snapshot.getPubDate(), snapshot.getFetchedAt(),
+                snapshot.isFromNetwork(), System.currentTimeMillis()));
+        ageHandler.removeCallbacks(ageTicker);
+        ageHandler.postDelayed(ageTicker, AGE_TICK_MS);
     }
 
-    private void scheduleAutoRefresh() {
-        if (autoRefreshRunnable == null) {
-            autoRefreshRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    startProgress();
-                    autoRefreshHandler.postDelayed(this, AUTO_REFRESH_MS);
-                }
-            };
+    // Replace the displayed data with a new table of rates
+    private void showTable(RateTable table, CurrencySearchIndex index) {
+        long start = System.nanoTime();
+        rateTable = table;
+        searchIndex = index;
+
+        mainAdapter.setRows(table, table.rowsFor(MAIN_CODES));
+        if (editSearch.getText().toString().trim().isEmpty()) {
+            allAdapter.setRows(table, table.allRows());
+        } else {
+            // Keep the user's filter applied to the new data
+            runSearch(false);
         }
-        // First auto-refresh will happen after the delay
-        autoRefreshHandler.postDelayed(autoRefreshRunnable, AUTO_REFRESH_MS);
+        Metrics.UI_APPLY_TIME.recordSince(start);
     }
 
-    // Open ConverterActivity for the selected CurrencyRate
-    private void openConverter(CurrencyRate rate) {
-        if (rate == null || rate.getTargetCode() == null) {
+    // Open ConverterActivity for the selected row
+    private void openConverter(RateTable table, int row) {
+        if (table.code(row) == null) {
             Toast.makeText(this, "No currency details available.", Toast.LENGTH_SHORT).show();
             return;
         }
 
+        // Only the code: the converter reads the rates from RateRepository
         Intent intent = new Intent(MainActivity.this, ConverterActivity.class);
-        intent.putExtra("targetCode", rate.getTargetCode());
-        intent.putExtra("currencyName", rate.getCurrencyName());
-        intent.putExtra("rate", rate.getRate());
+        intent.putExtra("targetCode", table.code(row));
         startActivity(intent);
     }
-
-    /**
-     * Extract just the main currencies: USD, EUR, JPY.
-     */
-    private ArrayList<CurrencyRate> extractMainCurrencies(ArrayList<CurrencyRate> all) {
-        ArrayList<CurrencyRate> mains = new ArrayList<>();
-        String[] codes = {"USD", "EUR", "JPY"};
-
-        for (CurrencyRate rate : all) {
-            String code = rate.getTargetCode();
-            if (code == null) {
-                continue;
-            }
-            for (String mainCode : codes) {
-                if (mainCode.equalsIgnoreCase(code)) {
-                    mains.add(rate);
-                    break;
-                }
-            }
-        }
-        return mains;
-    }
-}
\ No newline at end of file
+}
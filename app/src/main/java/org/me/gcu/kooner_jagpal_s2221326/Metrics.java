@@ -0,0 +1,298 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Process-wide counters and histograms for the fetch / parse / display
+ * pipeline, shown by {@link DiagnosticsActivity} and {@link #dump()}.
+ *
+ * Recording is lock-free and allocation-free: counters are LongAdders, and
+ * a histogram is one LongAdder per power-of-two bucket, so a value costs a
+ * leading-zero count and an add. Percentiles are therefore bucket upper
+ * bounds, accurate to within a factor of two.
+ */
+public final class Metrics {
+
+    // --- Network ---
+    public static final Histogram DNS_TIME = histogram("net.dns", Unit.NANOS);
+    public static final Histogram CONNECT_TIME = histogram("net.connect", Unit.NANOS);
+    public static final Histogram DOWNLOAD_TIME = histogram("net.download", Unit.NANOS);
+    public static final Histogram DOWNLOAD_SIZE = histogram("net.download_size", Unit.BYTES);
+    public static final Counter BYTES_DOWNLOADED = counter("net.bytes");
+    public static final Counter BYTES_DECODED = counter("net.bytes_decoded");
+    public static final Counter FETCHES = counter("net.fetches");
+    public static final Counter NOT_MODIFIED = counter("net.not_modified");
+    public static final Counter NETWORK_ERRORS = counter("net.errors");
+    public static final Counter ABORTED_DOWNLOADS = counter("net.aborted");
+
+    // --- Parsing ---
+    public static final Histogram PARSE_ITEM_TIME = histogram("parse.item", Unit.NANOS);
+    public static final Counter ITEMS_PARSED = counter("parse.items");
+    public static final Counter RATE_PARSE_FAILURES = counter("parse.rate_failures");
+    public static final Counter FEED_PARSE_FAILURES = counter("parse.feed_failures");
+
+    // --- UI ---
+    public static final Histogram UI_APPLY_TIME = histogram("ui.apply", Unit.NANOS);
+    public static final Histogram BIND_TIME = histogram("ui.bind", Unit.NANOS);
+    public static final Histogram FLAG_BIND_TIME = histogram("ui.flag_bind", Unit.NANOS);
+    public static final Histogram FLAG_DECODE_TIME = histogram("ui.flag_decode", Unit.NANOS);
+    public static final Counter FLAG_DECODES = counter("ui.flag_decodes");
+
+    private static List<Counter> counters;
+    private static List<Histogram> histograms;
+    private static volatile long startedAt = SystemClock.elapsedRealtime();
+
+    private Metrics() {
+    }
+
+    public enum Unit {
+        NANOS, BYTES
+    }
+
+    /**
+     * A count that only goes up (until {@link #reset()}).
+     */
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    /**
+     * Distribution of non-negative values in power-of-two buckets:
+     * bucket 0 holds 0, bucket b holds [2^(b-1), 2^b).
+     */
+    public static final class Histogram {
+        static final int BUCKETS = 64;
+
+        private final String name;
+        private final Unit unit;
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(new LongBinaryOperator() {
+            @Override
+            public long applyAsLong(long left, long right) {
+                return Math.max(left, right);
+            }
+        }, 0);
+
+        Histogram(String name, Unit unit) {
+            this.name = name;
+            this.unit = unit;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Unit getUnit() {
+            return unit;
+        }
+
+        /**
+         * Records one value; negative values count as 0.
+         */
+        public void record(long value) {
+            long v = Math.max(0, value);
+            buckets[bucketOf(v)].increment();
+            count.increment();
+            sum.add(v);
+            max.accumulate(v);
+        }
+
+        /**
+         * Records the time since {@code startNanos}, a {@link System#nanoTime()} value.
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getSum() {
+            return sum.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public double getMean() {
+            long n = getCount();
+            return n == 0 ? 0 : (double) getSum() / n;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile (0-100),
+         * capped at the largest value seen; 0 if empty.
+         */
+        public long getPercentile(double percentile) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets[i].sum();
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), getMax());
+                }
+            }
+            return getMax();
+        }
+
+        static int bucketOf(long value) {
+            return 64 - Long.numberOfLeadingZeros(value);
+        }
+
+        // Largest value that falls in the bucket
+        static long upperBound(int bucket) {
+            return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+
+    // -------- Registry --------
+
+    private static synchronized Counter counter(String name) {
+        if (counters == null) {
+            counters = new ArrayList<>();
+        }
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    private static synchronized Histogram histogram(String name, Unit unit) {
+        if (histograms == null) {
+            histograms = new ArrayList<>();
+        }
+        Histogram histogram = new Histogram(name, unit);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    public static synchronized List<Counter> counters() {
+        return Collections.unmodifiableList(new ArrayList<>(counters));
+    }
+
+    public static synchronized List<Histogram> histograms() {
+        return Collections.unmodifiableList(new ArrayList<>(histograms));
+    }
+
+    /**
+     * Zeroes every counter and histogram.
+     */
+    public static synchronized void reset() {
+        for (Counter counter : counters) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+        startedAt = SystemClock.elapsedRealtime();
+    }
+
+    // -------- Text dump --------
+
+    /**
+     * Plain-text dump, one metric per line, e.g.
+     * <pre>
+     * counter parse.items 1580
+     * histogram parse.item count=1580 mean=1.7us p50=2.0us p90=4.1us p99=8.2us max=35.2us
+     * </pre>
+     */
+    public static String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.UK, "# metrics over %.1f s\n",
+                (SystemClock.elapsedRealtime() - startedAt) / 1000.0));
+        for (Counter counter : counters()) {
+            out.append("counter ").append(counter.getName()).append(' ').append(counter.get()).append('\n');
+        }
+        for (Histogram histogram : histograms()) {
+            Unit unit = histogram.getUnit();
+            out.append("histogram ").append(histogram.getName())
+                    .append(" count=").append(histogram.getCount());
+            if (histogram.getCount() > 0) {
+                out.append(" mean=").append(format(histogram.getMean(), unit))
+                        .append(" p50=").append(format(histogram.getPercentile(50), unit))
+                        .append(" p90=").append(format(histogram.getPercentile(90), unit))
+                        .append(" p99=").append(format(histogram.getPercentile(99), unit))
+                        .append(" max=").append(format(histogram.getMax(), unit));
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    // Human-readable value with a unit suffix: "850ns", "1.7us", "12.3ms", "2.1s", "1.5KiB"
+    static String format(double value, Unit unit) {
+        if (unit == Unit.BYTES) {
+            if (value < 1024) {
+                return String.format(Locale.UK, "%.0fB", value);
+            } else if (value < 1024 * 1024) {
+                return String.format(Locale.UK, "%.1fKiB", value / 1024);
+            }
+            return String.format(Locale.UK, "%.1fMiB", value / (1024 * 1024));
+        }
+        if (value < 1e3) {
+            return String.format(Locale.UK, "%.0fns", value);
+        } else if (value < 1e6) {
+            return String.format(Locale.UK, "%.1fus", value / 1e3);
+        } else if (value < 1e9) {
+            return String.format(Locale.UK, "%.1fms", value / 1e6);
+        }
+        return String.format(Locale.UK, "%.2fs", value / 1e9);
+    }
+}
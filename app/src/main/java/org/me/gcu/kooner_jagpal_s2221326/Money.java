@@ -0,0 +1,445 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Exact money arithmetic on scaled longs.
+ *
+ * An amount is a count of minor units (pence, yen, fils) with the
+ * currency's own scale: GBP 2, JPY 0, KWD 3, from
+ * {@link Currency#getDefaultFractionDigits()}. Rates are scaled longs too,
+ * e.g. 12760.90 is (1276090, scale 2). Every result is rounded once, with
+ * an explicit RoundingMode, so there is no binary-fraction drift as with
+ * double.
+ *
+ * The static methods are allocation-free: products are kept to 128 bits,
+ * and BigDecimal is only used when a scaled quote itself overflows a long.
+ * Instances are a small immutable value type for code that wants one.
+ */
+public final class Money {
+
+    public static final RoundingMode DEFAULT_ROUNDING = RoundingMode.HALF_EVEN;
+
+    // Scale used for codes java.util.Currency does not know (withdrawn, metals, ...)
+    private static final int FALLBACK_SCALE = 2;
+    private static final byte UNKNOWN_SCALE = -1;
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    // Minor-unit scale by CurrencyCodes id, filled in on first use
+    private static volatile byte[] scales = new byte[0];
+
+    private final long minorUnits;
+    private final int codeId;
+
+    private Money(long minorUnits, int codeId) {
+        this.minorUnits = minorUnits;
+        this.codeId = codeId;
+    }
+
+    public static Money ofMinor(long minorUnits, String code) {
+        return new Money(minorUnits, CurrencyCodes.intern(code));
+    }
+
+    /**
+     * Reads an amount such as "1234.567", rounded to the currency's scale.
+     *
+     * @throws NumberFormatException if the text is not a plain decimal number
+     */
+    public static Money parse(CharSequence amount, String code, RoundingMode mode) {
+        int id = CurrencyCodes.intern(code);
+        return new Money(parseMinor(amount, minorUnits(id), mode), id);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public int getCodeId() {
+        return codeId;
+    }
+
+    public String getCode() {
+        return CurrencyCodes.code(codeId);
+    }
+
+    public int getScale() {
+        return minorUnits(codeId);
+    }
+
+    /**
+     * This amount in another currency, through the engine's fixed-point quotes.
+     */
+    public Money convertTo(CrossRateEngine engine, int toId, RoundingMode mode) {
+        return new Money(engine.convertMinor(minorUnits, codeId, toId, mode), toId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && codeId == other.codeId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + codeId;
+    }
+
+    /**
+     * Example: "2,000.50 GBP", "2,000 JPY".
+     */
+    @Override
+    public String toString() {
+        return format(minorUnits, getScale()) + " " + getCode();
+    }
+
+    // -------- Minor units --------
+
+    /**
+     * Number of decimal places for a currency: GBP 2, JPY 0, KWD 3.
+     * Codes unknown to java.util.Currency use 2. Cached per code id.
+     */
+    public static int minorUnits(int codeId) {
+        if (codeId < 0) {
+            return FALLBACK_SCALE;
+        }
+        byte[] cached = scales;
+        if (codeId < cached.length && cached[codeId] != UNKNOWN_SCALE) {
+            return cached[codeId];
+        }
+        return lookUpScale(codeId);
+    }
+
+    public static int minorUnits(String code) {
+        return minorUnits(CurrencyCodes.find(code));
+    }
+
+    private static synchronized int lookUpScale(int codeId) {
+        byte[] cached = scales;
+        if (codeId >= cached.length) {
+            byte[] grown = Arrays.copyOf(cached, Math.max(CurrencyCodes.size(), codeId + 1));
+            Arrays.fill(grown, cached.length, grown.length, UNKNOWN_SCALE);
+            cached = grown;
+        }
+
+        int scale = FALLBACK_SCALE;
+        try {
+            int digits = Currency.getInstance(CurrencyCodes.code(codeId)).getDefaultFractionDigits();
+            if (digits >= 0) {
+                scale = digits;
+            }
+        } catch (IllegalArgumentException e) {
+            // not an ISO 4217 code java.util.Currency knows
+        }
+        cached[codeId] = (byte) scale;
+        scales = cached;
+        return scale;
+    }
+
+    // -------- Arithmetic --------
+
+    /**
+     * Converts an amount through two quotes against a common base:
+     * {@code amount * toQuote / fromQuote}, rounded once to {@code toScale}.
+     *
+     * @param minor      amount in minor units of scale {@code fromScale}
+     * @param fromQuote  units of the source currency per base, unscaled
+     * @param toQuote    units of the target currency per base, unscaled
+     * @throws ArithmeticException if fromQuote is not positive, or the
+     *                             result does not fit in a long
+     */
+    public static long convert(long minor, int fromScale,
+                               long fromQuote, int fromQuoteScale,
+                               long toQuote, int toQuoteScale,
+                               int toScale, RoundingMode mode) {
+        if (fromQuote <= 0) {
+            throw new ArithmeticException("Quote must be positive");
+        }
+        // minor * toQuote * 10^(fromQuoteScale + toScale) / (fromQuote * 10^(fromScale + toQuoteScale))
+        int exponent = (fromQuoteScale + toScale) - (fromScale + toQuoteScale);
+        try {
+            long multiplier = toQuote;
+            long denominator = fromQuote;
+            if (exponent >= 0) {
+                multiplier = Math.multiplyExact(multiplier, pow10(exponent));
+            } else {
+                denominator = Math.multiplyExact(denominator, pow10(-exponent));
+            }
+            return multiplyDivide(minor, multiplier, denominator, mode);
+        } catch (ArithmeticException overflow) {
+            // Also rethrows for UNNECESSARY, with BigDecimal's own message
+            return BigDecimal.valueOf(minor)
+                    .multiply(BigDecimal.valueOf(toQuote))
+                    .scaleByPowerOfTen(exponent)
+                    .divide(BigDecimal.valueOf(fromQuote), 0, mode)
+                    .longValueExact();
+        }
+    }
+
+    /**
+     * {@code a * b / denominator}, rounded once with {@code mode}. The
+     * product is kept to 128 bits, so only a quotient that does not fit
+     * in a long overflows.
+     *
+     * @throws ArithmeticException on overflow, for a non-positive
+     *                             denominator, or for UNNECESSARY when inexact
+     */
+    public static long multiplyDivide(long a, long b, long denominator, RoundingMode mode) {
+        long high = multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divide(low, denominator, mode);   // product fits in a long
+        }
+        if (denominator <= 0) {
+            throw new ArithmeticException("Denominator must be positive");
+        }
+        if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) {
+            throw new ArithmeticException("long overflow");
+        }
+
+        // Unsigned 128-bit |a| * |b|
+        int sign = ((a < 0) != (b < 0)) ? -1 : 1;
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        long productHigh = multiplyHigh(x, y);
+        long productLow = x * y;
+        if (productHigh >= denominator) {
+            throw new ArithmeticException("long overflow");
+        }
+
+        // Shift-and-subtract division; the remainder stays below the denominator
+        long quotient = 0;
+        long remainder = productHigh;
+        for (int bit = 63; bit >= 0; bit--) {
+            remainder = (remainder << 1) | ((productLow >>> bit) & 1);
+            quotient <<= 1;
+            if (Long.compareUnsigned(remainder, denominator) >= 0) {
+                remainder -= denominator;
+                quotient |= 1;
+            }
+        }
+        if (quotient < 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        return round(sign * quotient, remainder, denominator, sign, mode);
+    }
+
+    /**
+     * {@code numerator / denominator} rounded to a whole number with the
+     * given mode, as {@link BigDecimal#divide(BigDecimal, int, RoundingMode)}
+     * would with scale 0.
+     *
+     * @throws ArithmeticException for a non-positive denominator, or for
+     *                             UNNECESSARY when the division is inexact
+     */
+    public static long divide(long numerator, long denominator, RoundingMode mode) {
+        if (denominator <= 0) {
+            throw new ArithmeticException("Denominator must be positive");
+        }
+        return round(numerator / denominator, Math.abs(numerator % denominator), denominator,
+                numerator < 0 ? -1 : 1, mode);
+    }
+
+    // Rounds a truncated quotient given the size of the remainder and the sign of the result
+    private static long round(long quotient, long absRemainder, long denominator, int sign,
+                              RoundingMode mode) {
+        if (absRemainder == 0) {
+            return quotient;
+        }
+
+        boolean awayFromZero;
+        switch (mode) {
+            case UP:
+                awayFromZero = true;
+                break;
+            case DOWN:
+                awayFromZero = false;
+                break;
+            case CEILING:
+                awayFromZero = sign > 0;
+                break;
+            case FLOOR:
+                awayFromZero = sign < 0;
+                break;
+            case HALF_UP:
+            case HALF_DOWN:
+            case HALF_EVEN: {
+                // Compares the remainder with half the denominator without overflowing
+                int half = Long.compare(absRemainder, denominator - absRemainder);
+                if (half != 0) {
+                    awayFromZero = half > 0;
+                } else if (mode == RoundingMode.HALF_UP) {
+                    awayFromZero = true;
+                } else if (mode == RoundingMode.HALF_DOWN) {
+                    awayFromZero = false;
+                } else {
+                    awayFromZero = (quotient & 1) != 0;
+                }
+                break;
+            }
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return awayFromZero ? quotient + sign : quotient;
+    }
+
+    // -------- Text --------
+
+    /**
+     * Parses "[+-]digits[.digits]" into minor units of the given scale.
+     * Extra decimals are rounded with {@code mode}.
+     *
+     * @throws NumberFormatException if the text is not a plain decimal number
+     */
+    public static long parseMinor(CharSequence text, int scale, RoundingMode mode) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int decimals = -1;   // digits after the point, -1 before it
+        boolean overflow = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals == -1) {
+                decimals = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not an amount: " + text);
+            }
+            if (unscaled > (Long.MAX_VALUE - 9) / 10) {
+                overflow = true;
+            } else {
+                unscaled = unscaled * 10 + (c - '0');
+            }
+            digits++;
+            if (decimals >= 0) {
+                decimals++;
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+        if (decimals < 0) {
+            decimals = 0;
+        }
+
+        if (!overflow && decimals - scale < POW10.length) {
+            if (negative) {
+                unscaled = -unscaled;
+            }
+            if (decimals > scale) {
+                return divide(unscaled, POW10[decimals - scale], mode);
+            }
+            long factor = POW10[scale - decimals];
+            if (Math.abs(unscaled) <= Long.MAX_VALUE / factor) {
+                return unscaled * factor;
+            }
+        }
+
+        // Too many digits for a long on the way
+        try {
+            return new BigDecimal(text.subSequence(start, end).toString())
+                    .setScale(scale, mode)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                throw e;
+            }
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    /**
+     * Formats minor units with the given scale and UK grouping, e.g.
+     * (200050, 2) -> "2,000.50" and (2000, 0) -> "2,000".
+     */
+    public static String format(long minor, int scale) {
+        BigInteger big = null;
+        long magnitude = minor;
+        if (minor == Long.MIN_VALUE) {
+            big = BigInteger.valueOf(minor).negate();
+        } else {
+            magnitude = Math.abs(minor);
+        }
+        String digits = (big != null) ? big.toString() : Long.toString(magnitude);
+
+        // Pad so there is at least one digit before the point
+        StringBuilder padded = new StringBuilder();
+        for (int i = digits.length(); i <= scale; i++) {
+            padded.append('0');
+        }
+        padded.append(digits);
+
+        int integerDigits = padded.length() - scale;
+        StringBuilder out = new StringBuilder(padded.length() + padded.length() / 3 + 2);
+        if (minor < 0) {
+            out.append('-');
+        }
+        for (int i = 0; i < integerDigits; i++) {
+            if (i > 0 && (integerDigits - i) % 3 == 0) {
+                out.append(',');
+            }
+            out.append(padded.charAt(i));
+        }
+        if (scale > 0) {
+            out.append('.').append(padded, integerDigits, padded.length());
+        }
+        return out.toString();
+    }
+
+    public static double toDouble(long minor, int scale) {
+        return scale < POW10.length ? minor / (double) POW10[scale] : minor / Math.pow(10, scale);
+    }
+
+    // -------- Helpers --------
+
+    // Upper 64 bits of the signed 128-bit product (Math.multiplyHigh needs API 31)
+    private static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = (t & 0xFFFFFFFFL) + x2 * y1;
+        long z0 = t >> 32;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    // 10^exponent; too large an exponent counts as an overflow
+    private static long pow10(int exponent) {
+        if (exponent >= POW10.length) {
+            throw new ArithmeticException("long overflow");
+        }
+        return POW10[exponent];
+    }
+}
@@ -0,0 +1,204 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Downloads and parses several base-currency feeds (gbp, usd, eur, ...)
+ * at the same time on a bounded executor, so a refresh takes about as long
+ * as the slowest feed instead of the sum of all of them.
+ *
+ * Every feed has the same timeout, counted from the start of the refresh.
+ * When all feeds have finished or timed out, the listener gets one
+ * Snapshot with the rates of the feeds that worked and an error for each
+ * one that did not.
+ *
+ * run() blocks until then, so call it from a background thread that is
+ * not one of the executor's own threads.
+ */
+public class MultiFeedFetcher implements Runnable {
+
+    public interface OnFeedsFetchedListener {
+        void onFeedsFetched(Snapshot snapshot);
+    }
+
+    /**
+     * Result of one refresh, keyed by base code in request order.
+     */
+    public static final class Snapshot {
+        private final Map<String, ArrayList<CurrencyRate>> ratesByBase;
+        private final Map<String, String> errorsByBase;
+
+        Snapshot(LinkedHashMap<String, ArrayList<CurrencyRate>> ratesByBase,
+                 LinkedHashMap<String, String> errorsByBase) {
+            this.ratesByBase = Collections.unmodifiableMap(ratesByBase);
+            this.errorsByBase = Collections.unmodifiableMap(errorsByBase);
+        }
+
+        public Map<String, ArrayList<CurrencyRate>> getRatesByBase() {
+            return ratesByBase;
+        }
+
+        /**
+         * Rates for one base, or null if that feed failed.
+         */
+        public ArrayList<CurrencyRate> getRates(String baseCode) {
+            return ratesByBase.get(baseCode);
+        }
+
+        public Map<String, String> getErrorsByBase() {
+            return errorsByBase;
+        }
+
+        public boolean isComplete() {
+            return errorsByBase.isEmpty();
+        }
+    }
+
+    public static final String URL_TEMPLATE = "https://www.fx-exchange.com/%s/rss.xml";
+    public static final long DEFAULT_TIMEOUT_MS = 15000;
+
+    private static final String TAG = "MultiFeedFetcher";
+
+    // Stateless, so one scanner serves every fetch thread
+    private static final RateFeedParser FEED_PARSER = new ScanningRateFeedParser();
+
+    private final LinkedHashMap<String, String> urlsByBase;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final OnFeedsFetchedListener listener;
+
+    private FeedHttpCache httpCache;
+
+    /**
+     * Fetches the fx-exchange feeds for the given base codes on the shared pool.
+     */
+    public MultiFeedFetcher(List<String> baseCodes, OnFeedsFetchedListener listener) {
+        this(urlsFor(baseCodes), FetchExecutors.network(), DEFAULT_TIMEOUT_MS, listener);
+    }
+
+    public MultiFeedFetcher(LinkedHashMap<String, String> urlsByBase, ExecutorService executor,
+                            long timeoutMs, OnFeedsFetchedListener listener) {
+        this.urlsByBase = new LinkedHashMap<>(urlsByBase);
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+        this.listener = listener;
+    }
+
+    /**
+     * Feed URL for each base code, e.g. "USD" -> ".../usd/rss.xml".
+     */
+    public static LinkedHashMap<String, String> urlsFor(List<String> baseCodes) {
+        LinkedHashMap<String, String> urls = new LinkedHashMap<>();
+        for (String code : baseCodes) {
+            String base = code.toUpperCase(Locale.ROOT);
+            urls.put(base, String.format(Locale.ROOT, URL_TEMPLATE, base.toLowerCase(Locale.ROOT)));
+        }
+        return urls;
+    }
+
+    /**
+     * Shared conditional-GET cache for every feed in the refresh.
+     */
+    public void setHttpCache(FeedHttpCache httpCache) {
+        this.httpCache = httpCache;
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        // --- Start every feed at once ---
+        LinkedHashMap<String, Future<ArrayList<CurrencyRate>>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, String> feed : urlsByBase.entrySet()) {
+            futures.put(feed.getKey(), executor.submit(newFeedTask(feed.getValue())));
+        }
+
+        // --- Collect them against the shared deadline ---
+        LinkedHashMap<String, ArrayList<CurrencyRate>> rates = new LinkedHashMap<>();
+        LinkedHashMap<String, String> errors = new LinkedHashMap<>();
+        boolean interrupted = false;
+
+        for (Map.Entry<String, Future<ArrayList<CurrencyRate>>> entry : futures.entrySet()) {
+            String base = entry.getKey();
+            Future<ArrayList<CurrencyRate>> future = entry.getValue();
+
+            if (interrupted) {
+                future.cancel(true);
+                errors.put(base, "Refresh cancelled.");
+                continue;
+            }
+
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                rates.put(base, future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                Log.w(TAG, "Timed out fetching " + base + " feed");
+                errors.put(base, "Timed out downloading " + base + " rates.");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                errors.put(base, cause != null ? cause.getMessage() : "Error fetching " + base + " rates.");
+            } catch (InterruptedException e) {
+                interrupted = true;
+                future.cancel(true);
+                errors.put(base, "Refresh cancelled.");
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (listener != null) {
+            listener.onFeedsFetched(new Snapshot(rates, errors));
+        }
+    }
+
+    // One feed download; the error message from the fetcher becomes the exception message
+    private Callable<ArrayList<CurrencyRate>> newFeedTask(final String url) {
+        return new Callable<ArrayList<CurrencyRate>>() {
+            @Override
+            public ArrayList<CurrencyRate> call() throws IOException {
+                final String[] error = new String[1];
+                RssFeedFetcher fetcher = new RssFeedFetcher(url, new RssFeedFetcher.OnRatesParsedListener() {
+                    @Override
+                    public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        error[0] = message;
+                    }
+                }, true);
+
+                // Socket timeouts and the deadline stop a stalled or dripping
+                // download even if cancel() cannot interrupt it
+                int socketTimeout = (int) Math.min(Integer.MAX_VALUE, timeoutMs);
+                fetcher.setTimeouts(socketTimeout, socketTimeout);
+                fetcher.setDeadline(timeoutMs);
+                fetcher.setHttpCache(httpCache);
+                fetcher.setParser(FEED_PARSER);
+
+                ArrayList<CurrencyRate> rates = fetcher.fetch();
+                if (rates == null) {
+                    throw new IOException(error[0] != null ? error[0] : "Could not fetch " + url);
+                }
+                return rates;
+            }
+        };
+    }
+}
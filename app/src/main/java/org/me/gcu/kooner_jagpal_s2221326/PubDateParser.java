@@ -0,0 +1,257 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+/**
+ * Turns the feed's pubDate text, e.g. "Wed Aug 27 2025 2:00:45 UTC",
+ * into epoch milliseconds.
+ *
+ * Hand-written for this one format ("EEE MMM d yyyy H:mm:ss zone"), so a
+ * parse reads each character once and allocates nothing. Fields may be
+ * separated by any run of whitespace; the zone is UTC, GMT, Z or an
+ * offset such as +0100, +01:00 or GMT+01:00.
+ *
+ * Every item in a feed carries one of a handful of pubDate strings, so
+ * {@link #parseMillis(String)} remembers the last few results per distinct
+ * string and parses each only once.
+ */
+public final class PubDateParser {
+
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int NO_ZONE = Integer.MIN_VALUE;
+
+    private static final String[] MONTHS = {
+            "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+    private static final String[] DAYS = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+
+    // Direct-mapped by hash; entries are immutable, so racing threads at worst parse twice
+    private static final int CACHE_SIZE = 16;
+    private static final CacheEntry[] cache = new CacheEntry[CACHE_SIZE];
+
+    private PubDateParser() {
+    }
+
+    private static final class CacheEntry {
+        final String text;
+        final long millis;
+
+        CacheEntry(String text, long millis) {
+            this.text = text;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * @return epoch milliseconds, or {@link #INVALID} if the text is not a pubDate
+     */
+    public static long parseMillis(String text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int slot = text.hashCode() & (CACHE_SIZE - 1);
+        CacheEntry entry = cache[slot];
+        if (entry != null && (entry.text == text || entry.text.equals(text))) {
+            return entry.millis;
+        }
+        long millis = parseMillis(text, 0, text.length());
+        cache[slot] = new CacheEntry(text, millis);
+        return millis;
+    }
+
+    /**
+     * Parses {@code text[start, end)} without the cache, e.g. straight from
+     * a parser's buffer.
+     *
+     * @return epoch milliseconds, or {@link #INVALID}
+     */
+    public static long parseMillis(CharSequence text, int start, int end) {
+        int pos = skipSpace(text, start, end);
+
+        // Day name, which is not checked against the date
+        long r = word(text, pos, end, DAYS);
+        pos = space(text, position(r), end);
+        if (value(r) < 0 || pos < 0) {
+            return INVALID;
+        }
+        r = word(text, pos, end, MONTHS);
+        int month = value(r) + 1;
+        pos = space(text, position(r), end);
+        if (month < 1 || pos < 0) {
+            return INVALID;
+        }
+        r = number(text, pos, end, 1, 2);
+        int day = value(r);
+        pos = space(text, position(r), end);
+        if (pos < 0) {
+            return INVALID;
+        }
+        r = number(text, pos, end, 4, 4);
+        int year = value(r);
+        pos = space(text, position(r), end);
+        if (pos < 0) {
+            return INVALID;
+        }
+
+        r = number(text, pos, end, 1, 2);
+        int hour = value(r);
+        pos = position(r);
+        if (pos >= end || text.charAt(pos) != ':') {
+            return INVALID;
+        }
+        r = number(text, pos + 1, end, 2, 2);
+        int minute = value(r);
+        pos = position(r);
+        if (pos >= end || text.charAt(pos) != ':') {
+            return INVALID;
+        }
+        r = number(text, pos + 1, end, 2, 2);
+        int second = value(r);
+        pos = space(text, position(r), end);
+        if (pos < 0) {
+            return INVALID;
+        }
+
+        r = zone(text, pos, end);
+        int offsetMinutes = value(r);
+        pos = skipSpace(text, position(r), end);
+        if (pos != end || offsetMinutes == NO_ZONE || day < 1 || year < 1
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+                || day > daysInMonth(year, month)) {
+            return INVALID;
+        }
+
+        long days = daysFromCivil(year, month, day);
+        long seconds = days * 86400L + hour * 3600L + minute * 60L + second - offsetMinutes * 60L;
+        return seconds * 1000L;
+    }
+
+    // Days since 1970-01-01 in the proleptic Gregorian calendar (Howard Hinnant's algorithm)
+    static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // -------- Scanning --------
+    // Each step returns the value it read and the position after it packed
+    // into one long, so nothing is allocated. A value of -1 means no match.
+
+    private static long result(int value, int pos) {
+        return ((long) value << 32) | (pos & 0xffffffffL);
+    }
+
+    private static int value(long result) {
+        return (int) (result >> 32);
+    }
+
+    private static int position(long result) {
+        return (int) result;
+    }
+
+    private static int skipSpace(CharSequence text, int pos, int end) {
+        while (pos < end && text.charAt(pos) <= ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    // Position after at least one whitespace character, or -1
+    private static int space(CharSequence text, int pos, int end) {
+        int after = skipSpace(text, pos, end);
+        return after > pos ? after : -1;
+    }
+
+    // Index of the three-letter word at pos, ignoring case
+    private static long word(CharSequence text, int pos, int end, String[] words) {
+        if (end - pos >= 3) {
+            int a = text.charAt(pos) | 0x20;
+            int b = text.charAt(pos + 1) | 0x20;
+            int c = text.charAt(pos + 2) | 0x20;
+            for (int i = 0; i < words.length; i++) {
+                String w = words[i];
+                if (a == w.charAt(0) && b == w.charAt(1) && c == w.charAt(2)) {
+                    return result(i, pos + 3);
+                }
+            }
+        }
+        return result(-1, pos);
+    }
+
+    // A decimal number of minDigits to maxDigits digits
+    private static long number(CharSequence text, int pos, int end, int minDigits, int maxDigits) {
+        int value = 0;
+        int digits = 0;
+        while (pos < end && digits < maxDigits) {
+            char ch = text.charAt(pos);
+            if (ch < '0' || ch > '9') {
+                break;
+            }
+            value = value * 10 + (ch - '0');
+            digits++;
+            pos++;
+        }
+        return result(digits >= minDigits ? value : -1, pos);
+    }
+
+    // Offset from UTC in minutes: UTC, GMT, Z, or an offset after any of them
+    private static long zone(CharSequence text, int pos, int end) {
+        if (end - pos >= 3) {
+            int a = text.charAt(pos) | 0x20;
+            int b = text.charAt(pos + 1) | 0x20;
+            int c = text.charAt(pos + 2) | 0x20;
+            if ((a == 'u' && b == 't' && c == 'c') || (a == 'g' && b == 'm' && c == 't')) {
+                pos += 3;
+                if (pos < end && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                    return offset(text, pos, end);
+                }
+                return result(0, pos);
+            }
+        }
+        if (pos < end && (text.charAt(pos) == 'Z' || text.charAt(pos) == 'z')) {
+            return result(0, pos + 1);
+        }
+        return offset(text, pos, end);
+    }
+
+    // +hh, +hhmm or +hh:mm (or with -)
+    private static long offset(CharSequence text, int pos, int end) {
+        if (pos >= end || (text.charAt(pos) != '+' && text.charAt(pos) != '-')) {
+            return result(NO_ZONE, pos);
+        }
+        int sign = text.charAt(pos) == '+' ? 1 : -1;
+        long r = number(text, pos + 1, end, 2, 2);
+        int hours = value(r);
+        pos = position(r);
+        int minutes = 0;
+        if (pos < end && text.charAt(pos) == ':') {
+            pos++;
+        }
+        if (pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            r = number(text, pos, end, 2, 2);
+            minutes = value(r);
+            pos = position(r);
+        }
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return result(NO_ZONE, pos);
+        }
+        return result(sign * (hours * 60 + minutes), pos);
+    }
+}
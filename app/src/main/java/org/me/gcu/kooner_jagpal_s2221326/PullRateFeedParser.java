@@ -0,0 +1,130 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.util.Log;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+/**
+ * Reads the feed with the platform XmlPullParser. Handles any well-formed
+ * document and reports malformed ones, at the cost of a full XML tokenizer.
+ */
+public class PullRateFeedParser implements RateFeedParser {
+
+    private static final String TAG = "PullRateFeedParser";
+
+    /**
+     * Leading and trailing garbage is skipped on the fly by
+     * {@link FeedBoundaryInputStream}; the encoding is the header's charset,
+     * or else comes from the XML prolog.
+     */
+    @Override
+    public ArrayList<CurrencyRate> parse(InputStream stream, Charset charset,
+            RssFeedFetcher.OnRatesParsedListener listener) throws XmlPullParserException, IOException {
+        XmlPullParser xpp = newPullParser();
+        // A null encoding lets the parser pick it up from the XML prolog
+        xpp.setInput(new FeedBoundaryInputStream(stream), charset != null ? charset.name() : null);
+        return parseItems(xpp, listener);
+    }
+
+    /**
+     * Parses a feed that has already been downloaded and trimmed.
+     */
+    public ArrayList<CurrencyRate> parse(Reader reader, RssFeedFetcher.OnRatesParsedListener listener)
+            throws XmlPullParserException, IOException {
+        XmlPullParser xpp = newPullParser();
+        xpp.setInput(reader);
+        return parseItems(xpp, listener);
+    }
+
+    private static XmlPullParser newPullParser() throws XmlPullParserException {
+        XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newPullParser();
+    }
+
+    private static ArrayList<CurrencyRate> parseItems(XmlPullParser xpp,
+            RssFeedFetcher.OnRatesParsedListener listener) throws XmlPullParserException, IOException {
+        ArrayList<CurrencyRate> parsedList = new ArrayList<>();
+
+        int eventType = xpp.getEventType();
+        CurrencyRate currentRate = null;
+        long itemStart = 0;
+        String text = "";
+
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            String tagName = xpp.getName();
+
+            switch (eventType) {
+                case XmlPullParser.START_TAG:
+                    if ("item".equalsIgnoreCase(tagName)) {
+                        currentRate = new CurrencyRate();
+                        itemStart = System.nanoTime();
+                    }
+                    break;
+
+                case XmlPullParser.TEXT:
+                    text = xpp.getText();
+                    break;
+
+                case XmlPullParser.END_TAG:
+                    if (currentRate != null) {
+                        if ("item".equalsIgnoreCase(tagName)) {
+                            parsedList.add(currentRate);
+                            Metrics.PARSE_ITEM_TIME.recordSince(itemStart);
+                            Metrics.ITEMS_PARSED.increment();
+                            // Formatting a line per item costs more than parsing it: debug builds only
+                            if (BuildConfig.DEBUG) {
+                                Log.d(TAG, "Parsed: " + currentRate.toString());
+                            }
+                            if (listener != null) {
+                                listener.onRateParsed(currentRate);
+                            }
+                            currentRate = null;
+                        } else if ("title".equalsIgnoreCase(tagName)) {
+                            currentRate.setRawTitle(text);
+                            parseTitleIntoCurrency(currentRate, text);
+                        } else if ("description".equalsIgnoreCase(tagName)) {
+                            currentRate.setRawDescription(text);
+                            parseDescriptionIntoCurrency(currentRate, text);
+                        } else if ("pubDate".equalsIgnoreCase(tagName)) {
+                            currentRate.setPubDate(text);
+                        }
+                    }
+                    break;
+            }
+
+            eventType = xpp.next();
+        }
+
+        return parsedList;
+    }
+
+    // -------- Helper parsing methods --------
+
+    private static void parseTitleIntoCurrency(CurrencyRate rate, String titleText) {
+        if (titleText == null) {
+            return;
+        }
+        RateTextParser.parseTitle(titleText, rate);
+    }
+
+    private static void parseDescriptionIntoCurrency(CurrencyRate rate, String descriptionText) {
+        if (descriptionText == null) {
+            return;
+        }
+        try {
+            RateTextParser.parseDescription(descriptionText, rate);
+        } catch (NumberFormatException nfe) {
+            Metrics.RATE_PARSE_FAILURES.increment();
+            Log.e(TAG, "Could not parse rate from description: " + descriptionText, nfe);
+        }
+    }
+}
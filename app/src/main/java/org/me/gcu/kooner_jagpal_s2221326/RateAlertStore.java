@@ -0,0 +1,146 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps the user's rate alerts across restarts in a small binary file.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic, short version
+ *   int    code count, then UTF code each
+ *   int    alert count
+ *   alert  int id, short from index, short to index, byte kind, double value
+ * </pre>
+ * Codes are written as strings, not ids: ids are only stable within one
+ * process.
+ */
+public class RateAlertStore {
+
+    private static final String TAG = "RateAlertStore";
+
+    private static final int MAGIC = 0x52414C54; // "RALT"
+    private static final short VERSION = 1;
+
+    private final File file;
+
+    public RateAlertStore(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the alerts to a temporary file and renames it over the old one.
+     */
+    public synchronized void save(List<RateAlerts.Alert> alerts) throws IOException {
+        HashMap<Integer, Short> indexes = new HashMap<>();
+        ArrayList<String> codes = new ArrayList<>();
+        for (RateAlerts.Alert alert : alerts) {
+            index(indexes, codes, alert.getFromId());
+            index(indexes, codes, alert.getToId());
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(codes.size());
+            for (String code : codes) {
+                out.writeUTF(code);
+            }
+            out.writeInt(alerts.size());
+            for (RateAlerts.Alert alert : alerts) {
+                out.writeInt(alert.getId());
+                out.writeShort(indexes.get(alert.getFromId()));
+                out.writeShort(indexes.get(alert.getToId()));
+                out.writeByte(alert.getKind().ordinal());
+                out.writeDouble(alert.getValue());
+            }
+        } finally {
+            out.close();
+        }
+
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the saved alerts; empty if there is no file or it is unreadable
+     */
+    public List<RateAlerts.Alert> load() {
+        ArrayList<RateAlerts.Alert> alerts = new ArrayList<>();
+        if (!file.isFile()) {
+            return alerts;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                Log.w(TAG, "Ignoring alerts with unknown format");
+                return alerts;
+            }
+            int[] ids = new int[checkedCount(in.readInt())];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = CurrencyCodes.intern(in.readUTF());
+            }
+            int count = checkedCount(in.readInt());
+            RateAlerts.Kind[] kinds = RateAlerts.Kind.values();
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                int fromId = ids[in.readShort()];
+                int toId = ids[in.readShort()];
+                RateAlerts.Kind kind = kinds[in.readByte()];
+                alerts.add(RateAlerts.newAlert(id, fromId, toId, kind, in.readDouble()));
+            }
+            return alerts;
+        } catch (IOException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            Log.w(TAG, "Could not read alerts " + file, e);
+            return new ArrayList<>();
+        }
+    }
+
+    // -------- Helpers --------
+
+    private static void index(HashMap<Integer, Short> indexes, ArrayList<String> codes, int id)
+            throws IOException {
+        if (indexes.containsKey(id)) {
+            return;
+        }
+        if (codes.size() == Short.MAX_VALUE) {
+            throw new IOException("Too many currencies for alert file");
+        }
+        indexes.put(id, (short) codes.size());
+        codes.add(CurrencyCodes.code(id));
+    }
+
+    private static int checkedCount(int count) throws IOException {
+        if (count < 0 || count > 10000000) {
+            throw new EOFException("Bad count " + count);
+        }
+        return count;
+    }
+}
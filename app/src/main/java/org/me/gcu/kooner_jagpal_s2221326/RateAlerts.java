@@ -0,0 +1,344 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * User alerts on exchange rates, checked against every refresh.
+ *
+ * Three kinds: the rate for a pair rises above a threshold ("GBP→USD >
+ * 1.30"), falls below one, or moves by at least some percent between two
+ * refreshes ("EUR moves more than 0.5%"). Above/below alerts fire when the
+ * rate crosses the threshold, not while it stays past it, so each crossing
+ * is reported once.
+ *
+ * Alerts are grouped by pair, and each group keeps its thresholds in
+ * sorted arrays. A refresh then costs one binary search per bound per pair
+ * plus the alerts that actually fired: every threshold crossed lies in the
+ * range between the old and the new rate.
+ *
+ * Thread-safe; groups are re-sorted lazily after alerts are added or removed.
+ */
+public final class RateAlerts {
+
+    public enum Kind {
+        ABOVE, BELOW, MOVE_PERCENT
+    }
+
+    /**
+     * One registered alert. Immutable.
+     */
+    public static final class Alert {
+        private final int id;
+        private final int fromId;
+        private final int toId;
+        private final Kind kind;
+        private final double value;
+
+        Alert(int id, int fromId, int toId, Kind kind, double value) {
+            this.id = id;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.kind = kind;
+            this.value = value;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getFromId() {
+            return fromId;
+        }
+
+        public int getToId() {
+            return toId;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * The threshold rate, or the percentage for MOVE_PERCENT.
+         */
+        public double getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            String pair = CurrencyCodes.code(fromId) + "→" + CurrencyCodes.code(toId);
+            switch (kind) {
+                case ABOVE:
+                    return String.format(Locale.UK, "%s above %.4f", pair, value);
+                case BELOW:
+                    return String.format(Locale.UK, "%s below %.4f", pair, value);
+                default:
+                    return String.format(Locale.UK, "%s moves %.2f%%", pair, value);
+            }
+        }
+    }
+
+    /**
+     * An alert that fired, with the rates either side of the refresh.
+     */
+    public static final class Trigger {
+        private final Alert alert;
+        private final double oldRate;
+        private final double newRate;
+
+        Trigger(Alert alert, double oldRate, double newRate) {
+            this.alert = alert;
+            this.oldRate = oldRate;
+            this.newRate = newRate;
+        }
+
+        public Alert getAlert() {
+            return alert;
+        }
+
+        public double getOldRate() {
+            return oldRate;
+        }
+
+        public double getNewRate() {
+            return newRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.UK, "%s: %.4f → %.4f", alert, oldRate, newRate);
+        }
+    }
+
+    private static final Comparator<Alert> BY_VALUE = new Comparator<Alert>() {
+        @Override
+        public int compare(Alert a, Alert b) {
+            return Double.compare(a.value, b.value);
+        }
+    };
+
+    private final HashMap<Long, Group> groups = new HashMap<>();
+    private final HashMap<Integer, Alert> byId = new HashMap<>();
+    private int nextId = 1;
+
+    /**
+     * Registers an alert and returns it.
+     *
+     * @throws IllegalArgumentException for a missing code, a non-positive
+     *                                  threshold or percentage, or NaN
+     */
+    public Alert add(String fromCode, String toCode, Kind kind, double value) {
+        return add(CurrencyCodes.intern(fromCode), CurrencyCodes.intern(toCode), kind, value);
+    }
+
+    public synchronized Alert add(int fromId, int toId, Kind kind, double value) {
+        Alert alert = newAlert(nextId, fromId, toId, kind, value);
+        insert(alert);
+        return alert;
+    }
+
+    /**
+     * Re-registers saved alerts with their ids, e.g. from {@link RateAlertStore}.
+     */
+    public synchronized void addAll(Collection<Alert> alerts) {
+        for (Alert alert : alerts) {
+            if (!byId.containsKey(alert.id)) {
+                insert(alert);
+            }
+        }
+    }
+
+    public synchronized boolean remove(int id) {
+        Alert alert = byId.remove(id);
+        if (alert == null) {
+            return false;
+        }
+        Group group = groups.get(pairKey(alert.fromId, alert.toId));
+        group.members.remove(alert);
+        group.dirty = true;
+        if (group.members.isEmpty()) {
+            groups.remove(pairKey(alert.fromId, alert.toId));
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    /**
+     * Every alert, in id order.
+     */
+    public synchronized List<Alert> list() {
+        ArrayList<Alert> all = new ArrayList<>(byId.values());
+        Collections.sort(all, new Comparator<Alert>() {
+            @Override
+            public int compare(Alert a, Alert b) {
+                return Integer.compare(a.id, b.id);
+            }
+        });
+        return all;
+    }
+
+    /**
+     * Alerts fired by the move from {@code previous} to {@code current}.
+     * Pairs missing from either snapshot are skipped.
+     */
+    public synchronized List<Trigger> evaluate(CrossRateEngine previous, CrossRateEngine current) {
+        ArrayList<Trigger> fired = new ArrayList<>();
+        for (Group group : groups.values()) {
+            double oldRate = previous.rate(group.fromId, group.toId);
+            double newRate = current.rate(group.fromId, group.toId);
+            if (Double.isNaN(oldRate) || Double.isNaN(newRate) || oldRate == newRate) {
+                continue;
+            }
+            group.sortIfDirty();
+
+            if (newRate > oldRate) {
+                // Rose through every ABOVE threshold t with old <= t < new
+                int from = lowerBound(group.above, oldRate);
+                int to = lowerBound(group.above, newRate);
+                addRange(fired, group.aboveAlerts, from, to, oldRate, newRate);
+            } else {
+                // Fell through every BELOW threshold t with new < t <= old
+                int from = upperBound(group.below, newRate);
+                int to = upperBound(group.below, oldRate);
+                addRange(fired, group.belowAlerts, from, to, oldRate, newRate);
+            }
+
+            // Every percentage up to the size of the move
+            double movePercent = Math.abs(newRate / oldRate - 1) * 100;
+            addRange(fired, group.moveAlerts, 0, upperBound(group.moves, movePercent), oldRate, newRate);
+        }
+        return fired;
+    }
+
+    // -------- Helpers --------
+
+    static Alert newAlert(int id, int fromId, int toId, Kind kind, double value) {
+        if (fromId < 0 || toId < 0 || kind == null) {
+            throw new IllegalArgumentException("Incomplete alert");
+        }
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Alert value must be positive: " + value);
+        }
+        return new Alert(id, fromId, toId, kind, value);
+    }
+
+    private void insert(Alert alert) {
+        byId.put(alert.id, alert);
+        nextId = Math.max(nextId, alert.id + 1);
+        long key = pairKey(alert.fromId, alert.toId);
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(alert.fromId, alert.toId);
+            groups.put(key, group);
+        }
+        group.members.add(alert);
+        group.dirty = true;
+    }
+
+    private static long pairKey(int fromId, int toId) {
+        return ((long) fromId << 32) | (toId & 0xffffffffL);
+    }
+
+    private static void addRange(ArrayList<Trigger> out, Alert[] alerts, int from, int to,
+                                 double oldRate, double newRate) {
+        for (int i = from; i < to; i++) {
+            out.add(new Trigger(alerts[i], oldRate, newRate));
+        }
+    }
+
+    // First index whose value is >= key
+    static int lowerBound(double[] sorted, double key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index whose value is > key
+    static int upperBound(double[] sorted, double key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Alerts on one pair, split by kind into threshold-sorted arrays.
+     */
+    private static final class Group {
+        final int fromId;
+        final int toId;
+        final ArrayList<Alert> members = new ArrayList<>();
+        boolean dirty;
+
+        double[] above = new double[0];
+        Alert[] aboveAlerts = new Alert[0];
+        double[] below = new double[0];
+        Alert[] belowAlerts = new Alert[0];
+        double[] moves = new double[0];
+        Alert[] moveAlerts = new Alert[0];
+
+        Group(int fromId, int toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        void sortIfDirty() {
+            if (!dirty) {
+                return;
+            }
+            aboveAlerts = sorted(Kind.ABOVE);
+            belowAlerts = sorted(Kind.BELOW);
+            moveAlerts = sorted(Kind.MOVE_PERCENT);
+            above = values(aboveAlerts);
+            below = values(belowAlerts);
+            moves = values(moveAlerts);
+            dirty = false;
+        }
+
+        private Alert[] sorted(Kind kind) {
+            ArrayList<Alert> ofKind = new ArrayList<>();
+            for (Alert alert : members) {
+                if (alert.kind == kind) {
+                    ofKind.add(alert);
+                }
+            }
+            Alert[] array = ofKind.toArray(new Alert[0]);
+            Arrays.sort(array, BY_VALUE);
+            return array;
+        }
+
+        private static double[] values(Alert[] alerts) {
+            double[] values = new double[alerts.length];
+            for (int i = 0; i < alerts.length; i++) {
+                values[i] = alerts[i].value;
+            }
+            return values;
+        }
+    }
+}
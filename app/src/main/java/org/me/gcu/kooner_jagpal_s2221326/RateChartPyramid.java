@@ -0,0 +1,173 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.ArrayList;
+
+/**
+ * Level-of-detail cache for charting one rate history.
+ *
+ * Level 0 is the samples themselves. Each level above holds, for every
+ * run of {@link #FANOUT} entries of the level below, the first time and
+ * the lowest and highest rate. A frame for a visible time range is drawn
+ * from the finest level with no more than a few entries per pixel in that
+ * range, so panning and zooming cost about a screen's worth of work
+ * whether the range holds a hundred samples or a million.
+ *
+ * Building it is one pass over the samples (the levels add a third to the
+ * memory); do that off the UI thread. Immutable once built.
+ */
+public final class RateChartPyramid {
+
+    static final int FANOUT = 4;
+
+    // Up to this many samples per pixel, LTTB over the samples; beyond, min/max columns
+    static final int LTTB_MAX_PER_PIXEL = 8;
+
+    // A level is fine enough for a frame while it has this many entries per pixel or fewer
+    private static final int MAX_ENTRIES_PER_PIXEL = 4;
+
+    // No point aggregating beyond this
+    private static final int TOP_LEVEL_SIZE = 64;
+
+    private final long[][] times;
+    private final float[][] lows;
+    private final float[][] highs;
+
+    private RateChartPyramid(long[][] times, float[][] lows, float[][] highs) {
+        this.times = times;
+        this.lows = lows;
+        this.highs = highs;
+    }
+
+    public static RateChartPyramid build(RateHistoryStore.Series series) {
+        int n = series.size();
+        long[] t = new long[n];
+        float[] v = new float[n];
+        for (int i = 0; i < n; i++) {
+            t[i] = series.time(i);
+            v[i] = series.rate(i);
+        }
+        return build(t, v);
+    }
+
+    /**
+     * @param times  epoch milliseconds, ascending; the arrays are kept, not copied
+     */
+    public static RateChartPyramid build(long[] times, float[] rates) {
+        ArrayList<long[]> levelTimes = new ArrayList<>();
+        ArrayList<float[]> levelLows = new ArrayList<>();
+        ArrayList<float[]> levelHighs = new ArrayList<>();
+        levelTimes.add(times);
+        levelLows.add(rates);
+        levelHighs.add(rates);
+
+        long[] t = times;
+        float[] lo = rates;
+        float[] hi = rates;
+        while (t.length > TOP_LEVEL_SIZE) {
+            int size = (t.length + FANOUT - 1) / FANOUT;
+            long[] upTimes = new long[size];
+            float[] upLows = new float[size];
+            float[] upHighs = new float[size];
+            for (int i = 0; i < size; i++) {
+                int first = i * FANOUT;
+                int end = Math.min(first + FANOUT, t.length);
+                float min = lo[first];
+                float max = hi[first];
+                for (int j = first + 1; j < end; j++) {
+                    min = Math.min(min, lo[j]);
+                    max = Math.max(max, hi[j]);
+                }
+                upTimes[i] = t[first];
+                upLows[i] = min;
+                upHighs[i] = max;
+            }
+            levelTimes.add(upTimes);
+            levelLows.add(upLows);
+            levelHighs.add(upHighs);
+            t = upTimes;
+            lo = upLows;
+            hi = upHighs;
+        }
+        return new RateChartPyramid(levelTimes.toArray(new long[0][]),
+                levelLows.toArray(new float[0][]), levelHighs.toArray(new float[0][]));
+    }
+
+    public int size() {
+        return times[0].length;
+    }
+
+    public int levels() {
+        return times.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Time of the first sample; only meaningful when not empty.
+     */
+    public long getStart() {
+        return times[0][0];
+    }
+
+    public long getEnd() {
+        return times[0][size() - 1];
+    }
+
+    /**
+     * About {@code width} points covering [startMillis, endMillis]: the
+     * samples themselves when they fit, LTTB when there are a few per
+     * pixel, otherwise min/max columns from the finest level that fits.
+     */
+    public ChartDownsampler.Frame frame(long startMillis, long endMillis, int width) {
+        if (width < 1 || isEmpty() || endMillis < startMillis) {
+            return ChartDownsampler.Frame.EMPTY;
+        }
+
+        int from = lowerBound(times[0], startMillis);
+        int to = lowerBound(times[0], endMillis + 1);
+        int count = to - from;
+        if (count <= width) {
+            return ChartDownsampler.raw(times[0], lows[0], from, to);
+        }
+        if (count <= width * LTTB_MAX_PER_PIXEL) {
+            return ChartDownsampler.lttb(times[0], lows[0], from, to, width);
+        }
+
+        int level = levelFor(count, width);
+        // The entry that starts before the range also covers its first samples
+        int levelFrom = Math.max(0, lowerBound(times[level], startMillis + 1) - 1);
+        int levelTo = lowerBound(times[level], endMillis + 1);
+        return ChartDownsampler.minMax(times[level], lows[level], highs[level], levelFrom, levelTo,
+                startMillis, endMillis, width);
+    }
+
+    // Finest level with at most MAX_ENTRIES_PER_PIXEL entries per pixel for the range
+    int levelFor(int sampleCount, int width) {
+        int level = 0;
+        long entries = sampleCount;
+        while (entries > (long) width * MAX_ENTRIES_PER_PIXEL && level < times.length - 1) {
+            entries = (entries + FANOUT - 1) / FANOUT;
+            level++;
+        }
+        return level;
+    }
+
+    // -------- Helpers --------
+
+    // First index whose time is >= key
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
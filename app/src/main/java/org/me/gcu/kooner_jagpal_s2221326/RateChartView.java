@@ -0,0 +1,321 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+import android.view.ViewParent;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Line chart of one rate's history. Pinch to zoom, drag to pan,
+ * double-tap to show everything again.
+ *
+ * The points come from a {@link RateChartPyramid}: every change of the
+ * visible range asks it for a new frame of about one point per pixel on
+ * the executor given to {@link #setExecutor}, never on the UI thread. One
+ * frame is computed at a time; moves made meanwhile are merged into the
+ * next one. Until it arrives the last frame is drawn at the new position.
+ */
+public class RateChartView extends View {
+
+    // Zooming in stops at one hour across the chart
+    private static final long MIN_SPAN_MS = 60 * 60 * 1000L;
+
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint gridPaint = new Paint();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Path path = new Path();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("d MMM HH:mm", Locale.UK);
+    private final float density;
+
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+
+    private Executor executor;
+    private RateChartPyramid pyramid;
+    private String emptyText = "No history yet";
+
+    // Visible range in epoch milliseconds; UI thread only
+    private long viewStart;
+    private long viewEnd;
+
+    // Last computed frame and its labels
+    private ChartDownsampler.Frame frame = ChartDownsampler.Frame.EMPTY;
+    private float frameMin;
+    private float frameMax;
+    private String minLabel = "";
+    private String maxLabel = "";
+
+    // Labels for the visible range, formatted when it moves rather than on every draw
+    private String startLabel = "";
+    private String endLabel = "";
+
+    private boolean frameInFlight;
+    private boolean frameStale;
+
+    public RateChartView(Context context) {
+        this(context, null);
+    }
+
+    public RateChartView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        density = context.getResources().getDisplayMetrics().density;
+
+        linePaint.setColor(Color.rgb(0x1E, 0x88, 0xE5));
+        linePaint.setStrokeWidth(1.5f * density);
+        linePaint.setStyle(Paint.Style.STROKE);
+        gridPaint.setColor(Color.rgb(0xDD, 0xDD, 0xDD));
+        gridPaint.setStrokeWidth(density);
+        textPaint.setColor(Color.GRAY);
+        textPaint.setTextSize(11 * density);
+
+        scaleDetector = new ScaleGestureDetector(context,
+                new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+                    @Override
+                    public boolean onScale(ScaleGestureDetector detector) {
+                        zoom(detector.getScaleFactor(), detector.getFocusX());
+                        return true;
+                    }
+                });
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                pan(distanceX);
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                showAll();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Where frames are computed; must be set before data is shown.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void setEmptyText(String emptyText) {
+        this.emptyText = emptyText;
+        invalidate();
+    }
+
+    /**
+     * Shows new data, zoomed out to all of it. Null clears the chart.
+     */
+    public void setPyramid(RateChartPyramid pyramid) {
+        this.pyramid = pyramid;
+        frame = ChartDownsampler.Frame.EMPTY;
+        showAll();
+    }
+
+    // -------- Visible range --------
+
+    private void showAll() {
+        if (pyramid == null || pyramid.isEmpty()) {
+            invalidate();
+            return;
+        }
+        viewStart = pyramid.getStart();
+        viewEnd = Math.max(pyramid.getEnd(), viewStart + 1);
+        formatRangeLabels();
+        requestFrame();
+    }
+
+    private void zoom(float factor, float focusX) {
+        if (pyramid == null || pyramid.isEmpty() || factor <= 0) {
+            return;
+        }
+        long fullSpan = Math.max(1, pyramid.getEnd() - pyramid.getStart());
+        long span = viewEnd - viewStart;
+        long newSpan = (long) Math.max(Math.min(MIN_SPAN_MS, fullSpan), Math.min(fullSpan, span / factor));
+
+        // Keep the time under the fingers where it is
+        double at = Math.max(0, Math.min(1, (focusX - getPaddingLeft()) / plotWidth()));
+        long anchor = viewStart + (long) (at * span);
+        setRange(anchor - (long) (at * newSpan), newSpan);
+    }
+
+    private void pan(float distanceX) {
+        if (pyramid == null || pyramid.isEmpty()) {
+            return;
+        }
+        long span = viewEnd - viewStart;
+        setRange(viewStart + (long) (distanceX / plotWidth() * span), span);
+    }
+
+    // Moves the window, kept inside the data
+    private void setRange(long start, long span) {
+        long first = pyramid.getStart();
+        long last = Math.max(pyramid.getEnd(), first + 1);
+        start = Math.max(first, Math.min(start, last - span));
+        viewStart = start;
+        viewEnd = Math.min(last, start + span);
+        formatRangeLabels();
+        requestFrame();
+    }
+
+    private void formatRangeLabels() {
+        startLabel = dateFormat.format(new Date(viewStart));
+        endLabel = dateFormat.format(new Date(viewEnd));
+    }
+
+    // -------- Frames --------
+
+    // One frame at a time: a request made while one is computing re-runs when it lands
+    private void requestFrame() {
+        invalidate();
+        if (executor == null || pyramid == null || plotWidth() <= 0) {
+            return;
+        }
+        if (frameInFlight) {
+            frameStale = true;
+            return;
+        }
+        frameInFlight = true;
+        frameStale = false;
+
+        final RateChartPyramid data = pyramid;
+        final long start = viewStart;
+        final long end = viewEnd;
+        final int columns = (int) plotWidth();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final ChartDownsampler.Frame computed = data.frame(start, end, columns);
+                    post(new Runnable() {
+                        @Override
+                        public void run() {
+                            frameInFlight = false;
+                            if (data == pyramid) {
+                                showFrame(computed);
+                            }
+                            if (frameStale) {
+                                requestFrame();
+                            }
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            frameInFlight = false;  // the screen is closing
+        }
+    }
+
+    private void showFrame(ChartDownsampler.Frame computed) {
+        frame = computed;
+        frameMin = computed.min();
+        frameMax = computed.max();
+        minLabel = String.format(Locale.UK, "%.4f", frameMin);
+        maxLabel = String.format(Locale.UK, "%.4f", frameMax);
+        invalidate();
+    }
+
+    private float plotWidth() {
+        return getWidth() - getPaddingLeft() - getPaddingRight();
+    }
+
+    // -------- View --------
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (w != oldw && pyramid != null && !pyramid.isEmpty()) {
+            requestFrame();
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (pyramid == null || pyramid.isEmpty()) {
+            return super.onTouchEvent(event);
+        }
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            // Horizontal drags pan the chart, not the screen
+            ViewParent parent = getParent();
+            if (parent != null) {
+                parent.requestDisallowInterceptTouchEvent(true);
+            }
+        }
+        scaleDetector.onTouchEvent(event);
+        if (!scaleDetector.isInProgress()) {
+            gestureDetector.onTouchEvent(event);
+        }
+        if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+            performClick();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float left = getPaddingLeft();
+        float top = getPaddingTop();
+        float right = getWidth() - getPaddingRight();
+        float textHeight = textPaint.descent() - textPaint.ascent();
+        float bottom = getHeight() - getPaddingBottom() - textHeight;
+
+        canvas.drawLine(left, bottom, right, bottom, gridPaint);
+        if (frame.size() == 0) {
+            canvas.drawText(pyramid == null || pyramid.isEmpty() ? emptyText : "...",
+                    left, top + textHeight, textPaint);
+            return;
+        }
+
+        // Drawn against the current range, so a pan shows before its frame arrives
+        double xScale = (right - left) / (double) Math.max(1, viewEnd - viewStart);
+        float range = frameMax - frameMin;
+        float yScale = range > 0 ? (bottom - top) / range : 0;
+        float yMid = (top + bottom) / 2;
+
+        path.reset();
+        for (int i = 0; i < frame.size(); i++) {
+            float x = left + (float) ((frame.time(i) - viewStart) * xScale);
+            float yHigh = range > 0 ? bottom - (frame.high(i) - frameMin) * yScale : yMid;
+            float yLow = range > 0 ? bottom - (frame.low(i) - frameMin) * yScale : yMid;
+            if (i == 0) {
+                path.moveTo(x, yHigh);
+            } else {
+                path.lineTo(x, yHigh);
+            }
+            if (yLow != yHigh) {
+                path.lineTo(x, yLow);   // a min/max column
+            }
+        }
+        canvas.drawPath(path, linePaint);
+
+        canvas.drawText(maxLabel, left, top + textHeight, textPaint);
+        canvas.drawText(minLabel, left, bottom - textPaint.descent(), textPaint);
+        float baseline = bottom + textHeight - textPaint.descent();
+        canvas.drawText(startLabel, left, baseline, textPaint);
+        canvas.drawText(endLabel, right - textPaint.measureText(endLabel), baseline, textPaint);
+    }
+}
@@ -0,0 +1,40 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+/**
+ * Turns the bytes of one rate feed into CurrencyRate items. Kept apart from
+ * {@link RssFeedFetcher} so the network code does not depend on how the
+ * XML is read.
+ *
+ * Implementations must skip the garbage the server sometimes wraps around
+ * the document, and must be safe to share between fetch threads.
+ */
+public interface RateFeedParser {
+
+    /**
+     * Parses the feed from its raw byte stream. The stream is not closed.
+     *
+     * @param charset  the charset named by the response's Content-Type, which
+     *                 wins over the XML prolog; null to take it from the prolog
+     *                 (UTF-8 if it names none)
+     * @param listener gets {@code onRateParsed} for each item as soon as it
+     *                 has been read; may be null
+     * @throws XmlPullParserException if the document is malformed or truncated
+     */
+    ArrayList<CurrencyRate> parse(InputStream stream, Charset charset,
+            RssFeedFetcher.OnRatesParsedListener listener) throws XmlPullParserException, IOException;
+
+    /**
+     * Parses the feed with the charset from its XML prolog.
+     */
+    default ArrayList<CurrencyRate> parse(InputStream stream, RssFeedFetcher.OnRatesParsedListener listener)
+            throws XmlPullParserException, IOException {
+        return parse(stream, null, listener);
+    }
+}
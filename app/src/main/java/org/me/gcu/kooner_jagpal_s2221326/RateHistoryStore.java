@@ -0,0 +1,273 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Append-only rate history, one small file per currency code.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic, short version, short record size
+ *   long   base time (epoch seconds, the first sample's pubDate)
+ *   record int seconds since base time, float rate     (8 bytes each)
+ * </pre>
+ * Samples are kept in time order, so a range query memory-maps the file,
+ * binary-searches the first record in range and reads only the records it
+ * returns. A record cut short by a crash mid-append is ignored.
+ */
+public class RateHistoryStore {
+
+    private static final String TAG = "RateHistoryStore";
+
+    private static final int MAGIC = 0x52485354; // "RHST"
+    private static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 8;
+
+    private static final String SUFFIX = ".hist";
+
+    /**
+     * Samples returned by a query, oldest first.
+     */
+    public static final class Series {
+        static final Series EMPTY = new Series(new long[0], new float[0]);
+
+        private final long[] times;
+        private final float[] rates;
+
+        Series(long[] times, float[] rates) {
+            this.times = times;
+            this.rates = rates;
+        }
+
+        public int size() {
+            return times.length;
+        }
+
+        /**
+         * Sample time in epoch milliseconds.
+         */
+        public long time(int i) {
+            return times[i];
+        }
+
+        public float rate(int i) {
+            return rates[i];
+        }
+    }
+
+    private final File dir;
+
+    // Code -> {base time, newest sample time} in epoch seconds, loaded on first use
+    private final HashMap<String, long[]> fileTimes = new HashMap<>();
+
+    public RateHistoryStore(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Appends one sample per rate in a parsed feed, timed by its pubDate.
+     * Items whose pubDate is not newer than the last stored sample for that
+     * code (an unchanged feed fetched again) are skipped.
+     *
+     * @return the number of samples written
+     */
+    public synchronized int appendRates(List<CurrencyRate> rates) throws IOException {
+        int written = 0;
+        for (CurrencyRate rate : rates) {
+            long millis = PubDateParser.parseMillis(rate.getPubDate());
+            if (millis == PubDateParser.INVALID || !isValidCode(rate.getTargetCode())) {
+                continue;
+            }
+            if (append(rate.getTargetCode(), millis, rate.getRate())) {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Appends a sample for a code. Time is stored to the second.
+     *
+     * @return false if the sample is not newer than the last one stored
+     */
+    public synchronized boolean append(String code, long timeMillis, double rate) throws IOException {
+        String key = checkCode(code);
+        long seconds = Math.floorDiv(timeMillis, 1000);
+
+        File file = fileFor(key);
+        long[] times = timesFor(key, file);
+        boolean newFile = times == null;
+        if (!newFile && seconds <= times[1]) {
+            return false;
+        }
+
+        long base = newFile ? seconds : times[0];
+        long delta = seconds - base;
+        if (delta > Integer.MAX_VALUE) {
+            Log.w(TAG, "Sample for " + key + " too far after base time, skipped");
+            return false;
+        }
+
+        if (newFile) {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+        } else {
+            trimPartialRecord(file);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file, !newFile), HEADER_BYTES + RECORD_BYTES))) {
+            if (newFile) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(RECORD_BYTES);
+                out.writeLong(base);
+            }
+            out.writeInt((int) delta);
+            out.writeFloat((float) rate);
+        }
+        fileTimes.put(key, new long[]{base, seconds});
+        return true;
+    }
+
+    /**
+     * Samples for a code with fromMillis &lt;= time &lt;= toMillis.
+     */
+    public synchronized Series query(String code, long fromMillis, long toMillis) throws IOException {
+        String key = checkCode(code);
+        File file = fileFor(key);
+        if (!file.isFile() || fromMillis > toMillis) {
+            return Series.EMPTY;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return Series.EMPTY;
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long base = checkHeader(buf, file);
+            int count = (int) Math.min(Integer.MAX_VALUE, (size - HEADER_BYTES) / RECORD_BYTES);
+
+            // Compare in whole seconds relative to the base time, as stored
+            long fromDelta = -Math.floorDiv(-fromMillis, 1000) - base; // round up
+            long toDelta = Math.floorDiv(toMillis, 1000) - base;
+
+            int first = lowerBound(buf, count, fromDelta);
+            int end = lowerBound(buf, count, toDelta + 1);
+            if (first >= end) {
+                return Series.EMPTY;
+            }
+
+            long[] times = new long[end - first];
+            float[] rates = new float[end - first];
+            for (int i = first; i < end; i++) {
+                int at = HEADER_BYTES + i * RECORD_BYTES;
+                times[i - first] = (base + buf.getInt(at)) * 1000L;
+                rates[i - first] = buf.getFloat(at + 4);
+            }
+            return new Series(times, rates);
+        }
+    }
+
+    /**
+     * Number of complete samples stored for a code.
+     */
+    public synchronized int sampleCount(String code) {
+        File file = fileFor(checkCode(code));
+        long size = file.isFile() ? file.length() : 0;
+        return size < HEADER_BYTES ? 0 : (int) ((size - HEADER_BYTES) / RECORD_BYTES);
+    }
+
+    File fileFor(String code) {
+        return new File(dir, code + SUFFIX);
+    }
+
+    // -------- Helpers --------
+
+    // First record index whose delta is >= target; records are sorted by delta
+    private static int lowerBound(ByteBuffer buf, int count, long target) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buf.getInt(HEADER_BYTES + mid * RECORD_BYTES) < target) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // {base, newest sample} for a code's file, or null if it has no samples yet
+    private long[] timesFor(String key, File file) throws IOException {
+        long[] cached = fileTimes.get(key);
+        if (cached != null || !file.isFile() || file.length() < HEADER_BYTES + RECORD_BYTES) {
+            return cached;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            raf.readFully(header.array());
+            long base = checkHeader(header, file);
+            long count = (raf.length() - HEADER_BYTES) / RECORD_BYTES;
+            raf.seek(HEADER_BYTES + (count - 1) * RECORD_BYTES);
+            long[] times = {base, base + raf.readInt()};
+            fileTimes.put(key, times);
+            return times;
+        }
+    }
+
+    private static long checkHeader(ByteBuffer buf, File file) throws IOException {
+        if (buf.getInt(0) != MAGIC || buf.getShort(4) != VERSION || buf.getShort(6) != RECORD_BYTES) {
+            throw new IOException("Not a rate history file: " + file);
+        }
+        return buf.getLong(8);
+    }
+
+    // Drops the bytes of a record cut short by a crash, so appends stay aligned
+    private static void trimPartialRecord(File file) throws IOException {
+        long extra = (file.length() - HEADER_BYTES) % RECORD_BYTES;
+        if (extra != 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(raf.length() - extra);
+            }
+        }
+    }
+
+    // Codes become file names, so only plain letters and digits are allowed
+    private static boolean isValidCode(String code) {
+        if (code == null || code.isEmpty() || code.length() > 8) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String checkCode(String code) {
+        if (!isValidCode(code)) {
+            throw new IllegalArgumentException("Bad currency code: " + code);
+        }
+        return code.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,197 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Single-flight refresh of the rates feed on a shared executor.
+ *
+ * Only one download runs at a time: a refresh requested while one is in
+ * flight (a button tap during an auto-refresh, say) is attached to it and
+ * gets the same result instead of starting a second download.
+ *
+ * Every download has a generation number. cancel() moves the generation
+ * on, so a download that finishes afterwards is dropped rather than
+ * overwriting newer data. Listeners are called on the fetch thread.
+ */
+public class RateRefresher {
+
+    /**
+     * Where the rates come from. Throws with a user-readable message on failure.
+     */
+    public interface FeedSource {
+        ArrayList<CurrencyRate> fetch() throws IOException;
+    }
+
+    private static final String TAG = "RateRefresher";
+
+    // Stateless, so one scanner serves every fetch thread
+    private static final RateFeedParser FEED_PARSER = new ScanningRateFeedParser();
+
+    private final FeedSource source;
+    private final ExecutorService executor;
+
+    private final Object lock = new Object();
+    private ArrayList<RssFeedFetcher.OnRatesParsedListener> waiting = new ArrayList<>();
+    private Future<?> inFlight;
+    private long generation;
+    private boolean shutdown;
+
+    /**
+     * Refreshes the given feed on the shared network pool.
+     */
+    public RateRefresher(String url, FeedHttpCache httpCache) {
+        this(rssFeed(url, httpCache), FetchExecutors.network());
+    }
+
+    public RateRefresher(FeedSource source, ExecutorService executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    /**
+     * Streams the RSS feed at url, with conditional GETs when a cache is given.
+     */
+    public static FeedSource rssFeed(final String url, final FeedHttpCache httpCache) {
+        return new FeedSource() {
+            @Override
+            public ArrayList<CurrencyRate> fetch() throws IOException {
+                final String[] error = new String[1];
+                RssFeedFetcher fetcher = new RssFeedFetcher(url, new RssFeedFetcher.OnRatesParsedListener() {
+                    @Override
+                    public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        error[0] = message;
+                    }
+                }, true);
+                fetcher.setHttpCache(httpCache);
+                fetcher.setParser(FEED_PARSER);
+
+                ArrayList<CurrencyRate> rates = fetcher.fetch();
+                if (rates == null) {
+                    throw new IOException(error[0] != null ? error[0] : "Could not fetch " + url);
+                }
+                return rates;
+            }
+        };
+    }
+
+    /**
+     * Starts a refresh, or joins the one already in flight. The listener is
+     * told once about the outcome; adding the same listener twice to one
+     * refresh has no extra effect.
+     *
+     * @return true if a new download was started, false if the request was
+     *         attached to the running one (or the refresher is shut down)
+     */
+    public boolean refresh(RssFeedFetcher.OnRatesParsedListener listener) {
+        synchronized (lock) {
+            if (shutdown) {
+                return false;
+            }
+            if (listener != null && !containsSame(waiting, listener)) {
+                waiting.add(listener);
+            }
+            if (inFlight != null) {
+                return false;
+            }
+
+            final long myGeneration = ++generation;
+            try {
+                inFlight = executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        runFetch(myGeneration);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                Log.w(TAG, "Refresh rejected", e);
+                waiting.clear();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    public boolean isRefreshing() {
+        synchronized (lock) {
+            return inFlight != null;
+        }
+    }
+
+    /**
+     * Drops the running refresh, if any: its listeners are not called and
+     * its result is thrown away when it arrives.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            generation++;
+            if (inFlight != null) {
+                inFlight.cancel(true);
+                inFlight = null;
+            }
+            waiting.clear();
+        }
+    }
+
+    /**
+     * Cancels and refuses any further refreshes. The shared executor is
+     * left running for other users.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+        }
+        cancel();
+    }
+
+    private void runFetch(long myGeneration) {
+        ArrayList<CurrencyRate> rates = null;
+        String error = null;
+        try {
+            rates = source.fetch();
+        } catch (IOException e) {
+            error = e.getMessage();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Refresh failed", e);
+            error = "Could not update rates.";
+        }
+
+        ArrayList<RssFeedFetcher.OnRatesParsedListener> targets;
+        synchronized (lock) {
+            if (myGeneration != generation) {
+                Log.d(TAG, "Dropping stale refresh #" + myGeneration);
+                return; // cancelled, or a newer refresh owns inFlight now
+            }
+            inFlight = null;
+            targets = waiting;
+            waiting = new ArrayList<>();
+        }
+
+        // --- Deliver outside the lock, so listeners can start the next refresh ---
+        for (RssFeedFetcher.OnRatesParsedListener target : targets) {
+            if (rates != null) {
+                target.onRatesParsed(rates);
+            } else {
+                target.onError(error);
+            }
+        }
+    }
+
+    private static boolean containsSame(ArrayList<?> list, Object item) {
+        for (Object each : list) {
+            if (each == item) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
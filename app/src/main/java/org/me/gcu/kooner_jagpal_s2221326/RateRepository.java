@@ -0,0 +1,424 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single owner of the rates for the whole process, between the screens and
+ * the network.
+ *
+ * Stale-while-revalidate: the last good rates are served straight away,
+ * from memory or, after a cold start, from the snapshot on disk, while
+ * {@link #refresh()} fetches new ones in the background. Every result is
+ * published as an immutable {@link Snapshot} to the registered observers,
+ * so a rotated activity or the converter picks up the same data without
+ * fetching again or passing rates through Intents. A download whose
+ * pubDate has not moved only refreshes the current snapshot's fetch time;
+ * nothing is saved, appended to the history or rebuilt.
+ *
+ * Each downloaded snapshot is also checked against the user's
+ * {@link RateAlerts}, which are kept in a {@link RateAlertStore}; the alerts
+ * it fired travel with the snapshot.
+ *
+ * Observers are called on a background thread (the fetch or disk thread)
+ * and should post to the UI thread themselves. Snapshots reach them in the
+ * order they were published, so the last one delivered is the current one.
+ */
+public class RateRepository {
+
+    /**
+     * Told about every new snapshot and every failed refresh.
+     */
+    public interface Observer {
+        void onSnapshot(Snapshot snapshot);
+        void onRefreshFailed(String message);
+    }
+
+    /**
+     * One published state of the rates: the table (with changes since the
+     * previous refresh), its search index and cross-rate engine, the alerts
+     * the refresh fired, and where and when it came from.
+     */
+    public static final class Snapshot {
+
+        public static final Snapshot EMPTY = new Snapshot(RateTable.EMPTY, CurrencySearchIndex.EMPTY,
+                CrossRateEngine.fromTable(RateTable.EMPTY, CrossRateEngine.DEFAULT_BASE),
+                Collections.<RateAlerts.Trigger>emptyList(), PubDateParser.INVALID, 0, false);
+
+        private final RateTable table;
+        private final CurrencySearchIndex searchIndex;
+        private final CrossRateEngine engine;
+        private final List<RateAlerts.Trigger> triggers;
+        private final long pubDate;
+        private final long fetchedAt;
+        private final boolean fromNetwork;
+
+        Snapshot(RateTable table, CurrencySearchIndex searchIndex, CrossRateEngine engine,
+                 List<RateAlerts.Trigger> triggers, long pubDate, long fetchedAt, boolean fromNetwork) {
+            this.table = table;
+            this.searchIndex = searchIndex;
+            this.engine = engine;
+            this.triggers = triggers;
+            this.pubDate = pubDate;
+            this.fetchedAt = fetchedAt;
+            this.fromNetwork = fromNetwork;
+        }
+
+        public RateTable getTable() {
+            return table;
+        }
+
+        public CurrencySearchIndex getSearchIndex() {
+            return searchIndex;
+        }
+
+        /**
+         * Cross rates between every pair in the table, against {@link CrossRateEngine#DEFAULT_BASE}.
+         */
+        public CrossRateEngine getEngine() {
+            return engine;
+        }
+
+        /**
+         * Alerts fired by the move from the previous snapshot to this one;
+         * always empty for a disk snapshot.
+         */
+        public List<RateAlerts.Trigger> getTriggeredAlerts() {
+            return triggers;
+        }
+
+        /**
+         * Newest pubDate among the rows, or {@link PubDateParser#INVALID}.
+         */
+        public long getPubDate() {
+            return pubDate;
+        }
+
+        /**
+         * Epoch milliseconds when the rates were downloaded (for a disk
+         * snapshot, when it was saved); 0 for {@link #EMPTY}.
+         */
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        /**
+         * False for rates loaded from disk that have not been revalidated yet.
+         */
+        public boolean isFromNetwork() {
+            return fromNetwork;
+        }
+
+        public boolean isEmpty() {
+            return table.isEmpty();
+        }
+
+        // The same rates, confirmed by a download at the given time
+        Snapshot revalidatedAt(long now) {
+            return new Snapshot(table, searchIndex, engine,
+                    Collections.<RateAlerts.Trigger>emptyList(), pubDate, now, true);
+        }
+    }
+
+    private static final String TAG = "RateRepository";
+    private static final String FEED_URL = "https://www.fx-exchange.com/gbp/rss.xml";
+    private static final String SNAPSHOT_FILE = "rates.snapshot";
+    private static final String HISTORY_DIR = "history";
+    private static final String ALERTS_FILE = "rate.alerts";
+
+    // Change/min/max/EMA/volatility per currency, over the last 12 feed publications: refreshes
+    // that bring no new pubDate are not counted, so this is about 12 hours of an hourly feed
+    private static final int STATS_WINDOW = 12;
+
+    private static RateRepository instance;
+
+    private final RateRefresher refresher;
+    private final RateSnapshotStore snapshotStore;
+    private final RateHistoryStore historyStore;
+    private final RateAlertStore alertStore;
+    private final Executor diskExecutor;
+    private final RefreshScheduler.Clock clock;
+
+    private final RateStatistics rateStatistics = new RateStatistics(STATS_WINDOW);
+    private final CopyOnWriteArrayList<Observer> observers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean diskLoadStarted = new AtomicBoolean();
+    private final RateAlerts alerts = new RateAlerts();
+    private boolean alertsLoaded; // guarded by alerts
+    private final Object publishLock = new Object();
+    private volatile Snapshot current = Snapshot.EMPTY;
+
+    private final RssFeedFetcher.OnRatesParsedListener refreshListener =
+            new RssFeedFetcher.OnRatesParsedListener() {
+                @Override
+                public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+                    onFetched(rates);
+                }
+
+                @Override
+                public void onError(String message) {
+                    for (Observer observer : observers) {
+                        observer.onRefreshFailed(message);
+                    }
+                }
+            };
+
+    /**
+     * @param historyStore  may be null to keep no history
+     * @param alertStore    may be null to keep alerts in memory only
+     * @param diskExecutor  runs the one-off snapshot load and alert saves
+     */
+    public RateRepository(RateRefresher refresher, RateSnapshotStore snapshotStore,
+                          RateHistoryStore historyStore, RateAlertStore alertStore,
+                          Executor diskExecutor, RefreshScheduler.Clock clock) {
+        this.refresher = refresher;
+        this.snapshotStore = snapshotStore;
+        this.historyStore = historyStore;
+        this.alertStore = alertStore;
+        this.diskExecutor = diskExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * The process-wide repository for the GBP feed, stored in the app's files dir.
+     */
+    public static synchronized RateRepository get(Context context) {
+        if (instance == null) {
+            File dir = context.getApplicationContext().getFilesDir();
+            instance = new RateRepository(
+                    new RateRefresher(FEED_URL, new FeedHttpCache()),
+                    new RateSnapshotStore(new File(dir, SNAPSHOT_FILE)),
+                    new RateHistoryStore(new File(dir, HISTORY_DIR)),
+                    new RateAlertStore(new File(dir, ALERTS_FILE)),
+                    FetchExecutors.network(),
+                    new RefreshScheduler.Clock() {
+                        @Override
+                        public long now() {
+                            return System.currentTimeMillis();
+                        }
+                    });
+        }
+        return instance;
+    }
+
+    /**
+     * Latest rates in memory; {@link Snapshot#EMPTY} until the disk snapshot
+     * or the first download has arrived.
+     */
+    public Snapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * Registers an observer and, the first time anyone observes, starts
+     * loading the disk snapshot. Nothing is replayed: read
+     * {@link #getSnapshot()} after registering to show what is already here.
+     */
+    public void addObserver(Observer observer) {
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+        loadFromDiskOnce();
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * True if the current rates came from the network less than
+     * {@code maxAgeMs} ago, so a revalidation can be skipped.
+     */
+    public boolean isFresh(long maxAgeMs) {
+        Snapshot snapshot = current;
+        return snapshot.isFromNetwork() && clock.now() - snapshot.getFetchedAt() < maxAgeMs;
+    }
+
+    /**
+     * Revalidates in the background; observers get the new snapshot or the
+     * error. Joins a refresh already in flight instead of starting another.
+     *
+     * @return true if a new download was started
+     */
+    public boolean refresh() {
+        return refresher.refresh(refreshListener);
+    }
+
+    public boolean isRefreshing() {
+        return refresher.isRefreshing();
+    }
+
+    /**
+     * Rates over time, one sample per currency per download; null if none are kept.
+     */
+    public RateHistoryStore getHistory() {
+        return historyStore;
+    }
+
+    // -------- Alerts --------
+
+    /**
+     * Registers an alert and saves the list in the background. It is checked
+     * from the next refresh on.
+     *
+     * @throws IllegalArgumentException for a missing code or a non-positive value
+     */
+    public RateAlerts.Alert addAlert(String fromCode, String toCode, RateAlerts.Kind kind, double value) {
+        RateAlerts.Alert alert = loadedAlerts().add(fromCode, toCode, kind, value);
+        saveAlertsLater();
+        return alert;
+    }
+
+    public boolean removeAlert(int id) {
+        boolean removed = loadedAlerts().remove(id);
+        if (removed) {
+            saveAlertsLater();
+        }
+        return removed;
+    }
+
+    public List<RateAlerts.Alert> getAlerts() {
+        return loadedAlerts().list();
+    }
+
+    // Reads the saved alerts the first time they are needed
+    private RateAlerts loadedAlerts() {
+        synchronized (alerts) {
+            if (!alertsLoaded) {
+                alertsLoaded = true;
+                if (alertStore != null) {
+                    alerts.addAll(alertStore.load());
+                }
+            }
+        }
+        return alerts;
+    }
+
+    private void saveAlertsLater() {
+        if (alertStore == null) {
+            return;
+        }
+        try {
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        alertStore.save(alerts.list());
+                    } catch (IOException e) {
+                        Log.w(TAG, "Could not save rate alerts", e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Alert save rejected", e);
+        }
+    }
+
+    // -------- Sources --------
+
+    private void loadFromDiskOnce() {
+        if (!diskLoadStarted.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    loadFromDisk();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Snapshot load rejected", e);
+        }
+    }
+
+    private void loadFromDisk() {
+        loadedAlerts(); // so the UI thread never has to read them
+        ArrayList<CurrencyRate> saved = snapshotStore.load();
+        if (saved == null) {
+            return;
+        }
+        RateTable parsed = RateTable.fromRates(saved);
+        synchronized (publishLock) {
+            if (!current.isEmpty()) {
+                return; // the network got here first
+            }
+            // Seeds the statistics, so the first refresh already shows movement
+            RateTable table = parsed.withChanges(rateStatistics.update(parsed));
+            Snapshot snapshot = new Snapshot(table, CurrencySearchIndex.build(table), engineFor(table),
+                    Collections.<RateAlerts.Trigger>emptyList(), RefreshScheduler.newestPubDate(table),
+                    snapshotStore.getFile().lastModified(), false);
+            current = snapshot;
+            // Still under the lock, so a network snapshot published after this one is delivered after it
+            deliver(snapshot);
+        }
+    }
+
+    // On the fetch thread: unless the feed has not moved, persist, then build
+    // the table, index and engine and check the alerts before publishing
+    private void onFetched(ArrayList<CurrencyRate> rates) {
+        RateTable parsed = RateTable.fromRates(rates);
+        long pubDate = RefreshScheduler.newestPubDate(parsed);
+
+        // The same feed again: nothing to save, append or rebuild, only the fetch time moves
+        synchronized (publishLock) {
+            if (isUnchanged(current, parsed, pubDate)) {
+                current = current.revalidatedAt(clock.now());
+                deliver(current);
+                return;
+            }
+        }
+
+        try {
+            snapshotStore.save(rates);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save rate snapshot", e);
+        }
+        if (historyStore != null) {
+            try {
+                historyStore.appendRates(rates);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not append rate history", e);
+            }
+        }
+
+        CrossRateEngine engine = engineFor(parsed);
+        RateAlerts checked = loadedAlerts();
+        synchronized (publishLock) {
+            RateTable table = parsed.withChanges(rateStatistics.update(parsed));
+            List<RateAlerts.Trigger> triggers = current.isEmpty()
+                    ? Collections.<RateAlerts.Trigger>emptyList()
+                    : checked.evaluate(current.getEngine(), engine);
+            Snapshot snapshot = new Snapshot(table, CurrencySearchIndex.build(table), engine,
+                    triggers, pubDate, clock.now(), true);
+            current = snapshot;
+            deliver(snapshot);
+        }
+    }
+
+    // A feed whose pubDate has not moved since the current snapshot
+    private static boolean isUnchanged(Snapshot previous, RateTable parsed, long pubDate) {
+        return !previous.isEmpty() && pubDate != PubDateParser.INVALID
+                && pubDate == previous.getPubDate() && parsed.size() == previous.getTable().size();
+    }
+
+    private static CrossRateEngine engineFor(RateTable table) {
+        return CrossRateEngine.fromTable(table, CrossRateEngine.DEFAULT_BASE);
+    }
+
+    // Called holding publishLock, which keeps deliveries in publishing order; observers only post
+    private void deliver(Snapshot snapshot) {
+        for (Observer observer : observers) {
+            observer.onSnapshot(snapshot);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+/**
+ * Compares two row slices of (possibly different) RateTables for DiffUtil.
+ * Rows are the same item when they have the same {@link RateTable#itemId},
+ * in practice the same target code, and the same
+ * content when the displayed name, rate and movement are unchanged.
+ */
+public class RateRowDiffCallback extends DiffUtil.Callback {
+
+    /** Change payload: only the rate or its movement differs, so only those need rebinding. */
+    public static final Object PAYLOAD_RATE = new Object();
+
+    private final RateTable oldTable;
+    private final int[] oldRows;
+    private final RateTable newTable;
+    private final int[] newRows;
+
+    public RateRowDiffCallback(RateTable oldTable, int[] oldRows, RateTable newTable, int[] newRows) {
+        this.oldTable = oldTable;
+        this.oldRows = oldRows;
+        this.newTable = newTable;
+        this.newRows = newRows;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldRows.length;
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newRows.length;
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldPosition, int newPosition) {
+        // Code ids are process-wide, so they compare across tables
+        return oldTable.itemId(oldRows[oldPosition]) == newTable.itemId(newRows[newPosition]);
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldPosition, int newPosition) {
+        int oldRow = oldRows[oldPosition];
+        int newRow = newRows[newPosition];
+        return sameRateAndMovement(oldRow, newRow) && sameName(oldRow, newRow);
+    }
+
+    @Override
+    public Object getChangePayload(int oldPosition, int newPosition) {
+        return sameName(oldRows[oldPosition], newRows[newPosition]) ? PAYLOAD_RATE : null;
+    }
+
+    private boolean sameRateAndMovement(int oldRow, int newRow) {
+        return Double.compare(oldTable.rate(oldRow), newTable.rate(newRow)) == 0
+                && CurrencyRateAdapter.movement(oldTable.change(oldRow))
+                == CurrencyRateAdapter.movement(newTable.change(newRow));
+    }
+
+    private boolean sameName(int oldRow, int newRow) {
+        String oldName = oldTable.name(oldRow);
+        String newName = newTable.name(newRow);
+        return oldName == null ? newName == null : oldName.equals(newName);
+    }
+}
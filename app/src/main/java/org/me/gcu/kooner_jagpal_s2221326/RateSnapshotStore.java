@@ -0,0 +1,208 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Saves the last good list of rates to a small binary file so the app can
+ * show them straight away on the next cold start, before the network
+ * round trip has finished.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic, short version
+ *   table  codes      (int count, then short length + UTF-8 bytes each)
+ *   table  names
+ *   table  pubDates
+ *   int    item count
+ *   item   short code index, short name index, short pubDate index, double rate
+ * </pre>
+ * Codes, names and dates are stored once in their tables and referenced by
+ * index (-1 for null), so a feed where every item shares one pubDate costs
+ * only 14 bytes per item plus the strings.
+ */
+public class RateSnapshotStore {
+
+    private static final String TAG = "RateSnapshotStore";
+
+    private static final int MAGIC = 0x52534E50; // "RSNP"
+    private static final short VERSION = 1;
+
+    private final File file;
+
+    public RateSnapshotStore(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes the rates to a temporary file and renames it over the old
+     * snapshot, so a crash mid-write never leaves a half-written file behind.
+     */
+    public synchronized void save(ArrayList<CurrencyRate> rates) throws IOException {
+        StringTable codes = new StringTable();
+        StringTable names = new StringTable();
+        StringTable dates = new StringTable();
+
+        int count = rates.size();
+        short[] codeIdx = new short[count];
+        short[] nameIdx = new short[count];
+        short[] dateIdx = new short[count];
+        for (int i = 0; i < count; i++) {
+            CurrencyRate rate = rates.get(i);
+            codeIdx[i] = codes.indexOf(rate.getTargetCode());
+            nameIdx[i] = names.indexOf(rate.getCurrencyName());
+            dateIdx[i] = dates.indexOf(rate.getPubDate());
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            codes.writeTo(out);
+            names.writeTo(out);
+            dates.writeTo(out);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeShort(codeIdx[i]);
+                out.writeShort(nameIdx[i]);
+                out.writeShort(dateIdx[i]);
+                out.writeDouble(rates.get(i).getRate());
+            }
+        } finally {
+            out.close();
+        }
+
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the snapshot back through a memory-mapped buffer.
+     *
+     * @return the saved rates, or null if there is no usable snapshot
+     */
+    public ArrayList<CurrencyRate> load() {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buf.getInt() != MAGIC || buf.getShort() != VERSION) {
+                Log.w(TAG, "Ignoring snapshot with unknown format");
+                return null;
+            }
+
+            String[] codes = readTable(buf);
+            String[] names = readTable(buf);
+            String[] dates = readTable(buf);
+
+            int count = checkedCount(buf, 14);
+            ArrayList<CurrencyRate> rates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                CurrencyRate rate = new CurrencyRate();
+                rate.setTargetCode(lookup(codes, buf.getShort()));
+                rate.setCurrencyName(lookup(names, buf.getShort()));
+                rate.setPubDate(lookup(dates, buf.getShort()));
+                rate.setRate(buf.getDouble());
+                rates.add(rate);
+            }
+            return rates;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException
+                 | IllegalArgumentException e) {
+            Log.w(TAG, "Could not read snapshot " + file, e);
+            return null;
+        }
+    }
+
+    // -------- Helpers --------
+
+    private static String[] readTable(ByteBuffer buf) {
+        int size = checkedCount(buf, 2);
+        String[] table = new String[size];
+        for (int i = 0; i < size; i++) {
+            int len = buf.getShort() & 0xffff;
+            byte[] bytes = new byte[len];
+            buf.get(bytes);
+            table[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return table;
+    }
+
+    // Reads a count and rejects values the rest of the file cannot hold
+    private static int checkedCount(ByteBuffer buf, int minBytesEach) {
+        int count = buf.getInt();
+        if (count < 0 || (long) count * minBytesEach > buf.remaining()) {
+            throw new IllegalArgumentException("Bad count " + count);
+        }
+        return count;
+    }
+
+    private static String lookup(String[] table, short index) {
+        return index < 0 ? null : table[index];
+    }
+
+    /**
+     * Deduplicating string table used while writing.
+     */
+    private static final class StringTable {
+        private final HashMap<String, Short> indexes = new HashMap<>();
+        private final ArrayList<byte[]> encoded = new ArrayList<>();
+
+        short indexOf(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            Short existing = indexes.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            if (encoded.size() == Short.MAX_VALUE) {
+                throw new IOException("Too many distinct strings for snapshot");
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xffff) {
+                throw new IOException("String too long for snapshot");
+            }
+            short index = (short) encoded.size();
+            indexes.put(value, index);
+            encoded.add(bytes);
+            return index;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(encoded.size());
+            for (byte[] bytes : encoded) {
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.Arrays;
+
+/**
+ * Streaming statistics per currency, updated in O(1) per refresh.
+ *
+ * For each code id it keeps the change since the previous sample, the
+ * min and max over the last {@code window} samples (monotonic deques),
+ * an exponential moving average and the volatility (standard deviation of
+ * the last {@code window} simple returns, from running sums).
+ *
+ * Everything lives in primitive arrays indexed by code id, with one ring
+ * of {@code window} slots per code. The arrays only grow when a new code
+ * id shows up, so update() does not allocate once every code has been
+ * seen. Samples that are not positive numbers (failed parses) are ignored,
+ * and so are feed rows whose pubDate has not moved since the code's last
+ * sample: the feed was fetched again but that rate was not republished.
+ */
+public class RateStatistics {
+
+    private final int window;
+    private final double alpha;
+
+    private int capacity;           // code ids with room in the arrays
+
+    // --- Per code ---
+    private long[] samples;         // samples seen
+    private double[] last;
+    private long[] lastTime;        // pubDate of the last sample in epoch ms, 0 if unknown
+    private double[] previous;
+    private double[] ema;
+    private double[] returnSum;
+    private double[] returnSquares;
+    private int[] minHead;
+    private int[] minLength;
+    private int[] maxHead;
+    private int[] maxLength;
+
+    // --- Per code rings, window slots each ---
+    private double[] values;        // rate of sample n at slot n % window
+    private double[] returns;       // return ending at sample n at slot n % window
+    private long[] minDeque;        // sample numbers with increasing rates
+    private long[] maxDeque;        // sample numbers with decreasing rates
+
+    /**
+     * @param window number of samples the min/max and volatility look back
+     *               over; the EMA uses the matching smoothing 2 / (window + 1)
+     */
+    public RateStatistics(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be at least 2");
+        }
+        this.window = window;
+        this.alpha = 2.0 / (window + 1);
+        allocate(0);
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Adds the latest rate for a code.
+     */
+    public synchronized void update(int codeId, double rate) {
+        if (codeId < 0 || !(rate > 0) || Double.isInfinite(rate)) {
+            return;
+        }
+        if (codeId >= capacity) {
+            allocate(codeId + 1);
+        }
+
+        long n = samples[codeId];
+        int base = codeId * window;
+        int slot = (int) (n % window);
+
+        if (n == 0) {
+            ema[codeId] = rate;
+        } else {
+            double prior = last[codeId];
+            previous[codeId] = prior;
+            ema[codeId] += alpha * (rate - ema[codeId]);
+
+            // --- Returns window: drop the oldest once full, add the newest ---
+            double r = rate / prior - 1.0;
+            if (n > window) {
+                double old = returns[base + slot];
+                returnSum[codeId] -= old;
+                returnSquares[codeId] -= old * old;
+            }
+            returns[base + slot] = r;
+            returnSum[codeId] += r;
+            returnSquares[codeId] += r * r;
+        }
+        last[codeId] = rate;
+
+        // --- Min/max deques: expire the front, drop dominated entries at the back ---
+        long oldest = n - window + 1;
+        pushMin(codeId, base, n, oldest, rate);
+        pushMax(codeId, base, n, oldest, rate);
+        values[base + slot] = rate;
+
+        samples[codeId] = n + 1;
+    }
+
+    /**
+     * Adds every row of a feed and returns each row's change since the
+     * previous sample of that code (NaN where there is none). Rows whose
+     * pubDate is not newer than the code's last one are not added again.
+     * The returned array is the only allocation.
+     */
+    public synchronized double[] update(RateTable table) {
+        double[] changes = new double[table.size()];
+        for (int row = 0; row < changes.length; row++) {
+            int codeId = table.codeId(row);
+            long time = PubDateParser.parseMillis(table.pubDate(row));
+            if (isNewer(codeId, time)) {
+                update(codeId, table.rate(row));
+                if (time != PubDateParser.INVALID && codeId >= 0 && codeId < capacity) {
+                    lastTime[codeId] = time;
+                }
+            }
+            changes[row] = change(codeId);
+        }
+        return changes;
+    }
+
+    // False only for a dated row no newer than the code's last dated sample
+    private boolean isNewer(int codeId, long time) {
+        return time == PubDateParser.INVALID || !known(codeId)
+                || lastTime[codeId] == 0 || time > lastTime[codeId];
+    }
+
+    public synchronized long sampleCount(int codeId) {
+        return known(codeId) ? samples[codeId] : 0;
+    }
+
+    /**
+     * Latest rate minus the one before, or NaN with fewer than two samples.
+     */
+    public synchronized double change(int codeId) {
+        return known(codeId) && samples[codeId] >= 2 ? last[codeId] - previous[codeId] : Double.NaN;
+    }
+
+    public synchronized double min(int codeId) {
+        return known(codeId) ? values[codeId * window + dequeSlot(minDeque, codeId, minHead[codeId])] : Double.NaN;
+    }
+
+    public synchronized double max(int codeId) {
+        return known(codeId) ? values[codeId * window + dequeSlot(maxDeque, codeId, maxHead[codeId])] : Double.NaN;
+    }
+
+    public synchronized double ema(int codeId) {
+        return known(codeId) ? ema[codeId] : Double.NaN;
+    }
+
+    /**
+     * Sample standard deviation of the simple returns in the window, or NaN
+     * with fewer than two returns.
+     */
+    public synchronized double volatility(int codeId) {
+        if (!known(codeId)) {
+            return Double.NaN;
+        }
+        long count = Math.min(samples[codeId] - 1, window);
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double mean = returnSum[codeId] / count;
+        double variance = (returnSquares[codeId] - count * mean * mean) / (count - 1);
+        return Math.sqrt(Math.max(0, variance)); // running sums can dip just below 0
+    }
+
+    // -------- Helpers --------
+
+    private boolean known(int codeId) {
+        return codeId >= 0 && codeId < capacity && samples[codeId] > 0;
+    }
+
+    private int dequeSlot(long[] deque, int codeId, int head) {
+        return (int) (deque[codeId * window + head] % window);
+    }
+
+    private void pushMin(int codeId, int base, long n, long oldest, double rate) {
+        int head = minHead[codeId];
+        int length = minLength[codeId];
+        if (length > 0 && minDeque[base + head] < oldest) {
+            head = (head + 1) % window;
+            length--;
+        }
+        while (length > 0 && values[base + (int) (minDeque[base + (head + length - 1) % window] % window)] >= rate) {
+            length--;
+        }
+        minDeque[base + (head + length) % window] = n;
+        minHead[codeId] = head;
+        minLength[codeId] = length + 1;
+    }
+
+    private void pushMax(int codeId, int base, long n, long oldest, double rate) {
+        int head = maxHead[codeId];
+        int length = maxLength[codeId];
+        if (length > 0 && maxDeque[base + head] < oldest) {
+            head = (head + 1) % window;
+            length--;
+        }
+        while (length > 0 && values[base + (int) (maxDeque[base + (head + length - 1) % window] % window)] <= rate) {
+            length--;
+        }
+        maxDeque[base + (head + length) % window] = n;
+        maxHead[codeId] = head;
+        maxLength[codeId] = length + 1;
+    }
+
+    // Grows every array to hold at least minCapacity code ids
+    private void allocate(int minCapacity) {
+        int newCapacity = Math.max(Math.max(minCapacity, capacity * 2), CurrencyCodes.size());
+        samples = grow(samples, newCapacity);
+        last = grow(last, newCapacity);
+        lastTime = grow(lastTime, newCapacity);
+        previous = grow(previous, newCapacity);
+        ema = grow(ema, newCapacity);
+        returnSum = grow(returnSum, newCapacity);
+        returnSquares = grow(returnSquares, newCapacity);
+        minHead = grow(minHead, newCapacity);
+        minLength = grow(minLength, newCapacity);
+        maxHead = grow(maxHead, newCapacity);
+        maxLength = grow(maxLength, newCapacity);
+        values = grow(values, newCapacity * window);
+        returns = grow(returns, newCapacity * window);
+        minDeque = grow(minDeque, newCapacity * window);
+        maxDeque = grow(maxDeque, newCapacity * window);
+        capacity = newCapacity;
+    }
+
+    private static long[] grow(long[] array, int size) {
+        return array == null ? new long[size] : Arrays.copyOf(array, size);
+    }
+
+    private static double[] grow(double[] array, int size) {
+        return array == null ? new double[size] : Arrays.copyOf(array, size);
+    }
+
+    private static int[] grow(int[] array, int size) {
+        return array == null ? new int[size] : Arrays.copyOf(array, size);
+    }
+}
@@ -0,0 +1,191 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, column-oriented copy of one parsed feed.
+ *
+ * Each row is a currency: its rate, its id in {@link CurrencyCodes}, its
+ * display name, its pubDate, its formatted rate text and its change since
+ * the previous refresh, held in parallel arrays. Views such as "main
+ * currencies" or search results are plain int[] slices of row numbers,
+ * so nothing is copied per view and swapping in a new feed is a single
+ * reference assignment.
+ */
+public final class RateTable {
+
+    public static final RateTable EMPTY = new RateTable(
+            new int[0], new double[0], new String[0], new String[0], new String[0], new double[0]);
+
+    private final int[] codeIds;
+    private final double[] rates;
+    private final String[] names;
+    private final String[] pubDates;
+    private final String[] rateLabels;
+    private final double[] changes;     // NaN where unknown
+
+    // CurrencyCodes id -> row, or -1 if this table has no such currency
+    private final int[] rowByCodeId;
+
+    private RateTable(int[] codeIds, double[] rates, String[] names, String[] pubDates,
+                      String[] rateLabels, double[] changes) {
+        this.codeIds = codeIds;
+        this.rates = rates;
+        this.names = names;
+        this.pubDates = pubDates;
+        this.rateLabels = rateLabels;
+        this.changes = changes;
+
+        int maxId = -1;
+        for (int id : codeIds) {
+            maxId = Math.max(maxId, id);
+        }
+        rowByCodeId = new int[maxId + 1];
+        Arrays.fill(rowByCodeId, -1);
+        for (int row = codeIds.length - 1; row >= 0; row--) {
+            // Walk backwards so the first row wins if a code appears twice
+            if (codeIds[row] >= 0) {
+                rowByCodeId[codeIds[row]] = row;
+            }
+        }
+    }
+
+    /**
+     * Builds a table from parsed feed items. Raw title/description text is not kept.
+     * Rate labels are formatted here, once per feed, so list binds never format.
+     */
+    public static RateTable fromRates(List<CurrencyRate> list) {
+        int size = list.size();
+        int[] codeIds = new int[size];
+        double[] rates = new double[size];
+        String[] names = new String[size];
+        String[] pubDates = new String[size];
+        String[] rateLabels = new String[size];
+        double[] changes = new double[size];
+        Arrays.fill(changes, Double.NaN);
+
+        for (int row = 0; row < size; row++) {
+            CurrencyRate rate = list.get(row);
+            codeIds[row] = CurrencyCodes.intern(rate.getTargetCode());
+            rates[row] = rate.getRate();
+            names[row] = rate.getCurrencyName();
+            pubDates[row] = rate.getPubDate();
+            String base = rate.getBaseCode();
+            rateLabels[row] = base != null
+                    ? String.format(Locale.UK, "Rate: %.4f per 1 %s", rates[row], base)
+                    : String.format(Locale.UK, "Rate: %.4f", rates[row]);
+        }
+        return new RateTable(codeIds, rates, names, pubDates, rateLabels, changes);
+    }
+
+    /**
+     * Same rows with each row's change since the previous refresh, e.g. from
+     * {@link RateStatistics#update(RateTable)}. The other columns are shared.
+     */
+    public RateTable withChanges(double[] changes) {
+        if (changes.length != rates.length) {
+            throw new IllegalArgumentException("Expected " + rates.length + " changes");
+        }
+        return new RateTable(codeIds, rates, names, pubDates, rateLabels, changes);
+    }
+
+    public int size() {
+        return rates.length;
+    }
+
+    public boolean isEmpty() {
+        return rates.length == 0;
+    }
+
+    public int codeId(int row) {
+        return codeIds[row];
+    }
+
+    public String code(int row) {
+        return CurrencyCodes.code(codeIds[row]);
+    }
+
+    /**
+     * Identity of a row across refreshes: its code id, unless the row has
+     * no code or repeats an earlier row's, when it is keyed by row number
+     * above every code id instead. Unique within the table and never -1.
+     */
+    public long itemId(int row) {
+        int codeId = codeIds[row];
+        return codeId >= 0 && rowByCodeId[codeId] == row ? codeId : (1L << 32) + row;
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    public double rate(int row) {
+        return rates[row];
+    }
+
+    public String pubDate(int row) {
+        return pubDates[row];
+    }
+
+    /**
+     * Display text for the rate, e.g. "Rate: 1.3456 per 1 GBP".
+     */
+    public String rateLabel(int row) {
+        return rateLabels[row];
+    }
+
+    /**
+     * Rate minus the previous refresh's rate, or NaN if not known.
+     */
+    public double change(int row) {
+        return changes[row];
+    }
+
+    /**
+     * Returns the row for a currency id, or -1 if it is not in this table.
+     */
+    public int rowOfCodeId(int codeId) {
+        return (codeId >= 0 && codeId < rowByCodeId.length) ? rowByCodeId[codeId] : -1;
+    }
+
+    public int rowOf(String code) {
+        return rowOfCodeId(CurrencyCodes.find(code));
+    }
+
+    /**
+     * Slice containing every row, in feed order.
+     */
+    public int[] allRows() {
+        int[] rows = new int[rates.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    /**
+     * Slice of the rows for the given codes, in feed order. Missing codes are skipped.
+     */
+    public int[] rowsFor(String... codes) {
+        boolean[] wanted = new boolean[rates.length];
+        int count = 0;
+        for (String code : codes) {
+            int row = rowOf(code);
+            if (row != -1 && !wanted[row]) {
+                wanted[row] = true;
+                count++;
+            }
+        }
+
+        int[] rows = new int[count];
+        int next = 0;
+        for (int row = 0; row < wanted.length; row++) {
+            if (wanted[row]) {
+                rows[next++] = row;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,227 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+/**
+ * Single-pass scanners for the item text in the feed. They work on index
+ * ranges of the original CharSequence instead of splitting or trimming it,
+ * so the only Strings created are the final code and name values.
+ *
+ * Results match the original split/substring/trim based parsing exactly.
+ *
+ * Title example:       "British Pound Sterling(GBP)/United Arab Emirates Dirham(AED)"
+ * Description example: "1 British Pound Sterling = 4.8074 United Arab Emirates Dirham"
+ */
+public final class RateTextParser {
+
+    // Largest digit count whose value is always below 2^53 (exact in a double)
+    private static final int MAX_FAST_DIGITS = 15;
+
+    // Exactly representable powers of ten
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private RateTextParser() {
+    }
+
+    /**
+     * Sets the base code, target code and currency name from an item title.
+     * The part after the first '/' is the target; the code is inside the
+     * last pair of brackets. Without brackets the whole part is the name.
+     * The base code is read the same way from the part before the '/'.
+     */
+    public static void parseTitle(CharSequence title, CurrencyRate rate) {
+        int length = title.length();
+        int slashIndex = indexOf(title, '/', 0, length);
+        if (slashIndex == -1 || slashIndex == length - 1) {
+            return;
+        }
+
+        int baseClose = lastIndexOf(title, ')', 0, slashIndex);
+        int baseOpen = (baseClose == -1) ? -1 : lastIndexOf(title, '(', 0, baseClose);
+        if (baseOpen != -1) {
+            int codeStart = trimStart(title, baseOpen + 1, baseClose);
+            int codeEnd = trimEnd(title, codeStart, baseClose);
+            // Nearly every title repeats the default base, so avoid a copy for it
+            if (codeEnd > codeStart && !regionEquals(title, codeStart, codeEnd, rate.getBaseCode())) {
+                rate.setBaseCode(slice(title, codeStart, codeEnd));
+            }
+        }
+
+        int start = trimStart(title, slashIndex + 1, length);
+        int end = trimEnd(title, start, length);
+
+        // One backward pass finds the last '(' and the last ')'
+        int openBracket = -1;
+        int closeBracket = -1;
+        for (int i = end - 1; i >= start && openBracket == -1; i--) {
+            char c = title.charAt(i);
+            if (c == ')' && closeBracket == -1) {
+                closeBracket = i;
+            } else if (c == '(') {
+                openBracket = i;
+            }
+        }
+
+        if (openBracket != -1 && closeBracket != -1 && closeBracket > openBracket) {
+            int codeStart = trimStart(title, openBracket + 1, closeBracket);
+            int codeEnd = trimEnd(title, codeStart, closeBracket);
+            int nameEnd = trimEnd(title, start, openBracket);
+
+            rate.setTargetCode(slice(title, codeStart, codeEnd));
+            rate.setCurrencyName(slice(title, start, nameEnd));
+        } else {
+            rate.setCurrencyName(slice(title, start, end));
+        }
+    }
+
+    /**
+     * Sets the rate from an item description: the number after the "=" token.
+     * The rate is left alone if the description has no such token.
+     *
+     * @throws NumberFormatException if the token after "=" is not a number
+     */
+    public static void parseDescription(CharSequence description, CurrencyRate rate) {
+        int start = findRateToken(description);
+        if (start == -1) {
+            return;
+        }
+        rate.setRate(parseDecimal(description, start, tokenEnd(description, start)));
+    }
+
+    /**
+     * Finds the token following the first space-separated "=" token.
+     *
+     * @return start index of that token (it may be empty), or -1 when there is
+     * no "=" token or nothing follows it
+     */
+    public static int findRateToken(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) != '='
+                    || (i > 0 && text.charAt(i - 1) != ' ')
+                    || (i + 1 < length && text.charAt(i + 1) != ' ')) {
+                continue;
+            }
+
+            // Found the "=" token; a following token exists only if some
+            // non-space character is still to come
+            int start = i + 2;
+            for (int j = start; j < length; j++) {
+                if (text.charAt(j) != ' ') {
+                    return start;
+                }
+            }
+            return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * End index (exclusive) of the space-delimited token starting at {@code start}.
+     */
+    public static int tokenEnd(CharSequence text, int start) {
+        int end = indexOf(text, ' ', start, text.length());
+        return end == -1 ? text.length() : end;
+    }
+
+    /**
+     * Parses a decimal number in place. Plain "[+-]digits[.digits]" values of
+     * up to 15 digits are computed directly, which gives the same correctly
+     * rounded result as {@link Double#parseDouble}; anything else is handed
+     * to Double.parseDouble.
+     *
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static double parseDecimal(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_FAST_DIGITS) {
+                    return slowParse(text, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return slowParse(text, start, end);
+            }
+        }
+
+        if (digits == 0) {
+            return slowParse(text, start, end);
+        }
+
+        double value = mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    // -------- Helpers --------
+
+    private static double slowParse(CharSequence text, int start, int end) {
+        return Double.parseDouble(text.subSequence(start, end).toString());
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(CharSequence text, int start, int end, String value) {
+        if (value == null || value.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) != value.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lastIndexOf(CharSequence text, char c, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Same whitespace rule as String.trim(): anything up to and including ' '
+    private static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static String slice(CharSequence text, int start, int end) {
+        return text.subSequence(start, end).toString();
+    }
+}
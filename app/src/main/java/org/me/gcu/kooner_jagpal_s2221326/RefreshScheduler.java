@@ -0,0 +1,212 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Decides when the next automatic refresh should run, instead of polling
+ * on a fixed timer.
+ *
+ * - Once two different pubDates have been seen, the feed's update cadence
+ *   is estimated (a gap spanning skipped updates counts as several), and
+ *   after new data the next fetch is timed for just after the next
+ *   expected update.
+ * - If a fetch returns the same pubDate as before, the next fetch waits
+ *   for the expected update. If that is already overdue, polls start at
+ *   one minute and double, but never wait longer than the old fixed
+ *   five minutes.
+ * - Errors back off exponentially, from 30 seconds up to 30 minutes.
+ * - Nothing is scheduled while stopped; start() fetches straight away if
+ *   the next refresh fell due in the meantime.
+ *
+ * Time comes from an injectable Clock and delays go through a Timer, so
+ * tests can simulate a whole day. All methods must be called on one
+ * thread (the UI thread in the app).
+ */
+public class RefreshScheduler {
+
+    public interface Clock {
+        long now(); // epoch milliseconds, comparable with pubDates
+    }
+
+    public interface Timer {
+        void schedule(Runnable task, long delayMs);
+        void cancel(Runnable task);
+    }
+
+    public interface OnRefreshDueListener {
+        void onRefreshDue();
+    }
+
+    public static final long DEFAULT_INTERVAL_MS = 5 * 60 * 1000;
+    public static final long MIN_INTERVAL_MS = 60 * 1000;
+    public static final long MAX_INTERVAL_MS = 60 * 60 * 1000;
+    public static final long SLACK_MS = 30 * 1000;
+    public static final long ERROR_BASE_MS = 30 * 1000;
+    public static final long MAX_BACKOFF_MS = 30 * 60 * 1000;
+
+    private final Clock clock;
+    private final Timer timer;
+    private final OnRefreshDueListener listener;
+
+    private boolean running;
+    private long dueAt = -1;                        // -1 = refresh as soon as started
+    private long lastPubDate = PubDateParser.INVALID;
+    private long cadence;                           // 0 = not known yet
+    private int latePolls;
+    private int failures;
+
+    private final Runnable tick = new Runnable() {
+        @Override
+        public void run() {
+            // Fallback in case the refresh never reports back
+            scheduleIn(DEFAULT_INTERVAL_MS);
+            listener.onRefreshDue();
+        }
+    };
+
+    public RefreshScheduler(Clock clock, Timer timer, OnRefreshDueListener listener) {
+        this.clock = clock;
+        this.timer = timer;
+        this.listener = listener;
+    }
+
+    /**
+     * Wall-clock time with delays on the main looper.
+     */
+    public static RefreshScheduler onMainThread(OnRefreshDueListener listener) {
+        final Handler handler = new Handler(Looper.getMainLooper());
+        return new RefreshScheduler(new Clock() {
+            @Override
+            public long now() {
+                return System.currentTimeMillis();
+            }
+        }, new Timer() {
+            @Override
+            public void schedule(Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        }, listener);
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        long delay = (dueAt < 0) ? 0 : Math.max(0, dueAt - clock.now());
+        timer.schedule(tick, delay);
+    }
+
+    public void stop() {
+        running = false;
+        timer.cancel(tick);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Reports a successful fetch whose newest item has the given pubDate
+     * (or {@link PubDateParser#INVALID}), and schedules the next one.
+     */
+    public void onFetched(long pubDate) {
+        long now = clock.now();
+        failures = 0;
+        long delay;
+
+        if (pubDate == PubDateParser.INVALID) {
+            delay = DEFAULT_INTERVAL_MS;
+        } else if (lastPubDate == PubDateParser.INVALID || pubDate > lastPubDate) {
+            // --- New data: learn the cadence, aim just after the next update ---
+            if (lastPubDate != PubDateParser.INVALID) {
+                long gap = pubDate - lastPubDate;
+                if (cadence == 0) {
+                    cadence = gap;
+                } else {
+                    // A gap of about k cadences means k - 1 updates were skipped
+                    long k = Math.max(1, Math.round((double) gap / cadence));
+                    cadence += (gap / k - cadence) / 4;
+                }
+            }
+            lastPubDate = pubDate;
+            latePolls = 0;
+            delay = (cadence == 0) ? DEFAULT_INTERVAL_MS : pubDate + cadence + SLACK_MS - now;
+        } else {
+            // --- Unchanged, or an older copy: wait for the expected update, then poll more often ---
+            long expected = (cadence == 0) ? 0 : lastPubDate + cadence + SLACK_MS;
+            if (expected > now) {
+                delay = expected - now;
+            } else if (cadence == 0) {
+                delay = DEFAULT_INTERVAL_MS;
+            } else {
+                delay = Math.min(MIN_INTERVAL_MS << Math.min(latePolls, 10), DEFAULT_INTERVAL_MS);
+                latePolls++;
+            }
+        }
+
+        scheduleIn(clamp(delay, MIN_INTERVAL_MS, MAX_INTERVAL_MS));
+    }
+
+    /**
+     * Reports a failed fetch; retries back off exponentially.
+     */
+    public void onError() {
+        failures++;
+        long delay = ERROR_BASE_MS << Math.min(failures - 1, 16);
+        scheduleIn(Math.min(delay, MAX_BACKOFF_MS));
+    }
+
+    /**
+     * Milliseconds until the next scheduled refresh, or -1 if none yet.
+     */
+    public long getDelayUntilNext() {
+        return dueAt < 0 ? -1 : Math.max(0, dueAt - clock.now());
+    }
+
+    /**
+     * Estimated time between feed updates, or 0 until two pubDates have been seen.
+     */
+    public long getCadence() {
+        return cadence;
+    }
+
+    /**
+     * Newest pubDate among the table's rows, or INVALID if none parse.
+     * Rows usually share one pubDate string, so each distinct string is
+     * parsed once.
+     */
+    public static long newestPubDate(RateTable table) {
+        long newest = PubDateParser.INVALID;
+        String previous = null;
+        for (int row = 0; row < table.size(); row++) {
+            String text = table.pubDate(row);
+            if (text == null || text.equals(previous)) {
+                continue;
+            }
+            previous = text;
+            newest = Math.max(newest, PubDateParser.parseMillis(text));
+        }
+        return newest;
+    }
+
+    // -------- Helpers --------
+
+    private void scheduleIn(long delay) {
+        dueAt = clock.now() + delay;
+        if (running) {
+            timer.cancel(tick);
+            timer.schedule(tick, delay);
+        }
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
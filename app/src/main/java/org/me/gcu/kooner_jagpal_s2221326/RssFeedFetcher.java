@@ -2,188 +2,463 @@ package org.me.gcu.kooner_jagpal_s2221326;
 
 import android.util.Log;
 
-import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
-import org.xmlpull.v1.XmlPullParserFactory;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 /**
  * Separate class responsible for downloading and parsing the RSS feed
  * off the UI thread. Results are returned via a callback.
+ *
+ * The download asks for a gzip or deflate body and decompresses it as it
+ * streams. It is bounded by connect and read timeouts, a deadline for the
+ * whole body and a maximum body size, and gives up as soon as any of them
+ * is hit.
  */
 public class RssFeedFetcher implements Runnable {
 
     public interface OnRatesParsedListener {
         void onRatesParsed(ArrayList<CurrencyRate> rates);
         void onError(String message);
+
+        /**
+         * Called on the fetch thread for each item as soon as its closing
+         * tag has been parsed, before the whole feed has been read.
+         */
+        default void onRateParsed(CurrencyRate rate) {
+        }
     }
 
     private static final String TAG = "RssFeedFetcher";
 
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 15000;
+    public static final int DEFAULT_READ_TIMEOUT_MS = 15000;
+    public static final long DEFAULT_DEADLINE_MS = 60000;
+    public static final long DEFAULT_MAX_BODY_BYTES = 4 * 1024 * 1024;  // the feed is ~60 KB
+
     private final String urlSource;
     private final OnRatesParsedListener listener;
+    private final boolean streaming;
+
+    private RateFeedParser parser = new PullRateFeedParser();
+    private FeedHttpCache httpCache;
+    private int connectTimeoutMs = DEFAULT_CONNECT_TIMEOUT_MS;
+    private int readTimeoutMs = DEFAULT_READ_TIMEOUT_MS;
+    private long deadlineMs = DEFAULT_DEADLINE_MS;
+    private long maxBodyBytes = DEFAULT_MAX_BODY_BYTES;
+    private boolean compression = true;
+
+    // Sizes of the last download: as sent, and after decompression
+    private long lastWireBytes;
+    private long lastBodyBytes;
 
     public RssFeedFetcher(String urlSource, OnRatesParsedListener listener) {
+        this(urlSource, listener, false);
+    }
+
+    /**
+     * @param streaming when true the connection's byte stream is handed straight
+     *                  to the feed parser instead of being read into a String first
+     */
+    public RssFeedFetcher(String urlSource, OnRatesParsedListener listener, boolean streaming) {
         this.urlSource = urlSource;
         this.listener = listener;
+        this.streaming = streaming;
+    }
+
+    /**
+     * Parser for the streaming mode; the pull parser by default.
+     */
+    public void setParser(RateFeedParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Enables conditional GETs: validators from the cache are sent with the
+     * request and a "304 Not Modified" is answered with the cached rates.
+     */
+    public void setHttpCache(FeedHttpCache httpCache) {
+        this.httpCache = httpCache;
+    }
+
+    /**
+     * Connect and read timeouts for the download; 0 means wait forever.
+     * The read timeout applies to each read, not to the whole body: see
+     * {@link #setDeadline(long)}.
+     */
+    public void setTimeouts(int connectTimeoutMs, int readTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    /**
+     * Longest the whole fetch may take, so a server dripping the body a few
+     * bytes at a time cannot hold the fetch thread; 0 for no deadline.
+     */
+    public void setDeadline(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * Largest body accepted after decompression; a larger Content-Length is
+     * refused before reading and a larger stream is cut off. 0 for no limit.
+     */
+    public void setMaxBodyBytes(long maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * Whether to ask for a gzip / deflate body; on by default.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Bytes received for the last fetch, before decompression.
+     */
+    public long getLastWireBytes() {
+        return lastWireBytes;
+    }
+
+    /**
+     * Bytes of feed read for the last fetch, after decompression.
+     */
+    public long getLastBodyBytes() {
+        return lastBodyBytes;
     }
 
     @Override
     public void run() {
-        String result = "";
-        URL aurl;
-        URLConnection yc;
-        BufferedReader in = null;
-        String inputLine;
+        ArrayList<CurrencyRate> parsedList = fetch();
+        if (parsedList != null && listener != null) {
+            listener.onRatesParsed(parsedList);
+        }
+    }
 
-        // --- Network download ---
+    /**
+     * Downloads and parses the feed on the calling thread. Errors are
+     * reported through the listener's onError, as with run().
+     *
+     * @return the parsed rates, or null if the fetch failed
+     */
+    public ArrayList<CurrencyRate> fetch() {
+        URLConnection yc = null;
+        MeteredInputStream wire;
+        FeedStreams.BoundedInputStream in;
+        FeedHttpCache.Entry cached = (httpCache != null) ? httpCache.get(urlSource) : null;
+        long deadline = (deadlineMs > 0) ? System.nanoTime() + deadlineMs * 1000000L : 0;
+        lastWireBytes = 0;
+        lastBodyBytes = 0;
+
+        Metrics.FETCHES.increment();
+
+        // --- Network request ---
         try {
-            aurl = new URL(urlSource);
+            URL aurl = new URL(urlSource);
+            resolveHost(aurl);
             yc = aurl.openConnection();
-            in = new BufferedReader(new InputStreamReader(yc.getInputStream()));
-            while ((inputLine = in.readLine()) != null) {
-                result = result + inputLine;
+            yc.setConnectTimeout(connectTimeoutMs);
+            yc.setReadTimeout(readTimeoutMs);
+            if (compression) {
+                yc.setRequestProperty("Accept-Encoding", FeedStreams.ACCEPT_ENCODING);
             }
-            in.close();
+
+            if (cached != null && yc instanceof HttpURLConnection) {
+                HttpURLConnection http = (HttpURLConnection) yc;
+                if (cached.getEtag() != null) {
+                    http.setRequestProperty("If-None-Match", cached.getEtag());
+                }
+                if (cached.getLastModified() != null) {
+                    http.setRequestProperty("If-Modified-Since", cached.getLastModified());
+                }
+                connect(http);
+
+                if (http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    http.disconnect();
+                    Metrics.NOT_MODIFIED.increment();
+                    if (BuildConfig.DEBUG) {
+                        Log.d(TAG, "Feed not modified, using cached rates");
+                    }
+                    return cached.copyRates();
+                }
+            } else {
+                connect(yc);
+            }
+
+            // Refuse a body known to be too big before reading any of it. Content-Length counts
+            // the bytes on the wire, so it says nothing about the decoded size of a compressed body
+            String encoding = yc.getContentEncoding();
+            long length = yc.getContentLengthLong();
+            boolean identity = encoding == null || encoding.trim().equalsIgnoreCase("identity");
+            if (maxBodyBytes > 0 && identity && length > maxBodyBytes) {
+                throw new FeedStreams.TooLargeException(
+                        "Feed is " + length + " bytes, limit " + maxBodyBytes);
+            }
+
+            wire = new MeteredInputStream(yc.getInputStream());
+            in = new FeedStreams.BoundedInputStream(
+                    FeedStreams.decode(encoding, wire), maxBodyBytes, deadline);
         } catch (IOException ae) {
-            Log.e(TAG, "Network IO exception", ae);
-            if (listener != null) {
-                listener.onError("Network error while downloading rates.");
+            reportNetworkError(ae);
+            if (yc instanceof HttpURLConnection) {
+                ((HttpURLConnection) yc).disconnect();
             }
-            return;
+            return null;
         }
 
-        // Clean up any leading garbage characters
-        int i = result.indexOf("<?"); // initial tag
-        if (i >= 0) {
-            result = result.substring(i);
+        ArrayList<CurrencyRate> parsedList = streaming
+                ? runStreaming(in, yc.getContentType())
+                : runBuffered(in, yc.getContentType());
+        lastWireBytes = wire.bytes;
+        lastBodyBytes = in.getCount();
+        Metrics.BYTES_DECODED.add(lastBodyBytes);
+        if (parsedList == null) {
+            if (yc instanceof HttpURLConnection) {
+                // Drop the socket rather than drain a body we gave up on
+                ((HttpURLConnection) yc).disconnect();
+            }
+            return null; // error already reported
         }
 
-        // Clean up any trailing garbage at the end of the file
-        i = result.indexOf("</rss>"); // final tag
-        if (i >= 0) {
-            result = result.substring(0, i + 6);
+        if (httpCache != null) {
+            httpCache.put(urlSource, yc.getHeaderField("ETag"),
+                    yc.getHeaderField("Last-Modified"), parsedList);
         }
+        return parsedList;
+    }
 
-        ArrayList<CurrencyRate> parsedList = new ArrayList<>();
+    // -------- Timed network steps --------
 
-        // --- XML parsing with PullParser ---
-        try {
-            XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
-            factory.setNamespaceAware(true);
-            XmlPullParser xpp = factory.newPullParser();
-            xpp.setInput(new StringReader(result));
-
-            int eventType = xpp.getEventType();
-            CurrencyRate currentRate = null;
-            String text = "";
-
-            while (eventType != XmlPullParser.END_DOCUMENT) {
-                String tagName = xpp.getName();
-
-                switch (eventType) {
-                    case XmlPullParser.START_TAG:
-                        if ("item".equalsIgnoreCase(tagName)) {
-                            currentRate = new CurrencyRate();
-                        }
-                        break;
-
-                    case XmlPullParser.TEXT:
-                        text = xpp.getText();
-                        break;
-
-                    case XmlPullParser.END_TAG:
-                        if (currentRate != null) {
-                            if ("item".equalsIgnoreCase(tagName)) {
-                                parsedList.add(currentRate);
-                                Log.d(TAG, "Parsed: " + currentRate.toString());
-                                currentRate = null;
-                            } else if ("title".equalsIgnoreCase(tagName)) {
-                                currentRate.setRawTitle(text);
-                                parseTitleIntoCurrency(currentRate, text);
-                            } else if ("description".equalsIgnoreCase(tagName)) {
-                                currentRate.setRawDescription(text);
-                                parseDescriptionIntoCurrency(currentRate, text);
-                            } else if ("pubDate".equalsIgnoreCase(tagName)) {
-                                currentRate.setPubDate(text);
-                            }
-                        }
-                        break;
-                }
+    // Resolving up front splits DNS time from connect time; the connection
+    // then gets the address from the platform's lookup cache
+    private static void resolveHost(URL url) throws IOException {
+        String host = url.getHost();
+        if (host == null || host.isEmpty()) {
+            return;  // file: and jar: URLs in tests
+        }
+        long start = System.nanoTime();
+        InetAddress.getAllByName(host);
+        Metrics.DNS_TIME.recordSince(start);
+    }
+
+    private static void connect(URLConnection connection) throws IOException {
+        long start = System.nanoTime();
+        connection.connect();
+        Metrics.CONNECT_TIME.recordSince(start);
+    }
+
+    /**
+     * Counts the bytes read and the time spent waiting for them, so the
+     * download is measured apart from parsing even when the two are
+     * interleaved in the streaming mode. Recorded once, on close.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+        private long bytes;
+        private long nanos;
+        private boolean closed;
 
-                eventType = xpp.next();
+        MeteredInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b >= 0) {
+                bytes++;
             }
+            return b;
+        }
 
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int n = super.read(b, off, len);
+            nanos += System.nanoTime() - start;
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                Metrics.DOWNLOAD_TIME.record(nanos);
+                Metrics.DOWNLOAD_SIZE.record(bytes);
+                Metrics.BYTES_DOWNLOADED.add(bytes);
+            }
+            super.close();
+        }
+    }
+
+    // Limits and timeouts get their own message; anything else is "the network"
+    private void reportNetworkError(IOException e) {
+        Metrics.NETWORK_ERRORS.increment();
+        String message;
+        if (e instanceof FeedStreams.TooLargeException) {
+            Metrics.ABORTED_DOWNLOADS.increment();
+            message = "The rates feed is too large to download.";
+        } else if (e instanceof SocketTimeoutException) {
+            Metrics.ABORTED_DOWNLOADS.increment();
+            message = "Timed out while downloading rates.";
+        } else {
+            message = "Network error while downloading rates.";
+        }
+        Log.e(TAG, "Network IO exception", e);
+        if (listener != null) {
+            listener.onError(message);
+        }
+    }
+
+    // -------- Buffered mode: download everything, then parse --------
+
+    private ArrayList<CurrencyRate> runBuffered(InputStream in, String contentType) {
+        String result;
+
+        // --- Network download ---
+        try {
+            try {
+                InputStream buffered = new BufferedInputStream(in);
+                result = readWholeFeed(buffered, FeedStreams.detectCharset(contentType, buffered));
+            } finally {
+                in.close();
+            }
+        } catch (IOException ae) {
+            reportNetworkError(ae);
+            return null;
+        }
+
+        // --- XML parsing with PullRateFeedParser ---
+        try {
+            return parseFeed(new StringReader(result));
         } catch (XmlPullParserException e) {
+            Metrics.FEED_PARSE_FAILURES.increment();
             Log.e(TAG, "Parsing EXCEPTION", e);
             if (listener != null) {
                 listener.onError("Problem parsing the RSS feed.");
             }
-            return;
         } catch (IOException e) {
+            Metrics.FEED_PARSE_FAILURES.increment();
             Log.e(TAG, "Parsing I/O EXCEPTION", e);
             if (listener != null) {
                 listener.onError("I/O error while parsing the RSS feed.");
             }
-            return;
         }
+        return null;
+    }
 
-        if (listener != null) {
-            listener.onRatesParsed(parsedList);
+    // -------- Streaming mode: parse while the bytes arrive --------
+
+    private ArrayList<CurrencyRate> runStreaming(InputStream in, String contentType) {
+        try {
+            return parseFeed(in, FeedStreams.charsetFromContentType(contentType));
+        } catch (XmlPullParserException e) {
+            Metrics.FEED_PARSE_FAILURES.increment();
+            Log.e(TAG, "Parsing EXCEPTION", e);
+            if (listener != null) {
+                listener.onError("Problem parsing the RSS feed.");
+            }
+        } catch (IOException e) {
+            // Download and parse are interleaved, so this is usually the network
+            reportNetworkError(e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // nothing useful to do here
+            }
         }
+        return null;
     }
 
-    // -------- Helper parsing methods (same logic as before) --------
+    /**
+     * Reads the whole response into one String and trims the garbage around
+     * the XML document. Used by the buffered mode only.
+     */
+    static String readWholeFeed(InputStream stream) throws IOException {
+        return readWholeFeed(stream, StandardCharsets.UTF_8);
+    }
 
-    private void parseTitleIntoCurrency(CurrencyRate rate, String titleText) {
-        if (titleText == null) {
-            return;
+    static String readWholeFeed(InputStream stream, Charset charset) throws IOException {
+        StringBuilder result = new StringBuilder();
+        BufferedReader in = new BufferedReader(new InputStreamReader(stream, charset));
+        String inputLine;
+        while ((inputLine = in.readLine()) != null) {
+            result.append(inputLine);
         }
 
-        int slashIndex = titleText.indexOf('/');
-        if (slashIndex == -1 || slashIndex == titleText.length() - 1) {
-            return;
+        // Clean up any leading garbage characters, as FeedBoundaryInputStream does
+        int start = result.indexOf("<?xml"); // initial tag
+        if (start < 0) {
+            start = Math.max(0, rootTagStart(result));
         }
 
-        String targetPart = titleText.substring(slashIndex + 1).trim();
-        int openBracket = targetPart.lastIndexOf('(');
-        int closeBracket = targetPart.lastIndexOf(')');
-
-        if (openBracket != -1 && closeBracket != -1 && closeBracket > openBracket) {
-            String code = targetPart.substring(openBracket + 1, closeBracket).trim();
-            String name = targetPart.substring(0, openBracket).trim();
+        // Clean up any trailing garbage at the end of the file
+        int end = result.indexOf("</rss>", start); // final tag
+        end = (end >= 0) ? end + 6 : result.length();
 
-            rate.setTargetCode(code);
-            rate.setCurrencyName(name);
-        } else {
-            rate.setCurrencyName(targetPart);
-        }
+        return result.substring(start, end);
     }
 
-    private void parseDescriptionIntoCurrency(CurrencyRate rate, String descriptionText) {
-        if (descriptionText == null) {
-            return;
-        }
-
-        String[] parts = descriptionText.split(" ");
-        for (int i = 0; i < parts.length; i++) {
-            if ("=".equals(parts[i]) && i + 1 < parts.length) {
-                String numberPart = parts[i + 1];
-                try {
-                    double value = Double.parseDouble(numberPart);
-                    rate.setRate(value);
-                } catch (NumberFormatException nfe) {
-                    Log.e(TAG, "Could not parse rate from description: " + descriptionText, nfe);
+    // First "<rss" that is the whole tag name (not "<rssfeed"), or -1
+    private static int rootTagStart(StringBuilder text) {
+        int at = text.indexOf("<rss");
+        while (at >= 0) {
+            int next = at + 4;
+            if (next < text.length()) {
+                char c = text.charAt(next);
+                if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+                    return at;
                 }
-                break;
             }
+            at = text.indexOf("<rss", next);
         }
+        return -1;
+    }
+
+    /**
+     * Parses a feed that has already been downloaded and trimmed.
+     * The buffered mode always uses the pull parser.
+     */
+    ArrayList<CurrencyRate> parseFeed(Reader reader) throws XmlPullParserException, IOException {
+        return new PullRateFeedParser().parse(reader, listener);
+    }
+
+    /**
+     * Parses a feed straight from its byte stream with the configured
+     * {@link RateFeedParser}, which skips the garbage around the document
+     * and takes the charset from the XML prolog.
+     */
+    ArrayList<CurrencyRate> parseFeed(InputStream stream) throws XmlPullParserException, IOException {
+        return parseFeed(stream, null);
+    }
+
+    /**
+     * As {@link #parseFeed(InputStream)}, with the charset from the
+     * Content-Type header taking precedence over the prolog's.
+     */
+    ArrayList<CurrencyRate> parseFeed(InputStream stream, Charset charset)
+            throws XmlPullParserException, IOException {
+        return parser.parse(stream, charset, listener);
     }
 }
@@ -0,0 +1,626 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.util.Log;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Hand-written byte-level reader for the rate feed. It only looks for
+ * {@code <item>} elements and, inside them, the text of {@code <title>},
+ * {@code <description>} and {@code <pubDate>}. Every other tag, attribute
+ * and text run is stepped over without being decoded, so the only objects
+ * made per item are the CurrencyRate and its Strings.
+ *
+ * It is lenient rather than validating: unknown entities are kept as
+ * written and mismatched tags are not reported. Garbage before the document
+ * is skipped like any other text, and reading stops at the closing
+ * {@code </rss>} tag; a feed that ends before it is rejected, as the pull
+ * parser does. Only ASCII-compatible encodings are read: UTF-8 by default,
+ * or a single-byte charset named by the Content-Type header or, failing
+ * that, the XML prolog.
+ */
+public class ScanningRateFeedParser implements RateFeedParser {
+
+    private static final String TAG = "ScanningRateFeedParser";
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_NAME = 16;      // longer tag names never match
+    private static final int MAX_ENTITY = 10;
+    private static final int MAX_PROLOG = 256;
+
+    // Item fields that are kept
+    private static final int FIELD_NONE = 0;
+    private static final int FIELD_TITLE = 1;
+    private static final int FIELD_DESCRIPTION = 2;
+    private static final int FIELD_PUB_DATE = 3;
+
+    // Lower-case tag names, compared against lower-cased input
+    private static final byte[] RSS = ascii("rss");
+    private static final byte[] ITEM = ascii("item");
+    private static final byte[] TITLE = ascii("title");
+    private static final byte[] DESCRIPTION = ascii("description");
+    private static final byte[] PUB_DATE = ascii("pubdate");
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    @Override
+    public ArrayList<CurrencyRate> parse(InputStream stream, Charset charset,
+            RssFeedFetcher.OnRatesParsedListener listener) throws XmlPullParserException, IOException {
+        Scan scan = new Scan(stream);
+        if (charset != null) {
+            scan.setHeaderEncoding(charset.name());
+        }
+        return scan.run(listener);
+    }
+
+    // -------- Helpers --------
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isNameStart(int b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || b == '_' || b == ':' || b >= 0x80;
+    }
+
+    private static boolean isNameEnd(int b) {
+        return b == '>' || b == '/' || b == '=' || b == ' ' || b == '\t' || b == '\n' || b == '\r' || b < 0;
+    }
+
+    private static void applyField(CurrencyRate rate, int field, String value) {
+        switch (field) {
+            case FIELD_TITLE:
+                rate.setRawTitle(value);
+                RateTextParser.parseTitle(value, rate);
+                break;
+            case FIELD_DESCRIPTION:
+                rate.setRawDescription(value);
+                try {
+                    RateTextParser.parseDescription(value, rate);
+                } catch (NumberFormatException nfe) {
+                    Metrics.RATE_PARSE_FAILURES.increment();
+                    Log.e(TAG, "Could not parse rate from description: " + value, nfe);
+                }
+                break;
+            case FIELD_PUB_DATE:
+                rate.setPubDate(value);
+                break;
+        }
+    }
+
+    /**
+     * State for one parse, so the parser itself can be shared between threads.
+     */
+    private static final class Scan {
+
+        private final InputStream in;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private int pos;
+        private int limit;
+
+        // Lower-cased local name of the last tag (any "prefix:" dropped)
+        private final byte[] name = new byte[MAX_NAME];
+        private int nameLength;
+
+        // Decoded text of the field being read
+        private char[] text = new char[128];
+        private int textLength;
+
+        // Byte -> char for a single-byte encoding; null means UTF-8
+        private char[] singleByte;
+        private boolean headerEncoding;     // set from Content-Type, so the prolog's is ignored
+        private boolean seenTag;
+
+        Scan(InputStream in) {
+            this.in = in;
+        }
+
+        ArrayList<CurrencyRate> run(RssFeedFetcher.OnRatesParsedListener listener)
+                throws XmlPullParserException, IOException {
+            ArrayList<CurrencyRate> parsedList = new ArrayList<>();
+            CurrencyRate currentRate = null;
+            long itemStart = 0;
+            int field = FIELD_NONE;
+
+            while (true) {
+                // --- Text: decoded inside a kept field, otherwise skipped ---
+                boolean atTag = (field == FIELD_NONE) ? skipToTag() : readText();
+                if (!atTag) {
+                    throw new XmlPullParserException("Feed ended before </rss>");
+                }
+                pos++; // the '<'
+
+                // --- Markup ---
+                int b = read();
+                if (b == '?') {
+                    readProcessingInstruction();
+                    continue;
+                }
+                if (b == '!') {
+                    readDeclaration(field != FIELD_NONE);
+                    continue;
+                }
+                boolean closing = b == '/';
+                if (closing) {
+                    b = read();
+                }
+                if (!isNameStart(b)) {
+                    // A stray '<' in garbage text, not a tag
+                    unread(b);
+                    continue;
+                }
+                readName(b);
+                boolean empty = skipToTagEnd();
+                seenTag = true;
+
+                // --- Dispatch on the few tags that matter ---
+                if (closing) {
+                    if (nameIs(RSS)) {
+                        // One line per feed: formatting a line per item costs more than parsing it
+                        if (BuildConfig.DEBUG) {
+                            Log.d(TAG, "Parsed " + parsedList.size() + " items");
+                        }
+                        return parsedList;
+                    } else if (currentRate == null) {
+                        continue;
+                    } else if (nameIs(ITEM)) {
+                        parsedList.add(currentRate);
+                        Metrics.PARSE_ITEM_TIME.recordSince(itemStart);
+                        Metrics.ITEMS_PARSED.increment();
+                        if (listener != null) {
+                            listener.onRateParsed(currentRate);
+                        }
+                        currentRate = null;
+                        field = FIELD_NONE;
+                    } else if (field != FIELD_NONE && field == fieldOf()) {
+                        applyField(currentRate, field, new String(text, 0, textLength));
+                        field = FIELD_NONE;
+                    }
+                } else if (nameIs(ITEM)) {
+                    currentRate = new CurrencyRate();
+                    itemStart = System.nanoTime();
+                    field = FIELD_NONE;
+                } else if (currentRate != null && !empty && field == FIELD_NONE) {
+                    field = fieldOf();
+                    textLength = 0;
+                }
+            }
+        }
+
+        // -------- Tags --------
+
+        private void readName(int b) throws IOException {
+            nameLength = 0;
+            while (!isNameEnd(b)) {
+                if (b == ':') {
+                    nameLength = 0;
+                } else if (nameLength < MAX_NAME) {
+                    name[nameLength++] = (byte) ((b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b);
+                } else {
+                    nameLength = MAX_NAME + 1;
+                }
+                b = read();
+            }
+            unread(b);
+        }
+
+        private boolean nameIs(byte[] expected) {
+            if (nameLength != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < nameLength; i++) {
+                if (name[i] != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int fieldOf() {
+            if (nameIs(TITLE)) {
+                return FIELD_TITLE;
+            } else if (nameIs(DESCRIPTION)) {
+                return FIELD_DESCRIPTION;
+            } else if (nameIs(PUB_DATE)) {
+                return FIELD_PUB_DATE;
+            }
+            return FIELD_NONE;
+        }
+
+        /**
+         * Steps over attributes to the closing '>'.
+         *
+         * @return true for an empty-element tag such as {@code <title/>}
+         */
+        private boolean skipToTagEnd() throws IOException, XmlPullParserException {
+            int previous = 0;
+            while (true) {
+                int b = read();
+                if (b < 0) {
+                    throw new XmlPullParserException("Feed ended inside a tag");
+                }
+                if (b == '>') {
+                    return previous == '/';
+                }
+                if (b == '"' || b == '\'') {
+                    int quote = b;
+                    do {
+                        b = read();
+                    } while (b != quote && b >= 0);
+                }
+                previous = b;
+            }
+        }
+
+        // "<?...?>"; the encoding is read from the prolog if it comes first
+        private void readProcessingInstruction() throws IOException, XmlPullParserException {
+            boolean prolog = !seenTag;
+            seenTag = true;
+            byte[] content = prolog ? new byte[MAX_PROLOG] : null;
+            int length = 0;
+            int previous = 0;
+            while (true) {
+                int b = read();
+                if (b < 0) {
+                    throw new XmlPullParserException("Feed ended inside a processing instruction");
+                }
+                if (b == '>' && previous == '?') {
+                    break;
+                }
+                if (content != null && length < content.length) {
+                    content[length++] = (byte) b;
+                }
+                previous = b;
+            }
+            if (prolog && !headerEncoding) {
+                String declaration = new String(content, 0, length, StandardCharsets.ISO_8859_1);
+                if (declaration.startsWith("xml")) {
+                    setEncoding(encodingOf(declaration));
+                }
+            }
+        }
+
+        // "<!--...-->", "<![CDATA[...]]>" or a declaration such as "<!DOCTYPE ...>"
+        private void readDeclaration(boolean keepText) throws IOException, XmlPullParserException {
+            int b = read();
+            if (b == '-' && read() == '-') {
+                skipPast('-');
+            } else if (b == '[' && matches("CDATA[")) {
+                if (keepText) {
+                    readCData();
+                } else {
+                    skipPast(']');
+                }
+            } else {
+                int depth = 0;  // DOCTYPE internal subsets may contain '>'
+                while (b >= 0 && (b != '>' || depth > 0)) {
+                    if (b == '[') {
+                        depth++;
+                    } else if (b == ']') {
+                        depth--;
+                    }
+                    b = read();
+                }
+                if (b < 0) {
+                    throw new XmlPullParserException("Feed ended inside a declaration");
+                }
+            }
+        }
+
+        private boolean matches(String expected) throws IOException {
+            for (int i = 0; i < expected.length(); i++) {
+                if (read() != expected.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Skips to the end of "-->" or "]]>": two of {@code repeated}, then '>'
+        private void skipPast(int repeated) throws IOException, XmlPullParserException {
+            int run = 0;
+            while (true) {
+                int b = read();
+                if (b < 0) {
+                    throw new XmlPullParserException("Feed ended inside a comment or CDATA section");
+                }
+                if (b == '>' && run >= 2) {
+                    return;
+                }
+                run = (b == repeated) ? run + 1 : 0;
+            }
+        }
+
+        // -------- Text --------
+
+        /**
+         * Skips bytes up to the next '<' without decoding them.
+         *
+         * @return false at end of input
+         */
+        private boolean skipToTag() throws IOException {
+            while (true) {
+                for (int i = pos; i < limit; i++) {
+                    if (buf[i] == '<') {
+                        pos = i;
+                        return true;
+                    }
+                }
+                pos = limit;
+                if (!fill()) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Decodes text into the field buffer up to the next '<'.
+         *
+         * @return false at end of input
+         */
+        private boolean readText() throws IOException, XmlPullParserException {
+            while (true) {
+                if (pos == limit && !fill()) {
+                    return false;
+                }
+                int b = buf[pos] & 0xff;
+                if (b == '<') {
+                    return true;
+                }
+                pos++;
+                if (b == '&') {
+                    readEntity();
+                } else if (b == '\r') {
+                    // XML line-end normalisation: "\r\n" and "\r" become "\n"
+                    append('\n');
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                } else if (b < 0x80) {
+                    append((char) b);
+                } else if (singleByte != null) {
+                    append(singleByte[b]);
+                } else {
+                    appendCodePoint(decodeUtf8(b));
+                }
+            }
+        }
+
+        // Text of a CDATA section, kept as written up to "]]>"
+        private void readCData() throws IOException, XmlPullParserException {
+            int brackets = 0;
+            while (true) {
+                int b = read();
+                if (b < 0) {
+                    throw new XmlPullParserException("Feed ended inside a CDATA section");
+                }
+                if (b == ']') {
+                    brackets++;
+                    continue;
+                }
+                if (b == '>' && brackets >= 2) {
+                    // "]]>" ends the section; any extra ']' before it is text
+                    for (; brackets > 2; brackets--) {
+                        append(']');
+                    }
+                    return;
+                }
+                for (; brackets > 0; brackets--) {
+                    append(']');
+                }
+                if (b < 0x80) {
+                    append((char) b);
+                } else if (singleByte != null) {
+                    append(singleByte[b]);
+                } else {
+                    appendCodePoint(decodeUtf8(b));
+                }
+            }
+        }
+
+        // "&amp;", "&lt;", "&gt;", "&quot;", "&apos;" and numeric references
+        private void readEntity() throws IOException {
+            byte[] entity = name;   // tag name is not needed while reading text
+            int length = 0;
+            int b = read();
+            while (length < MAX_ENTITY && length < entity.length
+                    && ((b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '#')) {
+                entity[length++] = (byte) b;
+                b = read();
+            }
+
+            int codePoint = -1;
+            if (b == ';') {
+                codePoint = entityValue(entity, length);
+            } else {
+                unread(b);
+            }
+            if (codePoint >= 0) {
+                appendCodePoint(codePoint);
+                return;
+            }
+
+            // Not a reference we know: keep it as written
+            append('&');
+            for (int i = 0; i < length; i++) {
+                append((char) entity[i]);
+            }
+            if (b == ';') {
+                append(';');
+            }
+        }
+
+        private static int entityValue(byte[] entity, int length) {
+            if (length >= 2 && entity[0] == '#') {
+                boolean hex = entity[1] == 'x' || entity[1] == 'X';
+                int value = 0;
+                for (int i = hex ? 2 : 1; i < length; i++) {
+                    int digit = Character.digit(entity[i], hex ? 16 : 10);
+                    if (digit < 0 || value > Character.MAX_CODE_POINT) {
+                        return -1;
+                    }
+                    value = value * (hex ? 16 : 10) + digit;
+                }
+                return (value <= Character.MAX_CODE_POINT && length > (hex ? 2 : 1)) ? value : -1;
+            }
+            String named = new String(entity, 0, length, StandardCharsets.US_ASCII);
+            switch (named) {
+                case "amp":
+                    return '&';
+                case "lt":
+                    return '<';
+                case "gt":
+                    return '>';
+                case "quot":
+                    return '"';
+                case "apos":
+                    return '\'';
+                default:
+                    return -1;
+            }
+        }
+
+        private int decodeUtf8(int lead) throws IOException {
+            int needed;
+            int codePoint;
+            if (lead >= 0xF8 || lead < 0xC0) {
+                return REPLACEMENT;
+            } else if (lead >= 0xF0) {
+                needed = 3;
+                codePoint = lead & 0x07;
+            } else if (lead >= 0xE0) {
+                needed = 2;
+                codePoint = lead & 0x0F;
+            } else {
+                needed = 1;
+                codePoint = lead & 0x1F;
+            }
+            for (int i = 0; i < needed; i++) {
+                int b = read();
+                if ((b & 0xC0) != 0x80) {
+                    unread(b);
+                    return REPLACEMENT;
+                }
+                codePoint = (codePoint << 6) | (b & 0x3F);
+            }
+            return codePoint <= Character.MAX_CODE_POINT ? codePoint : REPLACEMENT;
+        }
+
+        private void append(char c) {
+            if (textLength == text.length) {
+                char[] grown = new char[text.length * 2];
+                System.arraycopy(text, 0, grown, 0, textLength);
+                text = grown;
+            }
+            text[textLength++] = c;
+        }
+
+        private void appendCodePoint(int codePoint) {
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                append((char) codePoint);
+            } else {
+                append(Character.highSurrogate(codePoint));
+                append(Character.lowSurrogate(codePoint));
+            }
+        }
+
+        // -------- Encoding --------
+
+        private static String encodingOf(String declaration) {
+            int at = declaration.indexOf("encoding");
+            if (at < 0) {
+                return null;
+            }
+            int open = at + "encoding".length();
+            while (open < declaration.length() && declaration.charAt(open) != '"'
+                    && declaration.charAt(open) != '\'') {
+                open++;
+            }
+            if (open >= declaration.length()) {
+                return null;
+            }
+            int close = declaration.indexOf(declaration.charAt(open), open + 1);
+            return close < 0 ? null : declaration.substring(open + 1, close).trim();
+        }
+
+        void setHeaderEncoding(String encoding) throws XmlPullParserException {
+            setEncoding(encoding);
+            headerEncoding = true;
+        }
+
+        private void setEncoding(String encoding) throws XmlPullParserException {
+            if (encoding == null || encoding.isEmpty()) {
+                return;
+            }
+            Charset charset;
+            try {
+                charset = Charset.forName(encoding);
+            } catch (IllegalArgumentException e) {
+                throw new XmlPullParserException("Unsupported feed encoding: " + encoding);
+            }
+            if (charset.equals(StandardCharsets.UTF_8)) {
+                singleByte = null;
+                return;
+            }
+
+            // Only single-byte, ASCII-compatible charsets can be scanned byte by byte
+            byte[] all = new byte[256];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = (byte) i;
+            }
+            String decoded = new String(all, charset);
+            boolean asciiCompatible = decoded.length() == 256;
+            for (int i = 0; asciiCompatible && i < 0x80; i++) {
+                asciiCompatible = decoded.charAt(i) == i;
+            }
+            if (!asciiCompatible) {
+                throw new XmlPullParserException("Unsupported feed encoding: "
+                        + encoding.toUpperCase(Locale.ROOT));
+            }
+            singleByte = decoded.toCharArray();
+        }
+
+        // -------- Input --------
+
+        private int read() throws IOException {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            return buf[pos++] & 0xff;
+        }
+
+        // Steps back over the byte just returned by read(); nothing to do at EOF
+        private void unread(int b) {
+            if (b >= 0) {
+                pos--;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int n = in.read(buf, 0, buf.length);
+            if (n == 0) {
+                // A stream with nothing to hand over yet: block on one byte rather than spin
+                int b = in.read();
+                if (b >= 0) {
+                    buf[0] = (byte) b;
+                }
+                n = b < 0 ? -1 : 1;
+            }
+            if (n < 0) {
+                pos = limit = 0;
+                return false;
+            }
+            pos = 0;
+            limit = n;
+            return true;
+        }
+    }
+}
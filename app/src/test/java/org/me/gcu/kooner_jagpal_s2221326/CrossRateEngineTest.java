@@ -0,0 +1,147 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Triangulation precision and conversion throughput of CrossRateEngine.
+ */
+public class CrossRateEngineTest {
+
+    @Test
+    public void crossRate_isCorrectlyRoundedQuotientOfQuotes() throws Exception {
+        RateTable table = fixtureTable();
+        CrossRateEngine engine = CrossRateEngine.fromTable(table, "GBP");
+
+        for (int from = 0; from < table.size(); from++) {
+            for (int to = 0; to < table.size(); to++) {
+                BigDecimal exact = new BigDecimal(table.rate(to))
+                        .divide(new BigDecimal(table.rate(from)), MathContext.DECIMAL128);
+                double rate = engine.rate(table.codeId(from), table.codeId(to));
+
+                // Within half an ulp of the exact quotient
+                double error = exact.subtract(new BigDecimal(rate)).abs().doubleValue();
+                assertTrue(table.code(from) + "->" + table.code(to),
+                        error <= Math.ulp(rate) / 2);
+            }
+        }
+    }
+
+    @Test
+    public void usdToJpy_triangulatesThroughGbpAndRoundTrips() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("USD", 1.3456));
+        rates.add(rate("JPY", 198.7654));
+        rates.add(rate("KWD", 0.4123));
+        CrossRateEngine engine = CrossRateEngine.fromTable(RateTable.fromRates(rates), "GBP");
+
+        assertEquals(198.7654 / 1.3456, engine.rate("USD", "JPY"), 0.0);
+        assertEquals(1.3456, engine.rate("GBP", "USD"), 0.0);
+        assertEquals(1.0, engine.rate("JPY", "JPY"), 0.0);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double amount = random.nextDouble() * 1e9;
+            double there = engine.convert(amount, CurrencyCodes.find("USD"), CurrencyCodes.find("JPY"));
+            double back = engine.convert(there, CurrencyCodes.find("JPY"), CurrencyCodes.find("USD"));
+            assertEquals(amount, back, amount * 4e-16);
+        }
+    }
+
+    @Test
+    public void unknownCurrency_convertsToNaN() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("USD", 1.3456));
+        rates.add(rate("EUR", 0.0)); // unparsable rate in the feed
+        CrossRateEngine engine = CrossRateEngine.fromTable(RateTable.fromRates(rates), "GBP");
+
+        assertFalse(engine.supports(CurrencyCodes.find("EUR")));
+        assertFalse(engine.supports(-1));
+        assertTrue(Double.isNaN(engine.rate("USD", "EUR")));
+        assertTrue(Double.isNaN(engine.rate("USD", null)));
+        assertArrayEquals(new int[]{CurrencyCodes.find("GBP"), CurrencyCodes.find("USD")},
+                engine.supportedIds());
+    }
+
+    @Test
+    public void batchConversion_matchesSingleConversions() throws Exception {
+        RateTable table = fixtureTable();
+        CrossRateEngine engine = CrossRateEngine.fromTable(table, "GBP");
+        int usd = CurrencyCodes.find("USD");
+        int jpy = CurrencyCodes.find("JPY");
+
+        double[] amounts = new double[1000];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = i * 12.34;
+        }
+        double[] out = new double[amounts.length];
+        engine.convert(amounts, 0, amounts.length, usd, jpy, out);
+
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(engine.convert(amounts[i], usd, jpy), out[i], 0.0);
+        }
+    }
+
+    @Test
+    public void benchmark_conversionThroughput() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        RateTable table = fixtureTable();
+        final CrossRateEngine engine = CrossRateEngine.fromTable(table, "GBP");
+        final int n = 1_000_000;
+
+        // Random pairs drawn from the whole feed
+        Random random = new Random(7);
+        final int[] from = new int[n];
+        final int[] to = new int[n];
+        final double[] amounts = new double[n];
+        for (int i = 0; i < n; i++) {
+            from[i] = table.codeId(random.nextInt(table.size()));
+            to[i] = table.codeId(random.nextInt(table.size()));
+            amounts[i] = random.nextDouble() * 1000;
+        }
+        final double[] out = new double[n];
+
+        long pairNs = MicroBenchmark.medianNanos(5, 11, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (int i = 0; i < n; i++) {
+                    out[i] = engine.convert(amounts[i], from[i], to[i]);
+                }
+            }
+        });
+        final int usd = CurrencyCodes.find("USD");
+        final int jpy = CurrencyCodes.find("JPY");
+        long batchNs = MicroBenchmark.medianNanos(5, 11, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                engine.convert(amounts, 0, n, usd, jpy, out);
+            }
+        });
+
+        MicroBenchmark.report("random-pair conversions", "%.1f M/s", n / (pairNs / 1e3));
+        MicroBenchmark.report("batch USD->JPY conversions", "%.1f M/s", n / (batchNs / 1e3));
+        assertFalse(Double.isNaN(out[0]));
+    }
+
+    // -------- helpers --------
+
+    private static RateTable fixtureTable() throws Exception {
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            return RateTable.fromRates(new RssFeedFetcher(null, null, true).parseFeed(in));
+        }
+    }
+
+    private static CurrencyRate rate(String code, double value) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setTargetCode(code);
+        rate.setRate(value);
+        return rate;
+    }
+}
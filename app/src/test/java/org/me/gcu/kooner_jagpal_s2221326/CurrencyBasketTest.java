@@ -0,0 +1,167 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Basket parsing rules, batch conversion against single conversions, and
+ * throughput for baskets of up to a million lines.
+ *
+ * The throughput benchmark runs only with {@code -Dbenchmarks=true}, and
+ * its million-line run also needs {@code -DbasketBenchmark.large=true}.
+ */
+public class CurrencyBasketTest {
+
+    private static final boolean LARGE = Boolean.getBoolean("basketBenchmark.large");
+
+    @Test
+    public void parse_commaBetweenDigitsIsAThousandsSeparator() {
+        CurrencyBasket basket = CurrencyBasket.parse("100 GBP, 2,000 JPY, 50 EUR");
+
+        assertEquals(3, basket.size());
+        assertEquals(0, basket.getInvalidCount());
+        assertEntry(basket, 0, 100, "GBP");
+        assertEntry(basket, 1, 2000, "JPY");
+        assertEntry(basket, 2, 50, "EUR");
+    }
+
+    @Test
+    public void parse_acceptsCodeFirstLowerCaseAndOtherSeparators() {
+        CurrencyBasket basket = CurrencyBasket.parse(
+                "GBP 1,234,567.89;\n  usd12.5 ,\r\n\n-3 eur,EUR+4,,");
+
+        assertEquals(4, basket.size());
+        assertEntry(basket, 0, 1234567.89, "GBP");
+        assertEntry(basket, 1, 12.5, "USD");
+        assertEntry(basket, 2, -3, "EUR");
+        assertEntry(basket, 3, 4, "EUR");
+    }
+
+    @Test
+    public void parse_countsAndKeepsUnreadableEntries() {
+        CurrencyBasket basket = CurrencyBasket.parse(
+                "100 GBP, abc, 5 XYZ, 12 EURO, GBP, 1.2.3 USD, 7 GBP USD, 50 EUR");
+
+        assertEquals(2, basket.size());
+        assertEntry(basket, 0, 100, "GBP");
+        assertEntry(basket, 1, 50, "EUR");
+        assertEquals(6, basket.getInvalidCount());
+        assertEquals(Arrays.asList("abc", "5 XYZ", "12 EURO", "GBP", "1.2.3 USD", "7 GBP USD"),
+                basket.getInvalidEntries());
+    }
+
+    @Test
+    public void parse_keepsOnlyTheFirstUnreadableEntries() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append("bad").append(i).append(", ");
+        }
+        CurrencyBasket basket = CurrencyBasket.parse(text);
+
+        assertEquals(50, basket.getInvalidCount());
+        assertEquals(CurrencyBasket.MAX_REPORTED_INVALID, basket.getInvalidEntries().size());
+    }
+
+    @Test
+    public void convert_matchesSingleConversions() throws Exception {
+        CrossRateEngine engine = CrossRateEngine.fromTable(fixtureTable(), "GBP");
+        int usd = CurrencyCodes.find("USD");
+        CurrencyBasket basket = CurrencyBasket.parse("100 GBP, 2,000 JPY, 50 EUR, 3 KPW");
+
+        double[] converted = basket.convert(engine, usd);
+
+        assertEquals(100 * engine.rate(CurrencyCodes.find("GBP"), usd), converted[0], 0.0);
+        for (int i = 0; i < basket.size(); i++) {
+            double single = engine.convert(basket.amount(i), basket.codeId(i), usd);
+            assertEquals(basket.code(i), single, converted[i], 0.0);
+        }
+        double expectedTotal = 0;
+        for (double value : converted) {
+            expectedTotal += Double.isNaN(value) ? 0 : value;
+        }
+        assertEquals(expectedTotal, CurrencyBasket.total(converted), 0.0);
+    }
+
+    @Test
+    public void of_convertsAPlainArrayOfAmounts() throws Exception {
+        CrossRateEngine engine = CrossRateEngine.fromTable(fixtureTable(), "GBP");
+        int gbp = CurrencyCodes.find("GBP");
+        int jpy = CurrencyCodes.find("JPY");
+
+        double[] converted = CurrencyBasket.of(new double[]{1, 2.5, 1e6}, gbp).convert(engine, jpy);
+
+        assertEquals(engine.convert(2.5, gbp, jpy), converted[1], 0.0);
+        assertEquals(engine.convert(1e6, gbp, jpy), converted[2], 0.0);
+    }
+
+    @Test
+    public void benchmark_basketThroughput() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        RateTable table = fixtureTable();
+        final CrossRateEngine engine = CrossRateEngine.fromTable(table, "GBP");
+        final int eur = CurrencyCodes.find("EUR");
+        Random random = new Random(7);
+
+        int[] sizes = LARGE ? new int[]{1000, 100000, 1000000} : new int[]{1000, 100000};
+        for (final int lines : sizes) {
+            StringBuilder text = new StringBuilder(lines * 16);
+            for (int i = 0; i < lines; i++) {
+                text.append(String.format(java.util.Locale.UK, "%,.2f", random.nextDouble() * 1e5))
+                        .append(' ').append(table.code(random.nextInt(table.size()))).append('\n');
+            }
+            final String basketText = text.toString();
+            final CurrencyBasket[] parsed = new CurrencyBasket[1];
+            int runs = lines >= 1000000 ? 3 : 10;
+
+            long parseNs = MicroBenchmark.medianNanos(runs, runs, new MicroBenchmark.Task() {
+                @Override
+                public void run() {
+                    parsed[0] = CurrencyBasket.parse(basketText);
+                }
+            });
+            assertEquals(lines, parsed[0].size());
+
+            final double[][] converted = new double[1][];
+            long convertNs = MicroBenchmark.medianNanos(runs, runs, new MicroBenchmark.Task() {
+                @Override
+                public void run() {
+                    converted[0] = parsed[0].convert(engine, eur);
+                }
+            });
+            long parseBytes = MicroBenchmark.allocatedBytes(new MicroBenchmark.Task() {
+                @Override
+                public void run() {
+                    CurrencyBasket.parse(basketText);
+                }
+            });
+
+            // The per-amount loop must agree with one-at-a-time conversion
+            for (int i = 0; i < lines; i += 997) {
+                assertEquals(engine.convert(parsed[0].amount(i), parsed[0].codeId(i), eur),
+                        converted[0][i], 0.0);
+            }
+
+            MicroBenchmark.report("basket " + lines + " lines",
+                    "parse %.2f M lines/s (%.1f bytes/line), convert %.1f M lines/s",
+                    lines / (parseNs / 1e3), (double) parseBytes / lines, lines / (convertNs / 1e3));
+        }
+    }
+
+    // -------- helpers --------
+
+    private static void assertEntry(CurrencyBasket basket, int i, double amount, String code) {
+        assertEquals("amount " + i, amount, basket.amount(i), 0.0);
+        assertEquals("code " + i, code, basket.code(i));
+    }
+
+    private static RateTable fixtureTable() throws Exception {
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            return RateTable.fromRates(new RssFeedFetcher(null, null, true).parseFeed(in));
+        }
+    }
+}
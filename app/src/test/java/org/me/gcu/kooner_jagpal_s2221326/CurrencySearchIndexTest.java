@@ -0,0 +1,152 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Search index results against a plain linear scan, plus a per-keystroke
+ * latency benchmark on synthetic tables of up to 10k rows.
+ */
+public class CurrencySearchIndexTest {
+
+    @Test
+    public void search_matchesLinearScanOnCodesAndNames() throws Exception {
+        RateTable table = fixtureTable();
+        CurrencySearchIndex index = CurrencySearchIndex.build(table);
+
+        String[] queries = {"e", "eu", "eur", "euro", "DOLLAR", " dollar ", "an d", "zambian kwacha",
+                "(", "xyz", "rupee", "aed", "franc"};
+        for (String query : queries) {
+            int[] expected = linearScan(table, query);
+            int[] actual = index.search(query);
+            // The index may add alias matches, but must contain every code/name match
+            for (int row : expected) {
+                assertTrue(query + " missing row " + row, Arrays.binarySearch(actual, row) >= 0);
+            }
+        }
+        assertArrayEquals(linearScan(table, "zambian kwacha"), index.search("Zambian Kwacha"));
+    }
+
+    @Test
+    public void search_findsCountryAliases() throws Exception {
+        RateTable table = fixtureTable();
+        CurrencySearchIndex index = CurrencySearchIndex.build(table);
+
+        assertArrayEquals(new int[]{table.rowOf("USD")}, index.search("united states"));
+        assertTrue(contains(index.search("germany"), table.rowOf("EUR")));
+        assertTrue(contains(index.search("japan"), table.rowOf("JPY")));
+    }
+
+    @Test
+    public void search_emptyQueryReturnsAllRowsAndGramsNeverSpanFields() throws Exception {
+        RateTable table = fixtureTable();
+        CurrencySearchIndex index = CurrencySearchIndex.build(table);
+
+        assertArrayEquals(table.allRows(), index.search("   "));
+        // "aedu" would only match across the code/name boundary of "AED\nUnited..."
+        assertEquals(0, index.search("aedu").length);
+        assertEquals(0, CurrencySearchIndex.EMPTY.search("usd").length);
+    }
+
+    @Test
+    public void benchmark_keystrokeLatencyStaysFlatAsTableGrows() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        String typed = "zambian kwacha";
+        int[] sizes = {1000, 2500, 5000, 10000};
+        double[] indexUs = new double[sizes.length];
+
+        for (int s = 0; s < sizes.length; s++) {
+            final RateTable table = syntheticTable(sizes[s]);
+            final CurrencySearchIndex index = CurrencySearchIndex.build(table);
+
+            double indexTotal = 0;
+            double scanTotal = 0;
+            int keystrokes = 0;
+            for (int len = 3; len <= typed.length(); len++) {
+                final String query = typed.substring(0, len);
+                indexTotal += MicroBenchmark.medianNanos(20, 50, new MicroBenchmark.Task() {
+                    @Override
+                    public void run() {
+                        index.search(query);
+                    }
+                });
+                scanTotal += MicroBenchmark.medianNanos(5, 15, new MicroBenchmark.Task() {
+                    @Override
+                    public void run() {
+                        linearScan(table, query);
+                    }
+                });
+                assertArrayEquals(linearScan(table, query), index.search(query));
+                keystrokes++;
+            }
+            indexUs[s] = indexTotal / keystrokes / 1000.0;
+            MicroBenchmark.report("search " + sizes[s] + " rows",
+                    "index %.1f us/keystroke, linear scan %.1f us/keystroke",
+                    indexUs[s], scanTotal / keystrokes / 1000.0);
+        }
+
+        // 10x more rows should not mean anything like 10x the latency
+        assertTrue(indexUs[sizes.length - 1] < indexUs[0] * 5 + 20);
+    }
+
+    // -------- helpers --------
+
+    private static RateTable fixtureTable() throws Exception {
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            return RateTable.fromRates(new RssFeedFetcher(null, null, true).parseFeed(in));
+        }
+    }
+
+    /**
+     * Rows reuse the real codes with made-up names from the letters a-j,
+     * plus ten genuine "Zambian Kwacha" rows whatever the size.
+     */
+    private static RateTable syntheticTable(int size) {
+        String[] codes = {"USD", "EUR", "JPY", "AUD", "CAD", "CHF", "NOK", "SEK", "ZAR", "INR"};
+        ArrayList<CurrencyRate> rates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            CurrencyRate rate = new CurrencyRate();
+            rate.setTargetCode(codes[i % codes.length]);
+            if (i % (size / 10) == 0) {
+                rate.setCurrencyName("Zambian Kwacha " + i);
+            } else {
+                StringBuilder name = new StringBuilder();
+                for (int n = i * 7919; name.length() < 12; n /= 10) {
+                    name.append((char) ('a' + (n % 10)));
+                    if (n < 10) {
+                        n = i * 31 + name.length();
+                    }
+                }
+                rate.setCurrencyName(name + " dollar");
+            }
+            rate.setRate(1.0 + i);
+            rates.add(rate);
+        }
+        return RateTable.fromRates(rates);
+    }
+
+    // The search MainActivity used to do on every button press
+    private static int[] linearScan(RateTable table, String query) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        int[] matches = new int[table.size()];
+        int count = 0;
+        for (int row = 0; row < table.size(); row++) {
+            String code = (table.code(row) != null) ? table.code(row).toLowerCase(Locale.ROOT) : "";
+            String name = (table.name(row) != null) ? table.name(row).toLowerCase(Locale.ROOT) : "";
+            if (code.contains(q) || name.contains(q)) {
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static boolean contains(int[] rows, int row) {
+        return Arrays.binarySearch(rows, row) >= 0;
+    }
+}
@@ -0,0 +1,32 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DataAgeTest {
+
+    private static final long NOW = 1756389909000L;
+    private static final long MINUTE = 60 * 1000L;
+
+    @Test
+    public void describe_givesPublishedAndCheckedTimes() {
+        assertEquals("No rates yet", DataAge.describe(PubDateParser.INVALID, 0, false, NOW));
+        assertEquals("Rates published 25 min ago, checked just now",
+                DataAge.describe(NOW - 25 * MINUTE, NOW - 5000, true, NOW));
+        assertEquals("Rates published 1 day ago, saved 3 h ago",
+                DataAge.describe(NOW - 26 * 60 * MINUTE, NOW - 3 * 60 * MINUTE, false, NOW));
+        assertEquals("Rates checked 4 days ago",
+                DataAge.describe(PubDateParser.INVALID, NOW - 4 * 24 * 60 * MINUTE, true, NOW));
+    }
+
+    @Test
+    public void ago_roundsDownAndTreatsTheFutureAsNow() {
+        assertEquals("just now", DataAge.ago(-MINUTE));
+        assertEquals("just now", DataAge.ago(59 * 1000L));
+        assertEquals("1 min ago", DataAge.ago(MINUTE));
+        assertEquals("59 min ago", DataAge.ago(60 * MINUTE - 1));
+        assertEquals("2 h ago", DataAge.ago(150 * MINUTE));
+        assertEquals("2 days ago", DataAge.ago(49 * 60 * MINUTE));
+    }
+}
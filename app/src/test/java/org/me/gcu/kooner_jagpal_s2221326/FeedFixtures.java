@@ -0,0 +1,46 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Access to the sample feed files under src/test/resources/feeds.
+ *
+ * These are hand-written samples in the shape of the fx-exchange GBP feed,
+ * not captures of it: the item layout, titles and pubDate format follow
+ * the real feed, but the rates are made up.
+ */
+final class FeedFixtures {
+
+    /** Hand-written GBP feed with 158 items. */
+    static final String GBP_FEED = "feeds/gbp_rss.xml";
+
+    /** GBP_FEED byte for byte, with a BOM and junk before the prolog and after the closing tag. */
+    static final String GBP_FEED_WITH_GARBAGE = "feeds/gbp_rss_garbage.xml";
+
+    static final String[] ALL = {GBP_FEED, GBP_FEED_WITH_GARBAGE};
+
+    private FeedFixtures() {
+    }
+
+    static InputStream open(String name) throws IOException {
+        InputStream in = FeedFixtures.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Missing test resource: " + name);
+        }
+        return in;
+    }
+
+    static byte[] bytes(String name) throws IOException {
+        try (InputStream in = open(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = in.read(chunk)) != -1) {
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
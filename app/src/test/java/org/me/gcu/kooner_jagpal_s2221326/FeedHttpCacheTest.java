@@ -0,0 +1,136 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Conditional GET behaviour of RssFeedFetcher against a local HTTP server.
+ */
+public class FeedHttpCacheTest {
+
+    private static final String ETAG = "\"gbp-v1\"";
+    private static final String LAST_MODIFIED = "Wed, 27 Aug 2025 02:00:45 GMT";
+
+    private LocalFeedServer server;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private volatile String currentEtag = ETAG;
+
+    @Before
+    public void setUp() throws IOException {
+        final byte[] body = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+
+        server = new LocalFeedServer();
+        server.handle("/gbp/rss.xml", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String etag = currentEtag;
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                fullResponses.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void secondFetch_isAnsweredFromCacheOn304() {
+        FeedHttpCache cache = new FeedHttpCache();
+
+        Result first = fetch(cache);
+        Result second = fetch(cache);
+
+        assertNull(first.error);
+        assertNull(second.error);
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModifiedResponses.get());
+
+        // The cached list is returned without parsing again
+        assertEquals(0, second.itemsParsed);
+        assertEquals(first.rates.size(), second.rates.size());
+        for (int i = 0; i < first.rates.size(); i++) {
+            assertSame(first.rates.get(i), second.rates.get(i));
+        }
+        assertNotSame(first.rates, second.rates);
+    }
+
+    @Test
+    public void changedFeed_isDownloadedAndReplacesCacheEntry() {
+        FeedHttpCache cache = new FeedHttpCache();
+
+        fetch(cache);
+        currentEtag = "\"gbp-v2\"";
+        Result second = fetch(cache);
+
+        assertEquals(2, fullResponses.get());
+        assertEquals(158, second.itemsParsed);
+        assertEquals("\"gbp-v2\"", cache.get(server.url("/gbp/rss.xml")).getEtag());
+        assertEquals(LAST_MODIFIED, cache.get(server.url("/gbp/rss.xml")).getLastModified());
+    }
+
+    @Test
+    public void withoutCache_everyFetchDownloads() {
+        fetch(null);
+        fetch(null);
+
+        assertEquals(2, fullResponses.get());
+        assertEquals(0, notModifiedResponses.get());
+    }
+
+    // -------- helpers --------
+
+    private Result fetch(FeedHttpCache cache) {
+        final Result result = new Result();
+        RssFeedFetcher fetcher = new RssFeedFetcher(server.url("/gbp/rss.xml"),
+                new RssFeedFetcher.OnRatesParsedListener() {
+                    @Override
+                    public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+                        result.rates = rates;
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        result.error = message;
+                    }
+
+                    @Override
+                    public void onRateParsed(CurrencyRate rate) {
+                        result.itemsParsed++;
+                    }
+                }, true);
+        fetcher.setHttpCache(cache);
+        fetcher.run();
+        return result;
+    }
+
+    private static class Result {
+        ArrayList<CurrencyRate> rates;
+        String error;
+        int itemsParsed;
+    }
+}
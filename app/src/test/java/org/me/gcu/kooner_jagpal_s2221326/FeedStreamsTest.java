@@ -0,0 +1,325 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fetcher transport against a local HTTP stub: gzip / deflate bodies,
+ * charsets from the header or the prolog, and slow-drip and oversized
+ * responses that must be cut off. Reports wire bytes with and without
+ * compression.
+ */
+public class FeedStreamsTest {
+
+    private static final String FEED_PATH = "/gbp/rss.xml";
+
+    private LocalFeedServer server;
+    private byte[] feed;
+
+    @Before
+    public void setUp() throws IOException {
+        feed = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+        server = new LocalFeedServer();
+
+        // Compresses when asked to, like the real feed's server
+        server.handle(FEED_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                byte[] body = feed;
+                if (accept != null && accept.contains("gzip")) {
+                    body = gzip(feed);
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                }
+                send(exchange, "text/xml", body);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void gzip_isNegotiatedAndDecompressedWhileStreaming() {
+        for (boolean streaming : new boolean[]{true, false}) {
+            Result plain = fetch(FEED_PATH, streaming, false);
+            Result compressed = fetch(FEED_PATH, streaming, true);
+
+            assertNull(compressed.error);
+            assertEquals(plain.rates.size(), compressed.rates.size());
+            for (int i = 0; i < plain.rates.size(); i++) {
+                RssFeedFetcherTest.assertSameRate("item " + i, plain.rates.get(i), compressed.rates.get(i));
+            }
+            assertEquals(feed.length, plain.wireBytes);
+            assertEquals(feed.length, compressed.bodyBytes);
+            assertTrue(compressed.wireBytes < feed.length / 4);
+
+            if (streaming) {
+                MicroBenchmark.report("GBP feed over the wire", "%,d bytes plain, %,d bytes gzip (%.1fx smaller)",
+                        plain.wireBytes, compressed.wireBytes, (double) plain.wireBytes / compressed.wireBytes);
+            }
+        }
+    }
+
+    @Test
+    public void deflate_acceptsZlibWrappedAndRawBodies() throws IOException {
+        for (final boolean raw : new boolean[]{false, true}) {
+            server.handle("/deflate" + raw, new HttpHandler() {
+                @Override
+                public void handle(HttpExchange exchange) throws IOException {
+                    exchange.getResponseHeaders().set("Content-Encoding", "deflate");
+                    send(exchange, "text/xml", deflate(feed, raw));
+                }
+            });
+            Result result = fetch("/deflate" + raw, true, true);
+
+            assertNull(result.error);
+            assertEquals(fetch(FEED_PATH, true, false).rates.size(), result.rates.size());
+        }
+    }
+
+    @Test
+    public void charset_comesFromHeaderThenProlog() {
+        final String name = "São Tomé and Príncipe Dobra";
+        final String item = "<item><title>British Pound Sterling(GBP)/" + name + "(STN)</title>"
+                + "<description>1 British Pound Sterling = 29.5000 " + name + "</description></item>";
+        final byte[] withHeader = ("<?xml version=\"1.0\"?><rss><channel>" + item + "</channel></rss>")
+                .getBytes(StandardCharsets.ISO_8859_1);
+        final byte[] withProlog = ("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><rss><channel>"
+                + item + "</channel></rss>").getBytes(StandardCharsets.ISO_8859_1);
+        server.handle("/header", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, "text/xml; charset=\"ISO-8859-1\"", withHeader);
+            }
+        });
+        server.handle("/prolog", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, "text/xml", withProlog);
+            }
+        });
+
+        // The buffered mode decodes text itself; streaming parsers are handed the header's charset
+        assertEquals(name, fetch("/header", false, true).rates.get(0).getCurrencyName());
+        assertEquals(name, fetch("/prolog", false, true).rates.get(0).getCurrencyName());
+        RateFeedParser[] parsers = {new PullRateFeedParser(), new ScanningRateFeedParser()};
+        for (RateFeedParser parser : parsers) {
+            String label = parser.getClass().getSimpleName();
+            assertEquals(label, name, fetch("/header", parser).rates.get(0).getCurrencyName());
+            assertEquals(label, name, fetch("/prolog", parser).rates.get(0).getCurrencyName());
+        }
+    }
+
+    @Test
+    public void slowDrip_isCutOffAtTheDeadline() {
+        server.handle("/drip", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    // Every byte arrives well inside the read timeout
+                    for (int i = 0; i < feed.length; i++) {
+                        out.write(feed[i]);
+                        out.flush();
+                        Thread.sleep(20);
+                    }
+                } catch (InterruptedException | IOException e) {
+                    // client gave up, or the server is stopping
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        Result result = fetch("/drip", true, true, 500, 0);
+        long tookMs = (System.nanoTime() - start) / 1000000;
+
+        assertNull(result.rates);
+        assertEquals("Timed out while downloading rates.", result.error);
+        assertTrue("took " + tookMs + " ms", tookMs < 2000);
+    }
+
+    @Test
+    public void oversizedBody_isRefusedByLengthOrCutOff() throws IOException {
+        final byte[] big = new byte[2 * 1024 * 1024];
+        server.handle("/big-length", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, "text/xml", big);
+            }
+        });
+        server.handle("/big-chunked", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(big);
+                } catch (IOException e) {
+                    // client gave up
+                }
+            }
+        });
+        // A small gzip body that inflates to far more than the limit
+        final byte[] bomb = gzip(new byte[32 * 1024 * 1024]);
+        server.handle("/bomb", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                send(exchange, "text/xml", bomb);
+            }
+        });
+
+        String tooLarge = "The rates feed is too large to download.";
+        Result byLength = fetch("/big-length", true, true, 0, 256 * 1024);
+        assertEquals(tooLarge, byLength.error);
+        assertEquals(0, byLength.wireBytes);
+
+        Result chunked = fetch("/big-chunked", true, true, 0, 256 * 1024);
+        assertEquals(tooLarge, chunked.error);
+        assertTrue(chunked.bodyBytes <= 256 * 1024 + 8192);
+
+        Result inflated = fetch("/bomb", true, true, 0, 256 * 1024);
+        assertEquals(tooLarge, inflated.error);
+        assertTrue(inflated.wireBytes < bomb.length);
+    }
+
+    @Test
+    public void compressedBody_isLimitedByItsDecodedSizeNotContentLength() throws IOException {
+        // Stored, not compressed: the wire body is a little larger than the feed it decodes to
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(stored,
+                new Deflater(Deflater.NO_COMPRESSION))) {
+            out.write(feed);
+        }
+        final byte[] body = stored.toByteArray();
+        assertTrue(body.length > feed.length);
+        server.handle("/stored", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Content-Encoding", "deflate");
+                send(exchange, "text/xml", body);
+            }
+        });
+
+        Result result = fetch("/stored", true, true, 0, feed.length);
+        assertNull(result.error);
+        assertEquals(body.length, result.wireBytes);
+        assertEquals(feed.length, result.bodyBytes);
+    }
+
+    @Test
+    public void charsetHelpers_parseHeadersAndPrologs() {
+        assertEquals(StandardCharsets.ISO_8859_1,
+                FeedStreams.charsetFromContentType("text/xml;charset=iso-8859-1"));
+        assertEquals(StandardCharsets.UTF_8,
+                FeedStreams.charsetFromContentType("application/rss+xml; charset='UTF-8'; q=1"));
+        assertNull(FeedStreams.charsetFromContentType("text/xml"));
+        assertNull(FeedStreams.charsetFromContentType("text/xml; charset=no-such-charset"));
+
+        byte[] prolog = "junk\n<?xml version='1.0' encoding = 'windows-1252' ?><rss/>"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertEquals("windows-1252", FeedStreams.charsetFromProlog(prolog, prolog.length).name());
+        byte[] noEncoding = "<?xml version=\"1.0\"?><rss encoding=\"x\"/>".getBytes(StandardCharsets.US_ASCII);
+        assertNull(FeedStreams.charsetFromProlog(noEncoding, noEncoding.length));
+    }
+
+    @Test
+    public void decode_passesUnknownEncodingsThrough() throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(feed);
+        assertSame(in, FeedStreams.decode(null, in));
+        assertSame(in, FeedStreams.decode("identity", in));
+        assertSame(in, FeedStreams.decode("br", in));
+    }
+
+    // -------- helpers --------
+
+    private Result fetch(String path, boolean streaming, boolean compression) {
+        return fetch(path, streaming, compression, 0, 0);
+    }
+
+    private Result fetch(String path, RateFeedParser parser) {
+        return fetch(path, true, true, 0, 0, parser);
+    }
+
+    private Result fetch(String path, boolean streaming, boolean compression, long deadlineMs, long maxBytes) {
+        return fetch(path, streaming, compression, deadlineMs, maxBytes, new ScanningRateFeedParser());
+    }
+
+    private Result fetch(String path, boolean streaming, boolean compression, long deadlineMs, long maxBytes,
+            RateFeedParser parser) {
+        final Result result = new Result();
+        RssFeedFetcher fetcher = new RssFeedFetcher(server.url(path),
+                new RssFeedFetcher.OnRatesParsedListener() {
+                    @Override
+                    public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+                        result.rates = rates;
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        result.error = message;
+                    }
+                }, streaming);
+        fetcher.setCompression(compression);
+        fetcher.setTimeouts(5000, 5000);
+        fetcher.setDeadline(deadlineMs);
+        fetcher.setMaxBodyBytes(maxBytes);
+        fetcher.setParser(parser);
+        fetcher.run();
+        result.wireBytes = fetcher.getLastWireBytes();
+        result.bodyBytes = fetcher.getLastBodyBytes();
+        return result;
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException e) {
+            // client gave up early
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data, boolean raw) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes,
+                new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static class Result {
+        ArrayList<CurrencyRate> rates;
+        String error;
+        long wireBytes;
+        long bodyBytes;
+    }
+}
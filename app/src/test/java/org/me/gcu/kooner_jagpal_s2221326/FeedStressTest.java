@@ -0,0 +1,319 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Stress harness for the feed parse path on generated feeds of 10 to 1M
+ * items ({@link SyntheticFeed}), clean and damaged: the item counts and
+ * failures each path reports, the same over HTTP through
+ * {@link RssFeedFetcher}, and a benchmark of throughput and heap that
+ * checks the memory kept per item stays flat as the feed grows.
+ *
+ * The benchmark runs only with {@code -Dbenchmarks=true}. Its 1M-item
+ * run, and the check that the time per item stays flat too, also need
+ * {@code -DfeedStress.large=true}.
+ */
+public class FeedStressTest {
+
+    private static final int DAMAGED = SyntheticFeed.GARBAGE | SyntheticFeed.ODD_WHITESPACE
+            | SyntheticFeed.BAD_RATES;
+    private static final int[] OPTIONS = {
+            SyntheticFeed.CLEAN, SyntheticFeed.GARBAGE, SyntheticFeed.ODD_WHITESPACE,
+            SyntheticFeed.BAD_RATES, DAMAGED
+    };
+
+    private static final boolean LARGE = Boolean.getBoolean("feedStress.large");
+
+    private LocalFeedServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalFeedServer();
+        // /feed?items=N&options=M streams a generated feed, chunked, of unknown length
+        server.handle("/feed", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String[] query = exchange.getRequestURI().getQuery().split("&");
+                int items = Integer.parseInt(query[0].substring("items=".length()));
+                int options = Integer.parseInt(query[1].substring("options=".length()));
+                exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+                exchange.sendResponseHeaders(200, 0);
+                byte[] buffer = new byte[8192];
+                try (InputStream in = new SyntheticFeed(items, options);
+                     OutputStream out = exchange.getResponseBody()) {
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, n);
+                    }
+                } catch (IOException e) {
+                    // The client hung up, e.g. on a too-large feed
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void everyVariant_parsesTheSameOnEveryPath() throws Exception {
+        for (Path path : paths()) {
+            for (int items : new int[]{10, 1000}) {
+                for (int options : OPTIONS) {
+                    SyntheticFeed feed = new SyntheticFeed(items, options);
+                    String label = path.name + ", " + items + " items, options " + options;
+                    long failuresBefore = Metrics.RATE_PARSE_FAILURES.get();
+
+                    ArrayList<CurrencyRate> rates = path.parse(feed);
+
+                    assertEquals(label, feed.completeItems(), rates.size());
+                    assertEquals(label, feed.badRates(), Metrics.RATE_PARSE_FAILURES.get() - failuresBefore);
+                    assertItems(label, rates, options);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void truncatedFeed_isRejectedOnEveryPath() throws Exception {
+        for (Path path : paths()) {
+            for (int items : new int[]{1, 10, 1000}) {
+                try {
+                    path.parse(new SyntheticFeed(items, DAMAGED | SyntheticFeed.TRUNCATED));
+                    fail(path.name + " accepted a truncated feed of " + items + " items");
+                } catch (XmlPullParserException expected) {
+                    // the whole feed is rejected, not the items read so far
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fetchOverHttp_parsesDamagedFeedsAndReportsFailures() throws Exception {
+        for (int mode = 0; mode < 3; mode++) {
+            String label = "mode " + mode;
+            Listener listener = new Listener();
+            RssFeedFetcher fetcher = fetcher(10000, DAMAGED, listener, mode);
+            ArrayList<CurrencyRate> rates = fetcher.fetch();
+            assertNotNull(label + ": " + listener.error, rates);
+            assertEquals(label, 10000, rates.size());
+            assertItems(label, rates, DAMAGED);
+
+            // A truncated document fails as a whole, with the parse error message
+            listener = new Listener();
+            long failuresBefore = Metrics.FEED_PARSE_FAILURES.get();
+            assertNull(label, fetcher(1000, DAMAGED | SyntheticFeed.TRUNCATED, listener, mode).fetch());
+            assertEquals(label, "Problem parsing the RSS feed.", listener.error);
+            assertEquals(label, 1, Metrics.FEED_PARSE_FAILURES.get() - failuresBefore);
+        }
+    }
+
+    @Test
+    public void fetchOverHttp_stopsReadingAtTheBodyLimit() throws Exception {
+        // About 35 MB, far past the 4 MB default limit, with no Content-Length to refuse it by
+        for (int mode : new int[]{0, 2}) {
+            Listener listener = new Listener();
+            RssFeedFetcher fetcher = fetcher(100000, SyntheticFeed.CLEAN, listener, mode);
+            assertNull(fetcher.fetch());
+            assertEquals("The rates feed is too large to download.", listener.error);
+            // Stopped at the limit, give or take the read that crossed it
+            assertTrue(fetcher.getLastBodyBytes() <= RssFeedFetcher.DEFAULT_MAX_BODY_BYTES + 65536);
+        }
+    }
+
+    @Test
+    public void benchmark_throughputHeapAndLinearity() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        int[] sizes = LARGE
+                ? new int[]{10, 100, 1000, 10000, 100000, 1000000}
+                : new int[]{10, 100, 1000, 10000, 100000};
+        for (Path path : paths()) {
+            double nanosPerItemAt10k = 0;
+            double retainedPerItemAt10k = 0;
+            for (int items : sizes) {
+                // The buffered path holds the whole document as a String, twice; the app caps it at 4 MB
+                if (path.buffered && items > 100000) {
+                    continue;
+                }
+                Run run = measure(path, items);
+                MicroBenchmark.report(String.format("feed %s, %,d items", path.name, items),
+                        "%.0f items/s, %.1f MB/s, %.0f ns/item, peak heap +%.1f MB, retained %.0f B/item",
+                        items * 1e9 / run.nanos, run.bytes * 1e3 / run.nanos, (double) run.nanos / items,
+                        run.peakHeapBytes / 1e6, (double) run.retainedBytes / items);
+
+                if (items == 10000) {
+                    nanosPerItemAt10k = (double) run.nanos / items;
+                    retainedPerItemAt10k = (double) run.retainedBytes / items;
+                } else if (items > 10000) {
+                    // Linear: memory grows with the items kept only, and (timed runs only) no
+                    // quadratic cliff in time
+                    double nanosPerItem = (double) run.nanos / items;
+                    double retainedPerItem = (double) run.retainedBytes / items;
+                    if (LARGE) {
+                        assertTrue(path.name + " time per item grew " + nanosPerItem / nanosPerItemAt10k + "x",
+                                nanosPerItem < 3 * nanosPerItemAt10k);
+                    }
+                    assertTrue(path.name + " retained per item grew " + retainedPerItem / retainedPerItemAt10k
+                            + "x", retainedPerItem < 1.5 * retainedPerItemAt10k + 64);
+                }
+            }
+        }
+    }
+
+    // -------- helpers --------
+
+    // One way of turning feed bytes into rates
+    private abstract static class Path {
+        final String name;
+        final boolean buffered;
+
+        Path(String name, boolean buffered) {
+            this.name = name;
+            this.buffered = buffered;
+        }
+
+        abstract ArrayList<CurrencyRate> parse(InputStream feed) throws XmlPullParserException, IOException;
+    }
+
+    private static List<Path> paths() {
+        ArrayList<Path> paths = new ArrayList<>();
+        paths.add(new Path("scanning parser", false) {
+            @Override
+            ArrayList<CurrencyRate> parse(InputStream feed) throws XmlPullParserException, IOException {
+                return new ScanningRateFeedParser().parse(feed, null);
+            }
+        });
+        paths.add(new Path("pull parser", false) {
+            @Override
+            ArrayList<CurrencyRate> parse(InputStream feed) throws XmlPullParserException, IOException {
+                return new PullRateFeedParser().parse(feed, null);
+            }
+        });
+        paths.add(new Path("buffered", true) {
+            @Override
+            ArrayList<CurrencyRate> parse(InputStream feed) throws XmlPullParserException, IOException {
+                String document = RssFeedFetcher.readWholeFeed(feed);
+                return new RssFeedFetcher("unused", null).parseFeed(new StringReader(document));
+            }
+        });
+        return paths;
+    }
+
+    // Mode 0 = buffered, 1 = streaming with the pull parser, 2 = streaming with the scanning parser
+    private RssFeedFetcher fetcher(int items, int options, Listener listener, int mode) {
+        RssFeedFetcher fetcher = new RssFeedFetcher(
+                server.url("/feed?items=" + items + "&options=" + options), listener, mode > 0);
+        if (mode == 2) {
+            fetcher.setParser(new ScanningRateFeedParser());
+        }
+        return fetcher;
+    }
+
+    private static void assertItems(String label, List<CurrencyRate> rates, int options) {
+        boolean badRates = (options & SyntheticFeed.BAD_RATES) != 0;
+        for (int i = 0; i < rates.size(); i++) {
+            CurrencyRate rate = rates.get(i);
+            assertEquals(label, SyntheticFeed.code(i), rate.getTargetCode());
+            assertEquals(label, SyntheticFeed.PUB_DATE, rate.getPubDate());
+            if (badRates && i % SyntheticFeed.BAD_RATE_EVERY == SyntheticFeed.BAD_RATE_EVERY - 1) {
+                assertEquals(label, 0, rate.getRate(), 0);
+            } else {
+                assertEquals(label, SyntheticFeed.rate(i), rate.getRate(), 0);
+            }
+        }
+    }
+
+    private static final class Run {
+        long nanos;
+        long bytes;
+        long peakHeapBytes;
+        long retainedBytes;
+    }
+
+    private static Run measure(final Path path, final int items) throws Exception {
+        final Run run = new Run();
+        int repeats = items >= 100000 ? 3 : items >= 10000 ? 11 : 51;
+        int warmup = items >= 100000 ? 1 : 5;
+        run.nanos = MicroBenchmark.medianNanos(warmup, repeats, new MicroBenchmark.Task() {
+            @Override
+            public void run() throws Exception {
+                SyntheticFeed feed = new SyntheticFeed(items, DAMAGED);
+                assertEquals(items, path.parse(feed).size());
+                run.bytes = feed.getBytesRead();
+            }
+        });
+
+        // Heap: the high-water mark during one more parse, and what is left holding the result
+        long before = usedAfterGc();
+        resetPeaks();
+        ArrayList<CurrencyRate> rates = path.parse(new SyntheticFeed(items, DAMAGED));
+        run.peakHeapBytes = Math.max(0, peakHeap() - before);
+        run.retainedBytes = Math.max(0, usedAfterGc() - before);
+        assertEquals(items, rates.size());
+        return run;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Sum of the heap pools' peaks, which may not have peaked at the same moment: an upper bound
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static final class Listener implements RssFeedFetcher.OnRatesParsedListener {
+        volatile String error;
+
+        @Override
+        public void onRateParsed(CurrencyRate rate) {
+        }
+
+        @Override
+        public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    }
+}
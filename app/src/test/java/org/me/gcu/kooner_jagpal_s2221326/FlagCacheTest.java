@@ -0,0 +1,359 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * The flag cache decodes each flag once, off the main thread, keeps a
+ * byte-bounded LRU, and a benchmark flings the full list of real flags
+ * past recycled rows.
+ */
+public class FlagCacheTest {
+
+    @Test
+    public void concurrentRequests_shareOneDecode() {
+        Queue decode = new Queue();
+        Queue main = new Queue();
+        CountingDecoder decoder = new CountingDecoder(10);
+        FlagCache<int[]> cache = new FlagCache<>(decoder, decode, main, 100);
+        Row first = new Row();
+        Row second = new Row();
+
+        assertNull(first.bind(cache, 7));
+        assertNull(second.bind(cache, 7));
+        assertEquals(1, decode.size());
+        decode.runAll();
+        assertNull(first.shown);
+
+        main.runAll();
+        assertEquals(7, first.shown[0]);
+        assertSame(first.shown, second.shown);
+        assertEquals(1, decoder.decodes.get());
+
+        // Now cached: returned straight away, nothing queued
+        Row third = new Row();
+        assertSame(first.shown, third.bind(cache, 7));
+        assertEquals(0, decode.size());
+    }
+
+    @Test
+    public void recycledRow_ignoresTheFlagItWasBoundToBefore() {
+        Queue decode = new Queue();
+        Queue main = new Queue();
+        FlagCache<int[]> cache = new FlagCache<>(new CountingDecoder(10), decode, main, 100);
+        Row row = new Row();
+
+        row.bind(cache, 1);
+        row.bind(cache, 2);
+        decode.runAll();
+        main.runAll();
+
+        assertEquals(2, row.shown[0]);
+        assertEquals(1, row.sets);
+        assertTrue(cache.contains(1));
+    }
+
+    @Test
+    public void eviction_dropsLeastRecentlyUsedWithinTheByteLimit() {
+        FlagCache<int[]> cache = new FlagCache<>(new CountingDecoder(10), DIRECT, DIRECT, 30);
+        Row row = new Row();
+        row.bind(cache, 1);
+        row.bind(cache, 2);
+        row.bind(cache, 3);
+        assertEquals(30, cache.getBytes());
+
+        // Touch 1, so 2 is the eldest
+        row.bind(cache, 1);
+        row.bind(cache, 4);
+
+        assertEquals(3, cache.size());
+        assertEquals(30, cache.getBytes());
+        assertFalse(cache.contains(2));
+        assertTrue(cache.contains(1) && cache.contains(3) && cache.contains(4));
+    }
+
+    @Test
+    public void failedDecode_isRememberedAndNotRetried() {
+        CountingDecoder decoder = new CountingDecoder(10);
+        decoder.failing = 9;
+        FlagCache<int[]> cache = new FlagCache<>(decoder, DIRECT, DIRECT, 100);
+        Row row = new Row();
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(row.bind(cache, 9));
+            row.bind(cache, 1);
+        }
+        assertEquals(3, row.failures);
+        assertEquals(2, decoder.decodes.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void sampleSize_keepsTheBitmapAtLeastViewSized() {
+        assertEquals(1, FlagBitmaps.sampleSize(32, 24, 120, 72));
+        assertEquals(1, FlagBitmaps.sampleSize(239, 143, 120, 72));
+        assertEquals(2, FlagBitmaps.sampleSize(240, 144, 120, 72));
+        assertEquals(8, FlagBitmaps.sampleSize(1000, 600, 120, 72));
+        assertEquals(4, FlagBitmaps.sampleSize(959, 575, 120, 72));
+        assertEquals(1, FlagBitmaps.sampleSize(1000, 600, 0, 0));
+    }
+
+    @Test
+    public void benchmark_flingTheFullListPastRecycledRows() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final byte[][] pngs = flagPngs();
+        int visible = 12;
+        Row[] rows = new Row[visible + 2];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Row();
+        }
+
+        // Before: setImageResource() decodes on the UI thread each time a row changes flag,
+        // scaled from mdpi to the screen density (3x here)
+        long beforeNanos = 0;
+        int beforeDecodes = 0;
+        for (int[] bind : fling(pngs.length, visible, rows.length)) {
+            Row row = rows[bind[1]];
+            if (row.resId != bind[0]) {
+                long start = System.nanoTime();
+                row.resId = bind[0];
+                row.image = scale(decodePng(pngs[bind[0]]), 3);
+                beforeNanos += System.nanoTime() - start;
+                beforeDecodes++;
+            }
+        }
+
+        // After: rows look flags up in the cache and decodes run on a background thread
+        ExecutorService decodeThread = Executors.newSingleThreadExecutor();
+        Queue main = new Queue();
+        PngDecoder decoder = new PngDecoder(pngs);
+        FlagCache<BufferedImage> cache = new FlagCache<>(decoder, decodeThread, main, FlagBitmaps.MAX_BYTES);
+        long decodesBefore = Metrics.FLAG_DECODES.get();
+        for (Row row : rows) {
+            row.resId = -1;
+        }
+        long afterNanos = 0;
+        int binds = 0;
+        for (int[] bind : fling(pngs.length, visible, rows.length)) {
+            Row row = rows[bind[1]];
+            long start = System.nanoTime();
+            if (row.resId != bind[0]) {
+                row.resId = bind[0];
+                BufferedImage image = cache.load(bind[0], row);
+                if (image != null) {
+                    row.image = image;
+                }
+            }
+            // The main thread also runs the delivered decodes
+            main.runAll();
+            afterNanos += System.nanoTime() - start;
+            binds++;
+        }
+        decodeThread.shutdown();
+        assertTrue(decodeThread.awaitTermination(10, TimeUnit.SECONDS));
+        main.runAll();
+
+        // Every flag decoded exactly once, and every row ends up showing its own flag
+        assertEquals(pngs.length, decoder.decodes.get());
+        assertEquals(pngs.length, Metrics.FLAG_DECODES.get() - decodesBefore);
+        assertEquals(pngs.length, cache.size());
+        for (Row row : rows) {
+            assertSame(cache.load(row.resId, row), row.image);
+        }
+
+        MicroBenchmark.report("fling " + pngs.length + " flags x3, setImageResource on UI thread",
+                "%d decodes, %.2f ms main thread", beforeDecodes, beforeNanos / 1e6);
+        MicroBenchmark.report("fling " + pngs.length + " flags x3, FlagCache",
+                "%d decodes, %.2f ms main thread over %d binds, %d KB cached",
+                decoder.decodes.get(), afterNanos / 1e6, binds, cache.getBytes() / 1024);
+        assertTrue(beforeDecodes > 2 * pngs.length);
+    }
+
+    // -------- helpers --------
+
+    private static final java.util.concurrent.Executor DIRECT = new java.util.concurrent.Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    // Down the whole list and back, three times: {flag, row} per bind as a row scrolls into view
+    private static ArrayList<int[]> fling(int items, int visible, int rowCount) {
+        ArrayList<int[]> binds = new ArrayList<>();
+        for (int i = 0; i < visible; i++) {
+            binds.add(new int[]{i, i % rowCount});
+        }
+        for (int pass = 0; pass < 3; pass++) {
+            for (int top = 1; top + visible <= items; top++) {
+                int item = top + visible - 1;
+                binds.add(new int[]{item, item % rowCount});
+            }
+            for (int top = items - visible - 1; top >= 0; top--) {
+                binds.add(new int[]{top, top % rowCount});
+            }
+        }
+        return binds;
+    }
+
+    private static byte[][] flagPngs() throws IOException {
+        File dir = new File("src/main/res/drawable");
+        if (!dir.isDirectory()) {
+            dir = new File("app/src/main/res/drawable");
+        }
+        File[] files = dir.listFiles();
+        assertNotNull("flag drawables not found from " + new File(".").getAbsolutePath(), files);
+        Arrays.sort(files);
+        ArrayList<byte[]> pngs = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().startsWith("flag_") && file.getName().endsWith(".png")) {
+                pngs.add(Files.readAllBytes(file.toPath()));
+            }
+        }
+        assertTrue(pngs.size() > 100);
+        return pngs.toArray(new byte[0][]);
+    }
+
+    private static BufferedImage decodePng(byte[] png) {
+        try {
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+            BufferedImage argb = new BufferedImage(decoded.getWidth(), decoded.getHeight(),
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = argb.createGraphics();
+            g.drawImage(decoded, 0, 0, null);
+            g.dispose();
+            return argb;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int factor) {
+        BufferedImage scaled = new BufferedImage(image.getWidth() * factor, image.getHeight() * factor,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        g.drawImage(image, 0, 0, scaled.getWidth(), scaled.getHeight(), null);
+        g.dispose();
+        return scaled;
+    }
+
+    // A row holder with the adapter's recycled-row guard
+    private static final class Row implements FlagCache.Callback<Object> {
+        int resId = -1;
+        Object image;
+        int[] shown;
+        int sets;
+        int failures;
+
+        <T> T bind(FlagCache<T> cache, int flag) {
+            resId = flag;
+            T cached = cache.load(flag, this);
+            if (cached != null) {
+                show(cached);
+            }
+            return cached;
+        }
+
+        @Override
+        public void onFlagLoaded(int flag, Object loaded) {
+            if (loaded == null) {
+                failures++;
+            } else if (flag == resId) {
+                show(loaded);
+            }
+        }
+
+        private void show(Object loaded) {
+            image = loaded;
+            if (loaded instanceof int[]) {
+                shown = (int[]) loaded;
+            }
+            sets++;
+        }
+    }
+
+    // Images are {resId}, each "bytes" big
+    private static final class CountingDecoder implements FlagCache.Decoder<int[]> {
+        final AtomicInteger decodes = new AtomicInteger();
+        final int bytes;
+        int failing = -1;
+
+        CountingDecoder(int bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int[] decode(int resId) {
+            decodes.incrementAndGet();
+            return resId == failing ? null : new int[]{resId};
+        }
+
+        @Override
+        public int sizeOf(int[] image) {
+            return bytes;
+        }
+    }
+
+    // Decodes the real flag PNGs at their own size, as the app's decoder does
+    private static final class PngDecoder implements FlagCache.Decoder<BufferedImage> {
+        final AtomicInteger decodes = new AtomicInteger();
+        final byte[][] pngs;
+
+        PngDecoder(byte[][] pngs) {
+            this.pngs = pngs;
+        }
+
+        @Override
+        public BufferedImage decode(int resId) {
+            decodes.incrementAndGet();
+            return decodePng(pngs[resId]);
+        }
+
+        @Override
+        public int sizeOf(BufferedImage image) {
+            return image.getWidth() * image.getHeight() * 4;
+        }
+    }
+
+    // Runs tasks only when asked, standing in for an executor or the main looper
+    private static final class Queue implements java.util.concurrent.Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        synchronized int size() {
+            return tasks.size();
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = poll()) != null) {
+                task.run();
+            }
+        }
+
+        private synchronized Runnable poll() {
+            return tasks.poll();
+        }
+    }
+}
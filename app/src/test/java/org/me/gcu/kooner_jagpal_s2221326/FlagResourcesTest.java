@@ -0,0 +1,60 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import android.content.ContextWrapper;
+import android.content.res.Resources;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FlagResourcesTest {
+
+    @Test
+    public void eachCodeIsLookedUpOnce_includingMissingFlags() {
+        FakeContext context = new FakeContext("flag_qfa", 0x7f080042);
+        int withFlag = CurrencyCodes.intern("QFA");
+        int withoutFlag = CurrencyCodes.intern("QFB");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0x7f080042, FlagResources.drawableId(context, withFlag));
+            assertEquals(0, FlagResources.drawableId(context, withoutFlag));
+        }
+        assertEquals(2, context.lookups);
+    }
+
+    @Test
+    public void invalidCodeId_hasNoFlag() {
+        FakeContext context = new FakeContext("flag_qfc", 1);
+        assertEquals(0, FlagResources.drawableId(context, -1));
+        assertEquals(0, context.lookups);
+    }
+
+    // -------- fakes --------
+
+    // Resources that know a single drawable, counting getIdentifier() calls
+    private static final class FakeContext extends ContextWrapper {
+        private final Resources resources;
+        int lookups;
+
+        FakeContext(final String knownName, final int knownId) {
+            super(null);
+            resources = new Resources(null, null, null) {
+                @Override
+                public int getIdentifier(String name, String defType, String defPackage) {
+                    lookups++;
+                    return knownName.equals(name) && "drawable".equals(defType) ? knownId : 0;
+                }
+            };
+        }
+
+        @Override
+        public Resources getResources() {
+            return resources;
+        }
+
+        @Override
+        public String getPackageName() {
+            return "org.me.gcu.kooner_jagpal_s2221326";
+        }
+    }
+}
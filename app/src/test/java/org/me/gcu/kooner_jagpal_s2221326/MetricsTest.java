@@ -0,0 +1,225 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Histogram bucket maths, concurrent recording, the text dump, what the
+ * fetcher and parsers record, and the cost of recording on the parse path.
+ */
+public class MetricsTest {
+
+    @Test
+    public void histogram_bucketsArePowersOfTwo() {
+        assertEquals(0, Metrics.Histogram.bucketOf(0));
+        assertEquals(1, Metrics.Histogram.bucketOf(1));
+        assertEquals(2, Metrics.Histogram.bucketOf(2));
+        assertEquals(2, Metrics.Histogram.bucketOf(3));
+        assertEquals(3, Metrics.Histogram.bucketOf(4));
+        assertEquals(10, Metrics.Histogram.bucketOf(1023));
+        assertEquals(11, Metrics.Histogram.bucketOf(1024));
+        assertEquals(63, Metrics.Histogram.bucketOf(Long.MAX_VALUE));
+
+        for (int bucket = 1; bucket < 63; bucket++) {
+            long upper = Metrics.Histogram.upperBound(bucket);
+            assertEquals(bucket, Metrics.Histogram.bucketOf(upper));
+            assertEquals(bucket + 1, Metrics.Histogram.bucketOf(upper + 1));
+        }
+    }
+
+    @Test
+    public void histogram_percentilesAreBucketUpperBounds() {
+        Metrics.Histogram histogram = new Metrics.Histogram("test", Metrics.Unit.NANOS);
+        assertEquals(0, histogram.getPercentile(50));
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);   // clamps to 0
+
+        assertEquals(1001, histogram.getCount());
+        assertEquals(500500, histogram.getSum());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(511, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(99));   // capped at max, not 1023
+        assertEquals(0, histogram.getPercentile(0));
+
+        // Within a factor of two of the exact answer
+        long p90 = histogram.getPercentile(90);
+        assertTrue(p90 >= 900 && p90 < 1800);
+    }
+
+    @Test
+    public void recording_fromManyThreadsLosesNothing() throws Exception {
+        final Metrics.Histogram histogram = new Metrics.Histogram("test", Metrics.Unit.NANOS);
+        final Metrics.Counter counter = new Metrics.Counter("test");
+        final int threads = 8;
+        final int perThread = 100000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        histogram.record(i);
+                        counter.increment();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals((long) threads * perThread, counter.get());
+        assertEquals((long) threads * perThread, histogram.getCount());
+        assertEquals(threads * ((long) perThread * (perThread - 1) / 2), histogram.getSum());
+        assertEquals(perThread - 1, histogram.getMax());
+    }
+
+    @Test
+    public void dump_listsEveryMetricWithUnits() {
+        Metrics.reset();
+        Metrics.ITEMS_PARSED.add(3);
+        Metrics.PARSE_ITEM_TIME.record(1500);
+        Metrics.DOWNLOAD_SIZE.record(20 * 1024);
+
+        String dump = Metrics.dump();
+
+        assertTrue(dump, dump.contains("counter parse.items 3\n"));
+        assertTrue(dump, dump.contains("histogram parse.item count=1 mean=1.5us"));
+        assertTrue(dump, dump.contains("histogram net.download_size count=1 mean=20.0KiB"));
+        assertTrue(dump, dump.contains("histogram ui.bind count=0\n"));
+        for (Metrics.Counter counter : Metrics.counters()) {
+            assertTrue(counter.getName(), dump.contains("counter " + counter.getName() + " "));
+        }
+        for (Metrics.Histogram histogram : Metrics.histograms()) {
+            assertTrue(histogram.getName(), dump.contains("histogram " + histogram.getName() + " "));
+        }
+
+        Metrics.reset();
+        assertEquals(0, Metrics.ITEMS_PARSED.get());
+        assertEquals(0, Metrics.PARSE_ITEM_TIME.getCount());
+    }
+
+    @Test
+    public void format_picksAReadableUnit() {
+        assertEquals("850ns", Metrics.format(850, Metrics.Unit.NANOS));
+        assertEquals("12.3ms", Metrics.format(12.3e6, Metrics.Unit.NANOS));
+        assertEquals("2.10s", Metrics.format(2.1e9, Metrics.Unit.NANOS));
+        assertEquals("512B", Metrics.format(512, Metrics.Unit.BYTES));
+        assertEquals("1.5MiB", Metrics.format(1.5 * 1024 * 1024, Metrics.Unit.BYTES));
+    }
+
+    @Test
+    public void fetch_recordsNetworkAndParseMetrics() throws Exception {
+        final byte[] body = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+        try (LocalFeedServer server = new LocalFeedServer()) {
+            server.handle("/gbp/rss.xml", new HttpHandler() {
+                @Override
+                public void handle(HttpExchange exchange) throws IOException {
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            });
+
+            for (boolean streaming : new boolean[]{false, true}) {
+                Metrics.reset();
+                RssFeedFetcher fetcher = new RssFeedFetcher(server.url("/gbp/rss.xml"), null, streaming);
+                ArrayList<CurrencyRate> rates = fetcher.fetch();
+
+                assertNotNull(rates);
+                assertEquals(1, Metrics.FETCHES.get());
+                assertEquals(1, Metrics.DNS_TIME.getCount());
+                assertEquals(1, Metrics.CONNECT_TIME.getCount());
+                assertEquals(1, Metrics.DOWNLOAD_TIME.getCount());
+                assertEquals(body.length, Metrics.BYTES_DOWNLOADED.get());
+                assertEquals(body.length, Metrics.DOWNLOAD_SIZE.getMax());
+                assertEquals(rates.size(), Metrics.ITEMS_PARSED.get());
+                assertEquals(rates.size(), Metrics.PARSE_ITEM_TIME.getCount());
+                assertEquals(0, Metrics.NETWORK_ERRORS.get());
+            }
+
+            Metrics.reset();
+            assertNull(new RssFeedFetcher(server.url("/missing.xml"), null, true).fetch());
+            assertEquals(1, Metrics.NETWORK_ERRORS.get());
+        }
+    }
+
+    @Test
+    public void parse_countsRatesThatFailToParse() throws Exception {
+        for (RateFeedParser parser : new RateFeedParser[]{new PullRateFeedParser(), new ScanningRateFeedParser()}) {
+            Metrics.reset();
+            try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED_WITH_GARBAGE)) {
+                parser.parse(in, null);
+            }
+            long failures = Metrics.RATE_PARSE_FAILURES.get();
+
+            Metrics.reset();
+            String feed = "<rss><channel>"
+                    + "<item><title>British Pound Sterling(GBP)/US Dollar(USD)</title>"
+                    + "<description>1 British Pound Sterling = not-a-number US Dollar</description></item>"
+                    + "</channel></rss>";
+            parser.parse(new java.io.ByteArrayInputStream(feed.getBytes("UTF-8")), null);
+
+            assertEquals(parser.getClass().getSimpleName(), 1, Metrics.RATE_PARSE_FAILURES.get());
+            assertEquals(1, Metrics.ITEMS_PARSED.get());
+            assertEquals(parser.getClass().getSimpleName(), 0, failures);
+        }
+    }
+
+    @Test
+    public void benchmark_recordingCost() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final Metrics.Histogram histogram = new Metrics.Histogram("bench", Metrics.Unit.NANOS);
+        final int n = 1000000;
+        MicroBenchmark.Task record = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (int i = 0; i < n; i++) {
+                    histogram.recordSince(System.nanoTime() - i);
+                }
+            }
+        };
+        long ns = MicroBenchmark.medianNanos(3, 9, record);
+        long bytes = MicroBenchmark.allocatedBytes(record);
+
+        // Parse with metrics on, for scale against the per-item cost
+        final byte[] feed = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+        final RateFeedParser parser = new ScanningRateFeedParser();
+        final int[] items = new int[1];
+        long parseNs = MicroBenchmark.medianNanos(20, 51, new MicroBenchmark.Task() {
+            @Override
+            public void run() throws Exception {
+                items[0] = parser.parse(new java.io.ByteArrayInputStream(feed), null).size();
+            }
+        });
+
+        MicroBenchmark.report("Histogram.recordSince", "%.1f ns/record, %.3f bytes/record",
+                (double) ns / n, (double) bytes / n);
+        MicroBenchmark.report("scanner with metrics", "%.0f ns/item",
+                (double) parseNs / items[0]);
+
+        assertTrue(bytes < n / 10);   // recording does not allocate
+    }
+}
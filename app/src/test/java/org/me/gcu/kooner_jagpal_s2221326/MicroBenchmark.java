@@ -0,0 +1,72 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Minimal timing / allocation harness for the benchmark tests that run as
+ * plain JVM unit tests. They are skipped, and nothing is printed, unless
+ * the run sets {@code -Dbenchmarks=true}; results then go to stdout so
+ * they show up in the Gradle test report.
+ */
+final class MicroBenchmark {
+
+    static final boolean ENABLED = Boolean.getBoolean("benchmarks");
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * Runs the task {@code warmup} times untimed, then {@code runs} times,
+     * and returns the median duration in nanoseconds.
+     */
+    static long medianNanos(int warmup, int runs, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[runs / 2];
+    }
+
+    /**
+     * Bytes allocated by the current thread while running the task once,
+     * or -1 when the JVM cannot report it.
+     */
+    static long allocatedBytes(Task task) throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            task.run();
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        task.run();
+        return threads.getThreadAllocatedBytes(id) - before;
+    }
+
+    /** Skips the calling benchmark test unless benchmarks are switched on. */
+    static void assumeEnabled() {
+        Assume.assumeTrue("benchmarks are off; run with -Dbenchmarks=true", ENABLED);
+    }
+
+    static void report(String name, String format, Object... args) {
+        if (!ENABLED) {
+            return;
+        }
+        System.out.println("[bench] " + name + ": " + String.format(Locale.UK, format, args));
+    }
+}
@@ -0,0 +1,278 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fixed-point Money: rounding against BigDecimal, minor-unit scales,
+ * overflow fallback, and cost against double and BigDecimal.
+ */
+public class MoneyTest {
+
+    @Test
+    public void minorUnits_comeFromJavaUtilCurrency() {
+        assertEquals(2, Money.minorUnits("GBP"));
+        assertEquals(0, Money.minorUnits("JPY"));
+        assertEquals(3, Money.minorUnits("KWD"));
+        assertEquals(0, Money.minorUnits("JPY"));   // cached
+
+        // Not a currency java.util.Currency knows, or one without minor units
+        assertEquals(2, Money.minorUnits(CurrencyCodes.intern("ZZQ")));
+        assertEquals(2, Money.minorUnits("XAU"));
+        assertEquals(2, Money.minorUnits(-1));
+    }
+
+    @Test
+    public void divide_matchesBigDecimalForEveryRoundingMode() {
+        Random random = new Random(3);
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (int i = 0; i < 20000; i++) {
+                long denominator = 1 + random.nextInt(1000);
+                // Small numerators hit exact halves often
+                long numerator = (i % 2 == 0) ? random.nextInt(4001) - 2000 : random.nextLong() / 4;
+
+                long expected = BigDecimal.valueOf(numerator)
+                        .divide(BigDecimal.valueOf(denominator), 0, mode).longValueExact();
+                assertEquals(numerator + "/" + denominator + " " + mode,
+                        expected, Money.divide(numerator, denominator, mode));
+            }
+        }
+
+        assertEquals(3, Money.divide(6, 2, RoundingMode.UNNECESSARY));
+        try {
+            Money.divide(7, 2, RoundingMode.UNNECESSARY);
+            fail("inexact division allowed");
+        } catch (ArithmeticException expected) {
+            // as BigDecimal
+        }
+    }
+
+    @Test
+    public void multiplyDivide_keeps128BitProducts() {
+        Random random = new Random(9);
+        for (RoundingMode mode : new RoundingMode[]{RoundingMode.HALF_EVEN, RoundingMode.FLOOR, RoundingMode.UP}) {
+            for (int i = 0; i < 20000; i++) {
+                long a = random.nextLong() >> random.nextInt(40);
+                long b = random.nextLong() >> random.nextInt(40);
+                long denominator = Math.max(1, Math.abs(random.nextLong() >> random.nextInt(40)));
+
+                BigDecimal exact = BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+                        .divide(BigDecimal.valueOf(denominator), 0, mode);
+                boolean fits = exact.toBigInteger().bitLength() < 64;
+                try {
+                    long result = Money.multiplyDivide(a, b, denominator, mode);
+                    assertTrue(a + "*" + b + "/" + denominator + " should overflow", fits);
+                    assertEquals(a + "*" + b + "/" + denominator, exact.longValueExact(), result);
+                } catch (ArithmeticException overflow) {
+                    assertFalse(a + "*" + b + "/" + denominator + " fits", fits);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parseMinor_roundsToTheCurrencyScale() {
+        assertEquals(123457, Money.parseMinor("1234.567", 2, RoundingMode.HALF_EVEN));
+        assertEquals(2, Money.parseMinor("2.5", 0, RoundingMode.HALF_EVEN));
+        assertEquals(3, Money.parseMinor("2.5", 0, RoundingMode.HALF_UP));
+        assertEquals(-3, Money.parseMinor("-2.5", 0, RoundingMode.HALF_UP));
+        assertEquals(1500, Money.parseMinor(" 1.5 ", 3, RoundingMode.UNNECESSARY));
+        assertEquals(100, Money.parseMinor("100", 0, RoundingMode.HALF_EVEN));
+        assertEquals(50, Money.parseMinor(".5", 2, RoundingMode.HALF_EVEN));
+
+        // Too many digits for the fast path: BigDecimal decides
+        assertEquals(12345678901234568L,
+                Money.parseMinor("12345678901234567.5000000000", 0, RoundingMode.HALF_EVEN));
+
+        for (String bad : new String[]{"", "-", "1.2.3", "1e5", "12a", "99999999999999999999"}) {
+            try {
+                Money.parseMinor(bad, 2, RoundingMode.HALF_EVEN);
+                fail("parsed " + bad);
+            } catch (NumberFormatException expected) {
+                // not an amount, or out of range
+            }
+        }
+        try {
+            Money.parseMinor("1.234", 2, RoundingMode.UNNECESSARY);
+            fail("rounded with UNNECESSARY");
+        } catch (ArithmeticException expected) {
+            // needs rounding
+        }
+    }
+
+    @Test
+    public void format_usesScaleAndGrouping() {
+        assertEquals("2,000.50", Money.format(200050, 2));
+        assertEquals("2,000", Money.format(2000, 0));
+        assertEquals("-0.05", Money.format(-5, 2));
+        assertEquals("0.123", Money.format(123, 3));
+        assertEquals("-92,233,720,368,547,758.08", Money.format(Long.MIN_VALUE, 2));
+        assertEquals("1,234.57 GBP", Money.parse("1234.567", "GBP", RoundingMode.HALF_UP).toString());
+    }
+
+    @Test
+    public void convertMinor_isExact_forEveryPairInTheFeed() throws Exception {
+        RateTable table = fixtureTable();
+        CrossRateEngine engine = CrossRateEngine.fromTable(table, "GBP");
+        int[] ids = engine.supportedIds();
+        Random random = new Random(11);
+
+        for (int from : ids) {
+            for (int to : ids) {
+                long minor = random.nextInt(1000000000);
+                assertEquals(CurrencyCodes.code(from) + "->" + CurrencyCodes.code(to),
+                        reference(table, minor, from, to, RoundingMode.HALF_EVEN),
+                        engine.convertMinor(minor, from, to, RoundingMode.HALF_EVEN));
+            }
+        }
+    }
+
+    @Test
+    public void convertMinor_handlesProductsBeyondALong() throws Exception {
+        RateTable table = fixtureTable();
+        CrossRateEngine engine = CrossRateEngine.fromTable(table, "GBP");
+        int gbp = CurrencyCodes.find("GBP");
+        int vnd = CurrencyCodes.find("VND");
+        int kwd = CurrencyCodes.find("KWD");
+
+        long huge = Long.MAX_VALUE / 1000000;   // minor * quote overflows a long
+        assertEquals(reference(table, huge, kwd, gbp, RoundingMode.HALF_EVEN),
+                engine.convertMinor(huge, kwd, gbp, RoundingMode.HALF_EVEN));
+        try {
+            engine.convertMinor(Long.MAX_VALUE / 10, gbp, vnd, RoundingMode.HALF_EVEN);
+            fail("result beyond a long was accepted");
+        } catch (ArithmeticException expected) {
+            // the result itself does not fit
+        }
+    }
+
+    @Test
+    public void roundTrip_hasNoDoubleDrift() throws Exception {
+        CrossRateEngine engine = CrossRateEngine.fromTable(fixtureTable(), "GBP");
+        int gbp = CurrencyCodes.find("GBP");
+
+        // A million 10p payments
+        long pence = 0;
+        double pounds = 0;
+        for (int i = 0; i < 1000000; i++) {
+            pence += Money.parseMinor("0.10", 2, RoundingMode.UNNECESSARY);
+            pounds += 0.10;
+        }
+        assertEquals("100,000.00", Money.format(pence, 2));
+        assertTrue("double sum drifted to " + pounds, pounds != 100000.0);
+
+        // Same currency converts to itself with no change at all
+        assertEquals(123456789012L, engine.convertMinor(123456789012L, gbp, gbp, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    public void benchmark_fixedPointAgainstDoubleAndBigDecimal() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final RateTable table = fixtureTable();
+        final CrossRateEngine engine = CrossRateEngine.fromTable(table, "GBP");
+        final int[] ids = engine.supportedIds();
+        final int n = 100000;
+        final long[] minors = new long[n];
+        final int[] from = new int[n];
+        final int[] to = new int[n];
+        Random random = new Random(5);
+        for (int i = 0; i < n; i++) {
+            minors[i] = (long) (random.nextDouble() * 1e11);
+            from[i] = ids[random.nextInt(ids.length)];
+            to[i] = ids[random.nextInt(ids.length)];
+        }
+
+        final long[] exact = new long[n];
+        final long[] viaDouble = new long[n];
+        final BigDecimal[] quotes = new BigDecimal[CurrencyCodes.size()];
+        for (int id : ids) {
+            quotes[id] = quote(table, id);
+        }
+
+        MicroBenchmark.Task fixed = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (int i = 0; i < n; i++) {
+                    exact[i] = engine.convertMinor(minors[i], from[i], to[i], RoundingMode.HALF_EVEN);
+                }
+            }
+        };
+        MicroBenchmark.Task doubles = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (int i = 0; i < n; i++) {
+                    double amount = Money.toDouble(minors[i], Money.minorUnits(from[i]));
+                    double result = engine.convert(amount, from[i], to[i]);
+                    viaDouble[i] = Math.round(result * Math.pow(10, Money.minorUnits(to[i])));
+                }
+            }
+        };
+        MicroBenchmark.Task bigDecimals = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (int i = 0; i < n; i++) {
+                    BigDecimal amount = BigDecimal.valueOf(minors[i], Money.minorUnits(from[i]));
+                    amount.multiply(quotes[to[i]])
+                            .divide(quotes[from[i]], MathContext.DECIMAL128)
+                            .setScale(Money.minorUnits(to[i]), RoundingMode.HALF_EVEN);
+                }
+            }
+        };
+
+        long fixedNs = MicroBenchmark.medianNanos(5, 15, fixed);
+        long doubleNs = MicroBenchmark.medianNanos(5, 15, doubles);
+        long bigNs = MicroBenchmark.medianNanos(3, 7, bigDecimals);
+        long fixedBytes = MicroBenchmark.allocatedBytes(fixed);
+        long bigBytes = MicroBenchmark.allocatedBytes(bigDecimals);
+
+        int doubleMismatches = 0;
+        for (int i = 0; i < n; i++) {
+            if (viaDouble[i] != exact[i]) {
+                doubleMismatches++;
+            }
+        }
+        for (int i = 0; i < n; i += 101) {
+            assertEquals(reference(table, minors[i], from[i], to[i], RoundingMode.HALF_EVEN), exact[i]);
+        }
+
+        MicroBenchmark.report("Money (scaled long)", "%.1f ns/conversion, %.2f bytes/conversion, exact",
+                (double) fixedNs / n, (double) fixedBytes / n);
+        MicroBenchmark.report("double", "%.1f ns/conversion, %d of %d results off by a minor unit",
+                (double) doubleNs / n, doubleMismatches, n);
+        MicroBenchmark.report("BigDecimal", "%.1f ns/conversion, %.0f bytes/conversion",
+                (double) bigNs / n, (double) bigBytes / n);
+
+        assertTrue(fixedBytes < n);      // no allocation per conversion
+    }
+
+    // -------- helpers --------
+
+    // Exact answer, worked out in BigDecimal from the feed's decimal quotes
+    private static long reference(RateTable table, long minor, int from, int to, RoundingMode mode) {
+        return BigDecimal.valueOf(minor, Money.minorUnits(from))
+                .multiply(quote(table, to))
+                .divide(quote(table, from), Money.minorUnits(to), mode)
+                .unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal quote(RateTable table, int codeId) {
+        int row = table.rowOfCodeId(codeId);
+        return row == -1 ? BigDecimal.ONE : BigDecimal.valueOf(table.rate(row));
+    }
+
+    private static RateTable fixtureTable() throws Exception {
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            return RateTable.fromRates(new RssFeedFetcher(null, null, true).parseFeed(in));
+        }
+    }
+}
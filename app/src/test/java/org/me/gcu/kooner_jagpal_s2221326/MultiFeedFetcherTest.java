@@ -0,0 +1,176 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the coordinator against a local server that serves the sample feeds
+ * with artificial latency.
+ */
+public class MultiFeedFetcherTest {
+
+    private LocalFeedServer server;
+    private ExecutorService executor;
+    private String gbpFeed;
+
+    // Requests wait here until this many have arrived, and count whether they all did
+    private volatile CountDownLatch arrivals = new CountDownLatch(0);
+    private final AtomicInteger sawAllArrive = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalFeedServer();
+        executor = Executors.newFixedThreadPool(4);
+        gbpFeed = new String(FeedFixtures.bytes(FeedFixtures.GBP_FEED), StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void feedsRunInParallel_allRequestsAreInFlightAtOnce() {
+        arrivals = new CountDownLatch(3);
+        serve("gbp", "British Pound Sterling(GBP)", 300);
+        serve("usd", "US Dollar(USD)", 400);
+        serve("eur", "Euro(EUR)", 500);
+
+        final AtomicInteger callbacks = new AtomicInteger();
+        final MultiFeedFetcher.Snapshot[] result = new MultiFeedFetcher.Snapshot[1];
+        MultiFeedFetcher fetcher = new MultiFeedFetcher(urls("gbp", "usd", "eur"), executor, 5000,
+                new MultiFeedFetcher.OnFeedsFetchedListener() {
+                    @Override
+                    public void onFeedsFetched(MultiFeedFetcher.Snapshot snapshot) {
+                        callbacks.incrementAndGet();
+                        result[0] = snapshot;
+                    }
+                });
+
+        long start = System.nanoTime();
+        fetcher.run();
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        MicroBenchmark.report("3 feeds (300/400/500 ms latency)", "%d ms total, sequential would be >= 1200 ms",
+                elapsedMs);
+
+        assertEquals(1, callbacks.get());
+        assertTrue(result[0].isComplete());
+        assertEquals(158, result[0].getRates("GBP").size());
+        assertEquals("USD", result[0].getRates("USD").get(0).getBaseCode());
+        assertEquals("EUR", result[0].getRates("EUR").get(0).getBaseCode());
+        assertEquals("GBP", result[0].getRates("GBP").get(0).getBaseCode());
+        // Each request saw the other two arrive before it answered: all three overlapped
+        assertEquals(3, sawAllArrive.get());
+    }
+
+    @Test
+    public void slowFeed_timesOutWithoutHoldingBackTheOthers() {
+        serve("gbp", "British Pound Sterling(GBP)", 50);
+        serve("usd", "US Dollar(USD)", 3000);
+
+        final MultiFeedFetcher.Snapshot[] result = new MultiFeedFetcher.Snapshot[1];
+        MultiFeedFetcher fetcher = new MultiFeedFetcher(urls("gbp", "usd"), executor, 600,
+                new MultiFeedFetcher.OnFeedsFetchedListener() {
+                    @Override
+                    public void onFeedsFetched(MultiFeedFetcher.Snapshot snapshot) {
+                        result[0] = snapshot;
+                    }
+                });
+
+        long start = System.nanoTime();
+        fetcher.run();
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+        assertNotNull(result[0].getRates("GBP"));
+        assertNull(result[0].getRates("USD"));
+        assertTrue(result[0].getErrorsByBase().containsKey("USD"));
+        assertFalse(result[0].isComplete());
+        assertTrue("took " + elapsedMs + " ms", elapsedMs < 2000);
+    }
+
+    @Test
+    public void failingFeed_isReportedAsError() {
+        serve("gbp", "British Pound Sterling(GBP)", 0);
+        server.handle("/bad/rss.xml", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+            }
+        });
+
+        final MultiFeedFetcher.Snapshot[] result = new MultiFeedFetcher.Snapshot[1];
+        new MultiFeedFetcher(urls("gbp", "bad"), executor, 5000,
+                new MultiFeedFetcher.OnFeedsFetchedListener() {
+                    @Override
+                    public void onFeedsFetched(MultiFeedFetcher.Snapshot snapshot) {
+                        result[0] = snapshot;
+                    }
+                }).run();
+
+        assertEquals(158, result[0].getRates("GBP").size());
+        assertEquals("Network error while downloading rates.", result[0].getErrorsByBase().get("BAD"));
+    }
+
+    @Test
+    public void urlsFor_buildsFxExchangeUrls() {
+        LinkedHashMap<String, String> urls = MultiFeedFetcher.urlsFor(java.util.Arrays.asList("gbp", "USD"));
+        assertEquals("https://www.fx-exchange.com/gbp/rss.xml", urls.get("GBP"));
+        assertEquals("https://www.fx-exchange.com/usd/rss.xml", urls.get("USD"));
+    }
+
+    // -------- helpers --------
+
+    // Serves the sample GBP feed re-labelled for another base, once the expected requests
+    // have arrived (or given up on) and after a delay
+    private void serve(String path, String baseTitle, final long delayMs) {
+        final byte[] body = gbpFeed.replace("British Pound Sterling(GBP)", baseTitle)
+                .getBytes(StandardCharsets.UTF_8);
+        server.handle("/" + path + "/rss.xml", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                CountDownLatch expected = arrivals;
+                expected.countDown();
+                try {
+                    if (expected.await(3, TimeUnit.SECONDS)) {
+                        sawAllArrive.incrementAndGet();
+                    }
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                } catch (IOException ignored) {
+                    // client gave up
+                }
+            }
+        });
+    }
+
+    private LinkedHashMap<String, String> urls(String... paths) {
+        LinkedHashMap<String, String> urls = new LinkedHashMap<>();
+        for (String path : paths) {
+            urls.put(path.toUpperCase(), server.url("/" + path + "/rss.xml"));
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,171 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class PubDateParserTest {
+
+    private static final String FORMAT = "EEE MMM d yyyy H:mm:ss zzz";
+
+    @Test
+    public void feedDate_parsesAsUtc() {
+        // 2025-08-27T02:00:45Z
+        assertEquals(1756260045000L, PubDateParser.parseMillis("Wed Aug 27 2025 2:00:45 UTC"));
+        assertEquals(1756389909000L, PubDateParser.parseMillis("Thu Aug 28 2025 14:05:09 UTC"));
+        assertEquals(1756389909000L, PubDateParser.parseMillis("  Thu Aug 28 2025 14:05:09 UTC\n"));
+    }
+
+    @Test
+    public void otherText_isInvalid() {
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis(null));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis(""));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("yesterday"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Aug 27 2025 2:00:45 UTC trailing"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Aug 32 2025 2:00:45 UTC"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Feb 29 2025 2:00:45 UTC"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Aug 27 2025 24:00:45 UTC"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Aug 27 2025 2:0:45 UTC"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Aug 27 25 2:00:45 UTC"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Aug 27 2025 2:00:45"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("Wed Aug 27 2025 2:00:45 CEST"));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis("WedAug 27 2025 2:00:45 UTC"));
+    }
+
+    @Test
+    public void whitespaceCaseAndZones_areAccepted() {
+        long expected = 1756260045000L;
+        assertEquals(expected, PubDateParser.parseMillis("Wed Aug 27 2025\n2:00:45\tUTC"));
+        assertEquals(expected, PubDateParser.parseMillis("WED aug 27  2025 2:00:45 utc"));
+        assertEquals(expected, PubDateParser.parseMillis("Wed Aug 27 2025 2:00:45 GMT"));
+        assertEquals(expected, PubDateParser.parseMillis("Wed Aug 27 2025 2:00:45 Z"));
+        assertEquals(expected, PubDateParser.parseMillis("Wed Aug 27 2025 3:00:45 +0100"));
+        assertEquals(expected, PubDateParser.parseMillis("Wed Aug 27 2025 3:00:45 GMT+01:00"));
+        assertEquals(expected, PubDateParser.parseMillis("Tue Aug 26 2025 21:30:45 -04:30"));
+        assertEquals(951782400000L, PubDateParser.parseMillis("Tue Feb 29 2000 0:00:00 UTC"));
+    }
+
+    @Test
+    public void parseFromBuffer_readsOnlyTheRange() {
+        String buffer = "<pubDate>Wed Aug 27 2025 2:00:45 UTC</pubDate>";
+        int start = buffer.indexOf('>') + 1;
+        int end = buffer.indexOf("</");
+        assertEquals(1756260045000L, PubDateParser.parseMillis(buffer, start, end));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis(buffer, start, end - 1));
+    }
+
+    @Test
+    public void randomDates_matchSimpleDateFormat() {
+        SimpleDateFormat format = simpleDateFormat();
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            // 1900 to 2100
+            long millis = (random.nextLong() % 3155760000L) * 1000L;
+            String text = format.format(new Date(millis));
+            assertEquals(text, millis, PubDateParser.parseMillis(text));
+        }
+    }
+
+    @Test
+    public void cache_isPerDistinctString() {
+        String a = new String("Thu Aug 28 2025 14:05:09 UTC");
+        String b = new String("Thu Aug 28 2025 14:05:09 UTC");
+        assertEquals(PubDateParser.parseMillis(a), PubDateParser.parseMillis(b));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis(new String("not a date")));
+        assertEquals(PubDateParser.INVALID, PubDateParser.parseMillis(new String("not a date")));
+    }
+
+    @Test
+    public void benchmark_againstSimpleDateFormatAndDateTimeFormatter() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        // Distinct dates, as when parsing each item without a cache
+        // (arrays rather than lists, so iterating allocates nothing)
+        final String[] dates = new String[1000];
+        SimpleDateFormat writer = simpleDateFormat();
+        Random random = new Random(5);
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = writer.format(new Date(1700000000000L + (long) (random.nextDouble() * 1e11)));
+        }
+        // A feed: 170 items sharing three pubDates, each a fresh String from the parser
+        final String[] feed = new String[170];
+        for (int i = 0; i < feed.length; i++) {
+            feed[i] = new String(dates[i % 3]);
+        }
+
+        final SimpleDateFormat simple = simpleDateFormat();
+        final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(FORMAT, Locale.ENGLISH);
+        final long[] sink = new long[1];
+
+        MicroBenchmark.Task handWritten = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (String text : dates) {
+                    sink[0] += PubDateParser.parseMillis(text, 0, text.length());
+                }
+            }
+        };
+        MicroBenchmark.Task cachedFeed = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (String text : feed) {
+                    sink[0] += PubDateParser.parseMillis(text);
+                }
+            }
+        };
+        MicroBenchmark.Task simpleDateFormat = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (String text : dates) {
+                    sink[0] += simple.parse(text, new ParsePosition(0)).getTime();
+                }
+            }
+        };
+        MicroBenchmark.Task dateTimeFormatter = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (String text : dates) {
+                    sink[0] += ZonedDateTime.parse(text, formatter).toInstant().toEpochMilli();
+                }
+            }
+        };
+
+        // All three agree
+        for (String text : dates) {
+            long expected = simple.parse(text, new ParsePosition(0)).getTime();
+            assertEquals(expected, PubDateParser.parseMillis(text, 0, text.length()));
+            assertEquals(expected, ZonedDateTime.parse(text, formatter).toInstant().toEpochMilli());
+        }
+
+        report("hand-written", handWritten, dates.length);
+        report("hand-written, cached, 170-item feed", cachedFeed, feed.length);
+        report("SimpleDateFormat", simpleDateFormat, dates.length);
+        report("DateTimeFormatter", dateTimeFormatter, dates.length);
+
+        assertEquals(0, MicroBenchmark.allocatedBytes(handWritten));
+        assertEquals(0, MicroBenchmark.allocatedBytes(cachedFeed));
+    }
+
+    // -------- helpers --------
+
+    private static void report(String name, MicroBenchmark.Task task, int count) throws Exception {
+        long nanos = MicroBenchmark.medianNanos(20, 31, task);
+        long bytes = MicroBenchmark.allocatedBytes(task);
+        MicroBenchmark.report("pubDate " + name, "%.1f ns/parse, %d bytes/parse",
+                (double) nanos / count, bytes / count);
+    }
+
+    private static SimpleDateFormat simpleDateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat(FORMAT, Locale.ENGLISH);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+}
@@ -0,0 +1,257 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Crossing semantics of RateAlerts, persistence through RateAlertStore,
+ * and the cost of checking 100k alerts against a refresh.
+ */
+public class RateAlertsTest {
+
+    @Test
+    public void above_firesOnceWhenTheRateCrossesUp() {
+        RateAlerts alerts = new RateAlerts();
+        RateAlerts.Alert alert = alerts.add("GBP", "USD", RateAlerts.Kind.ABOVE, 1.30);
+
+        assertTrue(alerts.evaluate(engine(1.25), engine(1.29)).isEmpty());
+        List<RateAlerts.Trigger> fired = alerts.evaluate(engine(1.29), engine(1.31));
+        assertEquals(1, fired.size());
+        assertSame(alert, fired.get(0).getAlert());
+        assertEquals(1.29, fired.get(0).getOldRate(), 1e-12);
+        assertEquals(1.31, fired.get(0).getNewRate(), 1e-12);
+
+        // Staying above, or falling back, does not fire again
+        assertTrue(alerts.evaluate(engine(1.31), engine(1.35)).isEmpty());
+        assertTrue(alerts.evaluate(engine(1.35), engine(1.20)).isEmpty());
+        // Reaching exactly the threshold is not above it
+        assertTrue(alerts.evaluate(engine(1.20), engine(1.30)).isEmpty());
+        assertEquals(1, alerts.evaluate(engine(1.30), engine(1.3001)).size());
+    }
+
+    @Test
+    public void below_firesOnlyForThresholdsCrossedDown() {
+        RateAlerts alerts = new RateAlerts();
+        alerts.add("GBP", "USD", RateAlerts.Kind.BELOW, 1.10);
+        alerts.add("GBP", "USD", RateAlerts.Kind.BELOW, 1.20);
+        alerts.add("GBP", "USD", RateAlerts.Kind.BELOW, 1.25);
+        alerts.add("GBP", "USD", RateAlerts.Kind.ABOVE, 1.15);
+
+        List<RateAlerts.Trigger> fired = alerts.evaluate(engine(1.25), engine(1.12));
+        HashSet<Double> values = new HashSet<>();
+        for (RateAlerts.Trigger trigger : fired) {
+            assertEquals(RateAlerts.Kind.BELOW, trigger.getAlert().getKind());
+            values.add(trigger.getAlert().getValue());
+        }
+        // Leaving 1.25 for lower counts as falling below it; 1.10 is still under the new rate
+        assertEquals(2, values.size());
+        assertTrue(values.contains(1.20));
+        assertTrue(values.contains(1.25));
+    }
+
+    @Test
+    public void movePercent_firesForEveryThresholdUpToTheMove() {
+        RateAlerts alerts = new RateAlerts();
+        alerts.add("GBP", "EUR", RateAlerts.Kind.MOVE_PERCENT, 0.5);
+        alerts.add("GBP", "EUR", RateAlerts.Kind.MOVE_PERCENT, 1.0);
+        alerts.add("GBP", "EUR", RateAlerts.Kind.MOVE_PERCENT, 5.0);
+
+        CrossRateEngine before = engine("EUR", 1.20);
+        assertEquals(0, alerts.evaluate(before, engine("EUR", 1.204)).size());
+        assertEquals(2, alerts.evaluate(before, engine("EUR", 1.20 * 1.012)).size());
+        assertEquals(2, alerts.evaluate(before, engine("EUR", 1.20 * 0.988)).size());
+    }
+
+    @Test
+    public void crossPairs_useTheCrossRate() {
+        RateAlerts alerts = new RateAlerts();
+        alerts.add("EUR", "USD", RateAlerts.Kind.ABOVE, 1.10);
+
+        // EUR→USD goes from 1.05 to 1.12 while both legs move against GBP
+        CrossRateEngine before = engine(new String[]{"EUR", "USD"}, new double[]{1.20, 1.26});
+        CrossRateEngine after = engine(new String[]{"EUR", "USD"}, new double[]{1.15, 1.288});
+        assertEquals(1, alerts.evaluate(before, after).size());
+        // A currency missing from either side is skipped
+        alerts.add("GBP", "JPY", RateAlerts.Kind.MOVE_PERCENT, 0.1);
+        assertEquals(1, alerts.evaluate(before, after).size());
+    }
+
+    @Test
+    public void remove_stopsAnAlertFiring() {
+        RateAlerts alerts = new RateAlerts();
+        RateAlerts.Alert first = alerts.add("GBP", "USD", RateAlerts.Kind.ABOVE, 1.30);
+        alerts.add("GBP", "USD", RateAlerts.Kind.ABOVE, 1.31);
+
+        assertTrue(alerts.remove(first.getId()));
+        assertFalse(alerts.remove(first.getId()));
+        List<RateAlerts.Trigger> fired = alerts.evaluate(engine(1.2), engine(1.4));
+        assertEquals(1, fired.size());
+        assertEquals(1.31, fired.get(0).getAlert().getValue(), 0);
+        assertEquals(1, alerts.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_rejectsNonPositiveValues() {
+        new RateAlerts().add("GBP", "USD", RateAlerts.Kind.MOVE_PERCENT, 0);
+    }
+
+    @Test
+    public void store_roundTripsAlertsAndIds() throws Exception {
+        RateAlerts alerts = new RateAlerts();
+        alerts.add("GBP", "USD", RateAlerts.Kind.ABOVE, 1.30);
+        alerts.add("EUR", "JPY", RateAlerts.Kind.BELOW, 160.5);
+        alerts.add("GBP", "XQZ", RateAlerts.Kind.MOVE_PERCENT, 0.5);
+        alerts.remove(1);
+
+        File file = File.createTempFile("alerts", ".bin");
+        try {
+            RateAlertStore store = new RateAlertStore(file);
+            store.save(alerts.list());
+            List<RateAlerts.Alert> loaded = store.load();
+
+            assertEquals(2, loaded.size());
+            RateAlerts restored = new RateAlerts();
+            restored.addAll(loaded);
+            List<RateAlerts.Alert> original = alerts.list();
+            for (int i = 0; i < original.size(); i++) {
+                RateAlerts.Alert a = original.get(i);
+                RateAlerts.Alert b = restored.list().get(i);
+                assertEquals(a.getId(), b.getId());
+                assertEquals(a.getFromId(), b.getFromId());
+                assertEquals(a.getToId(), b.getToId());
+                assertEquals(a.getKind(), b.getKind());
+                assertEquals(a.getValue(), b.getValue(), 0);
+            }
+            // New ids carry on after the restored ones
+            assertEquals(4, restored.add("GBP", "USD", RateAlerts.Kind.ABOVE, 2).getId());
+
+            assertTrue(new RateAlertStore(new File(file.getPath() + ".missing")).load().isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void benchmark_100kAlertsOver170Currencies() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final int currencies = 170;
+        final int alertCount = 100000;
+        Random random = new Random(42);
+
+        String[] codes = new String[currencies];
+        double[] before = new double[currencies];
+        double[] after = new double[currencies];
+        for (int i = 0, id = 0; i < currencies; id++) {
+            String code = CurrencyCodes.code(id);
+            if (!code.equals("GBP")) {
+                codes[i] = code;
+                before[i] = Math.exp(random.nextDouble() * 9 - 2);
+                after[i] = before[i] * (1 + random.nextGaussian() * 0.005);
+                i++;
+            }
+        }
+        final CrossRateEngine oldRates = engine(codes, before);
+        final CrossRateEngine newRates = engine(codes, after);
+
+        // Thresholds within 2% of today's rate, moves from 0.05% to 2%
+        final RateAlerts alerts = new RateAlerts();
+        final ArrayList<RateAlerts.Alert> all = new ArrayList<>(alertCount);
+        RateAlerts.Kind[] kinds = RateAlerts.Kind.values();
+        for (int i = 0; i < alertCount; i++) {
+            int c = random.nextInt(currencies);
+            RateAlerts.Kind kind = kinds[random.nextInt(kinds.length)];
+            double value = kind == RateAlerts.Kind.MOVE_PERCENT
+                    ? 0.05 + random.nextDouble() * 1.95
+                    : before[c] * (1 + (random.nextDouble() - 0.5) * 0.04);
+            all.add(alerts.add("GBP", codes[c], kind, value));
+        }
+
+        List<RateAlerts.Trigger> indexed = alerts.evaluate(oldRates, newRates);
+        List<RateAlerts.Alert> scanned = linearScan(all, oldRates, newRates);
+        HashSet<Integer> indexedIds = new HashSet<>();
+        for (RateAlerts.Trigger trigger : indexed) {
+            indexedIds.add(trigger.getAlert().getId());
+        }
+        HashSet<Integer> scannedIds = new HashSet<>();
+        for (RateAlerts.Alert alert : scanned) {
+            scannedIds.add(alert.getId());
+        }
+        assertEquals(scannedIds, indexedIds);
+        assertTrue(indexed.size() > 0 && indexed.size() < alertCount / 2);
+
+        long indexedNs = MicroBenchmark.medianNanos(20, 51, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                alerts.evaluate(oldRates, newRates);
+            }
+        });
+        long scanNs = MicroBenchmark.medianNanos(20, 51, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                linearScan(all, oldRates, newRates);
+            }
+        });
+        MicroBenchmark.report("100k alerts / 170 currencies, sorted thresholds",
+                "%.3f ms per refresh (%,d fired)", indexedNs / 1e6, indexed.size());
+        MicroBenchmark.report("100k alerts / 170 currencies, linear scan",
+                "%.3f ms per refresh", scanNs / 1e6);
+    }
+
+    // -------- helpers --------
+
+    // The same rules as RateAlerts, checked alert by alert
+    private static List<RateAlerts.Alert> linearScan(List<RateAlerts.Alert> alerts,
+                                                     CrossRateEngine before, CrossRateEngine after) {
+        ArrayList<RateAlerts.Alert> fired = new ArrayList<>();
+        for (RateAlerts.Alert alert : alerts) {
+            double oldRate = before.rate(alert.getFromId(), alert.getToId());
+            double newRate = after.rate(alert.getFromId(), alert.getToId());
+            if (Double.isNaN(oldRate) || Double.isNaN(newRate) || oldRate == newRate) {
+                continue;
+            }
+            double t = alert.getValue();
+            boolean hit;
+            switch (alert.getKind()) {
+                case ABOVE:
+                    hit = oldRate <= t && t < newRate;
+                    break;
+                case BELOW:
+                    hit = newRate < t && t <= oldRate;
+                    break;
+                default:
+                    hit = t <= Math.abs(newRate / oldRate - 1) * 100;
+                    break;
+            }
+            if (hit) {
+                fired.add(alert);
+            }
+        }
+        return fired;
+    }
+
+    private static CrossRateEngine engine(double gbpUsd) {
+        return engine("USD", gbpUsd);
+    }
+
+    private static CrossRateEngine engine(String code, double rate) {
+        return engine(new String[]{code}, new double[]{rate});
+    }
+
+    private static CrossRateEngine engine(String[] codes, double[] rates) {
+        ArrayList<CurrencyRate> list = new ArrayList<>();
+        for (int i = 0; i < codes.length; i++) {
+            CurrencyRate rate = new CurrencyRate();
+            rate.setTargetCode(codes[i]);
+            rate.setRate(rates[i]);
+            list.add(rate);
+        }
+        return CrossRateEngine.fromTable(RateTable.fromRates(list), CrossRateEngine.DEFAULT_BASE);
+    }
+}
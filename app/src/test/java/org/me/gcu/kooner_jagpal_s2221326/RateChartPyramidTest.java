@@ -0,0 +1,202 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Downsampling for the history chart: LTTB and min/max keep the shape and
+ * the extremes, the pyramid picks a level that fits the screen, and a
+ * benchmark renders 1M samples into 1,000 px.
+ */
+public class RateChartPyramidTest {
+
+    private static final long FIVE_MINUTES = 5 * 60 * 1000L;
+    private static final long START = 1700000000000L;
+
+    @Test
+    public void lttb_keepsEndsAndTheSpike() {
+        long[] times = new long[1000];
+        float[] values = new float[1000];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = START + i * FIVE_MINUTES;
+            values[i] = 1.25f + (i % 2) * 0.001f;
+        }
+        values[617] = 1.40f;
+
+        ChartDownsampler.Frame frame = ChartDownsampler.lttb(times, values, 0, times.length, 50);
+
+        assertEquals(50, frame.size());
+        assertEquals(times[0], frame.time(0));
+        assertEquals(times[999], frame.time(49));
+        assertEquals(1.40f, frame.max(), 0);
+        for (int i = 1; i < frame.size(); i++) {
+            assertTrue(frame.time(i) > frame.time(i - 1));
+            assertEquals(frame.low(i), frame.high(i), 0);
+        }
+        // Fewer samples than asked for come back as they are
+        assertEquals(10, ChartDownsampler.lttb(times, values, 0, 10, 50).size());
+    }
+
+    @Test
+    public void minMax_keepsEveryExtremePerColumn() {
+        long[] times = new long[10000];
+        float[] values = new float[10000];
+        Random random = new Random(7);
+        for (int i = 0; i < times.length; i++) {
+            times[i] = START + i * FIVE_MINUTES;
+            values[i] = 1 + random.nextFloat();
+        }
+        long end = times[times.length - 1];
+
+        ChartDownsampler.Frame frame = ChartDownsampler.minMax(times, values, values, 0, times.length,
+                START, end, 100);
+
+        assertEquals(100, frame.size());
+        for (int c = 0; c < frame.size(); c++) {
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for (int i = 0; i < times.length; i++) {
+                int column = (int) Math.min(99, (times[i] - START) * 100 / (double) (end - START));
+                if (column == c) {
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                }
+            }
+            assertEquals(min, frame.low(c), 0);
+            assertEquals(max, frame.high(c), 0);
+        }
+    }
+
+    @Test
+    public void frame_usesSamplesLttbOrLevelsByDensity() {
+        RateChartPyramid pyramid = randomWalk(100000);
+        assertTrue(pyramid.levels() > 5);
+
+        // 200 samples in 400 px: all of them
+        ChartDownsampler.Frame few = pyramid.frame(START, START + 199 * FIVE_MINUTES, 400);
+        assertEquals(200, few.size());
+
+        // 2,000 samples in 400 px: LTTB, one real sample per pixel
+        ChartDownsampler.Frame some = pyramid.frame(START, START + 1999 * FIVE_MINUTES, 400);
+        assertEquals(400, some.size());
+
+        // Everything: min/max columns, at most one per pixel, same extremes as the data
+        ChartDownsampler.Frame all = pyramid.frame(pyramid.getStart(), pyramid.getEnd(), 400);
+        assertTrue(all.size() <= 400 && all.size() > 390);
+        ChartDownsampler.Frame exact = pyramid.frame(pyramid.getStart(), pyramid.getEnd(), 100000);
+        assertEquals(exact.min(), all.min(), 0);
+        assertEquals(exact.max(), all.max(), 0);
+
+        // The level chosen never holds more than a few entries per pixel
+        int level = pyramid.levelFor(100000, 400);
+        assertTrue(level > 0);
+        assertTrue(100000 / Math.pow(RateChartPyramid.FANOUT, level) <= 4 * 400);
+    }
+
+    @Test
+    public void frame_handlesEmptyAndOutOfRangeRequests() {
+        RateChartPyramid empty = RateChartPyramid.build(new long[0], new float[0]);
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.frame(0, 1, 100).size());
+
+        RateChartPyramid pyramid = randomWalk(1000);
+        assertEquals(0, pyramid.frame(START - 100, START - 1, 100).size());
+        assertEquals(0, pyramid.frame(START + 10, START, 100).size());
+        assertEquals(0, pyramid.frame(START, pyramid.getEnd(), 0).size());
+    }
+
+    @Test
+    public void benchmark_oneMillionSamplesIntoOneThousandPixels() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final int samples = 1000000;
+        final int width = 1000;
+        final long[] times = new long[samples];
+        final float[] values = new float[samples];
+        fillRandomWalk(times, values);
+        final long end = times[samples - 1];
+
+        final RateChartPyramid[] built = new RateChartPyramid[1];
+        long buildNs = MicroBenchmark.medianNanos(2, 5, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                built[0] = RateChartPyramid.build(times, values);
+            }
+        });
+        final RateChartPyramid pyramid = built[0];
+
+        long fullNs = MicroBenchmark.medianNanos(50, 201, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                pyramid.frame(START, end, width);
+            }
+        });
+        // A pan across a tenth of the data, moving 1% per frame
+        final long span = (end - START) / 10;
+        long panNs = MicroBenchmark.medianNanos(50, 201, new MicroBenchmark.Task() {
+            long offset;
+
+            @Override
+            public void run() {
+                offset = (offset + span / 10) % (end - START - span);
+                pyramid.frame(START + offset, START + offset + span, width);
+            }
+        });
+        long rawMinMaxNs = MicroBenchmark.medianNanos(3, 11, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                ChartDownsampler.minMax(times, values, values, 0, samples, START, end, width);
+            }
+        });
+        long rawLttbNs = MicroBenchmark.medianNanos(3, 11, new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                ChartDownsampler.lttb(times, values, 0, samples, width);
+            }
+        });
+
+        ChartDownsampler.Frame fromPyramid = pyramid.frame(START, end, width);
+        ChartDownsampler.Frame fromSamples = ChartDownsampler.minMax(times, values, values, 0, samples,
+                START, end, width);
+        assertEquals(fromSamples.min(), fromPyramid.min(), 0);
+        assertEquals(fromSamples.max(), fromPyramid.max(), 0);
+
+        MicroBenchmark.report("chart pyramid build, 1M samples", "%.1f ms, %d levels",
+                buildNs / 1e6, pyramid.levels());
+        MicroBenchmark.report("1M samples -> 1000 px, pyramid", "%.1f us full range, %.1f us per pan step",
+                fullNs / 1e3, panNs / 1e3);
+        MicroBenchmark.report("1M samples -> 1000 px, straight from samples",
+                "%.1f ms min/max, %.1f ms LTTB", rawMinMaxNs / 1e6, rawLttbNs / 1e6);
+
+        // Independent of timing: a frame reads a level with at most a few entries per pixel,
+        // not the million samples, for the full range and for a pan window alike
+        assertTrue(fromPyramid.size() <= width);
+        for (int visible : new int[]{samples, samples / 10}) {
+            int level = pyramid.levelFor(visible, width);
+            assertTrue(level > 0);
+            assertTrue(visible / Math.pow(RateChartPyramid.FANOUT, level) <= 4 * width);
+        }
+    }
+
+    // -------- helpers --------
+
+    private static RateChartPyramid randomWalk(int samples) {
+        long[] times = new long[samples];
+        float[] values = new float[samples];
+        fillRandomWalk(times, values);
+        return RateChartPyramid.build(times, values);
+    }
+
+    // Five-minute samples of a rate wandering around 1.25
+    private static void fillRandomWalk(long[] times, float[] values) {
+        Random random = new Random(11);
+        double rate = 1.25;
+        for (int i = 0; i < times.length; i++) {
+            rate = Math.max(0.5, rate * (1 + random.nextGaussian() * 0.0005));
+            times[i] = START + i * FIVE_MINUTES;
+            values[i] = (float) rate;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the byte scanner against the pull parser, and benchmarks both on
+ * feeds of 10 to 10,000 items built from the sample GBP feed.
+ */
+public class RateFeedParserTest {
+
+    private static final RateFeedParser PULL = new PullRateFeedParser();
+    private static final RateFeedParser SCANNER = new ScanningRateFeedParser();
+
+    @Test
+    public void scannerMatchesPullParser_onSampleFeeds() throws Exception {
+        for (String feed : FeedFixtures.ALL) {
+            ArrayList<CurrencyRate> pulled = parse(PULL, FeedFixtures.bytes(feed));
+            ArrayList<CurrencyRate> scanned = parse(SCANNER, FeedFixtures.bytes(feed));
+
+            assertEquals(feed, 158, pulled.size());
+            assertEquals(feed, pulled.size(), scanned.size());
+            for (int i = 0; i < pulled.size(); i++) {
+                RssFeedFetcherTest.assertSameRate(feed + " item " + i, pulled.get(i), scanned.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void scannerMatchesPullParser_onEscapesAndMarkup() throws Exception {
+        String feed = "junk < not a tag <?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n"
+                + "<!DOCTYPE rss [<!ENTITY x \"y\">]>"
+                + "<rss xmlns:dc=\"urn:dc\"><channel><title>Channel</title>"
+                + "<item attr=\"a > b\">"
+                + "<dc:title>São Tomé Dobra(STN) &amp; co/Euro(EUR)</dc:title>"
+                + "<!-- <description>1 = 9</description> -->"
+                + "<description><![CDATA[1 British Pound Sterling = 1.1523 Euro]]]]></description>"
+                + "<pubDate>Wed Aug 27 2025\r\n2:00:45 UTC &#169;&#x1F4B7;</pubDate>"
+                + "<link/></item>"
+                + "<ITEM><TITLE>British Pound Sterling(GBP)/Yen &lt;&quot;&apos;&gt;(JPY)</TITLE></ITEM>"
+                + "</channel></rss><item><title>after the end</title></item>";
+        byte[] bytes = feed.getBytes(StandardCharsets.UTF_8);
+
+        ArrayList<CurrencyRate> pulled = parse(PULL, bytes);
+        ArrayList<CurrencyRate> scanned = parse(SCANNER, bytes);
+
+        assertEquals(2, scanned.size());
+        assertEquals("São Tomé Dobra(STN) & co/Euro(EUR)", scanned.get(0).getRawTitle());
+        assertEquals("1 British Pound Sterling = 1.1523 Euro]]", scanned.get(0).getRawDescription());
+        assertEquals("Wed Aug 27 2025\n2:00:45 UTC ©💷", scanned.get(0).getPubDate());
+        assertEquals("JPY", scanned.get(1).getTargetCode());
+        assertEquals(pulled.size(), scanned.size());
+        for (int i = 0; i < pulled.size(); i++) {
+            RssFeedFetcherTest.assertSameRate("item " + i, pulled.get(i), scanned.get(i));
+        }
+    }
+
+    @Test
+    public void scanner_readsSingleByteEncodingFromProlog() throws Exception {
+        String feed = "<?xml version='1.0' encoding='ISO-8859-1'?><rss><channel>"
+                + "<item><title>British Pound Sterling(GBP)/São Tomé Dobra(STN)</title>"
+                + "<description>1 British Pound Sterling = 27.5 São Tomé Dobra</description></item>"
+                + "</channel></rss>";
+
+        ArrayList<CurrencyRate> rates = parse(SCANNER, feed.getBytes(StandardCharsets.ISO_8859_1));
+
+        assertEquals(1, rates.size());
+        assertEquals("São Tomé Dobra", rates.get(0).getCurrencyName());
+        assertEquals(27.5, rates.get(0).getRate(), 0.0);
+    }
+
+    @Test
+    public void bothParsers_rejectTruncatedFeeds() throws Exception {
+        byte[] whole = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+        int[] cuts = {whole.length / 3, whole.length / 2, whole.length - 10};
+        for (RateFeedParser parser : new RateFeedParser[]{PULL, SCANNER}) {
+            for (int cut : cuts) {
+                byte[] truncated = new byte[cut];
+                System.arraycopy(whole, 0, truncated, 0, cut);
+                try {
+                    parse(parser, truncated);
+                    fail(parser.getClass().getSimpleName() + " accepted a feed cut at " + cut);
+                } catch (XmlPullParserException expected) {
+                    // reported as a parse problem, not a network one
+                }
+            }
+        }
+    }
+
+    @Test
+    public void scanner_blocksOnOneByteWhenAReadReturnsNothing() throws Exception {
+        byte[] feed = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+        ZeroReturningStream in = new ZeroReturningStream(feed);
+
+        ArrayList<CurrencyRate> scanned = SCANNER.parse(in, null);
+
+        assertEquals(parse(PULL, feed).size(), scanned.size());
+        // Each empty read was followed by one blocking read, not by asking again
+        assertTrue(in.zeroReturns > 0);
+        assertEquals(in.zeroReturns, in.singleByteReads);
+    }
+
+    @Test
+    public void scanner_deliversEachItemToTheListener() throws Exception {
+        final ArrayList<CurrencyRate> seen = new ArrayList<>();
+        RssFeedFetcher.OnRatesParsedListener listener = new RssFeedFetcher.OnRatesParsedListener() {
+            @Override
+            public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+            }
+
+            @Override
+            public void onError(String message) {
+            }
+
+            @Override
+            public void onRateParsed(CurrencyRate rate) {
+                seen.add(rate);
+            }
+        };
+
+        ArrayList<CurrencyRate> all;
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            all = SCANNER.parse(in, listener);
+        }
+
+        assertEquals(all.size(), seen.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertSame(all.get(i), seen.get(i));
+        }
+    }
+
+    @Test
+    public void benchmark_itemsPerSecondAndAllocation() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        String sample = new String(FeedFixtures.bytes(FeedFixtures.GBP_FEED), StandardCharsets.UTF_8);
+        int[] sizes = {10, 100, 1000, 10000};
+
+        for (int items : sizes) {
+            final byte[] feed = feedWithItems(sample, items);
+            // Fewer timed runs for the big feeds keeps the test quick
+            int runs = Math.max(5, 20000 / items);
+
+            double[] itemsPerSecond = new double[2];
+            RateFeedParser[] parsers = {PULL, SCANNER};
+            for (int p = 0; p < parsers.length; p++) {
+                final RateFeedParser parser = parsers[p];
+                final int expected = items;
+                MicroBenchmark.Task task = new MicroBenchmark.Task() {
+                    @Override
+                    public void run() throws Exception {
+                        assertEquals(expected, parse(parser, feed).size());
+                    }
+                };
+
+                long nanos = MicroBenchmark.medianNanos(runs, runs, task);
+                long allocated = MicroBenchmark.allocatedBytes(task);
+                itemsPerSecond[p] = items / (nanos / 1e9);
+                MicroBenchmark.report(parser.getClass().getSimpleName() + " " + items + " items",
+                        "%.0f items/s, %.0f bytes allocated/item",
+                        itemsPerSecond[p], (double) allocated / items);
+            }
+            if (items >= 1000) {
+                assertTrue("scanner slower than the pull parser at " + items + " items",
+                        itemsPerSecond[1] > itemsPerSecond[0]);
+            }
+        }
+    }
+
+    // -------- helpers --------
+
+    private static ArrayList<CurrencyRate> parse(RateFeedParser parser, byte[] feed) throws Exception {
+        return parser.parse(new ByteArrayInputStream(feed), null);
+    }
+
+    // Returns 0 from every other bulk read, as some non-blocking sources do, in small chunks
+    private static final class ZeroReturningStream extends ByteArrayInputStream {
+        int zeroReturns;
+        int singleByteReads;
+        private boolean empty;
+
+        ZeroReturningStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read() {
+            singleByteReads++;
+            return super.read();
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            empty = !empty;
+            if (empty && len > 0 && available() > 0) {
+                zeroReturns++;
+                return 0;
+            }
+            return super.read(b, off, Math.min(len, 512));
+        }
+    }
+
+    /**
+     * The sample feed with its items repeated (or cut) to the given count.
+     */
+    static byte[] feedWithItems(String sample, int count) {
+        int first = sample.indexOf("<item>");
+        int end = sample.lastIndexOf("</item>") + "</item>".length();
+
+        ArrayList<String> items = new ArrayList<>();
+        int at = first;
+        while (at >= 0 && at < end) {
+            int close = sample.indexOf("</item>", at) + "</item>".length();
+            items.add(sample.substring(at, close) + "\n");
+            at = sample.indexOf("<item>", close);
+        }
+
+        StringBuilder feed = new StringBuilder(sample.substring(0, first));
+        for (int i = 0; i < count; i++) {
+            feed.append(items.get(i % items.size()));
+        }
+        feed.append(sample.substring(end));
+        return feed.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
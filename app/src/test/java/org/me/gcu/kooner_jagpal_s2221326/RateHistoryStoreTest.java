@@ -0,0 +1,250 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Append/query behaviour of the per-code history files, plus a benchmark
+ * against keeping the history as one serialised ArrayList.
+ */
+public class RateHistoryStoreTest {
+
+    private static final long T0 = 1756260045000L; // Wed Aug 27 2025 2:00:45 UTC
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("history", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void appendRates_storesOneSamplePerCode_andSkipsAnUnchangedFeed() throws Exception {
+        ArrayList<CurrencyRate> parsed;
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            parsed = new RssFeedFetcher(null, null, true).parseFeed(in);
+        }
+        RateHistoryStore store = new RateHistoryStore(dir);
+
+        assertEquals(parsed.size(), store.appendRates(parsed));
+        assertEquals(0, store.appendRates(parsed));
+
+        CurrencyRate eur = find(parsed, "EUR");
+        RateHistoryStore.Series series = store.query("eur", T0 - HOUR, T0 + HOUR);
+        assertEquals(1, series.size());
+        assertEquals(T0, series.time(0));
+        assertEquals((float) eur.getRate(), series.rate(0), 0f);
+        assertEquals(RateHistoryStore.HEADER_BYTES + RateHistoryStore.RECORD_BYTES,
+                store.fileFor("EUR").length());
+    }
+
+    @Test
+    public void query_returnsInclusiveRangeInTimeOrder() throws Exception {
+        RateHistoryStore store = new RateHistoryStore(dir);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.append("USD", T0 + i * 5 * MINUTE, 1.30 + i / 1000.0));
+        }
+
+        RateHistoryStore.Series series = store.query("USD", T0 + 10 * MINUTE, T0 + 30 * MINUTE);
+        assertEquals(5, series.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(T0 + (10 + 5 * i) * MINUTE, series.time(i));
+            assertEquals((float) (1.30 + (2 + i) / 1000.0), series.rate(i), 0f);
+        }
+
+        // Sub-second bounds round the right way
+        assertEquals(0, store.query("USD", T0 + 1, T0 + 5 * MINUTE - 1).size());
+        assertEquals(0, store.query("USD", T0 - HOUR, T0 - 1).size());
+        assertEquals(100, store.query("USD", Long.MIN_VALUE / 2, Long.MAX_VALUE / 2).size());
+        assertEquals(0, store.query("GBP", T0, T0 + HOUR).size());
+    }
+
+    @Test
+    public void olderOrEqualSamples_areRejected() throws Exception {
+        RateHistoryStore store = new RateHistoryStore(dir);
+        assertTrue(store.append("JPY", T0, 190.0));
+        assertFalse(store.append("JPY", T0, 191.0));
+        assertFalse(store.append("JPY", T0 - MINUTE, 191.0));
+        assertEquals(1, store.sampleCount("JPY"));
+    }
+
+    @Test
+    public void reopenedStore_continuesTheSameFile() throws Exception {
+        RateHistoryStore first = new RateHistoryStore(dir);
+        first.append("EUR", T0, 1.15);
+        first.append("EUR", T0 + HOUR, 1.16);
+
+        RateHistoryStore second = new RateHistoryStore(dir);
+        assertFalse(second.append("EUR", T0 + HOUR, 1.17));
+        assertTrue(second.append("EUR", T0 + 2 * HOUR, 1.18));
+
+        RateHistoryStore.Series series = second.query("EUR", T0, T0 + 2 * HOUR);
+        assertEquals(3, series.size());
+        assertEquals(1.18f, series.rate(2), 0f);
+    }
+
+    @Test
+    public void partialRecordFromACrash_isIgnoredAndOverwritten() throws Exception {
+        RateHistoryStore store = new RateHistoryStore(dir);
+        store.append("CHF", T0, 1.07);
+        File file = store.fileFor("CHF");
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{0, 0, 1}); // half a record
+        }
+
+        RateHistoryStore reopened = new RateHistoryStore(dir);
+        assertEquals(1, reopened.query("CHF", T0, T0 + HOUR).size());
+        assertTrue(reopened.append("CHF", T0 + HOUR, 1.08));
+
+        RateHistoryStore.Series series = reopened.query("CHF", T0, T0 + HOUR);
+        assertEquals(2, series.size());
+        assertEquals(T0 + HOUR, series.time(1));
+        assertEquals(1.08f, series.rate(1), 0f);
+    }
+
+    @Test
+    public void corruptHeader_failsQueries() throws Exception {
+        RateHistoryStore store = new RateHistoryStore(dir);
+        store.append("AUD", T0, 2.05);
+        try (RandomAccessFile raf = new RandomAccessFile(store.fileFor("AUD"), "rw")) {
+            raf.writeInt(0x12345678);
+        }
+        try {
+            new RateHistoryStore(dir).query("AUD", T0, T0);
+            fail();
+        } catch (IOException expected) {
+            // not a history file
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pathLikeCode_isRejected() throws Exception {
+        new RateHistoryStore(dir).append("../x", T0, 1.0);
+    }
+
+    @Test
+    public void benchmark_againstSerialisedArrayList() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final int samples = 50000; // ~6 months at one refresh every 5 minutes
+        final long end = T0 + (samples - 1) * 5 * MINUTE;
+        final RateHistoryStore store = new RateHistoryStore(dir);
+        final File naiveFile = new File(dir, "naive.ser");
+
+        // --- Appends: the store writes 8 bytes, the baseline rewrites the list ---
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            store.append("EUR", T0 + i * 5 * MINUTE, 1.15 + (i % 100) / 10000.0);
+        }
+        long storeAppendNs = System.nanoTime() - start;
+
+        ArrayList<Sample> naive = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            naive.add(new Sample(T0 + i * 5 * MINUTE, 1.15 + (i % 100) / 10000.0));
+        }
+        final int naiveAppends = 200;
+        start = System.nanoTime();
+        for (int i = 0; i < naiveAppends; i++) {
+            naive.add(new Sample(end + (i + 1) * 5 * MINUTE, 1.15));
+            writeList(naiveFile, naive);
+        }
+        long naiveAppendNs = System.nanoTime() - start;
+
+        // --- "EUR over the last 24h" ---
+        final long from = end - 24 * HOUR;
+        long storeQueryNs = MicroBenchmark.medianNanos(50, 200, new MicroBenchmark.Task() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(289, store.query("EUR", from, end).size());
+            }
+        });
+        long naiveQueryNs = MicroBenchmark.medianNanos(2, 10, new MicroBenchmark.Task() {
+            @Override
+            public void run() throws Exception {
+                int hits = 0;
+                for (Sample s : readList(naiveFile)) {
+                    if (s.time >= from && s.time <= end) {
+                        hits++;
+                    }
+                }
+                assertEquals(289, hits);
+            }
+        });
+
+        double storeBytes = (double) store.fileFor("EUR").length() / samples;
+        double naiveBytes = (double) naiveFile.length() / naive.size();
+
+        MicroBenchmark.report("history store", "%.0f appends/s, 24h query %.1f us, %.2f bytes/sample",
+                samples / (storeAppendNs / 1e9), storeQueryNs / 1e3, storeBytes);
+        MicroBenchmark.report("serialised ArrayList", "%.0f appends/s, 24h query %.1f us, %.2f bytes/sample",
+                naiveAppends / (naiveAppendNs / 1e9), naiveQueryNs / 1e3, naiveBytes);
+
+        assertTrue(storeBytes < naiveBytes);
+    }
+
+    // -------- helpers --------
+
+    private static CurrencyRate find(ArrayList<CurrencyRate> rates, String code) {
+        for (CurrencyRate rate : rates) {
+            if (code.equals(rate.getTargetCode())) {
+                return rate;
+            }
+        }
+        throw new AssertionError("no " + code);
+    }
+
+    /** What a naive history would keep: one object per sample. */
+    private static final class Sample implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final long time;
+        final double rate;
+
+        Sample(long time, double rate) {
+            this.time = time;
+            this.rate = rate;
+        }
+    }
+
+    private static void writeList(File file, ArrayList<Sample> list) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new java.io.BufferedOutputStream(
+                new FileOutputStream(file)))) {
+            out.writeObject(list);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayList<Sample> readList(File file) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new java.io.BufferedInputStream(
+                new FileInputStream(file)))) {
+            return (ArrayList<Sample>) in.readObject();
+        }
+    }
+}
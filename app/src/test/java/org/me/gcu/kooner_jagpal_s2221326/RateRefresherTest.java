@@ -0,0 +1,202 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Single-flight behaviour of RateRefresher, with a fake feed that blocks
+ * until the test lets it finish.
+ */
+public class RateRefresherTest {
+
+    private ExecutorService executor;
+    private BlockingSource source;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        source = new BlockingSource();
+    }
+
+    @After
+    public void tearDown() {
+        source.release();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void overlappingRefreshes_shareOneFetch() throws Exception {
+        final RateRefresher refresher = new RateRefresher(source, executor);
+        final int requests = 100;
+        final CountDownLatch go = new CountDownLatch(1);
+        final CountDownLatch submitted = new CountDownLatch(requests);
+        final CountingListener[] listeners = new CountingListener[requests];
+        final AtomicInteger started = new AtomicInteger();
+
+        for (int i = 0; i < requests; i++) {
+            final CountingListener listener = new CountingListener();
+            listeners[i] = listener;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (refresher.refresh(listener)) {
+                        started.incrementAndGet();
+                    }
+                    submitted.countDown();
+                }
+            }).start();
+        }
+
+        go.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        source.release();
+
+        for (CountingListener listener : listeners) {
+            assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, source.fetches.get());
+        assertEquals(1, started.get());
+        for (CountingListener listener : listeners) {
+            assertEquals(1, listener.results.get());
+            assertEquals(0, listener.errors.get());
+        }
+        assertFalse(refresher.isRefreshing());
+    }
+
+    @Test
+    public void refreshAfterCompletion_startsANewFetch() throws Exception {
+        RateRefresher refresher = new RateRefresher(source, executor);
+        source.release();
+
+        CountingListener first = new CountingListener();
+        assertTrue(refresher.refresh(first));
+        assertTrue(first.done.await(5, TimeUnit.SECONDS));
+
+        CountingListener second = new CountingListener();
+        assertTrue(refresher.refresh(second));
+        assertTrue(second.done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, source.fetches.get());
+    }
+
+    @Test
+    public void sameListenerTwice_isCalledOnce() throws Exception {
+        RateRefresher refresher = new RateRefresher(source, executor);
+        CountingListener listener = new CountingListener();
+        assertTrue(refresher.refresh(listener));
+        assertFalse(refresher.refresh(listener));
+        source.release();
+
+        assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1, listener.results.get());
+    }
+
+    @Test
+    public void cancel_dropsTheStaleResult() throws Exception {
+        RateRefresher refresher = new RateRefresher(source, executor);
+        CountingListener stale = new CountingListener();
+        refresher.refresh(stale);
+        assertTrue(source.entered.await(5, TimeUnit.SECONDS));
+
+        refresher.cancel();
+        CountingListener fresh = new CountingListener();
+        assertTrue(refresher.refresh(fresh));
+        source.release();
+
+        assertTrue(fresh.done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(0, stale.results.get() + stale.errors.get());
+        assertEquals(1, fresh.results.get());
+    }
+
+    @Test
+    public void errors_reachEveryWaitingListener() throws Exception {
+        source.failWith = "Network error while downloading rates.";
+        RateRefresher refresher = new RateRefresher(source, executor);
+        CountingListener a = new CountingListener();
+        CountingListener b = new CountingListener();
+        refresher.refresh(a);
+        refresher.refresh(b);
+        source.release();
+
+        assertTrue(a.done.await(5, TimeUnit.SECONDS));
+        assertTrue(b.done.await(5, TimeUnit.SECONDS));
+        assertEquals("Network error while downloading rates.", a.lastError);
+        assertEquals(1, b.errors.get());
+        assertEquals(1, source.fetches.get());
+    }
+
+    @Test
+    public void shutdown_refusesNewRefreshes() {
+        RateRefresher refresher = new RateRefresher(source, executor);
+        refresher.shutdown();
+        assertFalse(refresher.refresh(new CountingListener()));
+        assertEquals(0, source.fetches.get());
+    }
+
+    // -------- fakes --------
+
+    private static final class BlockingSource implements RateRefresher.FeedSource {
+        final AtomicInteger fetches = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        volatile String failWith;
+
+        @Override
+        public ArrayList<CurrencyRate> fetch() throws IOException {
+            fetches.incrementAndGet();
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                // cancelled: finish anyway so the stale result path is exercised
+            }
+            if (failWith != null) {
+                throw new IOException(failWith);
+            }
+            ArrayList<CurrencyRate> rates = new ArrayList<>();
+            rates.add(new CurrencyRate());
+            return rates;
+        }
+
+        void release() {
+            gate.countDown();
+        }
+    }
+
+    private static final class CountingListener implements RssFeedFetcher.OnRatesParsedListener {
+        final AtomicInteger results = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile String lastError;
+
+        @Override
+        public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+            results.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String message) {
+            lastError = message;
+            errors.incrementAndGet();
+            done.countDown();
+        }
+    }
+}
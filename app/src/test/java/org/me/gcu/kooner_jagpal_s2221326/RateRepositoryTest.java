@@ -0,0 +1,417 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Stale-while-revalidate behaviour of RateRepository: disk before network,
+ * no refetch for a second observer, errors keep the last good rates, and
+ * time to first content with a slow network.
+ */
+public class RateRepositoryTest {
+
+    private File dir;
+    private ExecutorService executor;
+    private FakeSource source;
+    private long now = 1000000;
+
+    private final RefreshScheduler.Clock clock = new RefreshScheduler.Clock() {
+        @Override
+        public long now() {
+            return now;
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("repository", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+        executor = Executors.newFixedThreadPool(2);
+        source = new FakeSource();
+    }
+
+    @After
+    public void tearDown() {
+        source.release();
+        executor.shutdownNow();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void coldStart_servesDiskSnapshotWhileNetworkIsPending() throws Exception {
+        snapshotStore().save(fixtureRates());
+        RateRepository repository = newRepository(executor);
+        RecordingObserver observer = new RecordingObserver();
+
+        source.block();
+        repository.addObserver(observer);
+        repository.refresh();
+
+        RateRepository.Snapshot fromDisk = observer.next();
+        assertFalse(fromDisk.isFromNetwork());
+        assertEquals(fixtureRates().size(), fromDisk.getTable().size());
+        assertSame(fromDisk, repository.getSnapshot());
+        assertFalse(repository.isFresh(RefreshScheduler.MIN_INTERVAL_MS));
+
+        source.release();
+        RateRepository.Snapshot fromNetwork = observer.next();
+        assertTrue(fromNetwork.isFromNetwork());
+        assertEquals(now, fromNetwork.getFetchedAt());
+        assertSame(fromNetwork, repository.getSnapshot());
+        assertTrue(repository.isFresh(RefreshScheduler.MIN_INTERVAL_MS));
+
+        // The disk snapshot seeded the statistics, so the network rates show movement
+        int row = fromNetwork.getTable().rowOf("USD");
+        assertFalse(Double.isNaN(fromNetwork.getTable().change(row)));
+    }
+
+    @Test
+    public void slowDiskDelivery_networkSnapshotStillArrivesLast() throws Exception {
+        snapshotStore().save(fixtureRates());
+        RateRepository repository = newRepository(executor);
+        final ArrayList<RateRepository.Snapshot> delivered = new ArrayList<>();
+        final CountDownLatch bothDelivered = new CountDownLatch(2);
+
+        source.block();
+        repository.addObserver(new RateRepository.Observer() {
+            @Override
+            public void onSnapshot(RateRepository.Snapshot snapshot) {
+                if (!snapshot.isFromNetwork()) {
+                    // Let the download finish and try to publish while this delivery is still running
+                    source.release();
+                    try {
+                        for (int i = 0; i < 500 && source.answered.get() == 0; i++) {
+                            Thread.sleep(10);
+                        }
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                synchronized (delivered) {
+                    delivered.add(snapshot);
+                }
+                bothDelivered.countDown();
+            }
+
+            @Override
+            public void onRefreshFailed(String message) {
+            }
+        });
+        repository.refresh();
+
+        assertTrue(bothDelivered.await(10, TimeUnit.SECONDS));
+        synchronized (delivered) {
+            assertFalse(delivered.get(0).isFromNetwork());
+            assertTrue(delivered.get(1).isFromNetwork());
+            assertSame(repository.getSnapshot(), delivered.get(1));
+        }
+    }
+
+    @Test
+    public void networkBeforeDisk_diskSnapshotIsNotPublished() throws Exception {
+        snapshotStore().save(fixtureRates());
+        ManualExecutor disk = new ManualExecutor();
+        RateRepository repository = newRepository(disk);
+        RecordingObserver observer = new RecordingObserver();
+
+        repository.addObserver(observer);
+        repository.refresh();
+        RateRepository.Snapshot fromNetwork = observer.next();
+        disk.runAll();
+
+        assertTrue(fromNetwork.isFromNetwork());
+        assertSame(fromNetwork, repository.getSnapshot());
+        assertNull(observer.snapshots.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void secondObserver_getsCachedRatesWithoutAFetch() throws Exception {
+        RateRepository repository = newRepository(executor);
+        RecordingObserver first = new RecordingObserver();
+        repository.addObserver(first);
+        repository.refresh();
+        RateRepository.Snapshot fetched = first.next();
+
+        // As after a rotation: the old activity goes, a new one comes
+        repository.removeObserver(first);
+        RecordingObserver second = new RecordingObserver();
+        repository.addObserver(second);
+
+        assertSame(fetched, repository.getSnapshot());
+        assertTrue(repository.isFresh(RefreshScheduler.MIN_INTERVAL_MS));
+        assertEquals(1, source.fetches.get());
+
+        now += RefreshScheduler.MIN_INTERVAL_MS;
+        assertFalse(repository.isFresh(RefreshScheduler.MIN_INTERVAL_MS));
+
+        repository.refresh();
+        assertTrue(second.next().isFromNetwork());
+        assertNull(first.snapshots.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, source.fetches.get());
+    }
+
+    @Test
+    public void failedRefresh_keepsLastGoodSnapshot() throws Exception {
+        RateRepository repository = newRepository(executor);
+        RecordingObserver observer = new RecordingObserver();
+        repository.addObserver(observer);
+        repository.refresh();
+        RateRepository.Snapshot good = observer.next();
+
+        source.fail = true;
+        repository.refresh();
+
+        assertEquals("Network error while downloading rates.", observer.errors.poll(5, TimeUnit.SECONDS));
+        assertSame(good, repository.getSnapshot());
+        assertNotNull(snapshotStore().load());
+    }
+
+    @Test
+    public void unchangedPubDate_onlyMovesTheFetchTime() throws Exception {
+        source.pubDate = "Thu Aug 28 2025 9:00:00 UTC";
+        RateRepository repository = newRepository(executor);
+        RecordingObserver observer = new RecordingObserver();
+        repository.addObserver(observer);
+        repository.refresh();
+        RateRepository.Snapshot first = observer.next();
+        File saved = new File(dir, "rates.snapshot");
+        assertTrue(saved.delete());
+
+        now += RefreshScheduler.MIN_INTERVAL_MS;
+        repository.refresh();
+        RateRepository.Snapshot second = observer.next();
+
+        // Same pubDate: the rates in it are not looked at, saved or added to the statistics
+        assertNotSame(first, second);
+        assertSame(first.getTable(), second.getTable());
+        assertSame(first.getEngine(), second.getEngine());
+        assertEquals(first.getPubDate(), second.getPubDate());
+        assertEquals(now, second.getFetchedAt());
+        assertTrue(second.isFromNetwork());
+        assertTrue(repository.isFresh(RefreshScheduler.MIN_INTERVAL_MS));
+        assertFalse(saved.exists());
+
+        // A newer pubDate is taken in full
+        source.pubDate = "Thu Aug 28 2025 9:05:00 UTC";
+        repository.refresh();
+        RateRepository.Snapshot third = observer.next();
+        assertNotSame(first.getTable(), third.getTable());
+        assertTrue(saved.exists());
+    }
+
+    @Test
+    public void alerts_fireOnTheRefreshThatCrossesAndSurviveARestart() throws Exception {
+        ManualExecutor disk = new ManualExecutor();
+        RateRepository repository = newRepository(disk);
+        RecordingObserver observer = new RecordingObserver();
+        repository.addObserver(observer);
+        repository.refresh();
+        RateRepository.Snapshot first = observer.next();
+        assertTrue(first.getTriggeredAlerts().isEmpty());
+
+        // Every fetch is 1% up, so the next one crosses 0.5% above today
+        double usd = first.getEngine().rate("GBP", "USD");
+        RateAlerts.Alert rise = repository.addAlert("GBP", "USD", RateAlerts.Kind.ABOVE, usd * 1.005);
+        repository.addAlert("GBP", "USD", RateAlerts.Kind.BELOW, usd * 0.995);
+        repository.addAlert("EUR", "USD", RateAlerts.Kind.MOVE_PERCENT, 0.5);
+
+        repository.refresh();
+        RateRepository.Snapshot second = observer.next();
+        assertEquals(1, second.getTriggeredAlerts().size());
+        assertEquals(rise.getId(), second.getTriggeredAlerts().get(0).getAlert().getId());
+
+        // A new process reads the alerts back from disk
+        disk.runAll();
+        RateRepository restarted = newRepository(executor);
+        assertEquals(repository.getAlerts().size(), restarted.getAlerts().size());
+        assertEquals(rise.getValue(), restarted.getAlerts().get(0).getValue(), 0);
+    }
+
+    @Test
+    public void benchmark_timeToFirstContentWithASlowNetwork() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        ArrayList<CurrencyRate> saved = fixtureRates();
+        source.delayMs = 300;
+
+        long[] diskNs = new long[5];
+        long[] networkNs = new long[5];
+        // Run -1 is warm-up: class loading dwarfs the disk read
+        for (int i = -1; i < diskNs.length; i++) {
+            snapshotStore().save(saved);
+            long disk = timeToFirstSnapshot(newRepository(executor), false);
+            assertTrue(new File(dir, "rates.snapshot").delete());
+            long network = timeToFirstSnapshot(newRepository(executor), true);
+            if (i >= 0) {
+                diskNs[i] = disk;
+                networkNs[i] = network;
+            }
+        }
+        Arrays.sort(diskNs);
+        Arrays.sort(networkNs);
+
+        MicroBenchmark.report("first content, snapshot on disk", "%.2f ms", diskNs[2] / 1e6);
+        MicroBenchmark.report("first content, network only (300 ms)", "%.2f ms", networkNs[2] / 1e6);
+    }
+
+    // -------- helpers --------
+
+    // From registering to the first published snapshot; waits out the revalidation too.
+    // Checks the first snapshot came from the network, or from disk before the network answered.
+    private long timeToFirstSnapshot(RateRepository repository, boolean fromNetwork) throws Exception {
+        final RecordingObserver observer = new RecordingObserver();
+        final int answeredBefore = source.answered.get();
+        final AtomicInteger answeredAtFirst = new AtomicInteger(-1);
+        long start = System.nanoTime();
+        repository.addObserver(new RateRepository.Observer() {
+            @Override
+            public void onSnapshot(RateRepository.Snapshot snapshot) {
+                answeredAtFirst.compareAndSet(-1, source.answered.get() - answeredBefore);
+                observer.onSnapshot(snapshot);
+            }
+
+            @Override
+            public void onRefreshFailed(String message) {
+                observer.onRefreshFailed(message);
+            }
+        });
+        repository.refresh();
+        RateRepository.Snapshot first = observer.next();
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(fromNetwork, first.isFromNetwork());
+        assertEquals(fromNetwork ? 1 : 0, answeredAtFirst.get());
+        if (!fromNetwork) {
+            assertTrue(observer.next().isFromNetwork());
+        }
+        return elapsed;
+    }
+
+    private RateRepository newRepository(Executor diskExecutor) {
+        return new RateRepository(new RateRefresher(source, executor), snapshotStore(),
+                null, new RateAlertStore(new File(dir, "rate.alerts")), diskExecutor, clock);
+    }
+
+    private RateSnapshotStore snapshotStore() {
+        return new RateSnapshotStore(new File(dir, "rates.snapshot"));
+    }
+
+    private static ArrayList<CurrencyRate> fixtureRates() throws Exception {
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            return new RssFeedFetcher(null, null, true).parseFeed(in);
+        }
+    }
+
+    /**
+     * Fixture rates nudged up 1% and published a minute later on every
+     * fetch, unless a pubDate is pinned; can block, delay or fail.
+     */
+    private static final class FakeSource implements RateRefresher.FeedSource {
+        final AtomicInteger fetches = new AtomicInteger();
+        final AtomicInteger answered = new AtomicInteger();
+        volatile boolean fail;
+        volatile long delayMs;
+        volatile String pubDate;
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public ArrayList<CurrencyRate> fetch() throws IOException {
+            int n = fetches.incrementAndGet();
+            try {
+                gate.await();
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                throw new IOException("Interrupted");
+            }
+            if (fail) {
+                throw new IOException("Network error while downloading rates.");
+            }
+            try {
+                ArrayList<CurrencyRate> rates = fixtureRates();
+                String published = pubDate != null ? pubDate
+                        : String.format(Locale.UK, "Thu Aug 28 2025 %d:%02d:00 UTC", n / 60, n % 60);
+                for (CurrencyRate rate : rates) {
+                    rate.setRate(rate.getRate() * Math.pow(1.01, n));
+                    rate.setPubDate(published);
+                }
+                answered.incrementAndGet();
+                return rates;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private static final class RecordingObserver implements RateRepository.Observer {
+        final BlockingQueue<RateRepository.Snapshot> snapshots = new LinkedBlockingQueue<>();
+        final BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onSnapshot(RateRepository.Snapshot snapshot) {
+            snapshots.add(snapshot);
+        }
+
+        @Override
+        public void onRefreshFailed(String message) {
+            errors.add(message);
+        }
+
+        RateRepository.Snapshot next() throws InterruptedException {
+            RateRepository.Snapshot snapshot = snapshots.poll(5, TimeUnit.SECONDS);
+            assertNotNull("no snapshot published", snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Holds tasks until the test runs them, to force an ordering.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final ArrayList<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        synchronized void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
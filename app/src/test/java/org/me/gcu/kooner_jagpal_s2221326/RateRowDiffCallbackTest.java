@@ -0,0 +1,140 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class RateRowDiffCallbackTest {
+
+    private ArrayList<CurrencyRate> parsed;
+    private RateTable table;
+
+    @Before
+    public void setUp() throws Exception {
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            parsed = new RssFeedFetcher(null, null, true).parseFeed(in);
+        }
+        table = RateTable.fromRates(parsed);
+    }
+
+    @Test
+    public void unchangedRefresh_rebindsNothing() {
+        RateTable refreshed = RateTable.fromRates(parsed);
+        Updates updates = diff(table, table.allRows(), refreshed, refreshed.allRows());
+
+        assertEquals(0, updates.changed);
+        assertEquals(0, updates.inserted + updates.removed + updates.moved);
+    }
+
+    @Test
+    public void changedRates_rebindOnlyThoseRows_withRatePayload() {
+        ArrayList<CurrencyRate> next = copy(parsed);
+        int[] changedRows = {0, 17, 42, 99, 157};
+        for (int row : changedRows) {
+            next.get(row).setRate(next.get(row).getRate() * 1.001);
+        }
+        RateTable refreshed = RateTable.fromRates(next);
+
+        Updates updates = diff(table, table.allRows(), refreshed, refreshed.allRows());
+
+        assertEquals(changedRows.length, updates.changed);
+        assertEquals(changedRows.length, updates.ratePayloads);
+        assertEquals(0, updates.inserted + updates.removed + updates.moved);
+    }
+
+    @Test
+    public void renamedCurrency_getsAFullRebind() {
+        ArrayList<CurrencyRate> next = copy(parsed);
+        next.get(3).setCurrencyName("Renamed");
+        RateTable refreshed = RateTable.fromRates(next);
+
+        Updates updates = diff(table, table.allRows(), refreshed, refreshed.allRows());
+
+        assertEquals(1, updates.changed);
+        assertEquals(0, updates.ratePayloads);
+    }
+
+    @Test
+    public void newMovementArrow_rebindsWithRatePayload() {
+        RateTable refreshed = RateTable.fromRates(parsed);
+        double[] changes = new double[refreshed.size()];
+        java.util.Arrays.fill(changes, Double.NaN);
+        changes[5] = 0.0;       // now known to be flat
+        RateTable withChanges = refreshed.withChanges(changes);
+
+        Updates updates = diff(table, table.allRows(), withChanges, withChanges.allRows());
+
+        assertEquals(1, updates.changed);
+        assertEquals(1, updates.ratePayloads);
+    }
+
+    @Test
+    public void narrowingASearch_onlyRemovesRows() {
+        int[] before = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int[] after = {2, 5, 7};
+        Updates updates = diff(table, before, table, after);
+
+        assertEquals(7, updates.removed);
+        assertEquals(0, updates.inserted + updates.changed);
+    }
+
+    // -------- helpers --------
+
+    private static Updates diff(RateTable oldTable, int[] oldRows, RateTable newTable, int[] newRows) {
+        Updates updates = new Updates();
+        DiffUtil.calculateDiff(new RateRowDiffCallback(oldTable, oldRows, newTable, newRows), false)
+                .dispatchUpdatesTo(updates);
+        return updates;
+    }
+
+    private static ArrayList<CurrencyRate> copy(ArrayList<CurrencyRate> rates) {
+        ArrayList<CurrencyRate> copy = new ArrayList<>();
+        for (CurrencyRate rate : rates) {
+            CurrencyRate c = new CurrencyRate();
+            c.setTargetCode(rate.getTargetCode());
+            c.setCurrencyName(rate.getCurrencyName());
+            c.setRate(rate.getRate());
+            c.setPubDate(rate.getPubDate());
+            copy.add(c);
+        }
+        return copy;
+    }
+
+    private static final class Updates implements ListUpdateCallback {
+        int inserted;
+        int removed;
+        int moved;
+        int changed;
+        int ratePayloads;
+
+        @Override
+        public void onInserted(int position, int count) {
+            inserted += count;
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            removed += count;
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            moved++;
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            changed += count;
+            if (payload == RateRowDiffCallback.PAYLOAD_RATE) {
+                ratePayloads += count;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trip and load-time benchmark for the on-disk rate snapshot.
+ */
+public class RateSnapshotStoreTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("snapshot", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void saveThenLoad_keepsCodeNameRateAndDate() throws Exception {
+        ArrayList<CurrencyRate> parsed = parseFixture();
+        RateSnapshotStore store = new RateSnapshotStore(new File(dir, "rates.snapshot"));
+
+        store.save(parsed);
+        ArrayList<CurrencyRate> loaded = store.load();
+
+        assertNotNull(loaded);
+        assertEquals(parsed.size(), loaded.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            CurrencyRate expected = parsed.get(i);
+            CurrencyRate actual = loaded.get(i);
+            assertEquals(expected.getTargetCode(), actual.getTargetCode());
+            assertEquals(expected.getCurrencyName(), actual.getCurrencyName());
+            assertEquals(expected.getPubDate(), actual.getPubDate());
+            assertEquals(expected.getRate(), actual.getRate(), 0.0);
+        }
+        // Every item shares one date, which is stored once
+        assertSame(loaded.get(0).getPubDate(), loaded.get(loaded.size() - 1).getPubDate());
+    }
+
+    @Test
+    public void nullFields_surviveRoundTrip() throws Exception {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(new CurrencyRate());
+        RateSnapshotStore store = new RateSnapshotStore(new File(dir, "rates.snapshot"));
+
+        store.save(rates);
+        CurrencyRate loaded = store.load().get(0);
+
+        assertNull(loaded.getTargetCode());
+        assertNull(loaded.getCurrencyName());
+        assertNull(loaded.getPubDate());
+    }
+
+    @Test
+    public void missingOrCorruptFile_loadsAsNull() throws Exception {
+        File file = new File(dir, "rates.snapshot");
+        assertNull(new RateSnapshotStore(file).load());
+
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{'R', 'S', 'N', 'P', 0, 1, 0, 0, 0, 9});
+        }
+        assertNull(new RateSnapshotStore(file).load());
+    }
+
+    @Test
+    public void benchmark_snapshotLoadVersusDownloadAndParse() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final byte[] body = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+        final RateSnapshotStore store = new RateSnapshotStore(new File(dir, "rates.snapshot"));
+        store.save(parseFixture());
+
+        try (LocalFeedServer server = new LocalFeedServer()) {
+            server.handle("/gbp/rss.xml", new HttpHandler() {
+                @Override
+                public void handle(HttpExchange exchange) throws IOException {
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            });
+            final String url = server.url("/gbp/rss.xml");
+
+            long snapshotNs = MicroBenchmark.medianNanos(20, 50, new MicroBenchmark.Task() {
+                @Override
+                public void run() {
+                    assertEquals(158, store.load().size());
+                }
+            });
+            long networkNs = MicroBenchmark.medianNanos(5, 20, new MicroBenchmark.Task() {
+                @Override
+                public void run() {
+                    final ArrayList<ArrayList<CurrencyRate>> out = new ArrayList<>();
+                    new RssFeedFetcher(url, new RssFeedFetcher.OnRatesParsedListener() {
+                        @Override
+                        public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+                            out.add(rates);
+                        }
+
+                        @Override
+                        public void onError(String message) {
+                            fail(message);
+                        }
+                    }, true).run();
+                    assertEquals(158, out.get(0).size());
+                }
+            });
+
+            MicroBenchmark.report("snapshot load", "%.3f ms (%d bytes on disk)",
+                    snapshotNs / 1e6, store.getFile().length());
+            MicroBenchmark.report("download + parse (localhost)", "%.3f ms", networkNs / 1e6);
+        }
+    }
+
+    private static ArrayList<CurrencyRate> parseFixture() throws Exception {
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            return new RssFeedFetcher(null, null, true).parseFeed(in);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the incremental statistics against a brute-force recomputation
+ * over the window, and that updates stop allocating after warm-up.
+ */
+public class RateStatisticsTest {
+
+    @Test
+    public void incrementalValues_matchBruteForce() {
+        int window = 7;
+        RateStatistics stats = new RateStatistics(window);
+        int codeId = CurrencyCodes.intern("USD");
+        Random random = new Random(3);
+        ArrayList<Double> history = new ArrayList<>();
+        double ema = Double.NaN;
+        double alpha = 2.0 / (window + 1);
+        double rate = 1.3;
+
+        for (int step = 0; step < 500; step++) {
+            rate *= 1 + (random.nextDouble() - 0.5) / 50;
+            if (step % 37 == 5) {
+                rate = history.get(history.size() - 1); // some unchanged refreshes
+            }
+            stats.update(codeId, rate);
+            history.add(rate);
+            ema = Double.isNaN(ema) ? rate : ema + alpha * (rate - ema);
+
+            int n = history.size();
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int i = Math.max(0, n - window); i < n; i++) {
+                min = Math.min(min, history.get(i));
+                max = Math.max(max, history.get(i));
+            }
+            assertEquals(n, stats.sampleCount(codeId));
+            assertEquals(min, stats.min(codeId), 0.0);
+            assertEquals(max, stats.max(codeId), 0.0);
+            assertEquals(ema, stats.ema(codeId), 1e-12);
+            if (n >= 2) {
+                assertEquals(history.get(n - 1) - history.get(n - 2), stats.change(codeId), 0.0);
+            } else {
+                assertTrue(Double.isNaN(stats.change(codeId)));
+            }
+            assertEquals(step + ": volatility", bruteVolatility(history, window), stats.volatility(codeId), 1e-9);
+        }
+    }
+
+    @Test
+    public void invalidSamplesAndUnknownCodes_areIgnored() {
+        RateStatistics stats = new RateStatistics(4);
+        int codeId = CurrencyCodes.intern("EUR");
+        stats.update(codeId, 1.15);
+        stats.update(codeId, 0.0);
+        stats.update(codeId, Double.NaN);
+        stats.update(codeId, -2);
+        stats.update(-1, 5);
+
+        assertEquals(1, stats.sampleCount(codeId));
+        assertTrue(Double.isNaN(stats.change(codeId)));
+        assertTrue(Double.isNaN(stats.volatility(codeId)));
+        assertTrue(Double.isNaN(stats.min(CurrencyCodes.intern("QSX"))));
+        assertEquals(0, stats.sampleCount(100000));
+    }
+
+    @Test
+    public void tableUpdate_returnsChangePerRow() {
+        ArrayList<CurrencyRate> first = new ArrayList<>();
+        first.add(rate("USD", 1.30));
+        first.add(rate("EUR", 1.15));
+        ArrayList<CurrencyRate> second = new ArrayList<>();
+        second.add(rate("EUR", 1.10));
+        second.add(rate("USD", 1.30));
+        second.add(rate("JPY", 190.0));
+
+        RateStatistics stats = new RateStatistics(5);
+        double[] initial = stats.update(RateTable.fromRates(first));
+        assertTrue(Double.isNaN(initial[0]));
+
+        RateTable table = RateTable.fromRates(second);
+        RateTable withChanges = table.withChanges(stats.update(table));
+        assertEquals(-0.05, withChanges.change(0), 1e-12);
+        assertEquals(0.0, withChanges.change(1), 0.0);
+        assertTrue(Double.isNaN(withChanges.change(2)));
+        assertTrue(Double.isNaN(table.change(0)));
+    }
+
+    @Test
+    public void tableUpdate_skipsRowsWhosePubDateHasNotMoved() {
+        RateStatistics stats = new RateStatistics(5);
+        int usd = CurrencyCodes.intern("USD");
+        int eur = CurrencyCodes.intern("EUR");
+
+        ArrayList<CurrencyRate> first = new ArrayList<>();
+        first.add(dated(rate("USD", 1.30), "Thu Aug 28 2025 9:00:00 UTC"));
+        first.add(dated(rate("EUR", 1.15), "Thu Aug 28 2025 9:00:00 UTC"));
+        stats.update(RateTable.fromRates(first));
+
+        // USD republished unchanged, EUR moved on
+        ArrayList<CurrencyRate> second = new ArrayList<>();
+        second.add(dated(rate("USD", 1.31), "Thu Aug 28 2025 9:00:00 UTC"));
+        second.add(dated(rate("EUR", 1.16), "Thu Aug 28 2025 9:05:00 UTC"));
+        double[] changes = stats.update(RateTable.fromRates(second));
+
+        assertEquals(1, stats.sampleCount(usd));
+        assertTrue(Double.isNaN(changes[0]));
+        assertEquals(2, stats.sampleCount(eur));
+        assertEquals(0.01, changes[1], 1e-12);
+    }
+
+    @Test
+    public void updates_doNotAllocateAfterWarmUp() throws Exception {
+        final RateStatistics stats = new RateStatistics(12);
+        final int codes = 170;
+        final int[] ids = new int[codes];
+        for (int i = 0; i < codes; i++) {
+            ids[i] = CurrencyCodes.intern("Z" + (char) ('A' + i / 26) + (char) ('A' + i % 26));
+            stats.update(ids[i], 1.0 + i);
+        }
+
+        MicroBenchmark.Task updates = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                double rate = 1.0;
+                for (int step = 0; step < 5000; step++) {
+                    rate = rate * 1.0001;
+                    for (int id : ids) {
+                        stats.update(id, rate + id);
+                    }
+                }
+            }
+        };
+        updates.run(); // warm-up, lets the JIT settle
+
+        long bytes = MicroBenchmark.allocatedBytes(updates);
+        long nanos = MicroBenchmark.medianNanos(1, 5, updates);
+        MicroBenchmark.report("rolling statistics", "%.1f ns/update, %d bytes allocated for %d updates",
+                nanos / (5000.0 * codes), bytes, 5000 * codes);
+        if (bytes >= 0) {
+            // A few hundred bytes of measuring noise are fine; one object per update is not
+            assertTrue(bytes + " bytes", bytes < 4096);
+        }
+    }
+
+    // -------- helpers --------
+
+    private static double bruteVolatility(ArrayList<Double> history, int window) {
+        int n = history.size();
+        int count = Math.min(n - 1, window);
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double[] returns = new double[count];
+        for (int i = 0; i < count; i++) {
+            int at = n - count + i;
+            returns[i] = history.get(at) / history.get(at - 1) - 1.0;
+        }
+        double mean = 0;
+        for (double r : returns) {
+            mean += r;
+        }
+        mean /= count;
+        double squares = 0;
+        for (double r : returns) {
+            squares += (r - mean) * (r - mean);
+        }
+        return Math.sqrt(squares / (count - 1));
+    }
+
+    private static CurrencyRate dated(CurrencyRate rate, String pubDate) {
+        rate.setPubDate(pubDate);
+        return rate;
+    }
+
+    private static CurrencyRate rate(String code, double value) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setTargetCode(code);
+        rate.setRate(value);
+        return rate;
+    }
+}
@@ -0,0 +1,109 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class RateTableTest {
+
+    @Test
+    public void fromRates_keepsColumnsInFeedOrder() throws Exception {
+        ArrayList<CurrencyRate> parsed;
+        try (InputStream in = FeedFixtures.open(FeedFixtures.GBP_FEED)) {
+            parsed = new RssFeedFetcher(null, null, true).parseFeed(in);
+        }
+
+        RateTable table = RateTable.fromRates(parsed);
+
+        assertEquals(parsed.size(), table.size());
+        for (int row = 0; row < parsed.size(); row++) {
+            CurrencyRate rate = parsed.get(row);
+            assertEquals(rate.getTargetCode(), table.code(row));
+            assertEquals(rate.getCurrencyName(), table.name(row));
+            assertEquals(rate.getRate(), table.rate(row), 0.0);
+            assertEquals(rate.getPubDate(), table.pubDate(row));
+            assertEquals(row, table.rowOf(rate.getTargetCode()));
+        }
+    }
+
+    @Test
+    public void rowsFor_returnsSliceInFeedOrderAndSkipsMissing() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("JPY", 190.1));
+        rates.add(rate("AUD", 2.05));
+        rates.add(rate("USD", 1.35));
+        RateTable table = RateTable.fromRates(rates);
+
+        assertArrayEquals(new int[]{0, 2}, table.rowsFor("USD", "EUR", "jpy"));
+        assertArrayEquals(new int[]{0, 1, 2}, table.allRows());
+        assertEquals(-1, table.rowOf("EUR"));
+        assertEquals(-1, table.rowOf(null));
+    }
+
+    @Test
+    public void unknownCodes_areInternedOnce() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("QQX", 1.0));
+        rates.add(rate(null, 2.0));
+        RateTable table = RateTable.fromRates(rates);
+
+        int id = table.codeId(0);
+        assertEquals(id, CurrencyCodes.intern("qqx"));
+        assertEquals("QQX", CurrencyCodes.code(id));
+        assertEquals(-1, table.codeId(1));
+        assertNull(table.code(1));
+    }
+
+    @Test
+    public void itemIds_areCodeIdsAndUniqueForMissingOrRepeatedCodes() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("USD", 1.35));
+        rates.add(rate(null, 2.0));
+        rates.add(rate("USD", 1.36));
+        rates.add(rate(null, 3.0));
+        RateTable table = RateTable.fromRates(rates);
+
+        assertEquals(table.codeId(0), table.itemId(0));
+        HashSet<Long> ids = new HashSet<>();
+        for (int row = 0; row < table.size(); row++) {
+            assertNotEquals(-1, table.itemId(row));
+            assertTrue(ids.add(table.itemId(row)));
+        }
+    }
+
+    @Test
+    public void rateLabels_areFormattedOnceWhenBuilt() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("USD", 1.345678));
+        rates.add(rate("JPY", 190.1));
+        RateTable table = RateTable.fromRates(rates);
+
+        assertEquals("Rate: 1.3457 per 1 GBP", table.rateLabel(0));
+        assertEquals("Rate: 190.1000 per 1 GBP", table.rateLabel(1));
+        assertSame(table.rateLabel(0), table.rateLabel(0));
+    }
+
+    @Test
+    public void rateLabels_nameEachRowsBaseCurrency() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("USD", 1.08));
+        rates.get(0).setBaseCode("EUR");
+        rates.add(rate("JPY", 190.1));
+        rates.get(1).setBaseCode(null);
+        RateTable table = RateTable.fromRates(rates);
+
+        assertEquals("Rate: 1.0800 per 1 EUR", table.rateLabel(0));
+        assertEquals("Rate: 190.1000", table.rateLabel(1));
+    }
+
+    private static CurrencyRate rate(String code, double value) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setTargetCode(code);
+        rate.setRate(value);
+        return rate;
+    }
+}
@@ -0,0 +1,225 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the in-place scanners with the original split/substring parsing
+ * on the sample feed's text and on awkward hand-written cases, and benchmarks the
+ * time and allocation per item of both.
+ */
+public class RateTextParserTest {
+
+    private static final List<String> EDGE_TITLES = Arrays.asList(
+            "British Pound Sterling(GBP)/Euro(EUR)",
+            "British Pound Sterling(GBP)/  Euro ( EUR )  ",
+            "British Pound Sterling(GBP)/Euro",
+            "British Pound Sterling(GBP)/",
+            "no slash at all (XXX)",
+            "/Leading slash(ABC)",
+            "A/B)c(D",
+            "A/Name (old) (NEW)",
+            "A/B/C(DEF)",
+            "A/ \t ",
+            "A/()");
+
+    private static final List<String> EDGE_DESCRIPTIONS = Arrays.asList(
+            "1 British Pound Sterling = 4.8074 United Arab Emirates Dirham",
+            "1 British Pound Sterling = 199.5 Japanese Yen",
+            "= 1.5 at the start",
+            "1 GBP =4.5 missing space",
+            "1 GBP = -0 negative zero",
+            "1 GBP = +2.25 explicit plus",
+            "1 GBP = 4. trailing point",
+            "1 GBP = .5 leading point",
+            "1 GBP = 1e3 exponent",
+            "1 GBP = 12345678901234567890.123 many digits",
+            "1 GBP = 0.0000000000000001234 tiny",
+            "1 GBP = 4.5\n newline in token",
+            "1 GBP = NaN",
+            "1 GBP = abc",
+            "1 GBP =  4.5 double space",
+            "1 GBP = ",
+            "1 GBP =",
+            "a=b = 7.25 equals inside a word first",
+            "nothing to see here");
+
+    @Test
+    public void titles_matchOriginalParsing() throws Exception {
+        List<String> titles = new ArrayList<>(EDGE_TITLES);
+        for (CurrencyRate rate : corpus()) {
+            titles.add(rate.getRawTitle());
+        }
+
+        for (String title : titles) {
+            CurrencyRate expected = new CurrencyRate();
+            LegacyRateText.parseTitle(expected, title);
+            CurrencyRate actual = new CurrencyRate();
+            RateTextParser.parseTitle(title, actual);
+
+            assertEquals(title, expected.getTargetCode(), actual.getTargetCode());
+            assertEquals(title, expected.getCurrencyName(), actual.getCurrencyName());
+        }
+    }
+
+    @Test
+    public void title_baseCodeComesFromTheFirstBracket() {
+        CurrencyRate rate = new CurrencyRate();
+        assertEquals("GBP", rate.getBaseCode());
+
+        RateTextParser.parseTitle("US Dollar(USD)/Euro(EUR)", rate);
+        assertEquals("USD", rate.getBaseCode());
+        assertEquals("EUR", rate.getTargetCode());
+
+        // No brackets before the slash: the default base is kept
+        CurrencyRate plain = new CurrencyRate();
+        RateTextParser.parseTitle("no base/Euro(EUR)", plain);
+        assertEquals("GBP", plain.getBaseCode());
+    }
+
+    @Test
+    public void descriptions_matchOriginalParsing() throws Exception {
+        List<String> descriptions = new ArrayList<>(EDGE_DESCRIPTIONS);
+        for (CurrencyRate rate : corpus()) {
+            descriptions.add(rate.getRawDescription());
+        }
+
+        for (String description : descriptions) {
+            String expected = outcome(LegacyRateText.parseDescription(description));
+            String actual;
+            int start = RateTextParser.findRateToken(description);
+            if (start == -1) {
+                actual = "absent";
+            } else {
+                try {
+                    actual = outcome(RateTextParser.parseDecimal(description, start,
+                            RateTextParser.tokenEnd(description, start)));
+                } catch (NumberFormatException e) {
+                    actual = "invalid";
+                }
+            }
+            assertEquals(description, expected, actual);
+        }
+    }
+
+    @Test
+    public void benchmark_perItemTimeAndAllocation() throws Exception {
+        MicroBenchmark.assumeEnabled();
+        final ArrayList<CurrencyRate> corpus = corpus();
+        final CurrencyRate sink = new CurrencyRate();
+        final int rounds = 200;
+
+        MicroBenchmark.Task legacy = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (int r = 0; r < rounds; r++) {
+                    for (CurrencyRate item : corpus) {
+                        LegacyRateText.parseTitle(sink, item.getRawTitle());
+                        sink.setRate(Double.parseDouble(
+                                LegacyRateText.parseDescription(item.getRawDescription())));
+                    }
+                }
+            }
+        };
+        MicroBenchmark.Task scanner = new MicroBenchmark.Task() {
+            @Override
+            public void run() {
+                for (int r = 0; r < rounds; r++) {
+                    for (CurrencyRate item : corpus) {
+                        String description = item.getRawDescription();
+                        RateTextParser.parseTitle(item.getRawTitle(), sink);
+                        int start = RateTextParser.findRateToken(description);
+                        sink.setRate(RateTextParser.parseDecimal(description, start,
+                                RateTextParser.tokenEnd(description, start)));
+                    }
+                }
+            }
+        };
+
+        long items = (long) rounds * corpus.size();
+        long legacyNs = MicroBenchmark.medianNanos(10, 15, legacy);
+        long scannerNs = MicroBenchmark.medianNanos(10, 15, scanner);
+        long legacyBytes = MicroBenchmark.allocatedBytes(legacy);
+        long scannerBytes = MicroBenchmark.allocatedBytes(scanner);
+
+        MicroBenchmark.report("split/substring parse", "%.1f ns/item, %d bytes/item",
+                (double) legacyNs / items, legacyBytes / items);
+        MicroBenchmark.report("in-place scanner", "%.1f ns/item, %d bytes/item",
+                (double) scannerNs / items, scannerBytes / items);
+
+        if (legacyBytes >= 0) {
+            assertTrue(scannerBytes < legacyBytes);
+        }
+    }
+
+    // -------- helpers --------
+
+    private static ArrayList<CurrencyRate> corpus() throws Exception {
+        ArrayList<CurrencyRate> all = new ArrayList<>();
+        for (String feed : FeedFixtures.ALL) {
+            try (InputStream in = FeedFixtures.open(feed)) {
+                all.addAll(new RssFeedFetcher(null, null, true).parseFeed(in));
+            }
+        }
+        return all;
+    }
+
+    private static String outcome(String numberPart) {
+        if (numberPart == null) {
+            return "absent";
+        }
+        try {
+            return outcome(Double.parseDouble(numberPart));
+        } catch (NumberFormatException e) {
+            return "invalid";
+        }
+    }
+
+    private static String outcome(double value) {
+        return Long.toHexString(Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * The original parsing code from RssFeedFetcher, kept as the reference.
+     */
+    static final class LegacyRateText {
+
+        static void parseTitle(CurrencyRate rate, String titleText) {
+            int slashIndex = titleText.indexOf('/');
+            if (slashIndex == -1 || slashIndex == titleText.length() - 1) {
+                return;
+            }
+
+            String targetPart = titleText.substring(slashIndex + 1).trim();
+            int openBracket = targetPart.lastIndexOf('(');
+            int closeBracket = targetPart.lastIndexOf(')');
+
+            if (openBracket != -1 && closeBracket != -1 && closeBracket > openBracket) {
+                rate.setTargetCode(targetPart.substring(openBracket + 1, closeBracket).trim());
+                rate.setCurrencyName(targetPart.substring(0, openBracket).trim());
+            } else {
+                rate.setCurrencyName(targetPart);
+            }
+        }
+
+        /**
+         * @return the token after "=", or null when the original code would not
+         * have tried to parse anything
+         */
+        static String parseDescription(String descriptionText) {
+            String[] parts = descriptionText.split(" ");
+            for (int i = 0; i < parts.length; i++) {
+                if ("=".equals(parts[i]) && i + 1 < parts.length) {
+                    return parts[i + 1];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * RefreshScheduler on a fake clock, including a simulated day of hourly
+ * feed updates compared against the old fixed 5-minute timer.
+ */
+public class RefreshSchedulerTest {
+
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY_START = 1756252800000L; // Wed Aug 27 2025 00:00:00 UTC
+
+    @Test
+    public void start_refreshesImmediately_thenDefaultUntilCadenceIsKnown() {
+        Harness h = new Harness();
+        h.scheduler.start();
+        assertEquals(0, h.timer.delay);
+
+        h.runDue();
+        assertEquals(1, h.refreshes);
+        h.scheduler.onFetched(DAY_START);
+        assertEquals(RefreshScheduler.DEFAULT_INTERVAL_MS, h.timer.delay);
+
+        // Unchanged with no cadence yet: keep the default poll
+        h.clock.now += RefreshScheduler.DEFAULT_INTERVAL_MS;
+        h.scheduler.onFetched(DAY_START);
+        assertEquals(RefreshScheduler.DEFAULT_INTERVAL_MS, h.timer.delay);
+    }
+
+    @Test
+    public void newData_waitsForTheNextExpectedUpdate() {
+        Harness h = new Harness();
+        h.scheduler.start();
+        h.scheduler.onFetched(DAY_START);
+        h.clock.now = DAY_START + HOUR + 2 * MINUTE;
+        h.scheduler.onFetched(DAY_START + HOUR);
+
+        assertEquals(HOUR, h.scheduler.getCadence());
+        // Next update expected at 2:00, plus slack, measured from 1:02
+        assertEquals(58 * MINUTE + RefreshScheduler.SLACK_MS, h.timer.delay);
+    }
+
+    @Test
+    public void overdueFeed_pollsMoreOftenButNeverSlowerThanTheOldTimer() {
+        Harness h = new Harness();
+        h.scheduler.start();
+        h.scheduler.onFetched(DAY_START);
+        h.scheduler.onFetched(DAY_START + HOUR);
+        h.clock.now = DAY_START + 2 * HOUR + 5 * MINUTE; // update is late
+
+        long[] expected = {1, 2, 4, 5, 5};
+        for (long minutes : expected) {
+            h.scheduler.onFetched(DAY_START + HOUR);
+            assertEquals(minutes * MINUTE, h.timer.delay);
+        }
+    }
+
+    @Test
+    public void olderPubDate_isTreatedAsUnchanged() {
+        Harness h = new Harness();
+        h.scheduler.start();
+        h.scheduler.onFetched(DAY_START);
+        h.scheduler.onFetched(DAY_START + HOUR);
+        h.clock.now = DAY_START + HOUR + 10 * MINUTE;
+
+        // A stale copy, e.g. from a cache: the 2:00 update is still the one to wait for
+        h.scheduler.onFetched(DAY_START);
+        assertEquals(HOUR, h.scheduler.getCadence());
+        assertEquals(50 * MINUTE + RefreshScheduler.SLACK_MS, h.timer.delay);
+
+        // And the next real update is measured from 1:00, not from the stale date
+        h.clock.now = DAY_START + 2 * HOUR + 2 * MINUTE;
+        h.scheduler.onFetched(DAY_START + 2 * HOUR);
+        assertEquals(HOUR, h.scheduler.getCadence());
+    }
+
+    @Test
+    public void errors_backOffExponentially_andResetOnSuccess() {
+        Harness h = new Harness();
+        h.scheduler.start();
+        long[] expectedSeconds = {30, 60, 120, 240, 480, 960, 1800, 1800};
+        for (long seconds : expectedSeconds) {
+            h.scheduler.onError();
+            assertEquals(seconds * SECOND, h.timer.delay);
+        }
+        h.scheduler.onFetched(DAY_START);
+        h.scheduler.onError();
+        assertEquals(30 * SECOND, h.timer.delay);
+    }
+
+    @Test
+    public void stopped_schedulesNothing_andStartCatchesUp() {
+        Harness h = new Harness();
+        h.scheduler.start();
+        h.scheduler.onFetched(DAY_START);
+        h.scheduler.stop();
+        assertNull(h.timer.task);
+
+        // A fetch finishing while stopped only records when the next is due
+        h.scheduler.onFetched(DAY_START);
+        assertNull(h.timer.task);
+
+        h.clock.now += 2 * MINUTE;
+        h.scheduler.start();
+        assertEquals(RefreshScheduler.DEFAULT_INTERVAL_MS - 2 * MINUTE, h.timer.delay);
+
+        h.scheduler.stop();
+        h.clock.now += HOUR;
+        h.scheduler.start();
+        assertEquals(0, h.timer.delay);
+    }
+
+    @Test
+    public void newestPubDate_parsesEachDistinctDateOnce() {
+        ArrayList<CurrencyRate> rates = new ArrayList<>();
+        rates.add(rate("USD", "Wed Aug 27 2025 2:00:45 UTC"));
+        rates.add(rate("EUR", "Wed Aug 27 2025 2:00:45 UTC"));
+        rates.add(rate("JPY", "Wed Aug 27 2025 3:00:45 UTC"));
+        rates.add(rate("CHF", "garbage"));
+        assertEquals(1756260045000L + HOUR, RefreshScheduler.newestPubDate(RateTable.fromRates(rates)));
+        assertEquals(PubDateParser.INVALID, RefreshScheduler.newestPubDate(RateTable.EMPTY));
+    }
+
+    @Test
+    public void simulatedDay_savesFetchesWithoutLosingFreshness() {
+        // Hourly updates with a few minutes of jitter, one skipped hour and a 20-minute outage
+        Random random = new Random(11);
+        final ArrayList<Long> updates = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            if (hour == 9) {
+                continue;
+            }
+            updates.add(DAY_START + hour * HOUR + 45 * SECOND + (long) (random.nextGaussian() * 2 * MINUTE));
+        }
+        final long outageStart = DAY_START + 14 * HOUR + 50 * MINUTE;
+        final long outageEnd = outageStart + 20 * MINUTE;
+        final long dayEnd = DAY_START + 24 * HOUR;
+
+        // --- Old behaviour: fetch every 5 minutes ---
+        ArrayList<Long> fixedSuccesses = new ArrayList<>();
+        int fixedFetches = 0;
+        for (long t = DAY_START; t < dayEnd; t += 5 * MINUTE) {
+            fixedFetches++;
+            if (t < outageStart || t >= outageEnd) {
+                fixedSuccesses.add(t);
+            }
+        }
+
+        // --- Adaptive scheduler on the same feed ---
+        final Harness h = new Harness();
+        h.clock.now = DAY_START;
+        final ArrayList<Long> adaptiveSuccesses = new ArrayList<>();
+        h.onDue = new Runnable() {
+            @Override
+            public void run() {
+                long now = h.clock.now;
+                if (now >= outageStart && now < outageEnd) {
+                    h.scheduler.onError();
+                    return;
+                }
+                adaptiveSuccesses.add(now);
+                h.scheduler.onFetched(latestUpdate(updates, now));
+            }
+        };
+        h.scheduler.start();
+        while (h.timer.task != null && h.timer.dueAt < dayEnd) {
+            h.runDue();
+        }
+
+        double[] fixedDelay = detectionDelays(updates, fixedSuccesses);
+        double[] adaptiveDelay = detectionDelays(updates, adaptiveSuccesses);
+        MicroBenchmark.report("fixed 5-minute timer", "%d fetches/day, update seen after %.1f min on average (max %.1f)",
+                fixedFetches, fixedDelay[0], fixedDelay[1]);
+        MicroBenchmark.report("adaptive scheduler", "%d fetches/day, update seen after %.1f min on average (max %.1f), %d fetches saved",
+                h.refreshes, adaptiveDelay[0], adaptiveDelay[1], fixedFetches - h.refreshes);
+
+        assertTrue(h.refreshes * 3 < fixedFetches);
+        assertTrue(adaptiveDelay[0] <= fixedDelay[0]);
+        assertTrue(adaptiveDelay[1] <= 15);
+    }
+
+    // -------- helpers --------
+
+    private static long latestUpdate(ArrayList<Long> updates, long now) {
+        long latest = DAY_START - HOUR + 45 * SECOND; // published before the day started
+        for (long update : updates) {
+            if (update <= now) {
+                latest = update;
+            }
+        }
+        return latest;
+    }
+
+    // {mean, max} minutes from each update to the first successful fetch after it
+    private static double[] detectionDelays(ArrayList<Long> updates, ArrayList<Long> fetches) {
+        double total = 0;
+        double max = 0;
+        int counted = 0;
+        for (long update : updates) {
+            for (long fetch : fetches) {
+                if (fetch >= update) {
+                    double minutes = (fetch - update) / (double) MINUTE;
+                    total += minutes;
+                    max = Math.max(max, minutes);
+                    counted++;
+                    break;
+                }
+            }
+        }
+        return new double[]{total / counted, max};
+    }
+
+    private static CurrencyRate rate(String code, String pubDate) {
+        CurrencyRate rate = new CurrencyRate();
+        rate.setTargetCode(code);
+        rate.setPubDate(pubDate);
+        return rate;
+    }
+
+    private static final class FakeClock implements RefreshScheduler.Clock {
+        long now = DAY_START;
+
+        @Override
+        public long now() {
+            return now;
+        }
+    }
+
+    // Holds the single pending task, as a Handler would
+    private static final class FakeTimer implements RefreshScheduler.Timer {
+        final FakeClock clock;
+        Runnable task;
+        long delay = -1;
+        long dueAt;
+
+        FakeTimer(FakeClock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            this.task = task;
+            this.delay = delayMs;
+            this.dueAt = clock.now + delayMs;
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            if (this.task == task) {
+                this.task = null;
+            }
+        }
+    }
+
+    private static final class Harness {
+        final FakeClock clock = new FakeClock();
+        final FakeTimer timer = new FakeTimer(clock);
+        int refreshes;
+        Runnable onDue;
+        final RefreshScheduler scheduler = new RefreshScheduler(clock, timer,
+                new RefreshScheduler.OnRefreshDueListener() {
+                    @Override
+                    public void onRefreshDue() {
+                        refreshes++;
+                        if (onDue != null) {
+                            onDue.run();
+                        }
+                    }
+                });
+
+        // Advances the clock to the pending task and runs it
+        void runDue() {
+            Runnable task = timer.task;
+            clock.now = Math.max(clock.now, timer.dueAt);
+            timer.task = null;
+            task.run();
+        }
+    }
+}
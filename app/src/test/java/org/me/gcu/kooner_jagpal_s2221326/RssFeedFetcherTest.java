@@ -0,0 +1,189 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the streaming parse path against the original buffered path
+ * on the sample feed files.
+ */
+public class RssFeedFetcherTest {
+
+    @Test
+    public void streamingMatchesBuffered_onSampleFeeds() throws Exception {
+        for (String feed : FeedFixtures.ALL) {
+            ArrayList<CurrencyRate> buffered = parseBuffered(feed);
+            ArrayList<CurrencyRate> streamed = parseStreaming(feed, null);
+
+            assertEquals(feed, 158, buffered.size());
+            assertEquals(feed, buffered.size(), streamed.size());
+            for (int i = 0; i < buffered.size(); i++) {
+                assertSameRate(feed + " item " + i, buffered.get(i), streamed.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void streaming_deliversEachItemBeforeTheFeedEnds() throws Exception {
+        byte[] feed = FeedFixtures.bytes(FeedFixtures.GBP_FEED);
+        int firstItemEnd = new String(feed, "UTF-8").indexOf("</item>") + "</item>".length();
+        RateFeedParser[] parsers = {new PullRateFeedParser(), new ScanningRateFeedParser()};
+        for (RateFeedParser parser : parsers) {
+            String label = parser.getClass().getSimpleName();
+            final CountingStream in = new CountingStream(feed);
+            final ArrayList<CurrencyRate> seen = new ArrayList<>();
+            final ArrayList<Long> readAt = new ArrayList<>();
+            RssFeedFetcher.OnRatesParsedListener listener = new RecordingListener() {
+                @Override
+                public void onRateParsed(CurrencyRate rate) {
+                    seen.add(rate);
+                    readAt.add(in.count);
+                }
+            };
+
+            ArrayList<CurrencyRate> all = parser.parse(in, listener);
+
+            assertEquals(label, all.size(), seen.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertSame(label, all.get(i), seen.get(i));
+            }
+            // The first rate arrives once its item is read, give or take a read buffer,
+            // with most of the body still unread
+            assertTrue(label + " first rate after " + readAt.get(0) + " bytes",
+                    readAt.get(0) >= firstItemEnd && readAt.get(0) <= firstItemEnd + 16384);
+            assertTrue(label, readAt.get(0) < feed.length / 2);
+            assertEquals(label, feed.length, in.count);
+        }
+    }
+
+    @Test
+    public void streaming_skipsGarbageAroundTheDocument() throws Exception {
+        String feed = "\u0000junk<>< not a tag\n<?xml version=\"1.0\"?><rss><channel>"
+                + "<item><title>British Pound Sterling(GBP)/Euro(EUR)</title>"
+                + "<description>1 British Pound Sterling = 1.1523 Euro</description></item>"
+                + "</channel></rss>trailing <b>junk</b>";
+
+        RssFeedFetcher fetcher = new RssFeedFetcher(null, null, true);
+        ArrayList<CurrencyRate> rates = fetcher.parseFeed(
+                new ByteArrayInputStream(feed.getBytes("UTF-8")));
+
+        assertEquals(1, rates.size());
+        assertEquals("EUR", rates.get(0).getTargetCode());
+        assertEquals(1.1523, rates.get(0).getRate(), 0.0);
+    }
+
+    @Test
+    public void streaming_skipsTagsInTheLeadingJunk_withOrWithoutAProlog() throws Exception {
+        String junk = "<html><head><title>502 Bad Gateway</title></head><body><b>proxy</b><br/>"
+                + "<rssfeed/><!-- x --></body></html>\n";
+        String document = "<rss version=\"2.0\"><channel>"
+                + "<item><title>British Pound Sterling(GBP)/Euro(EUR)</title>"
+                + "<description>1 British Pound Sterling = 1.1523 Euro</description></item>"
+                + "</channel></rss>";
+        String[] feeds = {junk + "<?xml version=\"1.0\"?>\n" + document, junk + document};
+
+        for (String feed : feeds) {
+            byte[] bytes = feed.getBytes("UTF-8");
+            ArrayList<CurrencyRate> streamed = new RssFeedFetcher(null, null, true)
+                    .parseFeed(new ByteArrayInputStream(bytes));
+            ArrayList<CurrencyRate> buffered = new RssFeedFetcher(null, null, false).parseFeed(
+                    new StringReader(RssFeedFetcher.readWholeFeed(new ByteArrayInputStream(bytes))));
+
+            assertEquals(feed, 1, streamed.size());
+            assertEquals(feed, "EUR", streamed.get(0).getTargetCode());
+            assertEquals(feed, 1, buffered.size());
+            assertSameRate(feed, buffered.get(0), streamed.get(0));
+        }
+    }
+
+    @Test
+    public void boundaryStream_cutsAfterClosingTag_acrossBufferEdges() throws Exception {
+        StringBuilder body = new StringBuilder("garbage");
+        body.append("<?xml version=\"1.0\"?><rss>");
+        while (body.length() < 20000) {
+            body.append("<x>padding</x>");
+        }
+        body.append("</rss>AFTER");
+
+        InputStream in = new FeedBoundaryInputStream(
+                new ByteArrayInputStream(body.toString().getBytes("UTF-8")));
+        StringBuilder out = new StringBuilder();
+        byte[] chunk = new byte[7];   // odd size so matches straddle reads
+        int n;
+        while ((n = in.read(chunk, 0, chunk.length)) != -1) {
+            out.append(new String(chunk, 0, n, "UTF-8"));
+        }
+
+        String expected = body.substring(body.indexOf("<?"), body.indexOf("</rss>") + 6);
+        assertEquals(expected, out.toString());
+    }
+
+    // -------- helpers --------
+
+    private static ArrayList<CurrencyRate> parseBuffered(String feed) throws Exception {
+        RssFeedFetcher fetcher = new RssFeedFetcher(null, null, false);
+        try (InputStream in = FeedFixtures.open(feed)) {
+            return fetcher.parseFeed(new StringReader(RssFeedFetcher.readWholeFeed(in)));
+        }
+    }
+
+    private static ArrayList<CurrencyRate> parseStreaming(String feed,
+            RssFeedFetcher.OnRatesParsedListener listener) throws Exception {
+        RssFeedFetcher fetcher = new RssFeedFetcher(null, listener, true);
+        try (InputStream in = FeedFixtures.open(feed)) {
+            return fetcher.parseFeed(in);
+        }
+    }
+
+    static void assertSameRate(String message, CurrencyRate expected, CurrencyRate actual) {
+        assertEquals(message, expected.getTargetCode(), actual.getTargetCode());
+        assertEquals(message, expected.getCurrencyName(), actual.getCurrencyName());
+        assertEquals(message, expected.getRate(), actual.getRate(), 0.0);
+        assertEquals(message, expected.getPubDate(), actual.getPubDate());
+        assertEquals(message, expected.getRawTitle(), actual.getRawTitle());
+        assertEquals(message, expected.getRawDescription(), actual.getRawDescription());
+    }
+
+    // Counts the bytes handed to the parser so far
+    private static final class CountingStream extends ByteArrayInputStream {
+        long count;
+
+        CountingStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read() {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    private static class RecordingListener implements RssFeedFetcher.OnRatesParsedListener {
+        @Override
+        public void onRatesParsed(ArrayList<CurrencyRate> rates) {
+        }
+
+        @Override
+        public void onError(String message) {
+        }
+    }
+}
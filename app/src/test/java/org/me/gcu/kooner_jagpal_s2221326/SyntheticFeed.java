@@ -0,0 +1,228 @@
+package org.me.gcu.kooner_jagpal_s2221326;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * A GBP rate feed of any length, generated as it is read, one item at a
+ * time, so a million-item feed never exists in memory. The same
+ * arguments always give the same bytes.
+ *
+ * Options add the damage seen (or feared) from the real server: garbage
+ * around the document, unusual whitespace between tags, rates that are
+ * not numbers, and a document cut off partway through its last item.
+ */
+final class SyntheticFeed extends InputStream {
+
+    static final int CLEAN = 0;
+    static final int GARBAGE = 1;           // junk, tags included, before the prolog and after </rss>
+    static final int ODD_WHITESPACE = 2;    // CRLF, tabs, blank lines, spaces inside tags
+    static final int BAD_RATES = 4;         // every BAD_RATE_EVERY-th rate is not a number
+    static final int TRUNCATED = 8;         // ends halfway through the last item
+
+    static final int BAD_RATE_EVERY = 17;
+
+    static final String PUB_DATE = "Thu Aug 28 2025 14:05:09 UTC";
+
+    private static final String[][] CURRENCIES = {
+            {"AED", "United Arab Emirates Dirham"},
+            {"AUD", "Australian Dollar"},
+            {"BRL", "Brazilian Real"},
+            {"CAD", "Canadian Dollar"},
+            {"CHF", "Swiss Franc"},
+            {"CNY", "Chinese Yuan Renminbi"},
+            {"EUR", "Euro"},
+            {"HKD", "Hong Kong Dollar"},
+            {"INR", "Indian Rupee"},
+            {"JPY", "Japanese Yen"},
+            {"KRW", "South Korean Won"},
+            {"MXN", "Mexican Peso"},
+            {"NOK", "Norwegian Krone"},
+            {"NZD", "New Zealand Dollar"},
+            {"PLN", "Polish Zloty"},
+            {"SEK", "Swedish Krona"},
+            {"SGD", "Singapore Dollar"},
+            {"TRY", "Turkish Lira"},
+            {"USD", "US Dollar"},
+            {"ZAR", "South African Rand"},
+    };
+
+    private final int items;
+    private final int options;
+    private final StringBuilder text = new StringBuilder(512);
+
+    private byte[] chunk = new byte[0];
+    private int chunkPos;
+    private int next = -1;      // -1 = header not written yet, items = footer next
+    private boolean done;
+    private long bytesRead;
+
+    SyntheticFeed(int items, int options) {
+        this.items = items;
+        this.options = options;
+    }
+
+    /**
+     * Complete items a parser should return (the truncated one is lost
+     * with the document).
+     */
+    int completeItems() {
+        return has(TRUNCATED) ? items - 1 : items;
+    }
+
+    /**
+     * Complete items whose rate is not a number.
+     */
+    int badRates() {
+        if (!has(BAD_RATES)) {
+            return 0;
+        }
+        int bad = 0;
+        for (int i = 0; i < completeItems(); i++) {
+            if (isBad(i)) {
+                bad++;
+            }
+        }
+        return bad;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    static String code(int item) {
+        return CURRENCIES[item % CURRENCIES.length][0];
+    }
+
+    /**
+     * The rate written for an item, exactly representable with 4 decimals.
+     */
+    static double rate(int item) {
+        return (5000 + item * 7919L % 200000) / 10000.0;
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) {
+            return -1;
+        }
+        bytesRead++;
+        return chunk[chunkPos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, chunk.length - chunkPos);
+        System.arraycopy(chunk, chunkPos, b, off, n);
+        chunkPos += n;
+        bytesRead += n;
+        return n;
+    }
+
+    // -------- helpers --------
+
+    private boolean has(int option) {
+        return (options & option) != 0;
+    }
+
+    private boolean isBad(int item) {
+        return has(BAD_RATES) && item % BAD_RATE_EVERY == BAD_RATE_EVERY - 1;
+    }
+
+    // Generates the next piece of the document once the current one is used up
+    private boolean fill() {
+        while (chunkPos >= chunk.length) {
+            if (done) {
+                return false;
+            }
+            text.setLength(0);
+            if (next < 0) {
+                header();
+            } else if (next < items) {
+                item(next);
+                if (has(TRUNCATED) && next == items - 1) {
+                    text.setLength(text.length() / 2);
+                    done = true;
+                }
+            } else {
+                footer();
+                done = true;
+            }
+            next++;
+            chunk = text.toString().getBytes(StandardCharsets.UTF_8);
+            chunkPos = 0;
+        }
+        return true;
+    }
+
+    private void header() {
+        if (has(GARBAGE)) {
+            text.append("\uFEFFHTTP/1.1 garbage 0x1f;\u0000 & > < <html><body><b>Bad Gateway</b><br/>"
+                    + "<!-- proxy --></body></html>\n");
+        }
+        text.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(newline())
+                .append("<rss version=\"2.0\" xmlns:atom=\"http://www.w3.org/2005/Atom\">").append(newline())
+                .append("<channel>").append(newline())
+                .append("<title>British Pound Sterling(GBP) Currency Exchange Rate Feed</title>")
+                .append(newline())
+                .append("<link>https://www.fx-exchange.com/gbp/</link>").append(newline())
+                .append("<pubDate>").append(PUB_DATE).append("</pubDate>").append(newline())
+                .append("<language>en-gb</language>").append(newline());
+    }
+
+    private void item(int i) {
+        String code = code(i);
+        String name = CURRENCIES[i % CURRENCIES.length][1];
+        boolean odd = has(ODD_WHITESPACE);
+        String indent = odd ? (i % 2 == 0 ? "\t" : "    ") : "";
+
+        text.append(odd ? "<item >" : "<item>").append(newline())
+                .append(indent).append("<title>British Pound Sterling(GBP)/").append(name)
+                .append('(').append(code).append(")</title>").append(newline())
+                .append(indent).append("<link>https://www.fx-exchange.com/gbp/")
+                .append(code.toLowerCase(Locale.ROOT)).append(".html</link>").append(newline())
+                .append(indent).append(odd ? "<pubDate\n>" : "<pubDate>").append(PUB_DATE)
+                .append(odd ? "</pubDate\t>" : "</pubDate>").append(newline())
+                .append(indent).append("<description>1 British Pound Sterling = ");
+        if (isBad(i)) {
+            text.append("N/A");
+        } else {
+            appendRate(rate(i));
+        }
+        text.append(' ').append(name).append("</description>").append(newline())
+                .append(indent).append("<category>Europe</category>").append(newline())
+                .append("</item>").append(newline());
+        if (odd && i % 5 == 0) {
+            text.append(newline()).append(" \t ").append(newline());
+        }
+    }
+
+    private void footer() {
+        text.append("</channel>").append(newline()).append("</rss>");
+        if (has(GARBAGE)) {
+            text.append("\n\u0000\u0000 trailing garbage <rss> </channel>");
+        }
+    }
+
+    // Four decimals without String.format, which would dominate the time to generate the feed
+    private void appendRate(double rate) {
+        long tenThousandths = Math.round(rate * 10000);
+        long fraction = tenThousandths % 10000;
+        text.append(tenThousandths / 10000).append('.');
+        for (long digit = 1000; digit > fraction && digit > 1; digit /= 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+
+    private String newline() {
+        return has(ODD_WHITESPACE) ? "\r\n" : "\n";
+    }
+}